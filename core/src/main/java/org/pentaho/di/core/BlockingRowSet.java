@@ -13,6 +13,8 @@
 
 package org.pentaho.di.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -116,11 +118,28 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
     }
   }
 
+  @Override
+  public int getRows( Object[][] buffer, int offset, int maxRows ) {
+    // drainTo takes the queue lock only once for the whole batch
+    //
+    List<Object[]> rows = new ArrayList<Object[]>( Math.min( maxRows, queArray.size() ) );
+    int count = queArray.drainTo( rows, maxRows );
+    for ( int i = 0; i < count; i++ ) {
+      buffer[ offset + i ] = rows.get( i );
+    }
+    return count;
+  }
+
   @Override
   public int size() {
     return queArray.size();
   }
 
+  @Override
+  public int remainingCapacity() {
+    return queArray.remainingCapacity();
+  }
+
   @Override
   public void clear() {
     queArray.clear();
@@ -932,6 +932,17 @@ public class Const {
    */
   public static final String KETTLE_PLUGIN_PACKAGES = "KETTLE_PLUGIN_PACKAGES";
 
+  /**
+   * Name of the environment variable to specify the file the plugin annotations of the scanned jar files are kept in,
+   * defaults to plugin-scan-index in the Kettle directory
+   */
+  public static final String KETTLE_PLUGIN_SCAN_INDEX_FILE = "KETTLE_PLUGIN_SCAN_INDEX_FILE";
+
+  /**
+   * Set this variable to Y to scan all the plugin jar files at startup instead of using the plugin scan index
+   */
+  public static final String KETTLE_DISABLE_PLUGIN_SCAN_INDEX = "KETTLE_DISABLE_PLUGIN_SCAN_INDEX";
+
   /**
    * Name of the environment variable that contains the size of the transformation rowset size. This overwrites values
    * that you set transformation settings.
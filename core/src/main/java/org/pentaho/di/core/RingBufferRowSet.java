@@ -0,0 +1,299 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A lock-free buffer of rows backed by a ring of slots. A slot is free when it contains null, the consumer clears a
+ * slot after reading it and the producer only writes into free slots. No lock is shared between the producer and the
+ * consumer: a thread that finds the buffer full or empty waits according to its {@link RowSetWaitStrategy}.
+ * <p>
+ * A row set between two step copies always has exactly one producer and one consumer so the single-producer mode is
+ * the default. The multi-producer mode claims slots with a compare-and-set and is meant for buffers that can be
+ * written by several threads, like the ones handed out by a row producer.
+ *
+ * @since 10.3
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+  private final AtomicReferenceArray<Object[]> slots;
+  private final int capacity;
+  private final int mask;
+  private final boolean multiProducer;
+  private final RowSetWaitStrategy waitStrategy;
+
+  private final AtomicLong producerIndex;
+  private final AtomicLong consumerIndex;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new single producer/single consumer ring buffer.
+   *
+   * @param maxSize
+   *          the minimum capacity, rounded up to the next power of two
+   * @param waitStrategy
+   *          the way to wait when the buffer is full or empty
+   */
+  public RingBufferRowSet( int maxSize, RowSetWaitStrategy waitStrategy ) {
+    this( maxSize, waitStrategy, false );
+  }
+
+  /**
+   * Create a new ring buffer.
+   *
+   * @param maxSize
+   *          the minimum capacity, rounded up to the next power of two
+   * @param waitStrategy
+   *          the way to wait when the buffer is full or empty
+   * @param multiProducer
+   *          true if more than one thread can put rows in this row set at the same time
+   */
+  public RingBufferRowSet( int maxSize, RowSetWaitStrategy waitStrategy, boolean multiProducer ) {
+    super();
+
+    capacity = roundToPowerOfTwo( Math.max( maxSize, 2 ) );
+    mask = capacity - 1;
+    slots = new AtomicReferenceArray<>( capacity );
+    this.multiProducer = multiProducer;
+    this.waitStrategy = waitStrategy == null ? RowSetWaitStrategy.PARK : waitStrategy;
+
+    producerIndex = new AtomicLong( 0L );
+    consumerIndex = new AtomicLong( 0L );
+
+    timeoutGet = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  private static int roundToPowerOfTwo( int value ) {
+    int highest = Integer.highestOneBit( value );
+    return highest == value ? value : highest << 1;
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    if ( rowData == null ) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    if ( offer( rowData ) ) {
+      return true;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos( time );
+    int counter = 0;
+    while ( System.nanoTime() - deadline < 0 ) {
+      if ( Thread.currentThread().isInterrupted() ) {
+        return false;
+      }
+      waitStrategy.idle( counter++ );
+      if ( offer( rowData ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean offer( Object[] rowData ) {
+    if ( multiProducer ) {
+      while ( true ) {
+        long index = producerIndex.get();
+        if ( index - consumerIndex.get() >= capacity ) {
+          return false;
+        }
+        if ( producerIndex.compareAndSet( index, index + 1 ) ) {
+          // The slot was released by the consumer before it advanced past it, so it is free to use
+          //
+          slots.lazySet( (int) index & mask, rowData );
+          return true;
+        }
+      }
+    } else {
+      long index = producerIndex.get();
+      int slot = (int) index & mask;
+      if ( slots.get( slot ) != null ) {
+        return false;
+      }
+      slots.lazySet( slot, rowData );
+      producerIndex.lazySet( index + 1 );
+      return true;
+    }
+  }
+
+  @Override
+  public int putRows( RowMetaInterface rowMeta, Object[][] rows, int offset, int nrRows ) {
+    if ( nrRows <= 0 ) {
+      return 0;
+    }
+    this.rowMeta = rowMeta;
+
+    if ( multiProducer ) {
+      // A claimed slot must always be filled, so never claim a slot for a null row
+      //
+      int nonNull = 0;
+      while ( nonNull < nrRows && rows[ offset + nonNull ] != null ) {
+        nonNull++;
+      }
+
+      // Claim a range of slots in one go, then fill them
+      //
+      long index;
+      int count;
+      do {
+        index = producerIndex.get();
+        count = (int) Math.min( nonNull, capacity - ( index - consumerIndex.get() ) );
+        if ( count <= 0 ) {
+          return 0;
+        }
+      } while ( !producerIndex.compareAndSet( index, index + count ) );
+
+      for ( int i = 0; i < count; i++ ) {
+        slots.lazySet( (int) ( index + i ) & mask, rows[ offset + i ] );
+      }
+      return count;
+    } else {
+      // Fill the free slots and publish the new producer position only once
+      //
+      long index = producerIndex.get();
+      int count = 0;
+      while ( count < nrRows && rows[ offset + count ] != null ) {
+        int slot = (int) ( index + count ) & mask;
+        if ( slots.get( slot ) != null ) {
+          break;
+        }
+        slots.lazySet( slot, rows[ offset + count ] );
+        count++;
+      }
+      if ( count > 0 ) {
+        producerIndex.lazySet( index + count );
+      }
+      return count;
+    }
+  }
+
+  @Override
+  public int getRows( Object[][] buffer, int offset, int maxRows ) {
+    long index = consumerIndex.get();
+    int count = 0;
+    while ( count < maxRows ) {
+      int slot = (int) ( index + count ) & mask;
+      Object[] row = slots.get( slot );
+      if ( row == null ) {
+        break;
+      }
+      slots.lazySet( slot, null );
+      buffer[ offset + count++ ] = row;
+    }
+    if ( count > 0 ) {
+      consumerIndex.lazySet( index + count );
+    }
+    return count;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long index = consumerIndex.get();
+    int slot = (int) index & mask;
+    Object[] row = slots.get( slot );
+    if ( row == null ) {
+      // empty, or a producer claimed the slot but didn't publish the row yet
+      return null;
+    }
+    slots.lazySet( slot, null );
+    consumerIndex.lazySet( index + 1 );
+    return row;
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    Object[] row = getRowImmediate();
+    if ( row != null ) {
+      return row;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos( timeout );
+    int counter = 0;
+    while ( System.nanoTime() - deadline < 0 ) {
+      if ( Thread.currentThread().isInterrupted() ) {
+        return null;
+      }
+      waitStrategy.idle( counter++ );
+      row = getRowImmediate();
+      if ( row != null ) {
+        return row;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    // Read the consumer first so that the difference can't go negative
+    //
+    long consumer = consumerIndex.get();
+    long producer = producerIndex.get();
+    return (int) Math.max( 0L, Math.min( producer - consumer, capacity ) );
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return capacity - size();
+  }
+
+  /**
+   * @return the real capacity of this row set, the requested size rounded up to a power of two
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return true if this row set accepts rows from several threads at the same time
+   */
+  public boolean isMultiProducer() {
+    return multiProducer;
+  }
+
+  /**
+   * @return the strategy used to wait when the buffer is full or empty
+   */
+  public RowSetWaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  @Override
+  public void clear() {
+    for ( int i = 0; i < capacity; i++ ) {
+      slots.set( i, null );
+    }
+    consumerIndex.set( producerIndex.get() );
+    done.set( false );
+  }
+}
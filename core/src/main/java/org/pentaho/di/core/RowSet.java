@@ -47,6 +47,58 @@ public interface RowSet {
    */
   boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu );
 
+  /**
+   * Offer a batch of rows to this rowset without waiting. Rows are added in order, starting at the given offset, until
+   * the batch is exhausted or the buffer is full. Implementations can override this to add all the rows with a single
+   * lock acquisition or memory barrier.
+   *
+   * @param rowMeta
+   *          The description of the row data
+   * @param rows
+   *          the rows of data
+   * @param offset
+   *          the index of the first row in the array to add
+   * @param nrRows
+   *          the number of rows to add
+   * @return the number of rows that were added to the rowset, 0 if the buffer was full.
+   */
+  default int putRows( RowMetaInterface rowMeta, Object[][] rows, int offset, int nrRows ) {
+    int count = 0;
+    while ( count < nrRows && putRowWait( rowMeta, rows[ offset + count ], 0, TimeUnit.MILLISECONDS ) ) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Get the rows that are available in the buffer right now, without waiting, in the order they were added.
+   * Implementations can override this to take all the rows with a single lock acquisition or memory barrier.
+   *
+   * @param buffer
+   *          the array to store the rows in
+   * @param offset
+   *          the index in the array of the first row to store
+   * @param maxRows
+   *          the maximum number of rows to take
+   * @return the number of rows stored in the buffer, 0 if no row is available.
+   */
+  default int getRows( Object[][] buffer, int offset, int maxRows ) {
+    int count = 0;
+    Object[] row;
+    while ( count < maxRows && ( row = getRowImmediate() ) != null ) {
+      buffer[ offset + count++ ] = row;
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of rows that can be put in this rowset right now without waiting, {@link Integer#MAX_VALUE}
+   *         if the rowset doesn't know its capacity.
+   */
+  default int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+
   /**
    * Get a row from the input buffer, it blocks for a short period until a new row becomes available. Otherwise, it
    * returns null.
@@ -0,0 +1,129 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Describes how a step waits on a hop when the buffer between two steps is full (producer) or empty (consumer).
+ * <p>
+ * {@link #BLOCKING} keeps the classic lock based {@link BlockingRowSet}. The other strategies select the lock-free
+ * {@link RingBufferRowSet} and differ only in the way an idle thread burns (or gives back) its CPU while waiting:
+ * <ul>
+ * <li>{@link #BUSY_SPIN}: lowest latency, keeps a core busy for every waiting step copy.</li>
+ * <li>{@link #YIELD}: spins briefly, then yields the processor to other runnable threads.</li>
+ * <li>{@link #PARK}: spins, yields and finally parks the thread for a short, increasing period of time.</li>
+ * </ul>
+ *
+ * @since 10.3
+ */
+public enum RowSetWaitStrategy {
+
+  BLOCKING( "Blocking" ),
+
+  BUSY_SPIN( "BusySpin" ),
+
+  YIELD( "Yield" ),
+
+  PARK( "Park" );
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 200;
+  private static final long MIN_PARK_NANOS = 1000L;
+  private static final long MAX_PARK_NANOS = 1000000L;
+
+  private final String code;
+
+  RowSetWaitStrategy( String code ) {
+    this.code = code;
+  }
+
+  /**
+   * @return the code used to store this strategy in the transformation metadata
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Wait a little while before the caller retries its operation on the row set.
+   *
+   * @param counter
+   *          the number of times the caller has already been idle for the current operation, starting at 0
+   */
+  public void idle( int counter ) {
+    switch ( this ) {
+      case BUSY_SPIN:
+        Thread.onSpinWait();
+        break;
+      case YIELD:
+        if ( counter < SPIN_TRIES ) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+        break;
+      case PARK:
+      case BLOCKING:
+      default:
+        if ( counter < SPIN_TRIES ) {
+          Thread.onSpinWait();
+        } else if ( counter < SPIN_TRIES + YIELD_TRIES ) {
+          Thread.yield();
+        } else {
+          // Back off exponentially, but never sleep longer than a millisecond to keep latency predictable
+          //
+          int shift = Math.min( counter - SPIN_TRIES - YIELD_TRIES, 10 );
+          LockSupport.parkNanos( Math.min( MIN_PARK_NANOS << shift, MAX_PARK_NANOS ) );
+        }
+        break;
+    }
+  }
+
+  /**
+   * @return true if this strategy uses the lock-free ring buffer row set
+   */
+  public boolean isLockFree() {
+    return this != BLOCKING;
+  }
+
+  /**
+   * Look up a wait strategy by its code.
+   *
+   * @param code
+   *          the code to look for
+   * @return the matching strategy or {@link #BLOCKING} if the code is empty or unknown
+   */
+  public static RowSetWaitStrategy getWaitStrategyByCode( String code ) {
+    if ( code != null ) {
+      for ( RowSetWaitStrategy strategy : values() ) {
+        if ( strategy.code.equalsIgnoreCase( code ) ) {
+          return strategy;
+        }
+      }
+    }
+    return BLOCKING;
+  }
+
+  /**
+   * @return the codes of all the available strategies
+   */
+  public static String[] getWaitStrategyCodes() {
+    String[] codes = new String[values().length];
+    for ( int i = 0; i < values().length; i++ ) {
+      codes[i] = values()[i].getCode();
+    }
+    return codes;
+  }
+}
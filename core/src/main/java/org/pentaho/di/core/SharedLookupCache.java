@@ -0,0 +1,508 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * This class keeps the rows that lookup steps read from a database between the executions of transformations. In a
+ * server (Carte) the rows simply stay in memory. They are also saved in the Kettle directory, so that the next JVM
+ * that needs the same rows maps the file instead of querying the database again.
+ *
+ * An entry is found by name. It is only handed out as long as its version (the database and the query that read the
+ * rows), the result of its change detection query and its time to live all still hold. The rows of an entry are
+ * shared by every step that uses it: they must not be modified.
+ *
+ * At most {@link #getMaxEntries()} entries are kept in memory, the least recently used ones are dropped first. Only
+ * entries that can go out of date, through a change detection query or a time to live, are saved to disk: the rows
+ * of a file are never handed out without one of the two. The rows are deserialized, so files are only read when they
+ * and the directory belong to the user running this JVM and can't be written by other users.
+ *
+ * @since 10.3
+ */
+public class SharedLookupCache {
+  private static final String FILE_HEADER = "Kettle shared lookup cache";
+  private static final int FILE_FORMAT = 1;
+  private static final String FILE_EXTENSION = ".cache";
+
+  /** The maximum number of entries kept in memory, set with the system property of the same name */
+  public static final String KETTLE_SHARED_LOOKUP_CACHE_MAX_ENTRIES = "KETTLE_SHARED_LOOKUP_CACHE_MAX_ENTRIES";
+  private static final int DEFAULT_MAX_ENTRIES = 100;
+
+  private static SharedLookupCache sharedLookupCache;
+
+  private final Map<String, Entry> entries;
+  private final int maxEntries;
+  private final File directory;
+  private final LogChannelInterface log;
+
+  public static synchronized SharedLookupCache getInstance() {
+    if ( sharedLookupCache == null ) {
+      sharedLookupCache =
+        new SharedLookupCache( new File( Const.getKettleDirectory() + Const.FILE_SEPARATOR + "lookup-cache" ) );
+    }
+    return sharedLookupCache;
+  }
+
+  @VisibleForTesting
+  SharedLookupCache( File directory ) {
+    this( directory,
+      Const.toInt( System.getProperty( KETTLE_SHARED_LOOKUP_CACHE_MAX_ENTRIES ), DEFAULT_MAX_ENTRIES ) );
+  }
+
+  @VisibleForTesting
+  SharedLookupCache( File directory, int maxEntries ) {
+    this.directory = directory;
+    this.maxEntries = Math.max( 1, maxEntries );
+    this.log = new LogChannel( "SharedLookupCache" );
+    // Access ordered, so that the least recently used entry is the eldest
+    this.entries = new LinkedHashMap<String, Entry>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest ) {
+        return size() > SharedLookupCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of entries kept in memory
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Describe where the rows of a query come from: the connection, the database it resolves to with the variables of
+   * the step and the query itself. A connection name alone can point to different databases.
+   *
+   * @param db
+   *          the connected database, with the variables of the step
+   * @param sql
+   *          the query that reads the rows
+   * @return the version to get and put the rows with
+   */
+  public static String getVersion( Database db, String sql ) throws KettleDatabaseException {
+    DatabaseMeta databaseMeta = db.getDatabaseMeta();
+    String location = db.environmentSubstitute( databaseMeta.getURL() ) + Const.CR
+      + db.environmentSubstitute( databaseMeta.getUsername() );
+    try {
+      byte[] hash = MessageDigest.getInstance( "SHA-256" ).digest( location.getBytes( StandardCharsets.UTF_8 ) );
+      StringBuilder version = new StringBuilder( databaseMeta.getName() ).append( Const.CR );
+      for ( byte b : hash ) {
+        version.append( String.format( "%02x", b ) );
+      }
+      return version.append( Const.CR ).append( sql ).toString();
+    } catch ( NoSuchAlgorithmException e ) {
+      throw new KettleDatabaseException( e );
+    }
+  }
+
+  /**
+   * Get the rows of a named entry, from memory or else from disk.
+   *
+   * @param name
+   *          the name of the entry
+   * @param version
+   *          the version the rows need to have, usually the query that reads them
+   * @param changeValue
+   *          the current result of the change detection query or null if there is none
+   * @param timeToLive
+   *          the maximum age of the rows in milliseconds, 0 or less to keep them until they change
+   * @return the entry or null if there is none or if it is out of date
+   */
+  public Entry get( String name, String version, String changeValue, long timeToLive ) {
+    Entry entry;
+    synchronized ( entries ) {
+      entry = entries.get( name );
+    }
+    if ( entry == null && canExpire( changeValue, timeToLive ) ) {
+      entry = readEntry( name );
+      if ( entry != null ) {
+        synchronized ( entries ) {
+          entries.put( name, entry );
+        }
+      }
+    }
+    if ( entry == null || !entry.isValid( version, changeValue, timeToLive ) ) {
+      return null;
+    }
+    return entry;
+  }
+
+  /**
+   * Store the rows of a named entry in memory and on disk, replacing the previous version.
+   *
+   * @param timeToLive
+   *          the maximum age of the rows in milliseconds, 0 or less to keep them until they change
+   * @param rowMeta
+   *          the layout of the rows
+   * @param rows
+   *          the rows to share, they are not copied
+   * @return the new entry
+   */
+  public Entry put( String name, String version, String changeValue, long timeToLive, RowMetaInterface rowMeta,
+                    List<Object[]> rows ) {
+    Entry entry = new Entry( name, version, changeValue, System.currentTimeMillis(), rowMeta.clone(), rows );
+    synchronized ( entries ) {
+      entries.put( name, entry );
+    }
+    if ( canExpire( changeValue, timeToLive ) ) {
+      try {
+        writeEntry( entry );
+      } catch ( KettleFileException e ) {
+        // The rows are still shared in memory
+        log.logError( "Unable to save the shared lookup cache entry [" + name + "]", e );
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Rows that never go out of date would outlive every change of the database on disk, they are only kept in memory.
+   */
+  private static boolean canExpire( String changeValue, long timeToLive ) {
+    return changeValue != null || timeToLive > 0;
+  }
+
+  /**
+   * Remove a named entry from memory and from disk.
+   */
+  public void remove( String name ) {
+    synchronized ( entries ) {
+      entries.remove( name );
+    }
+    File file = getFile( name );
+    if ( file.exists() && !file.delete() ) {
+      log.logError( "Unable to delete shared lookup cache file [" + file + "]" );
+    }
+  }
+
+  /**
+   * @return the names of the entries in memory
+   */
+  public List<String> getNames() {
+    List<String> names;
+    synchronized ( entries ) {
+      names = new ArrayList<>( entries.keySet() );
+    }
+    Collections.sort( names );
+    return names;
+  }
+
+  /**
+   * Run a change detection query: the first value of the first row changes whenever the shared rows do, like the
+   * maximum of a last update column or a row count.
+   *
+   * @return the first value as a string or null if there is no query or no row
+   */
+  public static String getChangeValue( Database db, String sql ) throws KettleDatabaseException {
+    if ( Utils.isEmpty( sql ) ) {
+      return null;
+    }
+    RowMetaAndData row = db.getOneRow( sql );
+    if ( row == null || row.getRowMeta().isEmpty() ) {
+      return null;
+    }
+    try {
+      return row.getRowMeta().getString( row.getData(), 0 );
+    } catch ( Exception e ) {
+      throw new KettleDatabaseException( "Unable to read the result of change detection query [" + sql + "]", e );
+    }
+  }
+
+  @VisibleForTesting
+  File getFile( String name ) {
+    StringBuilder fileName = new StringBuilder();
+    for ( char c : name.toCharArray() ) {
+      fileName.append( Character.isLetterOrDigit( c ) || c == '-' || c == '.' ? c : '_' );
+    }
+    // Names that only differ in the characters replaced above still get files of their own
+    fileName.append( '-' ).append( Integer.toHexString( name.hashCode() ) ).append( FILE_EXTENSION );
+    return new File( directory, fileName.toString() );
+  }
+
+  private void writeEntry( Entry entry ) throws KettleFileException {
+    File file = getFile( entry.getName() );
+    File tempFile = null;
+    try {
+      if ( !directory.isDirectory() ) {
+        Files.createDirectories( directory.toPath(),
+          PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rwx------" ) ) );
+      }
+      if ( !isPrivate( directory.toPath() ) ) {
+        throw new IOException( "The shared lookup cache directory [" + directory + "] is not owned by this user or is "
+          + "writable by other users" );
+      }
+      // Every writer gets a temporary file of its own, in other JVMs too
+      tempFile = Files.createTempFile( directory.toPath(), file.getName(), ".tmp" ).toFile();
+      try ( DataOutputStream dos =
+              new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tempFile ), 65536 ) ) ) {
+        dos.writeUTF( FILE_HEADER );
+        dos.writeInt( FILE_FORMAT );
+        writeString( dos, entry.getName() );
+        writeString( dos, entry.getVersion() );
+        writeString( dos, entry.getChangeValue() );
+        dos.writeLong( entry.getCreated() );
+        entry.getRowMeta().writeMeta( dos );
+        dos.writeInt( entry.getRows().size() );
+        for ( Object[] row : entry.getRows() ) {
+          entry.getRowMeta().writeData( dos, row );
+        }
+      }
+      // Readers in other JVMs never see a half written file
+      try {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE );
+      } catch ( AtomicMoveNotSupportedException e ) {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      }
+      log.logDetailed( "Saved " + entry.getRows().size() + " rows of shared lookup cache entry [" + entry.getName()
+        + "] to file [" + file + "]" );
+    } catch ( Exception e ) {
+      if ( tempFile != null ) {
+        tempFile.delete();
+      }
+      throw new KettleFileException( "Unable to write shared lookup cache file [" + file + "]", e );
+    }
+  }
+
+  private Entry readEntry( String name ) {
+    File file = getFile( name );
+    if ( !file.isFile() ) {
+      return null;
+    }
+    if ( !isPrivate( directory.toPath() ) || !isPrivate( file.toPath() ) ) {
+      log.logError( "Ignoring shared lookup cache file [" + file + "]: it is not owned by this user or it is writable "
+        + "by other users" );
+      return null;
+    }
+    try ( DataInputStream dis = new DataInputStream( openFile( file ) ) ) {
+      if ( !FILE_HEADER.equals( dis.readUTF() ) || dis.readInt() != FILE_FORMAT || !name.equals( readString( dis ) ) ) {
+        return null;
+      }
+      String version = readString( dis );
+      String changeValue = readString( dis );
+      long created = dis.readLong();
+      RowMetaInterface rowMeta = new RowMeta( dis );
+      int nrRows = dis.readInt();
+      List<Object[]> rows = new ArrayList<>( nrRows );
+      for ( int i = 0; i < nrRows; i++ ) {
+        rows.add( rowMeta.readData( dis ) );
+      }
+      log.logDetailed( "Loaded " + nrRows + " rows of shared lookup cache entry [" + name + "] from file [" + file
+        + "]" );
+      return new Entry( name, version, changeValue, created, rowMeta, rows );
+    } catch ( Exception e ) {
+      // An old or damaged file: the rows are simply read from the database again
+      log.logError( "Unable to read shared lookup cache file [" + file + "]", e );
+      return null;
+    }
+  }
+
+  /**
+   * Map the file into memory, so that the rows are read without copying the file through the stream buffers.
+   */
+  private static InputStream openFile( File file ) throws IOException {
+    try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+      if ( channel.size() > Integer.MAX_VALUE ) {
+        return new BufferedInputStream( Files.newInputStream( file.toPath() ), 65536 );
+      }
+      // The mapping stays valid after the channel is closed
+      return new ByteBufferInputStream( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+    }
+  }
+
+  /**
+   * @return true if the path belongs to the user running this JVM and can not be written by the group or by others,
+   *         false if it can or if that is unknown
+   */
+  @VisibleForTesting
+  static boolean isPrivate( Path path ) {
+    try {
+      UserPrincipal currentUser =
+        path.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName( System.getProperty( "user.name" ) );
+      return isPrivate( path, currentUser );
+    } catch ( IOException | UnsupportedOperationException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * @return true if the path belongs to the user and can not be written by the group or by others, false if it can or
+   *         if that is unknown
+   */
+  @VisibleForTesting
+  static boolean isPrivate( Path path, UserPrincipal user ) {
+    try {
+      if ( !Files.getOwner( path ).equals( user ) ) {
+        return false;
+      }
+      Set<PosixFilePermission> permissions = Files.getPosixFilePermissions( path );
+      return !permissions.contains( PosixFilePermission.GROUP_WRITE )
+        && !permissions.contains( PosixFilePermission.OTHERS_WRITE );
+    } catch ( IOException | UnsupportedOperationException e ) {
+      return false;
+    }
+  }
+
+  private static void writeString( DataOutputStream dos, String string ) throws IOException {
+    if ( string == null ) {
+      dos.writeInt( -1 );
+    } else {
+      byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+      dos.writeInt( bytes.length );
+      dos.write( bytes );
+    }
+  }
+
+  private static String readString( DataInputStream dis ) throws IOException {
+    int length = dis.readInt();
+    if ( length < 0 ) {
+      return null;
+    }
+    byte[] bytes = new byte[ length ];
+    dis.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  /**
+   * The shared rows of a name.
+   */
+  public static class Entry {
+    private final String name;
+    private final String version;
+    private final String changeValue;
+    private final long created;
+    private final RowMetaInterface rowMeta;
+    private final List<Object[]> rows;
+
+    Entry( String name, String version, String changeValue, long created, RowMetaInterface rowMeta,
+           List<Object[]> rows ) {
+      this.name = name;
+      this.version = version;
+      this.changeValue = changeValue;
+      this.created = created;
+      this.rowMeta = rowMeta;
+      this.rows = Collections.unmodifiableList( rows );
+    }
+
+    boolean isValid( String version, String changeValue, long timeToLive ) {
+      if ( !Const.NVL( version, "" ).equals( Const.NVL( this.version, "" ) ) ) {
+        return false;
+      }
+      if ( changeValue != null && !changeValue.equals( this.changeValue ) ) {
+        return false;
+      }
+      return timeToLive <= 0 || System.currentTimeMillis() - created < timeToLive;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    public String getChangeValue() {
+      return changeValue;
+    }
+
+    /**
+     * @return the time the rows were read from the database
+     */
+    public long getCreated() {
+      return created;
+    }
+
+    public RowMetaInterface getRowMeta() {
+      return rowMeta;
+    }
+
+    /**
+     * @return the rows, read-only
+     */
+    public List<Object[]> getRows() {
+      return rows;
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream( ByteBuffer buffer ) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read( byte[] bytes, int offset, int length ) {
+      if ( length == 0 ) {
+        return 0;
+      }
+      if ( !buffer.hasRemaining() ) {
+        return -1;
+      }
+      int n = Math.min( length, buffer.remaining() );
+      buffer.get( bytes, offset, n );
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
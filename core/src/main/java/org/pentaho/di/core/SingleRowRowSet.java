@@ -60,6 +60,11 @@ public class SingleRowRowSet extends BaseRowSet implements Comparable<RowSet>, R
     return row == null ? 0 : 1;
   }
 
+  @Override
+  public int remainingCapacity() {
+    return row == null ? 1 : 0;
+  }
+
   @Override
   public void clear() {
     row = null;
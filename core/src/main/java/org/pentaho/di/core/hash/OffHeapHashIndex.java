@@ -0,0 +1,262 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash index of serialized keys and values (see {@link org.pentaho.di.core.row.RowMeta#extractData}) kept outside of
+ * the Java heap, in direct byte buffers.
+ * <p>
+ * Every entry is appended to a data block as one record: the hash code, the key length, the value length, the key
+ * bytes and the value bytes. The index itself is an open addressing table with linear probing that holds the address
+ * of the record and its hash code, so a lookup doesn't create any object until the value is found. Keys are compared
+ * byte by byte: they have to be serialized with the same row metadata and normal storage.
+ * <p>
+ * The memory is released when the index is garbage collected. This class is not thread-safe.
+ *
+ * @since 10.3
+ */
+public class OffHeapHashIndex {
+
+  private static final int STANDARD_INDEX_SIZE = 1024;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+  private static final int STANDARD_BLOCK_SIZE = 64 * 1024 * 1024;
+
+  /** A direct buffer is indexed with an int: the largest index with addresses that still fit in one buffer */
+  private static final int MAX_INDEX_SIZE = 1 << 27;
+
+  /** hash code, key length and value length */
+  private static final int RECORD_HEADER_SIZE = 12;
+
+  private final int blockSize;
+  private final List<ByteBuffer> blocks;
+  private ByteBuffer currentBlock;
+
+  /** The address of the record of every slot plus one, 0 is an empty slot */
+  private ByteBuffer addresses;
+  private ByteBuffer hashCodes;
+  private int capacity;
+  private int size;
+  private int resizeThresHold;
+  private long allocatedBytes;
+
+  public OffHeapHashIndex() {
+    this( STANDARD_INDEX_SIZE, STANDARD_BLOCK_SIZE );
+  }
+
+  /**
+   * @param indexSize
+   *          the initial number of slots in the index, rounded up to a power of 2
+   * @param blockSize
+   *          the size of the data blocks the records are appended to
+   */
+  public OffHeapHashIndex( int indexSize, int blockSize ) {
+    int factor2Size = 1;
+    while ( factor2Size < indexSize ) {
+      factor2Size <<= 1; // Multiply by 2
+    }
+    this.blockSize = blockSize;
+    this.blocks = new ArrayList<>();
+    allocateIndex( factor2Size );
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the number of bytes allocated outside of the heap for the index and the data blocks
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @param key
+   *          the serialized key
+   * @return the serialized value or null if the key is not in the index
+   */
+  public byte[] get( byte[] key ) {
+    int hashCode = generateHashCode( key );
+    int slot = findSlot( key, hashCode );
+    long address = addresses.getLong( slot << 3 );
+    if ( address == 0 ) {
+      return null;
+    }
+    return readValue( address - 1 );
+  }
+
+  /**
+   * Add a value to the index, the value of an existing key is replaced.
+   *
+   * @param key
+   *          the serialized key
+   * @param value
+   *          the serialized value
+   */
+  public void put( byte[] key, byte[] value ) {
+    int hashCode = generateHashCode( key );
+    int slot = findSlot( key, hashCode );
+    long address = addresses.getLong( slot << 3 );
+    if ( address != 0 ) {
+      ByteBuffer block = blocks.get( (int) ( ( address - 1 ) >>> 32 ) );
+      int offset = (int) ( address - 1 );
+      if ( block.getInt( offset + 8 ) == value.length ) {
+        // Same length: overwrite the old value in place
+        //
+        put( block, offset + RECORD_HEADER_SIZE + key.length, value );
+        return;
+      }
+      // The old record can't be re-used, point the slot to a new one
+      //
+      addresses.putLong( slot << 3, appendRecord( hashCode, key, value ) + 1 );
+      return;
+    }
+
+    addresses.putLong( slot << 3, appendRecord( hashCode, key, value ) + 1 );
+    hashCodes.putInt( slot << 2, hashCode );
+    size++;
+    if ( size >= resizeThresHold ) {
+      if ( capacity >= MAX_INDEX_SIZE ) {
+        throw new IllegalStateException( "The off-heap hash index can't hold more than " + size + " entries" );
+      }
+      resize();
+    }
+  }
+
+  /**
+   * Spread the bits of the key over the hash code, the low bits are used to find the slot.
+   */
+  static int generateHashCode( byte[] key ) {
+    int h = 1;
+    for ( byte b : key ) {
+      h = 31 * h + b;
+    }
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * @return the slot of the key or the empty slot where it belongs
+   */
+  private int findSlot( byte[] key, int hashCode ) {
+    int mask = capacity - 1;
+    int slot = hashCode & mask;
+    while ( true ) {
+      long address = addresses.getLong( slot << 3 );
+      if ( address == 0 || hashCodes.getInt( slot << 2 ) == hashCode && equalsKey( address - 1, key ) ) {
+        return slot;
+      }
+      slot = ( slot + 1 ) & mask;
+    }
+  }
+
+  private boolean equalsKey( long address, byte[] key ) {
+    ByteBuffer block = blocks.get( (int) ( address >>> 32 ) );
+    int offset = (int) address;
+    if ( block.getInt( offset + 4 ) != key.length ) {
+      return false;
+    }
+    offset += RECORD_HEADER_SIZE;
+    for ( int i = 0; i < key.length; i++ ) {
+      if ( block.get( offset + i ) != key[i] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte[] readValue( long address ) {
+    ByteBuffer block = blocks.get( (int) ( address >>> 32 ) );
+    int offset = (int) address;
+    int keyLength = block.getInt( offset + 4 );
+    byte[] value = new byte[block.getInt( offset + 8 )];
+    ByteBuffer view = block.duplicate();
+    view.position( offset + RECORD_HEADER_SIZE + keyLength );
+    view.get( value );
+    return value;
+  }
+
+  /**
+   * @return the address of the new record: the number of the block in the high int, the offset in the low int
+   */
+  private long appendRecord( int hashCode, byte[] key, byte[] value ) {
+    int recordSize = RECORD_HEADER_SIZE + key.length + value.length;
+    if ( currentBlock == null || currentBlock.remaining() < recordSize ) {
+      currentBlock = ByteBuffer.allocateDirect( Math.max( blockSize, recordSize ) );
+      blocks.add( currentBlock );
+      allocatedBytes += currentBlock.capacity();
+    }
+    int offset = currentBlock.position();
+    currentBlock.putInt( hashCode );
+    currentBlock.putInt( key.length );
+    currentBlock.putInt( value.length );
+    currentBlock.put( key );
+    currentBlock.put( value );
+    return ( (long) ( blocks.size() - 1 ) << 32 ) | offset;
+  }
+
+  private static void put( ByteBuffer block, int offset, byte[] bytes ) {
+    ByteBuffer view = block.duplicate();
+    view.position( offset );
+    view.put( bytes );
+  }
+
+  private void allocateIndex( int newCapacity ) {
+    if ( addresses != null ) {
+      allocatedBytes -= addresses.capacity() + hashCodes.capacity();
+    }
+    capacity = newCapacity;
+    resizeThresHold = (int) ( newCapacity * STANDARD_LOAD_FACTOR );
+    // A new direct buffer is filled with zeros: all the slots are empty
+    addresses = ByteBuffer.allocateDirect( newCapacity << 3 );
+    hashCodes = ByteBuffer.allocateDirect( newCapacity << 2 );
+    allocatedBytes += addresses.capacity() + hashCodes.capacity();
+  }
+
+  /**
+   * Double the size of the index, the records stay where they are.
+   */
+  private void resize() {
+    ByteBuffer oldAddresses = addresses;
+    ByteBuffer oldHashCodes = hashCodes;
+    int oldCapacity = capacity;
+
+    allocateIndex( capacity << 1 );
+    int mask = capacity - 1;
+    for ( int i = 0; i < oldCapacity; i++ ) {
+      long address = oldAddresses.getLong( i << 3 );
+      if ( address != 0 ) {
+        int hashCode = oldHashCodes.getInt( i << 2 );
+        int slot = hashCode & mask;
+        while ( addresses.getLong( slot << 3 ) != 0 ) {
+          slot = ( slot + 1 ) & mask;
+        }
+        addresses.putLong( slot << 3, address );
+        hashCodes.putInt( slot << 2, hashCode );
+      }
+    }
+  }
+}
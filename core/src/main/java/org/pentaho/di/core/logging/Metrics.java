@@ -84,6 +84,12 @@ public class Metrics implements MetricsInterface {
     MetricsSnapshotType.MIN, "METRIC_DATABASE_GET_ROW_MIN_TIME", "Get row from DB (min time)" );
   public static Metrics METRIC_DATABASE_GET_ROW_MAX_TIME = new Metrics(
     MetricsSnapshotType.MAX, "METRIC_DATABASE_GET_ROW_MAX_TIME", "Get row from DB (max time)" );
+  public static Metrics METRIC_DATABASE_LOOKUP_CACHE_HITS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_HITS", "Database lookup cache hits" );
+  public static Metrics METRIC_DATABASE_LOOKUP_CACHE_MISSES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_MISSES", "Database lookup cache misses" );
+  public static Metrics METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS", "Database lookup cache evictions" );
 
   // Plugin registry...
   //
@@ -13,25 +13,54 @@
 
 package org.pentaho.di.core.plugins;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.util.Utils;
 import org.scannotation.AnnotationDB;
 
 public class JarFileCache {
 
+  private static final String DEFAULT_SCAN_INDEX_FILENAME = "plugin-scan-index";
+
   private static JarFileCache cache;
 
   private final Map<PluginFolderInterface, FileObject[]> folderMap;
 
   private final Map<FileObject, AnnotationDB> annotationMap;
 
+  private final Map<FileObject, Map<String, Set<String>>> annotationIndexMap;
+
+  private PluginScanIndex scanIndex;
+
+  private boolean scanIndexLoaded;
+
+  private final AtomicInteger indexedJarFileCount;
+
+  private final AtomicInteger scannedJarFileCount;
+
   private JarFileCache() {
     annotationMap = new HashMap<>();
+    annotationIndexMap = new ConcurrentHashMap<>();
     folderMap = new HashMap<>();
+    indexedJarFileCount = new AtomicInteger();
+    scannedJarFileCount = new AtomicInteger();
   }
 
   public static JarFileCache getInstance() {
@@ -51,6 +80,144 @@ public class JarFileCache {
     return result;
   }
 
+  /**
+   * Get the class annotations of a jar file: it is only scanned if it isn't in the plugin scan index or has changed
+   * since it was indexed.
+   *
+   * @param fileObject
+   *          the jar file
+   * @return a map of annotation class names to the names of the classes with that annotation
+   */
+  public Map<String, Set<String>> getAnnotationIndex( FileObject fileObject ) throws IOException {
+    Map<String, Set<String>> result = annotationIndexMap.get( fileObject );
+    if ( result == null ) {
+      result = readAnnotationIndex( fileObject );
+      annotationIndexMap.put( fileObject, result );
+    }
+    return result;
+  }
+
+  /**
+   * Get the class annotations of all the given jar files, the ones that have to be scanned are scanned in parallel.
+   * Errors are ignored here, they are thrown again when {@link #getAnnotationIndex(FileObject)} is called for the jar
+   * file.
+   *
+   * @param fileObjects
+   *          the jar files
+   */
+  public void loadAnnotationIndexes( FileObject[] fileObjects ) {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for ( final FileObject fileObject : fileObjects ) {
+      if ( !annotationIndexMap.containsKey( fileObject ) ) {
+        tasks.add( () -> {
+          annotationIndexMap.put( fileObject, readAnnotationIndex( fileObject ) );
+          return null;
+        } );
+      }
+    }
+    if ( tasks.size() < 2 ) {
+      return;
+    }
+
+    // Load the index before the threads use it
+    getScanIndex();
+
+    final AtomicInteger threadNr = new AtomicInteger( 1 );
+    int nrThreads = Math.min( tasks.size(), Runtime.getRuntime().availableProcessors() );
+    ExecutorService executor = Executors.newFixedThreadPool( nrThreads, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( "Plugin scan thread " + threadNr.getAndIncrement() );
+      return thread;
+    } );
+    try {
+      executor.invokeAll( tasks );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Map<String, Set<String>> readAnnotationIndex( FileObject fileObject ) throws IOException {
+    PluginScanIndex index = getScanIndex();
+    String uri = null;
+    long size = 0L;
+    long lastModified = 0L;
+    if ( index != null ) {
+      uri = fileObject.getName().getURI();
+      FileContent content = fileObject.getContent();
+      size = content.getSize();
+      lastModified = content.getLastModifiedTime();
+      Map<String, Set<String>> indexed = index.get( uri, size, lastModified );
+      if ( indexed != null ) {
+        indexedJarFileCount.incrementAndGet();
+        return indexed;
+      }
+    }
+
+    // Plugins are found by their class annotation, skip the rest
+    //
+    AnnotationDB annotationDB = new AnnotationDB();
+    annotationDB.setScanMethodAnnotations( false );
+    annotationDB.setScanParameterAnnotations( false );
+    annotationDB.setScanFieldAnnotations( false );
+    annotationDB.scanArchives( fileObject.getURL() );
+    scannedJarFileCount.incrementAndGet();
+
+    if ( index != null ) {
+      index.put( uri, size, lastModified, annotationDB.getAnnotationIndex() );
+    }
+    return annotationDB.getAnnotationIndex();
+  }
+
+  private synchronized PluginScanIndex getScanIndex() {
+    if ( !scanIndexLoaded ) {
+      scanIndexLoaded = true;
+      if ( !"Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_DISABLE_PLUGIN_SCAN_INDEX ) ) ) {
+        String filename = EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_SCAN_INDEX_FILE );
+        if ( Utils.isEmpty( filename ) ) {
+          filename = Const.getKettleDirectory() + Const.FILE_SEPARATOR + DEFAULT_SCAN_INDEX_FILENAME;
+        }
+        scanIndex = new PluginScanIndex( new File( filename ) );
+        scanIndex.load();
+      }
+    }
+    return scanIndex;
+  }
+
+  /**
+   * Write the plugin scan index to disk if jar files were scanned. A failure is not an error: the jar files are
+   * simply scanned again the next time.
+   */
+  public void saveScanIndex() {
+    if ( scanIndex == null ) {
+      return;
+    }
+    try {
+      scanIndex.save();
+    } catch ( IOException e ) {
+      if ( LogChannel.GENERAL.isDetailed() ) {
+        LogChannel.GENERAL.logDetailed( "Unable to write the plugin scan index to '" + scanIndex.getFile() + "': "
+          + e.getMessage() );
+      }
+    }
+  }
+
+  /**
+   * @return the number of jar files whose annotations were read from the plugin scan index
+   */
+  public int getIndexedJarFileCount() {
+    return indexedJarFileCount.get();
+  }
+
+  /**
+   * @return the number of jar files that were scanned for annotations
+   */
+  public int getScannedJarFileCount() {
+    return scannedJarFileCount.get();
+  }
+
   public FileObject[] getFileObjects( PluginFolderInterface pluginFolderInterface ) throws KettleFileException {
     FileObject[] result = folderMap.get( pluginFolderInterface );
     if ( result == null ) {
@@ -62,6 +229,13 @@ public class JarFileCache {
 
   public void clear() {
     annotationMap.clear();
+    annotationIndexMap.clear();
     folderMap.clear();
+    synchronized ( this ) {
+      scanIndex = null;
+      scanIndexLoaded = false;
+    }
+    indexedJarFileCount.set( 0 );
+    scannedJarFileCount.set( 0 );
   }
 }
@@ -580,6 +580,10 @@ public class PluginRegistry {
      * System.out.println("   - "+duration.toString()+"          Total="+total); }
      */
 
+    // Remember the annotations of the scanned jar files for the next start
+    //
+    JarFileCache.getInstance().saveScanIndex();
+
     // Clear the jar file cache so that we don't waste memory...
     //
     if ( !keepCache ) {
@@ -593,6 +597,9 @@ public class PluginRegistry {
     // Search plugins for this type...
     //
     long startScan = System.currentTimeMillis();
+    JarFileCache jarFileCache = JarFileCache.getInstance();
+    int indexedJarFiles = jarFileCache.getIndexedJarFileCount();
+    int scannedJarFiles = jarFileCache.getScannedJarFileCount();
     pluginType.searchPlugins();
 
     for ( PluginRegistryExtension ext : extensions ) {
@@ -649,7 +656,9 @@ public class PluginRegistry {
     if ( LogChannel.GENERAL.isDetailed() ) {
       LogChannel.GENERAL.logDetailed( "Registered "
           + getPlugins( pluginType.getClass() ).size() + " plugins of type '" + pluginType.getName() + "' in "
-          + ( System.currentTimeMillis() - startScan ) + "ms." );
+          + ( System.currentTimeMillis() - startScan ) + "ms. ("
+          + ( jarFileCache.getIndexedJarFileCount() - indexedJarFiles ) + " jar files read from the plugin scan index, "
+          + ( jarFileCache.getScannedJarFileCount() - scannedJarFiles ) + " scanned)" );
     }
 
   }
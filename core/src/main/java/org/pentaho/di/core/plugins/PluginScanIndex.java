@@ -0,0 +1,211 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The plugin annotations found in jar files, kept on disk between JVM starts so that unchanged jar files don't have to
+ * be scanned again. A jar file is identified by its URI, size and last modification time.
+ *
+ * @since 10.3
+ */
+class PluginScanIndex {
+
+  /** Change this when the file format changes: an index with another version is ignored */
+  private static final int VERSION = 1;
+
+  private final File file;
+
+  private final Map<String, Entry> entries;
+
+  /** The jar files that were looked up or added since the index was loaded */
+  private final Set<String> usedJarFiles;
+
+  private volatile boolean changed;
+
+  private static final class Entry {
+    private final long size;
+    private final long lastModified;
+    private final Map<String, Set<String>> annotationIndex;
+
+    private Entry( long size, long lastModified, Map<String, Set<String>> annotationIndex ) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.annotationIndex = annotationIndex;
+    }
+  }
+
+  /**
+   * Create an empty index, call {@link #load()} to read it from disk.
+   *
+   * @param file
+   *          the file the index is kept in
+   */
+  PluginScanIndex( File file ) {
+    this.file = file;
+    this.entries = new ConcurrentHashMap<>();
+    this.usedJarFiles = ConcurrentHashMap.newKeySet();
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the annotation index (annotation class name to the names of the annotated classes) of the jar file or null
+   *         if the jar file isn't in the index or has changed
+   */
+  Map<String, Set<String>> get( String uri, long size, long lastModified ) {
+    Entry entry = entries.get( uri );
+    if ( entry == null || entry.size != size || entry.lastModified != lastModified ) {
+      return null;
+    }
+    usedJarFiles.add( uri );
+    return entry.annotationIndex;
+  }
+
+  void put( String uri, long size, long lastModified, Map<String, Set<String>> annotationIndex ) {
+    Map<String, Set<String>> copy = new HashMap<>();
+    for ( Map.Entry<String, Set<String>> annotation : annotationIndex.entrySet() ) {
+      copy.put( annotation.getKey(), Collections.unmodifiableSet( new HashSet<>( annotation.getValue() ) ) );
+    }
+    entries.put( uri, new Entry( size, lastModified, Collections.unmodifiableMap( copy ) ) );
+    usedJarFiles.add( uri );
+    changed = true;
+  }
+
+  /**
+   * Read the index from disk. A missing, unreadable or outdated file leaves the index empty: every jar file is simply
+   * scanned again.
+   *
+   * @return true if the index was read
+   */
+  boolean load() {
+    entries.clear();
+    usedJarFiles.clear();
+    changed = false;
+    if ( !file.isFile() ) {
+      return false;
+    }
+    try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+      if ( in.readInt() != VERSION ) {
+        return false;
+      }
+      int nrEntries = in.readInt();
+      Map<String, Entry> loaded = new HashMap<>();
+      for ( int i = 0; i < nrEntries; i++ ) {
+        String uri = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        int nrAnnotations = in.readInt();
+        Map<String, Set<String>> annotationIndex = new HashMap<>();
+        for ( int a = 0; a < nrAnnotations; a++ ) {
+          String annotation = in.readUTF();
+          int nrClasses = in.readInt();
+          Set<String> classNames = new HashSet<>();
+          for ( int c = 0; c < nrClasses; c++ ) {
+            classNames.add( in.readUTF() );
+          }
+          annotationIndex.put( annotation, Collections.unmodifiableSet( classNames ) );
+        }
+        loaded.put( uri, new Entry( size, lastModified, Collections.unmodifiableMap( annotationIndex ) ) );
+      }
+      entries.putAll( loaded );
+      return true;
+    } catch ( IOException | RuntimeException e ) {
+      // A corrupt index is rebuilt
+      return false;
+    }
+  }
+
+  /**
+   * Write the index to disk if jar files were scanned since it was loaded. Jar files that weren't used and no longer
+   * exist are left out. The file is replaced atomically so that concurrent JVM starts never read a partial index.
+   */
+  void save() throws IOException {
+    if ( !changed ) {
+      return;
+    }
+    entries.keySet().removeIf( uri -> !usedJarFiles.contains( uri ) && !exists( uri ) );
+
+    File folder = file.getAbsoluteFile().getParentFile();
+    if ( folder != null && !folder.isDirectory() && !folder.mkdirs() ) {
+      throw new IOException( "Unable to create folder " + folder );
+    }
+    File tempFile = File.createTempFile( file.getName(), ".tmp", folder );
+    try {
+      try ( DataOutputStream out =
+              new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tempFile ) ) ) ) {
+        Map<String, Entry> snapshot = new HashMap<>( entries );
+        out.writeInt( VERSION );
+        out.writeInt( snapshot.size() );
+        for ( Map.Entry<String, Entry> jarFile : snapshot.entrySet() ) {
+          Entry entry = jarFile.getValue();
+          out.writeUTF( jarFile.getKey() );
+          out.writeLong( entry.size );
+          out.writeLong( entry.lastModified );
+          out.writeInt( entry.annotationIndex.size() );
+          for ( Map.Entry<String, Set<String>> annotation : entry.annotationIndex.entrySet() ) {
+            out.writeUTF( annotation.getKey() );
+            out.writeInt( annotation.getValue().size() );
+            for ( String className : annotation.getValue() ) {
+              out.writeUTF( className );
+            }
+          }
+        }
+      }
+      try {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE );
+      } catch ( AtomicMoveNotSupportedException e ) {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      }
+      changed = false;
+    } finally {
+      Files.deleteIfExists( tempFile.toPath() );
+    }
+  }
+
+  private static boolean exists( String uri ) {
+    try {
+      return Files.exists( Paths.get( new URI( uri ) ) );
+    } catch ( Exception e ) {
+      // Not a local file: keep it
+      return true;
+    }
+  }
+}
@@ -0,0 +1,321 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Immutable, thread-safe conversions between strings and integers, numbers and dates for the simplest (and most used)
+ * formats: plain digits and fixed width numeric date masks like yyyy/MM/dd HH:mm:ss.SSS.
+ * <p>
+ * A converter is derived from the {@link DecimalFormat} or {@link SimpleDateFormat} that {@link ValueMetaBase} would
+ * use otherwise. It only handles the values for which it gives exactly the same result as that format, for anything
+ * else it returns null and the caller has to fall back on the (synchronized) format.
+ *
+ * @since 10.3
+ */
+final class FastValueConverter {
+
+  /** Integers with more digits could overflow a long */
+  private static final int MAX_INTEGER_DIGITS = 18;
+
+  /** A DecimalFormat truncates after 19 digits, a double is exact up to 17 */
+  private static final int MAX_NUMBER_DIGITS = 17;
+
+  private static final int MIN_YEAR = 1900;
+  private static final int MAX_YEAR = 9999;
+
+  private FastValueConverter() {
+  }
+
+  /**
+   * Conversions matching a {@link DecimalFormat}.
+   */
+  static final class NumberConverter {
+    static final NumberConverter DISABLED = new NumberConverter( false, false, false );
+
+    private final boolean parseIntegers;
+    private final boolean parseNumbers;
+    private final boolean formatIntegers;
+
+    private NumberConverter( boolean parseIntegers, boolean parseNumbers, boolean formatIntegers ) {
+      this.parseIntegers = parseIntegers;
+      this.parseNumbers = parseNumbers;
+      this.formatIntegers = formatIntegers;
+    }
+
+    /**
+     * @return the integer value of a string of plain digits or null if the string has to be parsed by the format
+     */
+    Long parseInteger( String string ) {
+      if ( !parseIntegers ) {
+        return null;
+      }
+      int start = string.startsWith( "-" ) ? 1 : 0;
+      int digits = string.length() - start;
+      if ( digits == 0 || digits > MAX_INTEGER_DIGITS ) {
+        return null;
+      }
+      long value = 0;
+      for ( int i = start; i < string.length(); i++ ) {
+        char c = string.charAt( i );
+        if ( c < '0' || c > '9' ) {
+          return null;
+        }
+        value = value * 10 + ( c - '0' );
+      }
+      return start == 0 ? value : -value;
+    }
+
+    /**
+     * @return the value of a string of plain digits with an optional decimal point or null if the string has to be
+     *         parsed by the format
+     */
+    Double parseNumber( String string ) {
+      if ( !parseNumbers ) {
+        return null;
+      }
+      int start = string.startsWith( "-" ) ? 1 : 0;
+      int digits = 0;
+      int point = -1;
+      for ( int i = start; i < string.length(); i++ ) {
+        char c = string.charAt( i );
+        if ( c >= '0' && c <= '9' ) {
+          digits++;
+        } else if ( c == '.' && point < 0 ) {
+          point = i;
+        } else {
+          return null;
+        }
+      }
+      if ( digits == 0 || digits > MAX_NUMBER_DIGITS || point == start || point == string.length() - 1 ) {
+        return null;
+      }
+      return Double.parseDouble( string );
+    }
+
+    /**
+     * @return the integer formatted as plain digits or null if it has to be formatted by the format
+     */
+    String formatInteger( long value ) {
+      return formatIntegers ? Long.toString( value ) : null;
+    }
+  }
+
+  /**
+   * @return the conversions that give the same result as the given format
+   */
+  static NumberConverter forDecimalFormat( DecimalFormat format ) {
+    if ( format == null || format.getClass() != DecimalFormat.class ) {
+      return NumberConverter.DISABLED;
+    }
+    DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+    char groupingSeparator = symbols.getGroupingSeparator();
+    boolean plain = format.getMultiplier() == 1
+      && format.getPositivePrefix().isEmpty() && format.getPositiveSuffix().isEmpty()
+      && "-".equals( format.getNegativePrefix() ) && format.getNegativeSuffix().isEmpty()
+      && symbols.getZeroDigit() == '0' && format.toPattern().indexOf( 'E' ) < 0;
+    if ( !plain ) {
+      return NumberConverter.DISABLED;
+    }
+
+    boolean parseNumbers = !format.isParseIntegerOnly()
+      && symbols.getDecimalSeparator() == '.'
+      && groupingSeparator != '.' && groupingSeparator != '-' && ( groupingSeparator < '0' || groupingSeparator > '9' );
+    boolean formatIntegers = format.getMinimumIntegerDigits() == 1
+      && format.getMaximumIntegerDigits() >= 19
+      && format.getMinimumFractionDigits() == 0
+      && !format.isDecimalSeparatorAlwaysShown()
+      && ( !format.isGroupingUsed() || format.getGroupingSize() == 0 );
+
+    return new NumberConverter( true, parseNumbers, formatIntegers );
+  }
+
+  /**
+   * Conversions matching a {@link SimpleDateFormat} with a fixed width, numeric pattern.
+   */
+  static final class DateConverter {
+    static final DateConverter DISABLED = new DateConverter( null, null, null );
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLI = 6;
+
+    private static final int[] WIDTHS = { 4, 2, 2, 2, 2, 2, 3 };
+    private static final int[] DEFAULTS = { 1970, 1, 1, 0, 0, 0, 0 };
+
+    /** The literal characters of the pattern, 0 where a digit goes */
+    private final char[] template;
+
+    /** The position of every field in the pattern, -1 if it's not in the pattern */
+    private final int[] positions;
+
+    private final ZoneId zone;
+
+    private DateConverter( char[] template, int[] positions, ZoneId zone ) {
+      this.template = template;
+      this.positions = positions;
+      this.zone = zone;
+    }
+
+    /**
+     * @return the date or null if the string has to be parsed by the format
+     */
+    Date parse( String string ) {
+      if ( template == null || string.length() != template.length ) {
+        return null;
+      }
+      for ( int i = 0; i < template.length; i++ ) {
+        char c = string.charAt( i );
+        if ( template[i] == 0 ? c < '0' || c > '9' : c != template[i] ) {
+          return null;
+        }
+      }
+      int[] values = new int[WIDTHS.length];
+      for ( int field = 0; field < WIDTHS.length; field++ ) {
+        int position = positions[field];
+        if ( position < 0 ) {
+          values[field] = DEFAULTS[field];
+        } else {
+          for ( int i = position; i < position + WIDTHS[field]; i++ ) {
+            values[field] = values[field] * 10 + ( string.charAt( i ) - '0' );
+          }
+        }
+      }
+      if ( values[YEAR] < MIN_YEAR ) {
+        return null;
+      }
+
+      LocalDateTime localDateTime;
+      try {
+        localDateTime = LocalDateTime.of( values[YEAR], values[MONTH], values[DAY], values[HOUR], values[MINUTE],
+          values[SECOND] );
+      } catch ( DateTimeException e ) {
+        // Out of range: leave the (lenient) interpretation to the format
+        return null;
+      }
+      // A local time in a daylight saving gap or overlap is resolved differently by the calendar
+      List<ZoneOffset> offsets = zone.getRules().getValidOffsets( localDateTime );
+      if ( offsets.size() != 1 ) {
+        return null;
+      }
+      return new Date( localDateTime.toEpochSecond( offsets.get( 0 ) ) * 1000L + values[MILLI] );
+    }
+
+    /**
+     * @return the formatted date or null if it has to be formatted by the format
+     */
+    String format( Date date ) {
+      if ( template == null ) {
+        return null;
+      }
+      long time = date.getTime();
+      LocalDateTime localDateTime = LocalDateTime.ofInstant( Instant.ofEpochMilli( time ), zone );
+      int year = localDateTime.getYear();
+      if ( year < MIN_YEAR || year > MAX_YEAR ) {
+        return null;
+      }
+      int[] values = {
+        year, localDateTime.getMonthValue(), localDateTime.getDayOfMonth(), localDateTime.getHour(),
+        localDateTime.getMinute(), localDateTime.getSecond(), (int) Math.floorMod( time, 1000L ) };
+
+      char[] chars = template.clone();
+      for ( int field = 0; field < WIDTHS.length; field++ ) {
+        int position = positions[field];
+        if ( position >= 0 ) {
+          int value = values[field];
+          for ( int i = position + WIDTHS[field] - 1; i >= position; i-- ) {
+            chars[i] = (char) ( '0' + value % 10 );
+            value /= 10;
+          }
+        }
+      }
+      return new String( chars );
+    }
+  }
+
+  /**
+   * @return the conversions that give the same result as the given format
+   */
+  static DateConverter forDateFormat( SimpleDateFormat format ) {
+    if ( format == null || format.getClass() != SimpleDateFormat.class
+      || format.getCalendar().getClass() != GregorianCalendar.class ) {
+      return DateConverter.DISABLED;
+    }
+    NumberFormat numberFormat = format.getNumberFormat();
+    if ( !( numberFormat instanceof DecimalFormat )
+      || ( (DecimalFormat) numberFormat ).getDecimalFormatSymbols().getZeroDigit() != '0' ) {
+      return DateConverter.DISABLED;
+    }
+
+    ZoneId zone;
+    try {
+      TimeZone timeZone = format.getTimeZone();
+      zone = timeZone.toZoneId();
+      if ( !TimeZone.getTimeZone( zone ).hasSameRules( timeZone ) ) {
+        return DateConverter.DISABLED;
+      }
+    } catch ( DateTimeException e ) {
+      return DateConverter.DISABLED;
+    }
+
+    String pattern = format.toPattern();
+    char[] template = new char[pattern.length()];
+    int[] positions = { -1, -1, -1, -1, -1, -1, -1 };
+    int i = 0;
+    while ( i < pattern.length() ) {
+      char c = pattern.charAt( i );
+      int count = 1;
+      while ( i + count < pattern.length() && pattern.charAt( i + count ) == c ) {
+        count++;
+      }
+      int field = "yMdHmsS".indexOf( c );
+      if ( field >= 0 ) {
+        if ( count != DateConverter.WIDTHS[field] || positions[field] >= 0 ) {
+          return DateConverter.DISABLED;
+        }
+        positions[field] = i;
+      } else if ( Character.isLetter( c ) || c == '\'' ) {
+        // Text fields, other numeric fields and quoted text
+        return DateConverter.DISABLED;
+      } else {
+        for ( int j = i; j < i + count; j++ ) {
+          template[j] = c;
+        }
+      }
+      i += count;
+    }
+    if ( positions[DateConverter.YEAR] < 0 ) {
+      // Without a year the date is in 1970, outside of the supported range
+      return DateConverter.DISABLED;
+    }
+    return new DateConverter( template, positions, zone );
+  }
+}
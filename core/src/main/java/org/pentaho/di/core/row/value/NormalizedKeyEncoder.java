@@ -0,0 +1,252 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.text.RuleBasedCollator;
+import java.util.Arrays;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Encodes the key fields of a row into a normalized key: a byte array that compares, byte by byte and unsigned, in
+ * exactly the same order as {@link RowMetaInterface#compare(Object[], Object[], int[])} on the same fields. The
+ * ascending/descending flag, the null handling, the case-insensitive, ignore whitespace and collator settings of every
+ * field are taken into account when the key is built, so comparing two keys doesn't need any of them.
+ * <p>
+ * Only the data types with a natural ordering that can be expressed in bytes are supported: String, Integer, Number,
+ * Date, Boolean and Binary. Use {@link #isSupported(RowMetaInterface, int[])} before creating an encoder and fall back
+ * to the regular comparison otherwise.
+ * <p>
+ * An encoder re-uses an internal buffer and is not thread-safe.
+ *
+ * @since 10.3
+ */
+public class NormalizedKeyEncoder {
+
+  private static final byte NULL_MARKER = 0x00;
+  private static final byte VALUE_MARKER = 0x01;
+
+  private final ValueMetaBase[] valueMetas;
+  private final int[] fieldNrs;
+
+  private byte[] buffer;
+  private int length;
+
+  /**
+   * @param rowMeta
+   *          the layout of the rows to encode
+   * @param fieldNrs
+   *          the indexes of the key fields, in order of importance
+   * @throws KettleValueException
+   *           if one of the key fields can't be normalized
+   */
+  public NormalizedKeyEncoder( RowMetaInterface rowMeta, int[] fieldNrs ) throws KettleValueException {
+    this.fieldNrs = fieldNrs;
+    this.valueMetas = new ValueMetaBase[ fieldNrs.length ];
+    for ( int i = 0; i < fieldNrs.length; i++ ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( fieldNrs[ i ] );
+      if ( !isSupported( valueMeta ) ) {
+        throw new KettleValueException( valueMeta.toStringMeta() + " : a normalized sort key can't be built for "
+          + valueMeta.getName() );
+      }
+      valueMetas[ i ] = (ValueMetaBase) valueMeta;
+    }
+    this.buffer = new byte[ 64 ];
+  }
+
+  /**
+   * @param rowMeta
+   *          the layout of the rows
+   * @param fieldNrs
+   *          the indexes of the key fields
+   * @return true if a normalized key can be built for the given key fields
+   */
+  public static boolean isSupported( RowMetaInterface rowMeta, int[] fieldNrs ) {
+    for ( int fieldNr : fieldNrs ) {
+      if ( !isSupported( rowMeta.getValueMeta( fieldNr ) ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupported( ValueMetaInterface valueMeta ) {
+    if ( !( valueMeta instanceof ValueMetaBase ) ) {
+      return false;
+    }
+    ValueMetaBase valueMetaBase = (ValueMetaBase) valueMeta;
+    if ( valueMetaBase.comparator != null || overridesCompare( valueMetaBase ) ) {
+      return false;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        return valueMetaBase.collatorDisabled || valueMetaBase.collator instanceof RuleBasedCollator;
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+      case ValueMetaInterface.TYPE_BINARY:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean overridesCompare( ValueMetaBase valueMeta ) {
+    try {
+      return valueMeta.getClass().getMethod( "compare", Object.class, Object.class ).getDeclaringClass()
+        != ValueMetaBase.class;
+    } catch ( NoSuchMethodException e ) {
+      return true;
+    }
+  }
+
+  /**
+   * Build the normalized key of a row.
+   *
+   * @param row
+   *          the row to encode
+   * @return a new byte array with the normalized key
+   * @throws KettleValueException
+   *           in case a key value can't be converted
+   */
+  public byte[] encode( Object[] row ) throws KettleValueException {
+    length = 0;
+    for ( int i = 0; i < valueMetas.length; i++ ) {
+      ValueMetaBase valueMeta = valueMetas[ i ];
+      Object data = row[ fieldNrs[ i ] ];
+      int start = length;
+
+      if ( valueMeta.isNull( data ) ) {
+        writeByte( NULL_MARKER );
+      } else {
+        writeByte( VALUE_MARKER );
+        writeValue( valueMeta, data );
+      }
+
+      // Invert the bytes of a descending field: a larger value (and a null) now sorts first
+      //
+      if ( valueMeta.isSortedDescending() ) {
+        for ( int b = start; b < length; b++ ) {
+          buffer[ b ] = (byte) ~buffer[ b ];
+        }
+      }
+    }
+    return Arrays.copyOf( buffer, length );
+  }
+
+  /**
+   * Compare two normalized keys.
+   *
+   * @return a negative number, zero or a positive number if key1 is smaller than, equal to or larger than key2
+   */
+  public static int compare( byte[] key1, byte[] key2 ) {
+    return Arrays.compareUnsigned( key1, key2 );
+  }
+
+  private void writeValue( ValueMetaBase valueMeta, Object data ) throws KettleValueException {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        String string = valueMeta.getString( data );
+        if ( valueMeta.ignoreWhitespace ) {
+          string = string.trim();
+        }
+        if ( valueMeta.collatorDisabled ) {
+          for ( int i = 0; i < string.length(); i++ ) {
+            char c = string.charAt( i );
+            if ( valueMeta.caseInsensitive ) {
+              // the same folding as String.compareToIgnoreCase()
+              c = Character.toLowerCase( Character.toUpperCase( c ) );
+            }
+            writeEscaped( (byte) ( c >>> 8 ) );
+            writeEscaped( (byte) c );
+          }
+        } else {
+          for ( byte b : valueMeta.collator.getCollationKey( string ).toByteArray() ) {
+            writeEscaped( b );
+          }
+        }
+        writeTerminator();
+        break;
+
+      case ValueMetaInterface.TYPE_INTEGER:
+        writeLong( valueMeta.getInteger( data ) ^ Long.MIN_VALUE );
+        break;
+
+      case ValueMetaInterface.TYPE_NUMBER:
+        // Same order as Double.compare(): -0.0 before 0.0 and NaN after positive infinity
+        long bits = Double.doubleToLongBits( valueMeta.getNumber( data ) );
+        writeLong( bits < 0 ? ~bits : bits ^ Long.MIN_VALUE );
+        break;
+
+      case ValueMetaInterface.TYPE_DATE:
+        writeLong( valueMeta.getDate( data ).getTime() ^ Long.MIN_VALUE );
+        break;
+
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        writeByte( valueMeta.getBoolean( data ) ? (byte) 1 : (byte) 0 );
+        break;
+
+      case ValueMetaInterface.TYPE_BINARY:
+        // Binary values are compared on length first, then on their signed bytes
+        byte[] bytes = (byte[]) data;
+        writeLong( bytes.length );
+        ensureCapacity( bytes.length );
+        for ( byte b : bytes ) {
+          buffer[ length++ ] = (byte) ( b ^ 0x80 );
+        }
+        break;
+
+      default:
+        throw new KettleValueException( valueMeta.toStringMeta() + " : a normalized sort key can't be built for "
+          + valueMeta.getName() );
+    }
+  }
+
+  // A variable length value ends with 0x00 0x00, a real 0x00 byte is written as 0x00 0xFF
+  //
+  private void writeEscaped( byte b ) {
+    if ( b == 0 ) {
+      writeByte( (byte) 0x00 );
+      writeByte( (byte) 0xFF );
+    } else {
+      writeByte( b );
+    }
+  }
+
+  private void writeTerminator() {
+    writeByte( (byte) 0x00 );
+    writeByte( (byte) 0x00 );
+  }
+
+  private void writeLong( long value ) {
+    ensureCapacity( 8 );
+    for ( int shift = 56; shift >= 0; shift -= 8 ) {
+      buffer[ length++ ] = (byte) ( value >>> shift );
+    }
+  }
+
+  private void writeByte( byte b ) {
+    ensureCapacity( 1 );
+    buffer[ length++ ] = b;
+  }
+
+  private void ensureCapacity( int extra ) {
+    if ( length + extra > buffer.length ) {
+      buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, length + extra ) );
+    }
+  }
+}
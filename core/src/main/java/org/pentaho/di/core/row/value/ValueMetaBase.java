@@ -151,6 +151,12 @@ public class ValueMetaBase implements ValueMetaInterface {
   protected DecimalFormat decimalFormat;
   protected boolean decimalFormatChanged;
 
+  /**
+   * The lock-free conversions derived from the date and decimal format above, null when they have to be (re)computed.
+   */
+  private volatile FastValueConverter.DateConverter fastDateConverter;
+  private volatile FastValueConverter.NumberConverter fastNumberConverter;
+
   protected ValueMetaInterface storageMetadata;
   protected boolean identicalFormat;
 
@@ -430,6 +436,8 @@ public class ValueMetaBase implements ValueMetaInterface {
       ValueMetaBase valueMeta = (ValueMetaBase) super.clone();
       valueMeta.dateFormat = null;
       valueMeta.decimalFormat = null;
+      valueMeta.fastDateConverter = null;
+      valueMeta.fastNumberConverter = null;
       if ( dateFormatLocale != null ) {
         valueMeta.dateFormatLocale = (Locale) dateFormatLocale.clone();
       }
@@ -649,6 +657,8 @@ public class ValueMetaBase implements ValueMetaInterface {
     this.conversionMask = conversionMask;
     dateFormatChanged = true;
     decimalFormatChanged = true;
+    fastDateConverter = null;
+    fastNumberConverter = null;
     compareStorageAndActualFormat();
   }
 
@@ -687,6 +697,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setDecimalSymbol( String decimalSymbol ) {
     this.decimalSymbol = decimalSymbol;
     decimalFormatChanged = true;
+    fastNumberConverter = null;
     compareStorageAndActualFormat();
   }
 
@@ -706,6 +717,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setGroupingSymbol( String groupingSymbol ) {
     this.groupingSymbol = groupingSymbol;
     decimalFormatChanged = true;
+    fastNumberConverter = null;
     compareStorageAndActualFormat();
   }
 
@@ -725,6 +737,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setCurrencySymbol( String currencySymbol ) {
     this.currencySymbol = currencySymbol;
     decimalFormatChanged = true;
+    fastNumberConverter = null;
   }
 
   /**
@@ -869,6 +882,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setDateFormatLenient( boolean dateFormatLenient ) {
     this.dateFormatLenient = dateFormatLenient;
     dateFormatChanged = true;
+    fastDateConverter = null;
   }
 
   /**
@@ -887,15 +901,22 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setDateFormatLocale( Locale dateFormatLocale ) {
     this.dateFormatLocale = dateFormatLocale;
     dateFormatChanged = true;
+    fastDateConverter = null;
   }
 
   // DATE + STRING
 
-  protected synchronized String convertDateToString( Date date ) {
+  protected String convertDateToString( Date date ) {
     if ( date == null ) {
       return null;
     }
 
+    FastValueConverter.DateConverter converter = getFastDateConverter( false );
+    String string = converter == null ? null : converter.format( date );
+    return string != null ? string : formatDate( date );
+  }
+
+  private synchronized String formatDate( Date date ) {
     return getDateFormat().format( date );
   }
 
@@ -908,7 +929,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return compatibleDateFormat.format( date );
   }
 
-  protected synchronized Date convertStringToDate( String string ) throws KettleValueException {
+  protected Date convertStringToDate( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -917,6 +938,12 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    FastValueConverter.DateConverter converter = getFastDateConverter( true );
+    Date date = converter == null ? null : converter.parse( string );
+    return date != null ? date : parseDate( string );
+  }
+
+  private synchronized Date parseDate( String string ) throws KettleValueException {
     try {
       ParsePosition pp = new ParsePosition( 0 );
       Date result = getDateFormat( TYPE_DATE ).parse( string, pp );
@@ -1004,7 +1031,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Double.toString( number );
   }
 
-  protected synchronized Double convertStringToNumber( String string ) throws KettleValueException {
+  protected Double convertStringToNumber( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1013,6 +1040,12 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    FastValueConverter.NumberConverter converter = getFastNumberConverter();
+    Double number = converter == null ? null : converter.parseNumber( string );
+    return number != null ? number : parseNumber( string );
+  }
+
+  private synchronized Double parseNumber( String string ) throws KettleValueException {
     try {
       DecimalFormat format = getDecimalFormat( false );
       Number number;
@@ -1036,6 +1069,54 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
   }
 
+  /**
+   * @param parse
+   *          true to parse dates, false to format them
+   * @return the lock-free date conversions or null if the synchronized date format has to be used
+   */
+  private FastValueConverter.DateConverter getFastDateConverter( boolean parse ) {
+    if ( conversionMetadata != null ) {
+      return null;
+    }
+    FastValueConverter.DateConverter converter = fastDateConverter;
+    if ( converter == null ) {
+      converter = createFastDateConverter( parse );
+    }
+    return converter;
+  }
+
+  private synchronized FastValueConverter.DateConverter createFastDateConverter( boolean parse ) {
+    // Derive the conversions from the format the synchronized conversion would create first: parsing and formatting
+    // have to share it.
+    //
+    SimpleDateFormat format = parse ? getDateFormat( TYPE_DATE ) : getDateFormat();
+    SimpleDateFormat otherFormat = parse ? getDateFormat() : getDateFormat( TYPE_DATE );
+    FastValueConverter.DateConverter converter = format == otherFormat
+      ? FastValueConverter.forDateFormat( format ) : FastValueConverter.DateConverter.DISABLED;
+    fastDateConverter = converter;
+    return converter;
+  }
+
+  /**
+   * @return the lock-free integer and number conversions or null if the synchronized decimal format has to be used
+   */
+  private FastValueConverter.NumberConverter getFastNumberConverter() {
+    if ( conversionMetadata != null ) {
+      return null;
+    }
+    FastValueConverter.NumberConverter converter = fastNumberConverter;
+    if ( converter == null ) {
+      converter = createFastNumberConverter();
+    }
+    return converter;
+  }
+
+  private synchronized FastValueConverter.NumberConverter createFastNumberConverter() {
+    FastValueConverter.NumberConverter converter = FastValueConverter.forDecimalFormat( getDecimalFormat( false ) );
+    fastNumberConverter = converter;
+    return converter;
+  }
+
   @Override
   public synchronized SimpleDateFormat getDateFormat() {
     return getDateFormat( getType() );
@@ -1285,7 +1366,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return numberPattern.toString();
   }
 
-  protected synchronized String convertIntegerToString( Long integer ) throws KettleValueException {
+  protected String convertIntegerToString( Long integer ) throws KettleValueException {
     if ( integer == null ) {
       if ( !outputPaddingEnabled || length < 1 ) {
         return null;
@@ -1303,6 +1384,12 @@ public class ValueMetaBase implements ValueMetaInterface {
       }
     }
 
+    FastValueConverter.NumberConverter converter = getFastNumberConverter();
+    String string = converter == null ? null : converter.formatInteger( integer );
+    return string != null ? string : formatInteger( integer );
+  }
+
+  private synchronized String formatInteger( Long integer ) throws KettleValueException {
     try {
       return getDecimalFormat( false ).format( integer );
     } catch ( Exception e ) {
@@ -1317,7 +1404,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Long.toString( integer );
   }
 
-  protected synchronized Long convertStringToInteger( String string ) throws KettleValueException {
+  protected Long convertStringToInteger( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1326,6 +1413,12 @@ public class ValueMetaBase implements ValueMetaInterface {
       return null;
     }
 
+    FastValueConverter.NumberConverter converter = getFastNumberConverter();
+    Long integer = converter == null ? null : converter.parseInteger( string );
+    return integer != null ? integer : parseInteger( string );
+  }
+
+  private synchronized Long parseInteger( String string ) throws KettleValueException {
     try {
       Number number;
       if ( lenientStringToNumber ) {
@@ -4696,6 +4789,7 @@ public class ValueMetaBase implements ValueMetaInterface {
   public void setDateFormatTimeZone( TimeZone dateFormatTimeZone ) {
     this.dateFormatTimeZone = dateFormatTimeZone;
     dateFormatChanged = true;
+    fastDateConverter = null;
   }
 
   @Override
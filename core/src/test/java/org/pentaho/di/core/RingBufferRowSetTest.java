@@ -0,0 +1,146 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferRowSetTest {
+
+  @Test
+  public void testCapacityIsRoundedToPowerOfTwo() {
+    assertEquals( 16, new RingBufferRowSet( 10, RowSetWaitStrategy.PARK ).getCapacity() );
+    assertEquals( 8, new RingBufferRowSet( 8, RowSetWaitStrategy.PARK ).getCapacity() );
+  }
+
+  @Test
+  public void testPutAndGetInOrder() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 4, RowSetWaitStrategy.YIELD );
+    Object[] r1 = new Object[] { 1L };
+    Object[] r2 = new Object[] { 2L };
+
+    assertTrue( rowSet.putRow( new RowMeta(), r1 ) );
+    assertTrue( rowSet.putRow( new RowMeta(), r2 ) );
+    assertEquals( 2, rowSet.size() );
+    assertSame( r1, rowSet.getRowImmediate() );
+    assertSame( r2, rowSet.getRow() );
+    assertNull( rowSet.getRowImmediate() );
+    assertEquals( 0, rowSet.size() );
+  }
+
+  @Test
+  public void testPutWaitTimesOutWhenFull() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 2, RowSetWaitStrategy.PARK );
+    assertTrue( rowSet.putRowWait( new RowMeta(), new Object[] {}, 1, TimeUnit.MILLISECONDS ) );
+    assertTrue( rowSet.putRowWait( new RowMeta(), new Object[] {}, 1, TimeUnit.MILLISECONDS ) );
+    assertFalse( rowSet.putRowWait( new RowMeta(), new Object[] {}, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 2, rowSet.size() );
+  }
+
+  @Test
+  public void testNullRowIsRejected() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 2, RowSetWaitStrategy.BUSY_SPIN );
+    assertFalse( rowSet.putRow( new RowMeta(), null ) );
+    assertEquals( 0, rowSet.size() );
+  }
+
+  @Test
+  public void testClear() {
+    RingBufferRowSet rowSet = new RingBufferRowSet( 4, RowSetWaitStrategy.PARK );
+    rowSet.putRow( new RowMeta(), new Object[] {} );
+    rowSet.setDone();
+    rowSet.clear();
+    assertEquals( 0, rowSet.size() );
+    assertFalse( rowSet.isDone() );
+    assertNull( rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testSingleProducerSingleConsumer() throws Exception {
+    final int nrRows = 100000;
+    final RingBufferRowSet rowSet = new RingBufferRowSet( 64, RowSetWaitStrategy.YIELD );
+
+    Thread producer = new Thread( () -> {
+      for ( long i = 0; i < nrRows; i++ ) {
+        while ( !rowSet.putRow( new RowMeta(), new Object[] { i } ) ) {
+          // retry until there is room
+        }
+      }
+      rowSet.setDone();
+    } );
+    producer.start();
+
+    long expected = 0;
+    Object[] row;
+    while ( ( row = rowSet.getRow() ) != null || !rowSet.isDone() || rowSet.size() > 0 ) {
+      if ( row != null ) {
+        assertEquals( expected++, row[0] );
+      }
+    }
+    producer.join();
+    assertEquals( nrRows, expected );
+  }
+
+  @Test
+  public void testMultiProducer() throws Exception {
+    final int nrProducers = 4;
+    final int nrRows = 20000;
+    final RingBufferRowSet rowSet = new RingBufferRowSet( 32, RowSetWaitStrategy.PARK, true );
+    assertTrue( rowSet.isMultiProducer() );
+
+    List<Thread> producers = new ArrayList<>();
+    for ( int p = 0; p < nrProducers; p++ ) {
+      Thread producer = new Thread( () -> {
+        for ( int i = 0; i < nrRows; i++ ) {
+          while ( !rowSet.putRow( new RowMeta(), new Object[] { 1L } ) ) {
+            // retry until there is room
+          }
+        }
+      } );
+      producers.add( producer );
+      producer.start();
+    }
+
+    long sum = 0;
+    while ( sum < nrProducers * nrRows ) {
+      Object[] row = rowSet.getRow();
+      if ( row != null ) {
+        sum += (Long) row[0];
+      }
+    }
+    for ( Thread producer : producers ) {
+      producer.join();
+    }
+    assertEquals( nrProducers * nrRows, sum );
+    assertNull( rowSet.getRowImmediate() );
+  }
+
+  @Test
+  public void testWaitStrategyByCode() {
+    assertEquals( RowSetWaitStrategy.BUSY_SPIN, RowSetWaitStrategy.getWaitStrategyByCode( "busyspin" ) );
+    assertEquals( RowSetWaitStrategy.BLOCKING, RowSetWaitStrategy.getWaitStrategyByCode( null ) );
+    assertEquals( RowSetWaitStrategy.BLOCKING, RowSetWaitStrategy.getWaitStrategyByCode( "unknown" ) );
+    assertFalse( RowSetWaitStrategy.BLOCKING.isLockFree() );
+    assertTrue( RowSetWaitStrategy.PARK.isLockFree() );
+  }
+}
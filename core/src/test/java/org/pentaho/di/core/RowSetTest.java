@@ -164,6 +164,29 @@ public class RowSetTest {
   /**
    * Names test. Just for completeness.
    */
+  /**
+   * Batches are taken in order and never exceed the room that was asked for.
+   */
+  @Test
+  public void testGetRows() {
+    RowSet set = new BlockingRowSet( 10 );
+    RowMetaInterface rm = createRowMetaInterface();
+    for ( long i = 1; i <= 5; i++ ) {
+      set.putRow( rm, new Object[] { i } );
+    }
+
+    Object[][] buffer = new Object[ 4 ][];
+    assertEquals( 3, set.getRows( buffer, 1, 3 ) );
+    assertEquals( null, buffer[ 0 ] );
+    assertEquals( 1L, buffer[ 1 ][ 0 ] );
+    assertEquals( 3L, buffer[ 3 ][ 0 ] );
+    assertEquals( 2, set.size() );
+
+    assertEquals( 2, set.getRows( buffer, 0, 4 ) );
+    assertEquals( 5L, buffer[ 1 ][ 0 ] );
+    assertEquals( 0, set.getRows( buffer, 0, 4 ) );
+  }
+
   @Test
   public void testNames() {
     RowSet set = new BlockingRowSet( 3 );
@@ -0,0 +1,210 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LoggingObjectType;
+import org.pentaho.di.core.logging.SimpleLoggingObject;
+import org.pentaho.di.core.plugins.DatabasePluginType;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaPluginType;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SharedLookupCacheTest {
+  private File directory;
+  private RowMetaInterface rowMeta;
+  private List<Object[]> rows;
+
+  @BeforeClass
+  public static void setUpClass() throws KettleException {
+    PluginRegistry.addPluginType( ValueMetaPluginType.getInstance() );
+    PluginRegistry.addPluginType( DatabasePluginType.getInstance() );
+    PluginRegistry.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory( "lookup-cache" ).toFile();
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rows = Arrays.asList( new Object[] { 1L, "one" }, new Object[] { 2L, null }, new Object[] { 3L, "three" } );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory( directory );
+  }
+
+  @Test
+  public void sharesRowsInMemory() {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    assertNull( cache.get( "customers", "v1", null, 0 ) );
+
+    SharedLookupCache.Entry entry = cache.put( "customers", "v1", "42", 0, rowMeta, rows );
+    assertTrue( entry == cache.get( "customers", "v1", "42", 0 ) );
+    assertTrue( entry == cache.get( "customers", "v1", null, 0 ) );
+    assertEquals( Arrays.asList( "customers" ), cache.getNames() );
+  }
+
+  @Test
+  public void invalidatesOnVersionChangeAndTimeToLive() throws Exception {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    cache.put( "customers", "v1", "42", 0, rowMeta, rows );
+
+    assertNull( cache.get( "customers", "v2", "42", 0 ) );
+    assertNull( cache.get( "customers", "v1", "43", 0 ) );
+    assertNotNull( cache.get( "customers", "v1", "42", 60000L ) );
+    Thread.sleep( 5 );
+    assertNull( cache.get( "customers", "v1", "42", 1L ) );
+  }
+
+  @Test
+  public void readsRowsSavedByAnotherInstance() {
+    new SharedLookupCache( directory ).put( "customers", "v1", "42", 0, rowMeta, rows );
+
+    SharedLookupCache.Entry entry = new SharedLookupCache( directory ).get( "customers", "v1", "42", 0 );
+    assertNotNull( entry );
+    assertEquals( "42", entry.getChangeValue() );
+    assertEquals( 2, entry.getRowMeta().size() );
+    assertEquals( "name", entry.getRowMeta().getValueMeta( 1 ).getName() );
+    assertEquals( rows.size(), entry.getRows().size() );
+    for ( int i = 0; i < rows.size(); i++ ) {
+      assertArrayEquals( rows.get( i ), entry.getRows().get( i ) );
+    }
+    assertNull( new SharedLookupCache( directory ).get( "customers", "v1", "43", 0 ) );
+  }
+
+  @Test
+  public void removesEntries() {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    cache.put( "customers", "v1", null, 60000L, rowMeta, rows );
+    assertTrue( cache.getFile( "customers" ).exists() );
+
+    cache.remove( "customers" );
+    assertFalse( cache.getFile( "customers" ).exists() );
+    assertNull( cache.get( "customers", "v1", null, 0 ) );
+  }
+
+  @Test
+  public void keepsRowsThatNeverExpireInMemoryOnly() {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    assertNotNull( cache.put( "customers", "v1", null, 0, rowMeta, rows ) );
+    assertNotNull( cache.get( "customers", "v1", null, 0 ) );
+    assertFalse( cache.getFile( "customers" ).exists() );
+
+    // A file saved with a change detection query is not handed out without one
+    new SharedLookupCache( directory ).put( "products", "v1", "42", 0, rowMeta, rows );
+    assertNull( new SharedLookupCache( directory ).get( "products", "v1", null, 0 ) );
+    assertNotNull( new SharedLookupCache( directory ).get( "products", "v1", "42", 0 ) );
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedEntries() {
+    SharedLookupCache cache = new SharedLookupCache( directory, 2 );
+    cache.put( "customers", "v1", null, 0, rowMeta, rows );
+    cache.put( "products", "v1", null, 0, rowMeta, rows );
+    assertNotNull( cache.get( "customers", "v1", null, 0 ) );
+    cache.put( "orders", "v1", null, 0, rowMeta, rows );
+
+    assertEquals( Arrays.asList( "customers", "orders" ), cache.getNames() );
+    assertNull( cache.get( "products", "v1", null, 0 ) );
+  }
+
+  @Test
+  public void leavesNoTemporaryFilesBehind() {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    cache.put( "customers", "v1", "42", 0, rowMeta, rows );
+    cache.put( "customers", "v1", "43", 0, rowMeta, rows );
+    assertEquals( 1, directory.list().length );
+    assertEquals( "43", new SharedLookupCache( directory ).get( "customers", "v1", "43", 0 ).getChangeValue() );
+  }
+
+  @Test
+  public void savesToADirectoryOnlyItsOwnerCanUse() throws Exception {
+    File subDirectory = new File( directory, "lookup-cache" );
+    new SharedLookupCache( subDirectory ).put( "customers", "v1", "42", 0, rowMeta, rows );
+    assertEquals( "rwx------",
+      PosixFilePermissions.toString( Files.getPosixFilePermissions( subDirectory.toPath() ) ) );
+    assertTrue( SharedLookupCache.isPrivate( subDirectory.toPath() ) );
+    assertTrue( SharedLookupCache.isPrivate( new SharedLookupCache( subDirectory ).getFile( "customers" ).toPath() ) );
+  }
+
+  @Test
+  public void ignoresFilesOtherUsersCanWrite() throws Exception {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    cache.put( "customers", "v1", "42", 0, rowMeta, rows );
+    File file = cache.getFile( "customers" );
+    Files.setPosixFilePermissions( file.toPath(), PosixFilePermissions.fromString( "rw-rw-rw-" ) );
+    assertNull( new SharedLookupCache( directory ).get( "customers", "v1", "42", 0 ) );
+
+    Files.setPosixFilePermissions( file.toPath(), PosixFilePermissions.fromString( "rw-------" ) );
+    Files.setPosixFilePermissions( directory.toPath(), PosixFilePermissions.fromString( "rwxrwxrwx" ) );
+    assertNull( new SharedLookupCache( directory ).get( "customers", "v1", "42", 0 ) );
+
+    Files.setPosixFilePermissions( directory.toPath(), PosixFilePermissions.fromString( "rwx------" ) );
+    assertNotNull( new SharedLookupCache( directory ).get( "customers", "v1", "42", 0 ) );
+  }
+
+  @Test
+  public void versionsTellDatabasesOfOneConnectionApart() throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta( "dwh", "H2", "Native", null, "${DB_NAME}", null, "${DB_USER}", null );
+    Variables variables = new Variables();
+    variables.setVariable( "DB_NAME", "dev" );
+    variables.setVariable( "DB_USER", "sa" );
+    Database dev = new Database( new SimpleLoggingObject( "test", LoggingObjectType.GENERAL, null ), databaseMeta );
+    dev.shareVariablesWith( variables );
+    String devVersion = SharedLookupCache.getVersion( dev, "SELECT id FROM customer" );
+
+    variables.setVariable( "DB_NAME", "prod" );
+    assertNotEquals( devVersion, SharedLookupCache.getVersion( dev, "SELECT id FROM customer" ) );
+    variables.setVariable( "DB_NAME", "dev" );
+    assertEquals( devVersion, SharedLookupCache.getVersion( dev, "SELECT id FROM customer" ) );
+    assertNotEquals( devVersion, SharedLookupCache.getVersion( dev, "SELECT name FROM customer" ) );
+    assertTrue( devVersion.startsWith( "dwh" ) );
+    assertFalse( devVersion.contains( "sa" + Const.CR ) );
+  }
+
+  @Test
+  public void namesGetFilesOfTheirOwn() {
+    SharedLookupCache cache = new SharedLookupCache( directory );
+    assertNotEquals( cache.getFile( "dim/customer" ), cache.getFile( "dim customer" ) );
+    assertEquals( directory, cache.getFile( "../../etc/passwd" ).getParentFile() );
+  }
+}
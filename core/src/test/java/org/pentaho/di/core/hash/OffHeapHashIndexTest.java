@@ -0,0 +1,99 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Test class for the basic functionality of OffHeapHashIndex.
+ */
+public class OffHeapHashIndexTest {
+
+  @Test
+  public void testPutAndGet() {
+    OffHeapHashIndex index = new OffHeapHashIndex( 4, 1024 );
+    assertTrue( index.isEmpty() );
+
+    // Enough keys for several resizes and data blocks
+    for ( int i = 0; i < 5000; i++ ) {
+      index.put( bytes( "key" + i ), bytes( "value" + i ) );
+    }
+    assertEquals( 5000, index.getSize() );
+    for ( int i = 0; i < 5000; i++ ) {
+      assertArrayEquals( bytes( "value" + i ), index.get( bytes( "key" + i ) ) );
+    }
+    assertNull( index.get( bytes( "key5000" ) ) );
+    assertTrue( index.getAllocatedBytes() > 0 );
+  }
+
+  @Test
+  public void testReplaceValue() {
+    OffHeapHashIndex index = new OffHeapHashIndex();
+    index.put( bytes( "a" ), bytes( "one" ) );
+    index.put( bytes( "a" ), bytes( "two" ) );
+    assertArrayEquals( bytes( "two" ), index.get( bytes( "a" ) ) );
+
+    // A value of another length doesn't fit in the old record
+    index.put( bytes( "a" ), bytes( "three" ) );
+    assertArrayEquals( bytes( "three" ), index.get( bytes( "a" ) ) );
+    index.put( bytes( "a" ), new byte[0] );
+    assertArrayEquals( new byte[0], index.get( bytes( "a" ) ) );
+    assertEquals( 1, index.getSize() );
+  }
+
+  @Test
+  public void testRecordLargerThanBlock() {
+    OffHeapHashIndex index = new OffHeapHashIndex( 16, 16 );
+    byte[] value = new byte[100];
+    value[99] = 42;
+    index.put( bytes( "small" ), bytes( "x" ) );
+    index.put( bytes( "large" ), value );
+    assertArrayEquals( value, index.get( bytes( "large" ) ) );
+    assertArrayEquals( bytes( "x" ), index.get( bytes( "small" ) ) );
+  }
+
+  @Test
+  public void testSerializedRows() {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    keyMeta.addValueMeta( new ValueMetaString( "code" ) );
+    RowMetaInterface valueMeta = new RowMeta();
+    valueMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    OffHeapHashIndex index = new OffHeapHashIndex();
+    index.put( RowMeta.extractData( keyMeta, new Object[] { 1L, "A" } ),
+      RowMeta.extractData( valueMeta, new Object[] { "first" } ) );
+    index.put( RowMeta.extractData( keyMeta, new Object[] { 1L, null } ),
+      RowMeta.extractData( valueMeta, new Object[] { null } ) );
+
+    byte[] value = index.get( RowMeta.extractData( keyMeta, new Object[] { 1L, "A" } ) );
+    assertArrayEquals( new Object[] { "first" }, RowMeta.getRow( valueMeta, value ) );
+    value = index.get( RowMeta.extractData( keyMeta, new Object[] { 1L, null } ) );
+    assertArrayEquals( new Object[] { null }, RowMeta.getRow( valueMeta, value ) );
+    assertNull( index.get( RowMeta.extractData( keyMeta, new Object[] { 2L, "A" } ) ) );
+  }
+
+  private static byte[] bytes( String string ) {
+    return string.getBytes();
+  }
+}
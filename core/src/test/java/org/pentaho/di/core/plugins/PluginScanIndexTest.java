@@ -0,0 +1,116 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PluginScanIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    File jarFile = temporaryFolder.newFile( "plugin.jar" );
+    String uri = jarFile.toURI().toString();
+    File indexFile = new File( temporaryFolder.getRoot(), "index/plugin-scan-index" );
+
+    PluginScanIndex index = new PluginScanIndex( indexFile );
+    assertFalse( index.load() );
+    assertNull( index.get( uri, 10L, 20L ) );
+    index.put( uri, 10L, 20L, annotationIndex() );
+    index.save();
+    assertTrue( indexFile.isFile() );
+
+    PluginScanIndex loaded = new PluginScanIndex( indexFile );
+    assertTrue( loaded.load() );
+    assertEquals( annotationIndex(), loaded.get( uri, 10L, 20L ) );
+
+    // A jar file that was replaced is scanned again
+    assertNull( loaded.get( uri, 11L, 20L ) );
+    assertNull( loaded.get( uri, 10L, 21L ) );
+  }
+
+  @Test
+  public void testUnchangedIndexIsNotWritten() throws Exception {
+    File indexFile = new File( temporaryFolder.getRoot(), "plugin-scan-index" );
+    PluginScanIndex index = new PluginScanIndex( indexFile );
+    index.save();
+    assertFalse( indexFile.exists() );
+
+    index.put( "file:///plugin.jar", 1L, 2L, annotationIndex() );
+    index.save();
+    long lastModified = indexFile.lastModified();
+    assertTrue( indexFile.setLastModified( lastModified - 10000L ) );
+    index.save();
+    assertEquals( lastModified - 10000L, indexFile.lastModified() );
+  }
+
+  @Test
+  public void testRemovedJarFilesAreDropped() throws Exception {
+    File jarFile = temporaryFolder.newFile( "plugin.jar" );
+    File removedJarFile = temporaryFolder.newFile( "removed.jar" );
+    File indexFile = new File( temporaryFolder.getRoot(), "plugin-scan-index" );
+
+    PluginScanIndex index = new PluginScanIndex( indexFile );
+    index.put( jarFile.toURI().toString(), 1L, 2L, annotationIndex() );
+    index.put( removedJarFile.toURI().toString(), 1L, 2L, annotationIndex() );
+    index.save();
+    assertTrue( removedJarFile.delete() );
+
+    // Only the jar files that are still used or still exist are kept
+    index.load();
+    index.put( "file:///other.jar", 1L, 2L, Collections.<String, Set<String>>emptyMap() );
+    index.save();
+    index.load();
+    assertEquals( 2, index.size() );
+    assertEquals( annotationIndex(), index.get( jarFile.toURI().toString(), 1L, 2L ) );
+    assertNull( index.get( removedJarFile.toURI().toString(), 1L, 2L ) );
+  }
+
+  @Test
+  public void testCorruptIndexIsIgnored() throws Exception {
+    File indexFile = temporaryFolder.newFile( "plugin-scan-index" );
+    Files.write( indexFile.toPath(), new byte[] { 0, 0, 0, 1, 0, 0, 0, 5, 1 } );
+
+    PluginScanIndex index = new PluginScanIndex( indexFile );
+    assertFalse( index.load() );
+    assertEquals( 0, index.size() );
+  }
+
+  private static Map<String, Set<String>> annotationIndex() {
+    Map<String, Set<String>> annotationIndex = new HashMap<>();
+    annotationIndex.put( "org.pentaho.di.core.annotations.Step",
+      new HashSet<>( Arrays.asList( "org.example.FirstStepMeta", "org.example.SecondStepMeta" ) ) );
+    annotationIndex.put( "org.pentaho.di.core.annotations.JobEntry",
+      new HashSet<>( Collections.singletonList( "org.example.JobEntryMeta" ) ) );
+    return annotationIndex;
+  }
+}
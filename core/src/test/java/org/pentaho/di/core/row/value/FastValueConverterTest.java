@@ -0,0 +1,200 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FastValueConverterTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private static final String[] DECIMAL_MASKS = {
+    "####0", "####0;-####0", "####0.0#########", "####0.0#########;-####0.0#########", "#,##0.00", " 000;-000",
+    "0.00%" };
+
+  private static final String[] DATE_MASKS = {
+    "yyyy/MM/dd HH:mm:ss.SSS", "yyyy-MM-dd", "yyyyMMdd", "dd.MM.yyyy HH:mm", "yyyy-MM-dd'T'HH:mm:ss", "MMM dd yyyy" };
+
+  private static final String[] TIME_ZONES = { "UTC", "Europe/Brussels", "America/New_York", "Australia/Lord_Howe" };
+
+  @Test
+  public void testNumberConversionsMatchDecimalFormat() {
+    Random random = new Random( 7 );
+    for ( Locale locale : new Locale[] { Locale.US, Locale.GERMANY, new Locale( "sv", "SE" ) } ) {
+      for ( String mask : DECIMAL_MASKS ) {
+        DecimalFormat format = new DecimalFormat( mask, DecimalFormatSymbols.getInstance( locale ) );
+        FastValueConverter.NumberConverter converter = FastValueConverter.forDecimalFormat( format );
+
+        for ( int i = 0; i < 2000; i++ ) {
+          String string = randomNumber( random );
+          Long integer = converter.parseInteger( string );
+          if ( integer != null ) {
+            assertEquals( string, parse( format, string ).longValue(), integer.longValue() );
+          }
+          Double number = converter.parseNumber( string );
+          if ( number != null ) {
+            assertEquals( string, parse( format, string ).doubleValue(), number, 0.0 );
+          }
+          long value = random.nextBoolean() ? random.nextLong() : random.nextInt( 2000 ) - 1000;
+          String formatted = converter.formatInteger( value );
+          if ( formatted != null ) {
+            assertEquals( format.format( value ), formatted );
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOnlySimpleDecimalFormatsAreConverted() {
+    DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance( Locale.US );
+    FastValueConverter.NumberConverter plain =
+      FastValueConverter.forDecimalFormat( new DecimalFormat( "####0;-####0", symbols ) );
+    assertEquals( Long.valueOf( -42L ), plain.parseInteger( "-42" ) );
+    assertEquals( "-42", plain.formatInteger( -42L ) );
+    assertNull( plain.parseInteger( "+42" ) );
+    assertNull( plain.parseInteger( "1234567890123456789" ) );
+    assertEquals( Double.valueOf( 1.5 ), plain.parseNumber( "1.5" ) );
+    assertNull( plain.parseNumber( "1." ) );
+    assertNull( plain.parseNumber( "1e5" ) );
+
+    FastValueConverter.NumberConverter grouped =
+      FastValueConverter.forDecimalFormat( new DecimalFormat( "#,##0", symbols ) );
+    assertNull( grouped.formatInteger( 1234L ) );
+
+    FastValueConverter.NumberConverter padded =
+      FastValueConverter.forDecimalFormat( new DecimalFormat( " 000;-000", symbols ) );
+    assertSame( FastValueConverter.NumberConverter.DISABLED, padded );
+  }
+
+  @Test
+  public void testDateConversionsMatchSimpleDateFormat() {
+    Random random = new Random( 11 );
+    for ( String timeZone : TIME_ZONES ) {
+      for ( String mask : DATE_MASKS ) {
+        for ( boolean lenient : new boolean[] { true, false } ) {
+          SimpleDateFormat format = new SimpleDateFormat( mask, Locale.US );
+          format.setTimeZone( TimeZone.getTimeZone( timeZone ) );
+          format.setLenient( lenient );
+          FastValueConverter.DateConverter converter = FastValueConverter.forDateFormat( format );
+
+          for ( int i = 0; i < 500; i++ ) {
+            Date date = new Date( (long) ( ( random.nextDouble() * 2 - 0.7 ) * 4e12 ) );
+            String expected = format.format( date );
+            String formatted = converter.format( date );
+            if ( formatted != null ) {
+              assertEquals( expected, formatted );
+            }
+
+            // Change a digit now and then: invalid dates go to the format
+            String string = expected;
+            if ( random.nextInt( 3 ) == 0 ) {
+              char[] chars = string.toCharArray();
+              int position = random.nextInt( chars.length );
+              if ( Character.isDigit( chars[position] ) ) {
+                chars[position] = (char) ( '0' + random.nextInt( 10 ) );
+              }
+              string = new String( chars );
+            }
+            Date parsed = converter.parse( string );
+            if ( parsed != null ) {
+              ParsePosition position = new ParsePosition( 0 );
+              Date reference = format.parse( string, position );
+              assertTrue( string, position.getErrorIndex() < 0 );
+              assertEquals( string, reference, parsed );
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testUnsupportedDates() {
+    SimpleDateFormat format = new SimpleDateFormat( "yyyy-MM-dd HH:mm", Locale.US );
+    format.setTimeZone( TimeZone.getTimeZone( "Europe/Brussels" ) );
+    FastValueConverter.DateConverter converter = FastValueConverter.forDateFormat( format );
+
+    assertEquals( "2024-03-31 01:59", converter.format( converter.parse( "2024-03-31 01:59" ) ) );
+    // Daylight saving gap and overlap
+    assertNull( converter.parse( "2024-03-31 02:30" ) );
+    assertNull( converter.parse( "2024-10-27 02:30" ) );
+    // Rolled over by a lenient format, rejected by a strict one
+    assertNull( converter.parse( "2024-02-30 10:00" ) );
+    assertNull( converter.parse( "2024-2-3 10:00" ) );
+    assertNull( converter.parse( "1850-01-01 10:00" ) );
+
+    assertSame( FastValueConverter.DateConverter.DISABLED,
+      FastValueConverter.forDateFormat( new SimpleDateFormat( "yy-MM-dd", Locale.US ) ) );
+    assertSame( FastValueConverter.DateConverter.DISABLED,
+      FastValueConverter.forDateFormat( new SimpleDateFormat( "yyyy-MM-dd", new Locale( "th", "TH", "TH" ) ) ) );
+  }
+
+  @Test
+  public void testValueMetaConversions() throws KettleValueException {
+    ValueMetaInterface integerMeta = new ValueMetaInteger( "integer" );
+    ValueMetaInterface stringMeta = new ValueMetaString( "string" );
+    assertEquals( "-123", integerMeta.getString( -123L ) );
+    assertEquals( Long.valueOf( 123L ), stringMeta.getInteger( "123" ) );
+    assertEquals( Double.valueOf( 12.5 ), stringMeta.getNumber( "12.5" ) );
+
+    stringMeta.setConversionMask( "yyyy-MM-dd HH:mm:ss" );
+    Date date = stringMeta.getDate( "2024-05-06 07:08:09" );
+    ValueMetaInterface dateMeta = new ValueMetaDate( "date" );
+    dateMeta.setConversionMask( "yyyy-MM-dd HH:mm:ss" );
+    assertEquals( "2024-05-06 07:08:09", dateMeta.getString( date ) );
+
+    // Changing the mask invalidates the conversions
+    dateMeta.setConversionMask( "dd/MM/yyyy" );
+    assertEquals( "06/05/2024", dateMeta.getString( date ) );
+  }
+
+  private static String randomNumber( Random random ) {
+    StringBuilder string = new StringBuilder();
+    if ( random.nextBoolean() ) {
+      string.append( '-' );
+    }
+    int digits = 1 + random.nextInt( 20 );
+    for ( int i = 0; i < digits; i++ ) {
+      string.append( (char) ( '0' + random.nextInt( 10 ) ) );
+    }
+    if ( random.nextInt( 3 ) == 0 ) {
+      string.insert( Math.max( 1, random.nextInt( string.length() ) ), '.' );
+    }
+    return string.toString();
+  }
+
+  private static Number parse( DecimalFormat format, String string ) {
+    ParsePosition position = new ParsePosition( 0 );
+    Number number = format.parse( string, position );
+    assertEquals( string, string.length(), position.getIndex() );
+    return number;
+  }
+}
@@ -0,0 +1,118 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row.value;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizedKeyEncoderTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private static final String[] STRINGS = { null, "", "a", "A", "ab", "b", "B", " a", "a\u0000", "\u00e9", "e", "Z" };
+
+  @Test
+  public void testUnsupportedTypes() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "ts" ) );
+
+    assertTrue( NormalizedKeyEncoder.isSupported( rowMeta, new int[] { 0 } ) );
+    assertFalse( NormalizedKeyEncoder.isSupported( rowMeta, new int[] { 0, 1 } ) );
+    assertFalse( NormalizedKeyEncoder.isSupported( rowMeta, new int[] { 2 } ) );
+  }
+
+  @Test
+  public void testStringOrderMatchesCompare() throws Exception {
+    for ( int variant = 0; variant < 8; variant++ ) {
+      ValueMetaInterface valueMeta = new ValueMetaString( "name" );
+      valueMeta.setSortedDescending( ( variant & 1 ) != 0 );
+      valueMeta.setCaseInsensitive( ( variant & 2 ) != 0 );
+      valueMeta.setCollatorDisabled( ( variant & 4 ) == 0 );
+      RowMetaInterface rowMeta = new RowMeta();
+      rowMeta.addValueMeta( valueMeta );
+
+      Object[][] rows = new Object[ STRINGS.length ][];
+      for ( int i = 0; i < STRINGS.length; i++ ) {
+        rows[ i ] = new Object[] { STRINGS[ i ] };
+      }
+      assertSameOrder( rowMeta, new int[] { 0 }, rows );
+    }
+  }
+
+  @Test
+  public void testRandomRowsOrderMatchesCompare() throws Exception {
+    Random random = new Random( 123 );
+    for ( int variant = 0; variant < 32; variant++ ) {
+      RowMetaInterface rowMeta = new RowMeta();
+      rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+      rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+      rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+      rowMeta.addValueMeta( new ValueMetaBoolean( "boolean" ) );
+      rowMeta.addValueMeta( new ValueMetaBinary( "binary" ) );
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        rowMeta.getValueMeta( i ).setSortedDescending( ( variant & ( 1 << i ) ) != 0 );
+      }
+
+      Object[][] rows = new Object[ 200 ][];
+      for ( int r = 0; r < rows.length; r++ ) {
+        rows[ r ] = new Object[] {
+          random.nextInt( 10 ) == 0 ? null : (long) ( random.nextInt( 7 ) - 3 ) * Long.MAX_VALUE / 3,
+          random.nextInt( 10 ) == 0 ? null : randomDouble( random ),
+          random.nextInt( 10 ) == 0 ? null : new Date( random.nextInt( 5 ) - 2L ),
+          random.nextInt( 10 ) == 0 ? null : random.nextBoolean(),
+          random.nextInt( 10 ) == 0 ? null : randomBytes( random ) };
+      }
+      assertSameOrder( rowMeta, new int[] { 3, 0, 1, 2, 4 }, rows );
+    }
+  }
+
+  private static double randomDouble( Random random ) {
+    double[] specials = { -0.0, 0.0, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1.5, 1.5 };
+    return specials[ random.nextInt( specials.length ) ];
+  }
+
+  private static byte[] randomBytes( Random random ) {
+    byte[] bytes = new byte[ random.nextInt( 3 ) ];
+    for ( int i = 0; i < bytes.length; i++ ) {
+      bytes[ i ] = (byte) ( random.nextInt( 3 ) * 127 - 127 );
+    }
+    return bytes;
+  }
+
+  private static void assertSameOrder( RowMetaInterface rowMeta, int[] fieldNrs, Object[][] rows ) throws Exception {
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder( rowMeta, fieldNrs );
+    byte[][] keys = new byte[ rows.length ][];
+    for ( int i = 0; i < rows.length; i++ ) {
+      keys[ i ] = encoder.encode( rows[ i ] );
+    }
+    for ( int i = 0; i < rows.length; i++ ) {
+      for ( int j = 0; j < rows.length; j++ ) {
+        int expected = Integer.signum( rowMeta.compare( rows[ i ], rows[ j ], fieldNrs ) );
+        int actual = Integer.signum( NormalizedKeyEncoder.compare( keys[ i ], keys[ j ] ) );
+        assertEquals( rowMeta.getString( rows[ i ] ) + " <> " + rowMeta.getString( rows[ j ] ), expected, actual );
+      }
+    }
+  }
+}
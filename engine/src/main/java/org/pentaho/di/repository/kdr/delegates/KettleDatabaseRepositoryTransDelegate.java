@@ -26,6 +26,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.NotePadMeta;
 import org.pentaho.di.core.ProgressMonitorListener;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -798,6 +799,8 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
             transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_LOG_INTERVAL ) );
         transMeta.setTransformationType( TransformationType.getTransformationTypeByCode( getTransAttributeString(
           transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_TRANSFORMATION_TYPE ) ) );
+        transMeta.setRowSetWaitStrategy( RowSetWaitStrategy.getWaitStrategyByCode( getTransAttributeString(
+          transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_ROWSET_WAIT_STRATEGY ) ) );
         transMeta.setSleepTimeEmpty( (int) getTransAttributeInteger(
           transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_SLEEP_TIME_EMPTY ) );
         transMeta.setSleepTimeFull( (int) getTransAttributeInteger(
@@ -1372,6 +1375,9 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
     repository.connectionDelegate.insertTransAttribute(
       transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_TRANSFORMATION_TYPE, 0, transMeta
         .getTransformationType().getCode() );
+    repository.connectionDelegate.insertTransAttribute(
+      transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_ROWSET_WAIT_STRATEGY, 0, transMeta
+        .getRowSetWaitStrategy().getCode() );
 
     repository.connectionDelegate.insertTransAttribute(
       transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_SLEEP_TIME_EMPTY, transMeta
@@ -0,0 +1,121 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.lang.reflect.Method;
+
+/**
+ * Describes how the step copies of a normal (multi-threaded) transformation are run.
+ * <ul>
+ * <li>{@link #THREAD_PER_STEP}: every step copy runs in a thread of its own (the classic behavior).</li>
+ * <li>{@link #WORKER_POOL}: the step copies are cooperative tasks scheduled on a small pool of threads shared by all
+ * the steps of the transformation, see {@link StepWorkerPool}.</li>
+ * <li>{@link #VIRTUAL_THREADS}: every step copy runs in a virtual thread of its own when the Java runtime supports
+ * them, in a regular thread otherwise.</li>
+ * </ul>
+ *
+ * @since 10.3
+ */
+public enum StepExecutionMode {
+
+  THREAD_PER_STEP( "ThreadPerStep" ),
+
+  WORKER_POOL( "WorkerPool" ),
+
+  VIRTUAL_THREADS( "VirtualThreads" );
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_UNSTARTED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method unstarted = null;
+    try {
+      // Virtual threads are only available from Java 21 onwards
+      //
+      Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+      ofVirtual = Thread.class.getMethod( "ofVirtual" );
+      name = builderClass.getMethod( "name", String.class );
+      unstarted = builderClass.getMethod( "unstarted", Runnable.class );
+    } catch ( Exception e ) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = name;
+    BUILDER_UNSTARTED = unstarted;
+  }
+
+  private final String code;
+
+  StepExecutionMode( String code ) {
+    this.code = code;
+  }
+
+  /**
+   * @return the code used to store this mode in an execution configuration
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Creates (but doesn't start) a thread to run a step copy in its entirety.
+   *
+   * @param runnable
+   *          the code to run
+   * @param name
+   *          the name of the thread
+   * @return a virtual thread in {@link #VIRTUAL_THREADS} mode if the runtime supports it, a regular thread otherwise
+   */
+  public Thread newThread( Runnable runnable, String name ) {
+    if ( this == VIRTUAL_THREADS && isVirtualThreadsAvailable() ) {
+      try {
+        Object builder = BUILDER_NAME.invoke( OF_VIRTUAL.invoke( null ), name );
+        return (Thread) BUILDER_UNSTARTED.invoke( builder, runnable );
+      } catch ( Exception e ) {
+        // Fall back to a regular thread
+      }
+    }
+    Thread thread = new Thread( runnable );
+    thread.setName( name );
+    return thread;
+  }
+
+  /**
+   * @return true if the Java runtime can create virtual threads
+   */
+  public static boolean isVirtualThreadsAvailable() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Look up an execution mode by its code.
+   *
+   * @param code
+   *          the code to look for
+   * @return the matching mode or {@link #THREAD_PER_STEP} if the code is empty or unknown
+   */
+  public static StepExecutionMode getStepExecutionModeByCode( String code ) {
+    if ( code != null ) {
+      for ( StepExecutionMode mode : values() ) {
+        if ( mode.code.equalsIgnoreCase( code ) ) {
+          return mode;
+        }
+      }
+    }
+    return THREAD_PER_STEP;
+  }
+}
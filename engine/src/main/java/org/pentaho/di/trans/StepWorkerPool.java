@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of threads shared by the step copies of a transformation running in
+ * {@link StepExecutionMode#WORKER_POOL} mode. Every step copy is a {@link org.pentaho.di.trans.step.StepWorkerTask}
+ * that processes a limited number of rows each time it is scheduled and then puts itself back in the queue.
+ * <p>
+ * Steps can still block on a row set, on a database or on another step (info streams, steps that wait for others to
+ * finish, ...). To make sure that the other steps can't starve, a watchdog adds a worker every time no task completed
+ * for a while although tasks are waiting in the queue. Extra workers go away again once the queue is empty. The pool
+ * never grows beyond the number of step copies, the number of threads used in the classic mode.
+ *
+ * @since 10.3
+ */
+public class StepWorkerPool {
+
+  /** How often the watchdog checks for starvation, in milliseconds */
+  private static final long WATCHDOG_INTERVAL_MS = 50L;
+
+  private final int poolSize;
+  private final int maxPoolSize;
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService scheduler;
+
+  private long lastCompletedTaskCount = -1L;
+
+  /**
+   * @param name
+   *          the name of the transformation, used to name the threads
+   * @param poolSize
+   *          the number of workers to use when no step blocks
+   * @param maxPoolSize
+   *          the maximum number of workers, typically the number of step copies
+   */
+  public StepWorkerPool( String name, int poolSize, int maxPoolSize ) {
+    this.poolSize = Math.max( 1, poolSize );
+    this.maxPoolSize = Math.max( this.poolSize, maxPoolSize );
+
+    final AtomicInteger threadNr = new AtomicInteger( 0 );
+    executor = new ThreadPoolExecutor( this.poolSize, this.maxPoolSize, 10L, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), runnable -> {
+        Thread thread = new Thread( runnable );
+        thread.setName( name + " - worker #" + threadNr.incrementAndGet() );
+        return thread;
+      } );
+
+    scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+      Thread thread = new Thread( runnable );
+      thread.setName( name + " - worker scheduler" );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    scheduler.scheduleWithFixedDelay( this::checkStarvation, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS,
+      TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * Run a task as soon as a worker is available.
+   */
+  public void execute( Runnable task ) {
+    executor.execute( task );
+  }
+
+  /**
+   * Run a task after a delay, used by step copies that have nothing to do for the moment.
+   */
+  public void schedule( Runnable task, long delay, TimeUnit unit ) {
+    scheduler.schedule( () -> execute( task ), delay, unit );
+  }
+
+  /**
+   * @return the number of workers the pool currently aims for
+   */
+  public int getPoolSize() {
+    return executor.getCorePoolSize();
+  }
+
+  /**
+   * Stop accepting tasks. Called when all the step copies finished.
+   */
+  public void shutdown() {
+    scheduler.shutdownNow();
+    executor.shutdown();
+  }
+
+  public boolean isShutdown() {
+    return executor.isShutdown();
+  }
+
+  synchronized void checkStarvation() {
+    long completedTaskCount = executor.getCompletedTaskCount();
+    boolean waiting = !executor.getQueue().isEmpty();
+    int corePoolSize = executor.getCorePoolSize();
+
+    if ( waiting && completedTaskCount == lastCompletedTaskCount ) {
+      // All the workers are stuck in a step while other steps are waiting to be run
+      //
+      if ( corePoolSize < maxPoolSize ) {
+        executor.setCorePoolSize( corePoolSize + 1 );
+      }
+    } else if ( !waiting && corePoolSize > poolSize ) {
+      executor.setCorePoolSize( corePoolSize - 1 );
+    }
+    lastCompletedTaskCount = completedTaskCount;
+  }
+}
@@ -60,10 +60,12 @@ import org.pentaho.di.core.ExecutorInterface;
 import org.pentaho.di.core.ExtensionDataInterface;
 import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.QueueRowSet;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.SingleRowRowSet;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
@@ -131,6 +133,7 @@ import org.pentaho.di.trans.step.StepListener;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.pentaho.di.trans.step.StepWorkerTask;
 import org.pentaho.di.trans.steps.mappinginput.MappingInput;
 import org.pentaho.di.trans.steps.mappingoutput.MappingOutput;
 import org.pentaho.di.www.CarteSingleton;
@@ -378,6 +381,21 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   private boolean safeModeEnabled;
 
+  /**
+   * How the step copies are run: a thread per step copy, a shared worker pool, ...
+   */
+  private StepExecutionMode stepExecutionMode = StepExecutionMode.THREAD_PER_STEP;
+
+  /**
+   * The number of workers in {@link StepExecutionMode#WORKER_POOL} mode, 0 to use the number of processors.
+   */
+  private int stepWorkerPoolSize;
+
+  /**
+   * The pool running the step copies in {@link StepExecutionMode#WORKER_POOL} mode.
+   */
+  private volatile StepWorkerPool stepWorkerPool;
+
   /**
    * The thread name.
    */
@@ -947,7 +965,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
                 if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
                   rowSet = new BlockingBatchingRowSet( transMeta.getSizeRowset() );
                 } else {
-                  rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+                  rowSet = createHopRowSet( false );
                 }
                 break;
 
@@ -993,7 +1011,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           // distribution...
           for ( int s = 0; s < thisCopies; s++ ) {
             for ( int t = 0; t < nextCopies; t++ ) {
-              BlockingRowSet rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+              RowSet rowSet = createHopRowSet( false );
               rowSet.setThreadNameFromToCopy( thisStep.getName(), s, nextStep.getName(), t );
               rowsets.add( rowSet );
               if ( log.isDetailed() ) {
@@ -1466,6 +1484,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           stepPerformanceSnapShotTimer.cancel();
         }
 
+        // All the step copies are done, release the worker threads
+        //
+        shutdownStepWorkerPool();
+
         transMeta.disposeEmbeddedMetastoreProvider();
 
         setFinished( true );
@@ -1507,30 +1529,43 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     switch ( transMeta.getTransformationType() ) {
       case Normal:
 
+        if ( stepExecutionMode == StepExecutionMode.WORKER_POOL ) {
+          int poolSize = stepWorkerPoolSize > 0 ? stepWorkerPoolSize : Runtime.getRuntime().availableProcessors();
+          stepWorkerPool = new StepWorkerPool( getName(), Math.min( poolSize, steps.size() ), steps.size() );
+        }
+
         // Now start all the threads...
         //
-        for ( int i = 0; i < steps.size(); i++ ) {
-          final StepMetaDataCombi combi = steps.get( i );
-          RunThread runThread = new RunThread( combi );
-          Thread thread = new Thread( runThread );
-          thread.setName( getName() + " - " + combi.stepname );
-          ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
-          // Call an extension point at the end of the step
-          //
-          combi.step.addStepListener( new StepAdapter() {
+        try {
+          for ( int i = 0; i < steps.size(); i++ ) {
+            final StepMetaDataCombi combi = steps.get( i );
+            ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
+            // Call an extension point at the end of the step
+            //
+            combi.step.addStepListener( new StepAdapter() {
 
-            @Override
-            public void stepFinished( Trans trans, StepMeta stepMeta, StepInterface step ) {
-              try {
-                ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepFinished.id, combi );
-              } catch ( KettleException e ) {
-                throw new RuntimeException( "Unexpected error in calling extension point upon step finish", e );
+              @Override
+              public void stepFinished( Trans trans, StepMeta stepMeta, StepInterface step ) {
+                try {
+                  ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepFinished.id, combi );
+                } catch ( KettleException e ) {
+                  throw new RuntimeException( "Unexpected error in calling extension point upon step finish", e );
+                }
               }
-            }
 
-          } );
+            } );
 
-          thread.start();
+            if ( stepWorkerPool != null && !combi.step.isThreadBound() ) {
+              stepWorkerPool.execute( new StepWorkerTask( combi, stepWorkerPool ) );
+            } else {
+              stepExecutionMode.newThread( new RunThread( combi ), getName() + " - " + combi.stepname ).start();
+            }
+          }
+        } catch ( KettleException | RuntimeException e ) {
+          // The transformation never finishes, so the finished listener won't release the worker threads
+          //
+          shutdownStepWorkerPool();
+          throw e;
         }
         break;
 
@@ -1683,8 +1718,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
         StepPerformanceSnapShot snapShot =
           new StepPerformanceSnapShot( seqNr, getBatchId(), new Date(), getName(), stepMeta.getName(), step.getCopy(),
-            step.getLinesRead(), step.getLinesWritten(), step.getLinesInput(), step.getLinesOutput(), step
-            .getLinesUpdated(), step.getLinesRejected(), step.getErrors() );
+            step.getMetricsSnapshot() );
 
         synchronized ( stepPerformanceSnapShots ) {
           List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
@@ -1716,6 +1750,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    * after ALL the slave transformations in a clustered run have finished.
    */
   public void cleanup() {
+    // Release the worker threads of a transformation that didn't finish
+    //
+    shutdownStepWorkerPool();
+
     // Close all open server sockets.
     // We can only close these after all processing has been confirmed to be finished.
     //
@@ -1734,6 +1772,17 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  /**
+   * Shuts down the pool running the step copies in {@link StepExecutionMode#WORKER_POOL} mode, if there is one.
+   */
+  private void shutdownStepWorkerPool() {
+    StepWorkerPool pool = stepWorkerPool;
+    stepWorkerPool = null;
+    if ( pool != null ) {
+      pool.shutdown();
+    }
+  }
+
   /**
    * Logs a summary message for the specified step.
    *
@@ -1959,6 +2008,21 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return sid.step.getProcessed();
   }
 
+  /**
+   * Creates the buffer for a hop of a normal (multi-threaded) transformation. Depending on the row set wait strategy of
+   * the transformation this is either the classic {@link BlockingRowSet} or a lock-free {@link RingBufferRowSet}.
+   *
+   * @param multiProducer true if more than one thread can write to the row set at the same time
+   * @return a new row set
+   */
+  protected RowSet createHopRowSet( boolean multiProducer ) {
+    RowSetWaitStrategy waitStrategy = transMeta.getRowSetWaitStrategy();
+    if ( waitStrategy != null && waitStrategy.isLockFree() ) {
+      return new RingBufferRowSet( transMeta.getSizeRowset(), waitStrategy, multiProducer );
+    }
+    return new BlockingRowSet( transMeta.getSizeRowset() );
+  }
+
   /**
    * Finds the RowSet with the specified name.
    *
@@ -3398,6 +3462,35 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return safeModeEnabled;
   }
 
+  /**
+   * @return the way the step copies are run, only used for normal transformations
+   */
+  public StepExecutionMode getStepExecutionMode() {
+    return stepExecutionMode;
+  }
+
+  /**
+   * @param stepExecutionMode the way to run the step copies, null for one thread per step copy
+   */
+  public void setStepExecutionMode( StepExecutionMode stepExecutionMode ) {
+    this.stepExecutionMode = stepExecutionMode == null ? StepExecutionMode.THREAD_PER_STEP : stepExecutionMode;
+  }
+
+  /**
+   * @return the number of workers used in {@link StepExecutionMode#WORKER_POOL} mode, 0 for the number of processors
+   */
+  public int getStepWorkerPoolSize() {
+    return stepWorkerPoolSize;
+  }
+
+  /**
+   * @param stepWorkerPoolSize the number of workers to use in {@link StepExecutionMode#WORKER_POOL} mode, 0 for the
+   *                           number of processors
+   */
+  public void setStepWorkerPoolSize( int stepWorkerPoolSize ) {
+    this.stepWorkerPoolSize = stepWorkerPoolSize;
+  }
+
   /**
    * This adds a row producer to the transformation that just got set up. It is preferable to run this BEFORE execute()
    * but after prepareExecution()
@@ -3419,7 +3512,9 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     RowSet rowSet;
     switch ( transMeta.getTransformationType() ) {
       case Normal:
-        rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+        // A row producer can be fed from several threads by the caller
+        //
+        rowSet = createHopRowSet( true );
         break;
       case SerialSingleThreaded:
         rowSet = new SingleRowRowSet();
@@ -78,6 +78,8 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
   private Repository repository;
 
   private boolean gatheringMetrics;
+  private StepExecutionMode stepExecutionMode;
+  private int stepWorkerPoolSize;
   private boolean showingSubComponents;
   private boolean setLogfile;
   private boolean setAppendLogfile;
@@ -110,6 +112,8 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
 
     gatheringMetrics = false;
     showingSubComponents = true;
+
+    stepExecutionMode = StepExecutionMode.THREAD_PER_STEP;
   }
 
   public Object clone() {
@@ -510,6 +514,8 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     xml.append( "    " ).append( XMLHandler.addTagValue( "create_parent_folder", createParentFolder ) );
     xml.append( "    " ).append( XMLHandler.addTagValue( "clear_log", clearingLog ) );
     xml.append( "    " ).append( XMLHandler.addTagValue( "gather_metrics", gatheringMetrics ) );
+    xml.append( "    " ).append( XMLHandler.addTagValue( "step_execution_mode", stepExecutionMode.getCode() ) );
+    xml.append( "    " ).append( XMLHandler.addTagValue( "step_worker_pool_size", stepWorkerPoolSize ) );
     xml.append( "    " ).append( XMLHandler.addTagValue( "show_subcomponents", showingSubComponents ) );
     if ( passedBatchId != null ) {
       xml.append( "    " ).append( XMLHandler.addTagValue( "passedBatchId", passedBatchId ) );
@@ -609,6 +615,9 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     createParentFolder = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "create_parent_folder" ) );
     clearingLog = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "clear_log" ) );
     gatheringMetrics = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "gather_metrics" ) );
+    stepExecutionMode =
+      StepExecutionMode.getStepExecutionModeByCode( XMLHandler.getTagValue( trecNode, "step_execution_mode" ) );
+    stepWorkerPoolSize = Const.toInt( XMLHandler.getTagValue( trecNode, "step_worker_pool_size" ), 0 );
     showingSubComponents = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "show_subcomponents" ) );
     String sPassedBatchId = XMLHandler.getTagValue( trecNode, "passedBatchId" );
     if ( !StringUtils.isEmpty( sPassedBatchId ) ) {
@@ -775,6 +784,37 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     this.gatheringMetrics = gatheringMetrics;
   }
 
+  /**
+   * @return the way the step copies of the transformation are run
+   */
+  public StepExecutionMode getStepExecutionMode() {
+    return stepExecutionMode;
+  }
+
+  /**
+   * @param stepExecutionMode
+   *          the way to run the step copies of the transformation, null for one thread per step copy
+   */
+  public void setStepExecutionMode( StepExecutionMode stepExecutionMode ) {
+    this.stepExecutionMode = stepExecutionMode == null ? StepExecutionMode.THREAD_PER_STEP : stepExecutionMode;
+  }
+
+  /**
+   * @return the number of workers in {@link StepExecutionMode#WORKER_POOL} mode, 0 for the number of processors
+   */
+  public int getStepWorkerPoolSize() {
+    return stepWorkerPoolSize;
+  }
+
+  /**
+   * @param stepWorkerPoolSize
+   *          the number of workers to use in {@link StepExecutionMode#WORKER_POOL} mode, 0 for the number of
+   *          processors
+   */
+  public void setStepWorkerPoolSize( int stepWorkerPoolSize ) {
+    this.stepWorkerPoolSize = stepWorkerPoolSize;
+  }
+
   /**
    * @return the showingSubComponents
    */
@@ -36,6 +36,7 @@ import org.pentaho.di.core.Props;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.SQLStatement;
 import org.pentaho.di.core.attributes.AttributesUtil;
 import org.pentaho.di.core.database.Database;
@@ -384,6 +385,9 @@ public class TransMeta extends AbstractMeta
   /** The transformation type. */
   protected TransformationType transformationType;
 
+  /** The way steps wait on the row sets between them, this also selects the row set implementation. */
+  protected RowSetWaitStrategy rowSetWaitStrategy;
+
   // //////////////////////////////////////////////////////////////////////////
 
   /** A list of localized strings corresponding to string descriptions of the undo/redo actions. */
@@ -696,6 +700,7 @@ public class TransMeta extends AbstractMeta
     loopCache = new HashMap<>();
     previousStepCache = new HashMap<>();
     transformationType = TransformationType.Normal;
+    rowSetWaitStrategy = RowSetWaitStrategy.BLOCKING;
 
     log = LogChannel.GENERAL;
   }
@@ -2467,6 +2472,7 @@ public class TransMeta extends AbstractMeta
     retval.append( "    " ).append( XMLHandler.closeTag( "maxdate" ) ).append( Const.CR );
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "size_rowset", sizeRowset ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "rowset_wait_strategy", rowSetWaitStrategy.getCode() ) );
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "sleep_time_empty", sleepTimeEmpty ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "sleep_time_full", sleepTimeFull ) );
@@ -3389,6 +3395,8 @@ public class TransMeta extends AbstractMeta
 
         String srowset = XMLHandler.getTagValue( infonode, "size_rowset" );
         sizeRowset = Const.toInt( srowset, Const.ROWS_IN_ROWSET );
+        rowSetWaitStrategy =
+            RowSetWaitStrategy.getWaitStrategyByCode( XMLHandler.getTagValue( infonode, "rowset_wait_strategy" ) );
         sleepTimeEmpty =
             Const.toInt( XMLHandler.getTagValue( infonode, "sleep_time_empty" ), Const.TIMEOUT_GET_MILLIS );
         sleepTimeFull = Const.toInt( XMLHandler.getTagValue( infonode, "sleep_time_full" ), Const.TIMEOUT_PUT_MILLIS );
@@ -4986,6 +4994,26 @@ public class TransMeta extends AbstractMeta
     }
   }
 
+  /**
+   * Gets the strategy used by the steps of this transformation to wait on a full or empty row set. Any strategy other
+   * than {@link RowSetWaitStrategy#BLOCKING} makes a normal transformation use lock-free ring buffers between steps.
+   *
+   * @return the row set wait strategy
+   */
+  public RowSetWaitStrategy getRowSetWaitStrategy() {
+    return rowSetWaitStrategy;
+  }
+
+  /**
+   * Sets the strategy used by the steps of this transformation to wait on a full or empty row set.
+   *
+   * @param rowSetWaitStrategy
+   *          the row set wait strategy to set, null means {@link RowSetWaitStrategy#BLOCKING}
+   */
+  public void setRowSetWaitStrategy( RowSetWaitStrategy rowSetWaitStrategy ) {
+    this.rowSetWaitStrategy = rowSetWaitStrategy == null ? RowSetWaitStrategy.BLOCKING : rowSetWaitStrategy;
+  }
+
   /**
    * Sets the size of the rowsets. This method allows you to change the size of the buffers between the connected steps
    * in a transformation. <b>NOTE:</b> Do not change this parameter unless you are running low on memory, for example.
@@ -6383,6 +6411,7 @@ public class TransMeta extends AbstractMeta
         .append( this.getName() )
         .append( this.getTransformationType() )
         .append( this.getSizeRowset() )
+        .append( this.getRowSetWaitStrategy() )
         .append( this.getSleepTimeEmpty() )
         .append( this.getSleepTimeFull() )
         .append( this.isUsingUniqueConnections() )
@@ -15,6 +15,8 @@ package org.pentaho.di.trans.performance;
 
 import java.util.Date;
 
+import org.pentaho.di.trans.step.StepMetricsSnapshot;
+
 public class StepPerformanceSnapShot {
 
   private long batchId;
@@ -73,6 +75,23 @@ public class StepPerformanceSnapShot {
     this.totalErrors = totalErrors;
   }
 
+  /**
+   * @param seqNr
+   * @param batchId
+   * @param date
+   * @param transName
+   * @param stepName
+   * @param stepCopy
+   * @param metrics
+   *          the row counters of the step copy at the time of this snapshot
+   */
+  public StepPerformanceSnapShot( int seqNr, long batchId, Date date, String transName, String stepName,
+    int stepCopy, StepMetricsSnapshot metrics ) {
+    this( seqNr, batchId, date, transName, stepName, stepCopy, metrics.getLinesRead(), metrics.getLinesWritten(),
+      metrics.getLinesInput(), metrics.getLinesOutput(), metrics.getLinesUpdated(), metrics.getLinesRejected(),
+      metrics.getErrors() );
+  }
+
   public void diff( StepPerformanceSnapShot previous, long inputBufferSize, long outputBufferSize ) {
     this.inputBufferSize = inputBufferSize;
     this.outputBufferSize = outputBufferSize;
@@ -156,10 +156,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private Trans trans;
 
-  private final Object statusCountersLock = new Object();
-
   /**
-   * nr of lines read from previous step(s)
+   * nr of lines read from previous step(s), a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesRead()}, {@link #incrementLinesRead()}, or {@link #decrementLinesRead()}
    */
@@ -167,7 +166,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesRead;
 
   /**
-   * nr of lines written to next step(s)
+   * nr of lines written to next step(s), a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesWritten()}, {@link #incrementLinesWritten()}, or {@link #decrementLinesWritten()}
    */
@@ -175,7 +175,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesWritten;
 
   /**
-   * nr of lines read from file or database
+   * nr of lines read from file or database, a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesInput()} or {@link #incrementLinesInput()}
    */
@@ -183,7 +184,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesInput;
 
   /**
-   * nr of lines written to file or database
+   * nr of lines written to file or database, a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesOutput()} or {@link #incrementLinesOutput()}
    */
@@ -191,7 +193,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesOutput;
 
   /**
-   * nr of updates in a database table or file
+   * nr of updates in a database table or file, a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesUpdated()} or {@link #incrementLinesUpdated()}
    */
@@ -199,7 +202,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesUpdated;
 
   /**
-   * nr of lines skipped
+   * nr of lines skipped, a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesSkipped()} or {@link #incrementLinesSkipped()}
    */
@@ -207,13 +211,19 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesSkipped;
 
   /**
-   * total sleep time in ns caused by an empty input buffer (previous step is slow)
+   * nr of lines rejected to an error handling step, a copy of the counter kept in {@link StepMetrics}
+   * that follows its updates: writing to this field has no effect
    *
    * @deprecated use {@link #getLinesRejected()} or {@link #incrementLinesRejected()}
    */
   @Deprecated
   public long linesRejected;
 
+  /**
+   * the row counters of this step copy: lines read, written, input, output, updated, skipped and rejected
+   */
+  private final StepMetrics metrics = new StepMetrics();
+
   private boolean distributed;
 
   private String rowDistributionCode;
@@ -364,6 +374,12 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private static int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /**
+   * The default number of rows a step processes at once when it uses the batch API ({@link #getRows(int)} and
+   * {@link #putRows(RowMetaInterface, Object[][], int)}).
+   */
+  public static final int NR_OF_ROWS_IN_BATCH = 100;
+
   private int blockPointer;
 
   /**
@@ -477,15 +493,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     init = false;
 
-    synchronized ( statusCountersLock ) {
-      linesRead = 0L; // new AtomicLong(0L); // Keep some statistics!
-      linesWritten = 0L; // new AtomicLong(0L);
-      linesUpdated = 0L; // new AtomicLong(0L);
-      linesSkipped = 0L; // new AtomicLong(0L);
-      linesRejected = 0L; // new AtomicLong(0L);
-      linesInput = 0L; // new AtomicLong(0L);
-      linesOutput = 0L; // new AtomicLong(0L);
-    }
+    metrics.reset();
 
     inputRowSets = null;
     outputRowSets = null;
@@ -903,9 +911,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return metrics.getLinesRead();
   }
 
   /**
@@ -914,9 +920,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    metrics.addLinesRead( 1L );
+    linesRead = metrics.getLinesRead();
+    return linesRead;
+  }
+
+  /**
+   * Increments the number of lines read from previous steps
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesRead( long nrLines ) {
+    metrics.addLinesRead( nrLines );
+    linesRead = metrics.getLinesRead();
+    return linesRead;
   }
 
   /**
@@ -925,18 +943,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    metrics.addLinesRead( -1L );
+    linesRead = metrics.getLinesRead();
+    return linesRead;
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous steps
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    metrics.setLinesRead( newLinesReadValue );
+    linesRead = newLinesReadValue;
   }
 
   /**
@@ -944,9 +961,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return metrics.getLinesInput();
   }
 
   /**
@@ -955,18 +970,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    metrics.addLinesInput( 1L );
+    linesInput = metrics.getLinesInput();
+    return linesInput;
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    metrics.setLinesInput( newLinesInputValue );
+    linesInput = newLinesInputValue;
   }
 
   /**
@@ -974,9 +988,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return metrics.getLinesOutput();
   }
 
   /**
@@ -985,18 +997,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    metrics.addLinesOutput( 1L );
+    linesOutput = metrics.getLinesOutput();
+    return linesOutput;
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    metrics.setLinesOutput( newLinesOutputValue );
+    linesOutput = newLinesOutputValue;
   }
 
   /**
@@ -1004,9 +1015,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return metrics.getLinesWritten();
   }
 
   /**
@@ -1015,9 +1024,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    metrics.addLinesWritten( 1L );
+    linesWritten = metrics.getLinesWritten();
+    return linesWritten;
+  }
+
+  /**
+   * Increments the number of lines written to next steps
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesWritten( long nrLines ) {
+    metrics.addLinesWritten( nrLines );
+    linesWritten = metrics.getLinesWritten();
+    return linesWritten;
   }
 
   /**
@@ -1026,18 +1047,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    metrics.addLinesWritten( -1L );
+    linesWritten = metrics.getLinesWritten();
+    return linesWritten;
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next steps
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    metrics.setLinesWritten( newLinesWrittenValue );
+    linesWritten = newLinesWrittenValue;
   }
 
   /**
@@ -1045,9 +1065,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return metrics.getLinesUpdated();
   }
 
   /**
@@ -1056,18 +1074,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    metrics.addLinesUpdated( 1L );
+    linesUpdated = metrics.getLinesUpdated();
+    return linesUpdated;
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    metrics.setLinesUpdated( newLinesUpdatedValue );
+    linesUpdated = newLinesUpdatedValue;
   }
 
   /**
@@ -1075,9 +1092,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return metrics.getLinesRejected();
   }
 
   /**
@@ -1086,9 +1101,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    metrics.addLinesRejected( 1L );
+    linesRejected = metrics.getLinesRejected();
+    return linesRejected;
   }
 
   /**
@@ -1096,18 +1111,15 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    metrics.setLinesRejected( newLinesRejectedValue );
+    linesRejected = newLinesRejectedValue;
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return metrics.getLinesSkipped();
   }
 
   /**
@@ -1116,18 +1128,29 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    metrics.addLinesSkipped( 1L );
+    linesSkipped = metrics.getLinesSkipped();
+    return linesSkipped;
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    metrics.setLinesSkipped( newLinesSkippedValue );
+    linesSkipped = newLinesSkippedValue;
+  }
+
+  /**
+   * Reads the row counters of this step copy without blocking the step thread. The counters are read through their
+   * getters so that steps reporting the counters of another step (mappings, user defined classes, ...) keep doing so.
+   *
+   * @return an immutable copy of the current row counters and the number of errors
+   */
+  @Override
+  public StepMetricsSnapshot getMetricsSnapshot() {
+    return new StepMetricsSnapshot( getLinesRead(), getLinesWritten(), getLinesInput(), getLinesOutput(),
+      getLinesUpdated(), getLinesSkipped(), getLinesRejected(), getErrors() );
   }
 
   /*
@@ -1243,6 +1266,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void putRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+    checkOutputRowMeta( rowMeta );
+    getRowHandler().putRow( rowMeta, row );
+  }
+
+  private void checkOutputRowMeta( RowMetaInterface rowMeta ) throws KettleStepException {
     if ( rowMeta != null ) {
       if ( !allowEmptyFieldNamesAndTypes ) {
         // check row meta for empty field name (BACKLOG-18004)
@@ -1256,7 +1284,122 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         }
       }
     }
-    getRowHandler().putRow( rowMeta, row );
+  }
+
+  /**
+   * putRows is the batch version of {@link #putRow(RowMetaInterface, Object[])}: the pause, stop and output row set
+   * checks are done once for the whole batch and the rows are handed to the target row set(s) in bulk where the
+   * distribution allows it. Steps that use a custom {@link RowHandler} get the rows one by one.
+   *
+   * @param rowMeta The description of the rows
+   * @param rows    The rows to put to the destination rowset(s), starting at index 0
+   * @param nrRows  The number of rows in the batch
+   * @throws KettleStepException
+   */
+  @Override
+  public void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws KettleStepException {
+    if ( nrRows <= 1 || !( getRowHandler() instanceof DefaultRowHandler ) ) {
+      for ( int i = 0; i < nrRows; i++ ) {
+        putRow( rowMeta, rows[ i ] );
+      }
+      return;
+    }
+    checkOutputRowMeta( rowMeta );
+    handlePutRows( rowMeta, rows, nrRows );
+  }
+
+  private void handlePutRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws KettleStepException {
+    // A null row can't be put in a row set: reject the whole batch before any of its rows is passed on
+    //
+    for ( int i = 0; i < nrRows; i++ ) {
+      if ( rows[ i ] == null ) {
+        throw new KettleStepException( BaseMessages.getString( PKG, "BaseStep.Exception.NullRowInBatch", i, nrRows ) );
+      }
+    }
+
+    // Are we pausing the step? If so, stall forever...
+    //
+    while ( paused.get() && !stopped.get() ) {
+      try {
+        Thread.sleep( 1 );
+      } catch ( InterruptedException e ) {
+        throw new KettleStepException( e );
+      }
+    }
+
+    if ( stopped.get() && !safeStopped.get() ) {
+      if ( log.isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "BaseStep.Log.StopPuttingARow" ) );
+      }
+      stopAll();
+      return;
+    }
+
+    waitUntilTransformationIsStarted();
+
+    for ( int i = 0; i < nrRows; i++ ) {
+      for ( RowListener listener : rowListeners ) {
+        listener.rowWrittenEvent( rowMeta, rows[ i ] );
+      }
+      if ( terminator && terminator_rows != null ) {
+        try {
+          terminator_rows.add( rowMeta.cloneRow( rows[ i ] ) );
+        } catch ( KettleValueException e ) {
+          throw new KettleStepException( "Unable to clone row while adding rows to the terminator rows.", e );
+        }
+      }
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if ( outputRowSets.isEmpty() ) {
+        incrementLinesWritten( nrRows );
+        return;
+      }
+
+      boolean singleTarget = outputRowSets.size() == 1 && ( !distributed || rowDistribution == null );
+      if ( repartitioning == StepPartitioningMeta.PARTITIONING_METHOD_NONE && singleTarget ) {
+        putRowsToRowSet( outputRowSets.get( 0 ), rowMeta, rows, nrRows );
+        incrementLinesWritten( nrRows );
+      } else if ( repartitioning == StepPartitioningMeta.PARTITIONING_METHOD_NONE && !distributed ) {
+        // Copy the rows to all output rowsets, the first one gets the originals
+        //
+        for ( int r = 1; r < outputRowSets.size(); r++ ) {
+          Object[][] copies = new Object[ nrRows ][];
+          try {
+            for ( int i = 0; i < nrRows; i++ ) {
+              copies[ i ] = rowMeta.cloneRow( rows[ i ] );
+            }
+          } catch ( KettleValueException e ) {
+            throw new KettleStepException( "Unable to clone row while copying rows to multiple target steps", e );
+          }
+          putRowsToRowSet( outputRowSets.get( r ), rowMeta, copies, nrRows );
+          incrementLinesWritten( nrRows );
+        }
+        putRowsToRowSet( outputRowSets.get( 0 ), rowMeta, rows, nrRows );
+        incrementLinesWritten( nrRows );
+      } else {
+        // Round robin, custom distribution and partitioning decide on the target row set row by row
+        //
+        for ( int i = 0; i < nrRows; i++ ) {
+          switch ( repartitioning ) {
+            case StepPartitioningMeta.PARTITIONING_METHOD_NONE:
+              noPartitioning( rowMeta, rows[ i ] );
+              break;
+            case StepPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+              specialPartitioning( rowMeta, rows[ i ] );
+              break;
+            case StepPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+              mirrorPartitioning( rowMeta, rows[ i ] );
+              break;
+            default:
+              throw new KettleStepException( "Internal error: invalid repartitioning type: " + repartitioning );
+          }
+        }
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
   }
 
   private void handlePutRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
@@ -1595,6 +1738,31 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
   }
 
+  private void putRowsToRowSet( RowSet rs, RowMetaInterface rowMeta, Object[][] rows, int nrRows ) {
+    RowMetaInterface toBeSent;
+    RowMetaInterface metaFromRs = rs.getRowMeta();
+    if ( metaFromRs == null ) {
+      // RowSet is not initialised so far
+      toBeSent = rowMeta.clone();
+    } else {
+      // use the existing
+      toBeSent = metaFromRs;
+    }
+
+    int offset = 0;
+    while ( offset < nrRows ) {
+      int put = rs.putRows( toBeSent, rows, offset, nrRows - offset );
+      if ( put > 0 ) {
+        offset += put;
+      } else if ( rs.putRow( toBeSent, rows[ offset ] ) ) {
+        // The row set is full: wait for room for a single row like putRow() does
+        offset++;
+      } else if ( isStopped() && !safeStopped.get() ) {
+        return;
+      }
+    }
+  }
+
   /**
    * putRowTo is used to put a row in a certain specific RowSet.
    *
@@ -1993,6 +2161,100 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return row;
   }
 
+  /**
+   * getRows is the batch version of {@link #getRow()}. It waits for the first row exactly like getRow() does and then
+   * adds the rows that are already waiting in the same input row set, so that all the rows of the batch are described
+   * by {@link #getInputRowMeta()}. Steps that use a custom {@link RowHandler} get batches of a single row, and so do
+   * the steps of a single threaded transformation: the {@link org.pentaho.di.trans.SingleThreadedTransExecutor} calls
+   * processRow() once for every row on input and getRow() doesn't return while there is no row.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return a batch of at least one row or null if there are no more rows to be expected.
+   * @throws KettleException
+   */
+  @Override
+  public Object[][] getRows( int maxRows ) throws KettleException {
+    Object[] row = getRow();
+    if ( row == null ) {
+      return null;
+    }
+    if ( maxRows <= 1 || !( getRowHandler() instanceof DefaultRowHandler ) || isSingleThreaded() ) {
+      return new Object[][] { row };
+    }
+
+    Object[][] rows = new Object[ maxRows ][];
+    rows[ 0 ] = row;
+    int nrRows = 1 + getAvailableRows( rows, 1, maxRows - 1 );
+    return nrRows == maxRows ? rows : Arrays.copyOf( rows, nrRows );
+  }
+
+  private boolean isSingleThreaded() {
+    if ( transMeta == null ) {
+      return false;
+    }
+    TransMeta.TransformationType type = transMeta.getTransformationType();
+    return type == TransMeta.TransformationType.SingleThreaded
+      || type == TransMeta.TransformationType.SerialSingleThreaded;
+  }
+
+  /**
+   * Take the rows that are already available in the current input row set without waiting.
+   */
+  private int getAvailableRows( Object[][] rows, int offset, int maxRows ) throws KettleException {
+    if ( paused.get() || stopped.get() ) {
+      return 0;
+    }
+
+    int nrRows;
+    inputRowSetsLock.readLock().lock();
+    try {
+      if ( currentInputRowSetNr >= inputRowSets.size() ) {
+        return 0;
+      }
+      // Don't starve the other input row sets
+      int max = Math.min( maxRows, NR_OF_ROWS_IN_BLOCK - blockPointer );
+      if ( max <= 0 ) {
+        return 0;
+      }
+      nrRows = inputRowSets.get( currentInputRowSetNr ).getRows( rows, offset, max );
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    if ( nrRows > 0 ) {
+      incrementLinesRead( nrRows );
+      blockPointer += nrRows;
+
+      if ( trans.isSafeModeEnabled() ) {
+        transMeta.checkRowMixingStatically( stepMeta, null );
+      }
+      for ( int i = offset; i < offset + nrRows; i++ ) {
+        for ( RowListener listener : rowListeners ) {
+          listener.rowReadEvent( inputRowMeta, rows[ i ] );
+        }
+      }
+      verifyRejectionRates();
+    }
+    return nrRows;
+  }
+
+  /**
+   * Checks whether the feedback size was reached somewhere between two line counts. This is the batch version of
+   * {@link #checkFeedback(long)}: when rows are processed in batches the line counter can skip over the exact multiple
+   * of the feedback size.
+   *
+   * @param previousLines the number of lines before the batch was processed
+   * @param lines         the number of lines after the batch was processed
+   * @return true if feedback should be given
+   */
+  protected boolean checkFeedback( long previousLines, long lines ) {
+    if ( !getTransMeta().isFeedbackShown() || lines <= 0 ) {
+      return false;
+    }
+    int feedbackSize = getTransMeta().getFeedbackSize();
+    return feedbackSize > 0 && ( lines / feedbackSize ) > ( previousLines / feedbackSize );
+  }
+
   /**
    * RowHandler controls how getRow/putRow are handled.
    * The default RowHandler will simply call
@@ -3375,22 +3637,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    StepMetricsSnapshot snapshot = getMetricsSnapshot();
+    long li = snapshot.getLinesInput();
+    long lo = snapshot.getLinesOutput();
+    long lr = snapshot.getLinesRead();
+    long lw = snapshot.getLinesWritten();
+    long lu = snapshot.getLinesUpdated();
+    long lj = snapshot.getLinesRejected();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
     }
   }
 
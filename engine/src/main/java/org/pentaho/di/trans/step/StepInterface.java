@@ -88,6 +88,17 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
     return true;
   }
 
+  /**
+   * When the steps of a transformation are run on a shared pool of threads, consecutive calls to processRow() can be
+   * made by different threads. Steps that keep state bound to the thread that runs them (a script engine context, a
+   * thread local, ...) return true here to get a thread of their own instead.
+   *
+   * @return true if all the methods of this step have to be called by the same thread
+   */
+  default boolean isThreadBound() {
+    return false;
+  }
+
   /**
    * This method checks if the step is capable of processing at least one row.
    * <p>
@@ -267,6 +278,17 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
    */
   long getLinesRejected();
 
+  /**
+   * Reads all the row counters of this step in one go. Status pages and performance monitoring use this to poll a
+   * running step, so implementations should not block the thread that processes the rows.
+   *
+   * @return an immutable copy of the current row counters and the number of errors
+   */
+  default StepMetricsSnapshot getMetricsSnapshot() {
+    return new StepMetricsSnapshot( getLinesRead(), getLinesWritten(), getLinesInput(), getLinesOutput(),
+      getLinesUpdated(), 0L, getLinesRejected(), getErrors() );
+  }
+
   /**
    * Put a row on the destination rowsets.
    *
@@ -280,6 +302,38 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
    */
   Object[] getRow() throws KettleException;
 
+  /**
+   * Put a batch of rows on the destination rowsets. The default implementation simply calls
+   * {@link #putRow(RowMetaInterface, Object[])} for every row so steps that only implement the single row API keep
+   * working.
+   *
+   * @param rowMeta
+   *          The description of the rows
+   * @param rows
+   *          The rows to send to the destination steps, starting at index 0
+   * @param nrRows
+   *          The number of rows in the batch
+   */
+  default void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws KettleException {
+    for ( int i = 0; i < nrRows; i++ ) {
+      putRow( rowMeta, rows[ i ] );
+    }
+  }
+
+  /**
+   * Get a batch of rows from the source step(s). This waits for the first row like {@link #getRow()} does, the rest of
+   * the batch is made up of the rows that are readily available. All the rows of a batch are described by the same
+   * input row metadata. The default implementation returns batches of a single row.
+   *
+   * @param maxRows
+   *          The maximum number of rows to return
+   * @return a batch of at least one row or null if there are no more rows to be expected.
+   */
+  default Object[][] getRows( int maxRows ) throws KettleException {
+    Object[] row = getRow();
+    return row == null ? null : new Object[][] { row };
+  }
+
   /**
    * Signal output done to destination steps
    */
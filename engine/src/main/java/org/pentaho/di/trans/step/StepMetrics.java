@@ -0,0 +1,205 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the row counters of a step copy. The counters are updated on every row by the step thread while monitoring
+ * threads (Carte status pages, the Spoon step metrics grid, performance snapshots, ...) read them, so they are kept in
+ * striped {@link LongAdder}s: an update never takes a lock and never waits on a reader.
+ * <p>
+ * The individual getters return the current value of one counter. {@link StepInterface#getMetricsSnapshot()} reads all
+ * the counters of a step in one go.
+ *
+ * @since 10.3
+ */
+public class StepMetrics {
+  private final LongAdder linesRead = new LongAdder();
+  private final LongAdder linesWritten = new LongAdder();
+  private final LongAdder linesInput = new LongAdder();
+  private final LongAdder linesOutput = new LongAdder();
+  private final LongAdder linesUpdated = new LongAdder();
+  private final LongAdder linesSkipped = new LongAdder();
+  private final LongAdder linesRejected = new LongAdder();
+
+  /**
+   * @return the number of lines read from previous steps
+   */
+  public long getLinesRead() {
+    return linesRead.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines read from previous steps, can be negative
+   */
+  public void addLinesRead( long nrLines ) {
+    linesRead.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines read from previous steps
+   */
+  public void setLinesRead( long value ) {
+    set( linesRead, value );
+  }
+
+  /**
+   * @return the number of lines written to next steps
+   */
+  public long getLinesWritten() {
+    return linesWritten.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines written to next steps, can be negative
+   */
+  public void addLinesWritten( long nrLines ) {
+    linesWritten.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines written to next steps
+   */
+  public void setLinesWritten( long value ) {
+    set( linesWritten, value );
+  }
+
+  /**
+   * @return the number of lines read from an input source: database, file, socket, etc.
+   */
+  public long getLinesInput() {
+    return linesInput.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines read from an input source
+   */
+  public void addLinesInput( long nrLines ) {
+    linesInput.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines read from an input source
+   */
+  public void setLinesInput( long value ) {
+    set( linesInput, value );
+  }
+
+  /**
+   * @return the number of lines written to an output target: database, file, socket, etc.
+   */
+  public long getLinesOutput() {
+    return linesOutput.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines written to an output target
+   */
+  public void addLinesOutput( long nrLines ) {
+    linesOutput.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines written to an output target
+   */
+  public void setLinesOutput( long value ) {
+    set( linesOutput, value );
+  }
+
+  /**
+   * @return the number of lines updated in an output target: database, file, socket, etc.
+   */
+  public long getLinesUpdated() {
+    return linesUpdated.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines updated in an output target
+   */
+  public void addLinesUpdated( long nrLines ) {
+    linesUpdated.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines updated in an output target
+   */
+  public void setLinesUpdated( long value ) {
+    set( linesUpdated, value );
+  }
+
+  /**
+   * @return the number of lines skipped
+   */
+  public long getLinesSkipped() {
+    return linesSkipped.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines skipped
+   */
+  public void addLinesSkipped( long nrLines ) {
+    linesSkipped.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines skipped
+   */
+  public void setLinesSkipped( long value ) {
+    set( linesSkipped, value );
+  }
+
+  /**
+   * @return the number of lines rejected to an error handling step
+   */
+  public long getLinesRejected() {
+    return linesRejected.sum();
+  }
+
+  /**
+   * @param nrLines the number of lines to add to the number of lines rejected to an error handling step
+   */
+  public void addLinesRejected( long nrLines ) {
+    linesRejected.add( nrLines );
+  }
+
+  /**
+   * @param value the new number of lines rejected to an error handling step
+   */
+  public void setLinesRejected( long value ) {
+    set( linesRejected, value );
+  }
+
+  /**
+   * Sets all the counters back to 0.
+   */
+  public void reset() {
+    linesRead.reset();
+    linesWritten.reset();
+    linesInput.reset();
+    linesOutput.reset();
+    linesUpdated.reset();
+    linesSkipped.reset();
+    linesRejected.reset();
+  }
+
+  /**
+   * Setting a value is only done when a step (re)starts or by steps that compute their own totals, never concurrently
+   * with updates from another thread, so a reset followed by an add is good enough.
+   */
+  private static void set( LongAdder adder, long value ) {
+    adder.reset();
+    adder.add( value );
+  }
+}
@@ -0,0 +1,105 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+/**
+ * An immutable copy of the row counters of a step copy taken at a certain moment in time.
+ *
+ * @see StepInterface#getMetricsSnapshot()
+ * @since 10.3
+ */
+public final class StepMetricsSnapshot {
+  private final long linesRead;
+  private final long linesWritten;
+  private final long linesInput;
+  private final long linesOutput;
+  private final long linesUpdated;
+  private final long linesSkipped;
+  private final long linesRejected;
+  private final long errors;
+
+  public StepMetricsSnapshot( long linesRead, long linesWritten, long linesInput, long linesOutput,
+    long linesUpdated, long linesSkipped, long linesRejected, long errors ) {
+    this.linesRead = linesRead;
+    this.linesWritten = linesWritten;
+    this.linesInput = linesInput;
+    this.linesOutput = linesOutput;
+    this.linesUpdated = linesUpdated;
+    this.linesSkipped = linesSkipped;
+    this.linesRejected = linesRejected;
+    this.errors = errors;
+  }
+
+  /**
+   * @return the number of lines read from previous steps
+   */
+  public long getLinesRead() {
+    return linesRead;
+  }
+
+  /**
+   * @return the number of lines written to next steps
+   */
+  public long getLinesWritten() {
+    return linesWritten;
+  }
+
+  /**
+   * @return the number of lines read from an input source: database, file, socket, etc.
+   */
+  public long getLinesInput() {
+    return linesInput;
+  }
+
+  /**
+   * @return the number of lines written to an output target: database, file, socket, etc.
+   */
+  public long getLinesOutput() {
+    return linesOutput;
+  }
+
+  /**
+   * @return the number of lines updated in an output target: database, file, socket, etc.
+   */
+  public long getLinesUpdated() {
+    return linesUpdated;
+  }
+
+  /**
+   * @return the number of lines skipped
+   */
+  public long getLinesSkipped() {
+    return linesSkipped;
+  }
+
+  /**
+   * @return the number of lines rejected to an error handling step
+   */
+  public long getLinesRejected() {
+    return linesRejected;
+  }
+
+  /**
+   * @return the number of errors
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  @Override
+  public String toString() {
+    return "I=" + linesInput + ", O=" + linesOutput + ", R=" + linesRead + ", W=" + linesWritten + ", U="
+      + linesUpdated + ", S=" + linesSkipped + ", J=" + linesRejected + ", E=" + errors;
+  }
+}
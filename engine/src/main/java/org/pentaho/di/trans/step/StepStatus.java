@@ -70,13 +70,15 @@ public class StepStatus {
 
     this.stepname = baseStep.getStepname();
     this.copy = baseStep.getCopy();
-    this.linesRead = linesRead + baseStep.getLinesRead();
-    this.linesWritten = linesWritten + baseStep.getLinesWritten();
-    this.linesInput = linesInput + baseStep.getLinesInput();
-    this.linesOutput = linesOutput + baseStep.getLinesOutput();
-    this.linesUpdated = linesUpdated + baseStep.getLinesUpdated();
-    this.linesRejected = linesRejected + baseStep.getLinesRejected();
-    this.errors = errors + baseStep.getErrors();
+
+    StepMetricsSnapshot metrics = baseStep.getMetricsSnapshot();
+    this.linesRead = linesRead + metrics.getLinesRead();
+    this.linesWritten = linesWritten + metrics.getLinesWritten();
+    this.linesInput = linesInput + metrics.getLinesInput();
+    this.linesOutput = linesOutput + metrics.getLinesOutput();
+    this.linesUpdated = linesUpdated + metrics.getLinesUpdated();
+    this.linesRejected = linesRejected + metrics.getLinesRejected();
+    this.errors = errors + metrics.getErrors();
     this.accumlatedRuntime = accumlatedRuntime + baseStep.getRuntime();
     this.statusDescription = baseStep.getStatus().getDescription();
 
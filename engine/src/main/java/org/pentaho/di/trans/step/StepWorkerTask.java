@@ -0,0 +1,143 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.StepWorkerPool;
+
+/**
+ * Runs a step copy as a cooperative task on a {@link StepWorkerPool}, the same way
+ * {@link org.pentaho.di.trans.SingleThreadedTransExecutor} runs steps one iteration at a time, but for every type of
+ * step and on several threads.
+ * <p>
+ * Each time the task is scheduled it looks at the row sets of the step: it only calls
+ * {@link StepInterface#processRow(StepMetaInterface, StepDataInterface)} as many times as there are rows waiting on
+ * input and room left on output (with a maximum of {@link #MAX_ITERATIONS}) and then gives its worker
+ * back. A step that has nothing to do is scheduled again after a short, increasing delay.
+ *
+ * @since 10.3
+ */
+public class StepWorkerTask extends RunThread {
+
+  /** Maximum number of times processRow() is called before the worker is given back */
+  static final int MAX_ITERATIONS = 500;
+
+  /** Number of times an idle task is put back in the queue right away before it starts to wait */
+  private static final int IDLE_RETRIES = 2;
+  private static final long MIN_IDLE_DELAY_NANOS = 50000L;
+  private static final long MAX_IDLE_DELAY_NANOS = 5000000L;
+
+  private final StepWorkerPool pool;
+
+  private boolean started;
+  private int idleCount;
+
+  public StepWorkerTask( StepMetaDataCombi combi, StepWorkerPool pool ) {
+    super( combi );
+    this.pool = pool;
+  }
+
+  @Override
+  public void run() {
+    boolean finished;
+    try {
+      finished = processRows();
+    } catch ( Throwable t ) {
+      handleError( t );
+      finished = true;
+    }
+    if ( finished ) {
+      finishProcessing();
+    }
+  }
+
+  /**
+   * Process the rows that are ready and schedule the next run of this task.
+   *
+   * @return true if the step is done
+   */
+  private boolean processRows() throws KettleException {
+    if ( !started ) {
+      started = true;
+      startProcessing();
+    }
+
+    if ( step.isStopped() ) {
+      return true;
+    }
+
+    int iterations = getNrReadyIterations();
+    if ( iterations == 0 ) {
+      idle();
+      return false;
+    }
+    idleCount = 0;
+
+    for ( int i = 0; i < iterations; i++ ) {
+      if ( !step.processRow( meta, data ) || step.isStopped() ) {
+        return true;
+      }
+    }
+
+    // Give the other steps a chance to run
+    //
+    pool.execute( this );
+    return false;
+  }
+
+  /**
+   * @return the number of times processRow() can be called without waiting on a row set, as far as we can tell
+   */
+  int getNrReadyIterations() {
+    int iterations = MAX_ITERATIONS;
+
+    for ( RowSet rowSet : step.getOutputRowSets() ) {
+      iterations = Math.min( iterations, rowSet.remainingCapacity() );
+    }
+    if ( iterations <= 0 ) {
+      return 0;
+    }
+
+    List<RowSet> inputRowSets = step.getInputRowSets();
+    if ( inputRowSets.isEmpty() ) {
+      // An input step, or a step that generates its own rows
+      return iterations;
+    }
+
+    int available = 0;
+    for ( RowSet rowSet : inputRowSets ) {
+      if ( rowSet.isDone() ) {
+        // let the step pick up the remaining rows and find out it's done
+        return iterations;
+      }
+      available += rowSet.size();
+    }
+    return Math.min( iterations, available );
+  }
+
+  private void idle() {
+    if ( idleCount < IDLE_RETRIES ) {
+      idleCount++;
+      pool.execute( this );
+    } else {
+      int shift = Math.min( idleCount++ - IDLE_RETRIES, 7 );
+      long delay = Math.min( MIN_IDLE_DELAY_NANOS << shift, MAX_IDLE_DELAY_NANOS );
+      pool.schedule( this, delay, TimeUnit.NANOSECONDS );
+    }
+  }
+}
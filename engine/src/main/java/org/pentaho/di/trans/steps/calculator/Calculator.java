@@ -79,6 +79,7 @@ public class Calculator extends BaseStep implements StepInterface {
       data.setCalcRowMeta( meta.getAllFields( getInputRowMeta() ) );
 
       data.setFieldIndexes( new FieldIndexes[meta.getCalculation().length] );
+      data.setEvaluations( new CalculatorPlan.Evaluation[meta.getCalculation().length] );
       List<Integer> tempIndexes = new ArrayList<Integer>();
 
       // Calculate the indexes of the values and arguments in the target data or temporary data
@@ -134,11 +135,20 @@ public class Calculator extends BaseStep implements StepInterface {
           }
         }
 
+        // Compile the plain arithmetic, the rest is interpreted row by row
+        data.getEvaluations()[i] = CalculatorPlan.compile( function, data.getCalcRowMeta(),
+          getInputRowMeta().size() + i, data.getFieldIndexes()[i] );
+
         if ( function.isRemovedFromResult() ) {
           tempIndexes.add( getInputRowMeta().size() + i );
         }
       }
 
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "Calculator.Log.CompiledCalculations",
+          "" + CalculatorPlan.count( data.getEvaluations() ), "" + meta.getCalculation().length ) );
+      }
+
       // Convert temp indexes to int[]
       data.setTempIndexes( new int[tempIndexes.size()] );
       for ( int i = 0; i < data.getTempIndexes().length; i++ ) {
@@ -191,6 +201,11 @@ public class Calculator extends BaseStep implements StepInterface {
     Object[] calcData = RowDataUtil.resizeArray( r, data.getCalcRowMeta().size() );
 
     for ( int i = 0, index = inputRowMeta.size() + i; i < meta.getCalculation().length; i++, index++ ) {
+      CalculatorPlan.Evaluation evaluation = data.getEvaluations()[i];
+      if ( evaluation != null ) {
+        calcData[index] = evaluation.evaluate( calcData );
+        continue;
+      }
       CalculatorMetaFunction fn = meta.getCalculation()[i];
       if ( !Utils.isEmpty( fn.getFieldName() ) ) {
         ValueMetaInterface targetMeta = data.getCalcRowMeta().getValueMeta( index );
@@ -33,6 +33,8 @@ public class CalculatorData extends BaseStepData implements StepDataInterface {
 
   private Calculator.FieldIndexes[] fieldIndexes;
 
+  private CalculatorPlan.Evaluation[] evaluations;
+
   private int[] tempIndexes;
 
   private final Map<Integer, ValueMetaInterface> resultMetaMapping;
@@ -66,6 +68,14 @@ public class CalculatorData extends BaseStepData implements StepDataInterface {
     this.fieldIndexes = fieldIndexes;
   }
 
+  public CalculatorPlan.Evaluation[] getEvaluations() {
+    return evaluations;
+  }
+
+  public void setEvaluations( CalculatorPlan.Evaluation[] evaluations ) {
+    this.evaluations = evaluations;
+  }
+
   public int[] getTempIndexes() {
     return tempIndexes;
   }
@@ -0,0 +1,199 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.calculator;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * Compiles the calculations that only need plain arithmetic into evaluations that work on the row directly. The field
+ * indexes and the data types are resolved once, on the first row, so that an evaluation does not clone metadata,
+ * convert storage or dispatch on the data type for every row, and it does the arithmetic on primitive longs and
+ * doubles.
+ *
+ * A calculation is compiled when its arguments are stored normally, they all have the same Integer or Number type and
+ * the calculated field has that type as well. The results are the same as those of {@link Calculator}: null when one
+ * of the arguments is null, and the Java integer arithmetic otherwise. Every other calculation is left to
+ * {@link Calculator}.
+ */
+public class CalculatorPlan {
+
+  /**
+   * The calculation of one field, compiled for the metadata of the rows.
+   */
+  public interface Evaluation {
+    /**
+     * @param row
+     *          the row with the input fields and the fields calculated so far
+     * @return the value of the calculated field
+     */
+    Object evaluate( Object[] row );
+  }
+
+  private CalculatorPlan() {
+  }
+
+  /**
+   * @param function
+   *          the calculation
+   * @param calcRowMeta
+   *          the metadata of the input fields and the calculated fields
+   * @param index
+   *          the index of the calculated field in the calculation row
+   * @param fieldIndexes
+   *          the indexes of the arguments in the calculation row
+   * @return the compiled calculation or null if it has to be interpreted
+   */
+  public static Evaluation compile( CalculatorMetaFunction function, RowMetaInterface calcRowMeta, int index,
+                                    Calculator.FieldIndexes fieldIndexes ) {
+    return compile( function, calcRowMeta, index, fieldIndexes.indexA, fieldIndexes.indexB, fieldIndexes.indexC );
+  }
+
+  static Evaluation compile( CalculatorMetaFunction function, RowMetaInterface calcRowMeta, int index,
+                             int indexA, int indexB, int indexC ) {
+    // Without a field name the calculation has no value in the calculation row, the Calculator skips it
+    if ( Utils.isEmpty( function.getFieldName() ) ) {
+      return null;
+    }
+    ValueMetaInterface targetMeta = calcRowMeta.getValueMeta( index );
+    if ( targetMeta == null ) {
+      return null;
+    }
+    int targetType = targetMeta.getType();
+    int a = indexA;
+    int b = Utils.isEmpty( function.getFieldB() ) ? -1 : indexB;
+    int c = Utils.isEmpty( function.getFieldC() ) ? -1 : indexC;
+    if ( targetType == ValueMetaInterface.TYPE_NONE || getType( calcRowMeta, a ) != targetType ) {
+      return null;
+    }
+
+    switch ( function.getCalcType() ) {
+      case CalculatorMetaFunction.CALC_COPY_OF_FIELD:
+        return row -> row[a];
+      case CalculatorMetaFunction.CALC_SQUARE:
+        return binary( targetType, a, a, ( x, y ) -> x * y, ( x, y ) -> x * y );
+      default:
+        break;
+    }
+
+    if ( !isArithmetic( targetType ) || getType( calcRowMeta, b ) != targetType ) {
+      return null;
+    }
+    switch ( function.getCalcType() ) {
+      case CalculatorMetaFunction.CALC_ADD:
+        return binary( targetType, a, b, ( x, y ) -> x + y, ( x, y ) -> x + y );
+      case CalculatorMetaFunction.CALC_SUBTRACT:
+        return binary( targetType, a, b, ( x, y ) -> x - y, ( x, y ) -> x - y );
+      case CalculatorMetaFunction.CALC_MULTIPLY:
+        return binary( targetType, a, b, ( x, y ) -> x * y, ( x, y ) -> x * y );
+      case CalculatorMetaFunction.CALC_DIVIDE:
+        return binary( targetType, a, b, ( x, y ) -> x / y, ( x, y ) -> x / y );
+      case CalculatorMetaFunction.CALC_PERCENT_1:
+        return binary( targetType, a, b, ( x, y ) -> 100L * x / y, ( x, y ) -> 100.0D * x / y );
+      default:
+        break;
+    }
+
+    if ( getType( calcRowMeta, c ) != targetType ) {
+      return null;
+    }
+    switch ( function.getCalcType() ) {
+      case CalculatorMetaFunction.CALC_ADD3:
+        if ( targetType == ValueMetaInterface.TYPE_INTEGER ) {
+          return row -> {
+            Long x = (Long) row[a];
+            Long y = (Long) row[b];
+            Long z = (Long) row[c];
+            return x == null || y == null || z == null ? null : Long.valueOf( x + y + z );
+          };
+        }
+        return row -> {
+          Double x = (Double) row[a];
+          Double y = (Double) row[b];
+          Double z = (Double) row[c];
+          return x == null || y == null || z == null ? null : Double.valueOf( x + y + z );
+        };
+      case CalculatorMetaFunction.CALC_COMBINATION_1:
+        if ( targetType == ValueMetaInterface.TYPE_INTEGER ) {
+          return row -> {
+            Long x = (Long) row[a];
+            Long y = (Long) row[b];
+            Long z = (Long) row[c];
+            return x == null || y == null || z == null ? null : Long.valueOf( x + y * z );
+          };
+        }
+        return row -> {
+          Double x = (Double) row[a];
+          Double y = (Double) row[b];
+          Double z = (Double) row[c];
+          return x == null || y == null || z == null ? null : Double.valueOf( x + y * z );
+        };
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the number of calculations that were compiled
+   */
+  public static int count( Evaluation[] evaluations ) {
+    int count = 0;
+    for ( Evaluation evaluation : evaluations ) {
+      if ( evaluation != null ) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static Evaluation binary( int type, int a, int b, LongBinaryOperator longs, DoubleBinaryOperator doubles ) {
+    if ( type == ValueMetaInterface.TYPE_INTEGER ) {
+      return row -> {
+        Long x = (Long) row[a];
+        Long y = (Long) row[b];
+        return x == null || y == null ? null : Long.valueOf( longs.applyAsLong( x, y ) );
+      };
+    }
+    if ( type == ValueMetaInterface.TYPE_NUMBER ) {
+      return row -> {
+        Double x = (Double) row[a];
+        Double y = (Double) row[b];
+        return x == null || y == null ? null : Double.valueOf( doubles.applyAsDouble( x, y ) );
+      };
+    }
+    return null;
+  }
+
+  private static boolean isArithmetic( int type ) {
+    return type == ValueMetaInterface.TYPE_INTEGER || type == ValueMetaInterface.TYPE_NUMBER;
+  }
+
+  /**
+   * @return the data type of the field or none if there is no such field or its data is not stored normally
+   */
+  private static int getType( RowMetaInterface rowMeta, int index ) {
+    if ( index < 0 || index >= rowMeta.size() ) {
+      return ValueMetaInterface.TYPE_NONE;
+    }
+    ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+    if ( valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+      return ValueMetaInterface.TYPE_NONE;
+    }
+    return valueMeta.getType();
+  }
+}
@@ -0,0 +1,247 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleEOFException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * The rows a step can't keep in memory, spread over a fixed number of temporary files by the hash of their key. All
+ * the rows of a key end up in the same file, so every file can be processed on its own once the input is read. The
+ * rows of a file that is still too large are spread again over the files of the next spill level.
+ * <p>
+ * Used by the Memory Group By and the Stream Lookup steps.
+ *
+ * @since 10.3
+ */
+public class SpillPartitions {
+  private static Class<?> PKG = SpillPartitions.class; // for i18n purposes, needed by Translator2!!
+
+  /** The number of files the rows that don't fit in memory are spread over */
+  public static final int NR_OF_PARTITIONS = 16;
+
+  /** Never spill the rows of a spill file more often than this, whatever the memory */
+  public static final int MAX_SPILL_LEVEL = 4;
+
+  /** Don't spill on the free memory before there are at least this many rows or groups in memory */
+  public static final int MIN_ROWS_IN_MEMORY = 5000;
+
+  /** The free memory percentage to spill below when no limit is set, the same default as the Sort rows step */
+  public static final int DEFAULT_FREE_MEMORY_LIMIT = 25;
+
+  /**
+   * Gets the files back one row at a time.
+   */
+  public interface SpilledRowHandler {
+    /**
+     * @param row
+     *          the row read back from the file
+     * @return false to stop reading the file
+     */
+    boolean rowRead( Object[] row ) throws KettleException;
+  }
+
+  private final String prefix;
+  private final String directory;
+  private final VariableSpace space;
+  private final RowMetaInterface rowMeta;
+  private final LogChannelInterface log;
+
+  private final FileObject[] files = new FileObject[NR_OF_PARTITIONS];
+  private final DataOutputStream[] streams = new DataOutputStream[NR_OF_PARTITIONS];
+
+  /**
+   * @param prefix
+   *          the prefix of the temporary file names
+   * @param directory
+   *          the directory to create the temporary files in
+   * @param space
+   *          the variables to resolve the file names with
+   * @param rowMeta
+   *          the layout of the spilled rows
+   * @param log
+   *          the log to report the files that can't be removed to
+   */
+  public SpillPartitions( String prefix, String directory, VariableSpace space, RowMetaInterface rowMeta,
+    LogChannelInterface log ) {
+    this.prefix = prefix;
+    this.directory = directory;
+    this.space = space;
+    this.rowMeta = rowMeta;
+    this.log = log;
+  }
+
+  /**
+   * Every level mixes the whole hash code again with a seed of its own (the MurmurHash3 finalizer), so that the keys
+   * of one file are spread evenly over all the files of the next level.
+   *
+   * @param hashCode
+   *          the hash code of the key
+   * @param spillLevel
+   *          0 for the rows of the input, +1 for every pass over spilled rows
+   * @return the file the rows of the key go to
+   */
+  public static int getPartition( int hashCode, int spillLevel ) {
+    long hash = ( hashCode & 0xFFFFFFFFL ) ^ ( ( spillLevel + 1 ) * 0x9E3779B97F4A7C15L );
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return (int) Long.remainderUnsigned( hash, NR_OF_PARTITIONS );
+  }
+
+  /**
+   * @param spillLevel
+   *          the current spill level, nothing is spilled any more at {@link #MAX_SPILL_LEVEL}
+   * @param inMemory
+   *          the number of rows or groups in memory
+   * @param maxInMemory
+   *          the maximum number of rows or groups in memory, 0 or less for no maximum
+   * @param freeMemoryPctLimit
+   *          the free memory percentage to spill below, 0 or less to ignore the free memory
+   * @param checkFreeMemory
+   *          true to look at the free memory as well, this is expensive so only do it now and then
+   * @return true if there is no room for more rows or groups in memory
+   */
+  public static boolean isMemoryBudgetExceeded( int spillLevel, long inMemory, int maxInMemory,
+    int freeMemoryPctLimit, boolean checkFreeMemory ) {
+    if ( spillLevel >= MAX_SPILL_LEVEL ) {
+      return false;
+    }
+    if ( maxInMemory > 0 && inMemory >= maxInMemory ) {
+      return true;
+    }
+    return checkFreeMemory && freeMemoryPctLimit > 0 && inMemory >= MIN_ROWS_IN_MEMORY
+      && Const.getPercentageFreeMemory() < freeMemoryPctLimit;
+  }
+
+  /**
+   * Write a row to the file of a partition, the file is created with the first row.
+   */
+  public void write( int partition, Object[] row ) throws KettleException {
+    DataOutputStream dos = streams[partition];
+    if ( dos == null ) {
+      try {
+        FileObject file = KettleVFS.createTempFile( prefix, ".tmp", directory, space );
+        files[partition] = file;
+        dos = new DataOutputStream( new BufferedOutputStream( KettleVFS.getOutputStream( file, false ), 50000 ) );
+        streams[partition] = dos;
+      } catch ( Exception e ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "SpillPartitions.Exception.UnableToCreateTemporaryFile" ), e );
+      }
+    }
+    rowMeta.writeData( dos, row );
+  }
+
+  /**
+   * @return true if at least one row was written to the partition
+   */
+  public boolean hasRows( int partition ) {
+    return files[partition] != null;
+  }
+
+  /**
+   * @return the file of the partition, null if no row was written to it
+   */
+  public FileObject getFile( int partition ) {
+    return files[partition];
+  }
+
+  /**
+   * Close the files written to, this is needed before they are read back.
+   */
+  public void closeStreams() throws KettleException {
+    try {
+      for ( int i = 0; i < NR_OF_PARTITIONS; i++ ) {
+        if ( streams[i] != null ) {
+          DataOutputStream dos = streams[i];
+          streams[i] = null;
+          dos.close();
+        }
+      }
+    } catch ( IOException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "SpillPartitions.Exception.UnableToWriteTemporaryFile" ), e );
+    }
+  }
+
+  /**
+   * Read back the rows of a partition, in the order they were written.
+   */
+  public void readRows( int partition, SpilledRowHandler handler ) throws KettleException {
+    if ( files[partition] == null ) {
+      return;
+    }
+    try ( DataInputStream dis =
+           new DataInputStream( new BufferedInputStream( KettleVFS.getInputStream( files[partition] ), 50000 ) ) ) {
+      while ( true ) {
+        Object[] row;
+        try {
+          row = rowMeta.readData( dis );
+        } catch ( KettleEOFException e ) {
+          break;
+        }
+        if ( !handler.rowRead( row ) ) {
+          break;
+        }
+      }
+    } catch ( IOException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "SpillPartitions.Exception.UnableToReadBackRowFromTemporaryFile" ), e );
+    }
+  }
+
+  /**
+   * Remove the file of a partition.
+   */
+  public void delete( int partition ) {
+    try {
+      if ( files[partition] != null && files[partition].exists() ) {
+        files[partition].delete();
+      }
+    } catch ( FileSystemException e ) {
+      log.logError( e.getLocalizedMessage(), e );
+    }
+  }
+
+  /**
+   * Close and remove all the files, whatever happened to them.
+   */
+  public void deleteAll() {
+    try {
+      closeStreams();
+    } catch ( KettleException e ) {
+      log.logError( e.getLocalizedMessage(), e );
+    }
+    for ( int i = 0; i < NR_OF_PARTITIONS; i++ ) {
+      delete( i );
+    }
+  }
+}
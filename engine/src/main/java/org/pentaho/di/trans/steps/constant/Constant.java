@@ -224,10 +224,10 @@ public class Constant extends BaseStep implements StepInterface {
 
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
-    Object[] r = null;
-    r = getRow();
+    long linesWritten = getLinesWritten();
+    Object[][] rows = getRows( NR_OF_ROWS_IN_BATCH );
 
-    if ( r == null ) { // no more rows to be expected from the previous step(s)
+    if ( rows == null ) { // no more rows to be expected from the previous step(s)
       setOutputDone();
       return false;
     }
@@ -241,17 +241,22 @@ public class Constant extends BaseStep implements StepInterface {
       meta.getFields( data.outputMeta, getStepname(), null, null, this, repository, metaStore );
     }
 
-    // Add the constant data to the end of the row.
-    r = RowDataUtil.addRowData( r, getInputRowMeta().size(), data.getConstants().getData() );
+    // Add the constant data to the end of the rows.
+    int inputSize = getInputRowMeta().size();
+    Object[] constants = data.getConstants().getData();
+    for ( int i = 0; i < rows.length; i++ ) {
+      rows[i] = RowDataUtil.addRowData( rows[i], inputSize, constants );
 
-    putRow( data.outputMeta, r );
-
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString(
-        PKG, "Constant.Log.Wrote.Row", Long.toString( getLinesWritten() ), getInputRowMeta().getString( r ) ) );
+      if ( log.isRowLevel() ) {
+        logRowlevel( BaseMessages.getString(
+          PKG, "Constant.Log.Wrote.Row", Long.toString( linesWritten + i + 1 ), getInputRowMeta().getString(
+            rows[i] ) ) );
+      }
     }
 
-    if ( checkFeedback( getLinesWritten() ) ) {
+    putRows( data.outputMeta, rows, rows.length );
+
+    if ( checkFeedback( linesWritten, getLinesWritten() ) ) {
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "Constant.Log.LineNr", Long.toString( getLinesWritten() ) ) );
       }
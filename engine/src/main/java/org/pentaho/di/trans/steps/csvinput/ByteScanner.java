@@ -0,0 +1,120 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next occurrence of one of up to three bytes, eight bytes at a time. Every byte of a word is compared with
+ * the stop bytes at once (SWAR: SIMD within a register), so the bytes between delimiters, enclosures and line ends
+ * are skipped without looking at them one by one.
+ *
+ * @since 10.3
+ */
+public class ByteScanner {
+
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  private final byte byte1;
+  private final byte byte2;
+  private final byte byte3;
+  private final long mask1;
+  private final long mask2;
+  private final long mask3;
+
+  /**
+   * @param stopBytes
+   *          one to three bytes to stop on
+   */
+  public ByteScanner( byte... stopBytes ) {
+    if ( stopBytes.length < 1 || stopBytes.length > 3 ) {
+      throw new IllegalArgumentException( "A scanner stops on one to three bytes, not " + stopBytes.length );
+    }
+    byte1 = stopBytes[0];
+    byte2 = stopBytes[stopBytes.length > 1 ? 1 : 0];
+    byte3 = stopBytes[stopBytes.length - 1];
+    mask1 = broadcast( byte1 );
+    mask2 = broadcast( byte2 );
+    mask3 = broadcast( byte3 );
+  }
+
+  /**
+   * @return the index of the first stop byte in [from, to[ or to if there is none
+   */
+  public int indexOf( byte[] source, int from, int to ) {
+    int i = from;
+    for ( ; i + Long.BYTES <= to; i += Long.BYTES ) {
+      long found = find( (long) LONGS.get( source, i ) );
+      if ( found != 0 ) {
+        return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+    }
+    for ( ; i < to; i++ ) {
+      if ( isStopByte( source[i] ) ) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * @return the index of the first stop byte in [from, to[ of the buffer or to if there is none
+   */
+  public int indexOf( ByteBuffer buffer, int from, int to ) {
+    boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    int i = from;
+    for ( ; i + Long.BYTES <= to; i += Long.BYTES ) {
+      long word = buffer.getLong( i );
+      long found = find( bigEndian ? Long.reverseBytes( word ) : word );
+      if ( found != 0 ) {
+        return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+    }
+    for ( ; i < to; i++ ) {
+      if ( isStopByte( buffer.get( i ) ) ) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private boolean isStopByte( byte b ) {
+    return b == byte1 || b == byte2 || b == byte3;
+  }
+
+  /**
+   * @return a word with the high bit set in every byte of the (little endian) word that is a stop byte
+   */
+  private long find( long word ) {
+    return zeroBytes( word ^ mask1 ) | zeroBytes( word ^ mask2 ) | zeroBytes( word ^ mask3 );
+  }
+
+  /**
+   * Sets the high bit of every byte that is zero, and only of those: the low seven bits are added separately so that
+   * no carry crosses a byte.
+   */
+  private static long zeroBytes( long word ) {
+    return ~( ( ( word & LOW_SEVEN_BITS ) + LOW_SEVEN_BITS ) | word | LOW_SEVEN_BITS );
+  }
+
+  private static long broadcast( byte b ) {
+    return ( b & 0xFFL ) * ONES;
+  }
+}
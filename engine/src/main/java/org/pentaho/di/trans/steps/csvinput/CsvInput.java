@@ -91,6 +91,11 @@ public class CsvInput extends BaseStep implements StepInterface {
       // AND if we have more than one step copy running...
       //
       data.parallel = meta.isRunningInParallel() && data.totalNumberOfSteps > 1;
+      if ( data.parallel && data.readerThreads > 0 ) {
+        // The step copies already split the file between them
+        logBasic( BaseMessages.getString( PKG, "CsvInput.Log.MappedReaderNotUsed" ) );
+        data.readerThreads = 0;
+      }
 
       // The conversion logic for when the lazy conversion is turned of is simple:
       // Pretend it's a lazy conversion object anyway and get the native type during conversion.
@@ -141,7 +146,7 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
 
     try {
-      Object[] outputRowData = readOneRow( false, false ); // get row, set busy!
+      Object[] outputRowData = data.mappedReader != null ? readMappedRow() : readOneRow( false, false );
       // no more input to be expected...
       if ( outputRowData == null ) {
         if ( openNextFile() ) {
@@ -288,6 +293,11 @@ public class CsvInput extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.mappedReader != null ) {
+      data.mappedReader.close();
+      data.mappedReader = null;
+    }
+
     try {
       // Close the previous file...
       //
@@ -346,6 +356,14 @@ public class CsvInput extends BaseStep implements StepInterface {
       data.fc = data.fis.getChannel();
       data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
 
+      if ( data.readerThreads > 0 ) {
+        // The mapped reader skips the header row itself
+        data.mappedReader = new CsvInputMappedReader( data.fc, vfsFilename, bomSize, data.delimiter, data.enclosure,
+          meta.isHeaderPresent(), data.fieldsMapping, meta.isLazyConversionActive() ? null : data.convertRowMeta,
+          data.outputRowMeta.size(), data.readerThreads, CsvInputMappedReader.DEFAULT_CHUNK_SIZE,
+          CsvInputMappedReader.MAX_OVERLAP, getStepname() + " - CSV reader" );
+      }
+
       // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
       //
       if ( data.parallel ) {
@@ -392,7 +410,9 @@ public class CsvInput extends BaseStep implements StepInterface {
       if ( meta.isHeaderPresent() ) {
         // Standard flat file : skip header
         if ( !data.parallel || data.bytesToSkipInFirstFile <= 0 ) {
-          readOneRow( true, false ); // skip this row.
+          if ( data.mappedReader == null ) {
+            readOneRow( true, false ); // skip this row.
+          }
           logBasic( BaseMessages.getString( PKG, "CsvInput.Log.HeaderRowSkipped", data.filenames[ data.filenr - 1 ] ) );
           if ( data.fieldsMapping.size() == 0 ) {
             return false;
@@ -660,7 +680,7 @@ public class CsvInput extends BaseStep implements StepInterface {
               enclosureFound = true;
               boolean keepGoing;
               do {
-                if ( data.moveEndBufferPointer() ) {
+                if ( data.moveEndBufferPointer( data.enclosureScanner ) ) {
                   enclosureFound = false;
                   break;
                 }
@@ -695,7 +715,7 @@ public class CsvInput extends BaseStep implements StepInterface {
               ignoreEnclosuresInField = true;
             }
           } else {
-            if ( data.moveEndBufferPointer() ) {
+            if ( data.moveEndBufferPointer( data.fieldScanner ) ) {
               endOfBuffer = true;
               break;
             }
@@ -857,6 +877,40 @@ public class CsvInput extends BaseStep implements StepInterface {
   }
 
 
+  /**
+   * Read a row parsed by the memory mapped reader and add the filename and row number to it.
+   *
+   * @return the row or null if the end of the file is reached
+   */
+  private Object[] readMappedRow() throws KettleException {
+    Object[] outputRowData = data.mappedReader.nextRow();
+    if ( outputRowData == null ) {
+      return null;
+    }
+
+    if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
+      } else {
+        outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
+      }
+    }
+
+    if ( data.isAddingRowNumber ) {
+      outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
+    }
+
+    incrementLinesInput();
+
+    CsvInputMappedReader.ConversionErrors errors = data.mappedReader.getConversionErrors();
+    if ( errors != null ) {
+      throw new KettleConversionException(
+        "There were " + errors.causes.size() + " conversion errors on line " + getLinesInput(),
+        errors.causes, errors.fields, outputRowData );
+    }
+    return outputRowData;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (CsvInputMeta) smi;
     data = (CsvInputData) sdi;
@@ -906,6 +960,16 @@ public class CsvInput extends BaseStep implements StepInterface {
 
       data.isAddingRowNumber = !Utils.isEmpty( meta.getRowNumField() );
 
+      // Only single byte encoded files are parsed from memory mapped chunks. The mapped reader guesses where records
+      // start from the line ends, files with new lines in fields are read with the NIO buffer.
+      //
+      data.readerThreads = Const.toInt( environmentSubstitute( meta.getReaderThreads() ), 0 );
+      if ( data.readerThreads > 0 && ( data.encodingType != EncodingType.SINGLE || data.delimiter.length == 0
+        || meta.isNewlinePossibleInFields() ) ) {
+        logBasic( BaseMessages.getString( PKG, "CsvInput.Log.MappedReaderNotUsed" ) );
+        data.readerThreads = 0;
+      }
+
       // Handle parallel reading capabilities...
       //
       data.stopReading = false;
@@ -955,6 +1019,18 @@ public class CsvInput extends BaseStep implements StepInterface {
           break;
       }
 
+      // Skip the bytes in between delimiters, enclosures and line ends several at a time.
+      // Only for single byte encodings: there a line end is a single byte.
+      //
+      data.fieldScanner = null;
+      data.enclosureScanner = null;
+      if ( data.encodingType == EncodingType.SINGLE && data.delimiter.length > 0 ) {
+        data.fieldScanner = new ByteScanner( data.delimiter[0], (byte) '\r', (byte) '\n' );
+        if ( data.enclosure != null ) {
+          data.enclosureScanner = new ByteScanner( data.enclosure[0] );
+        }
+      }
+
       return true;
 
     }
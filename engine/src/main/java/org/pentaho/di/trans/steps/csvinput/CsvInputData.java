@@ -72,8 +72,18 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
   public PatternMatcherInterface enclosureMatcher;
   public CrLfMatcherInterface crLfMatcher;
 
+  /** Stops on the bytes that can end a field, null to move through the fields byte by byte */
+  public ByteScanner fieldScanner;
+
+  /** Stops on the bytes that can end an enclosed part of a field, null to move through it byte by byte */
+  public ByteScanner enclosureScanner;
+
   public FieldsMapping fieldsMapping;
 
+  /** The number of threads that parse the memory mapped file, 0 to read it with the byte buffer */
+  public int readerThreads;
+  CsvInputMappedReader mappedReader;
+
   /**
    * Data class for CsvInput step
    *
@@ -192,6 +202,27 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
     return moveEndBufferPointer( true );
   }
 
+  /**
+   * Moves the endBuffer pointer to the next byte the scanner stops on. The bytes in between are skipped several at a
+   * time. Without a scanner the pointer is moved by one.<br>
+   * If there is no such byte in the data that was read, the pointer is moved to the end of it and more data is read.
+   *
+   * @return true if we reached the end of the byte buffer.
+   * @throws IOException
+   *           In case we get an error reading from the input file.
+   */
+  boolean moveEndBufferPointer( ByteScanner scanner ) throws IOException {
+    if ( scanner != null ) {
+      // Stop right before the next stop byte: moving the pointer onto it reads more data when needed
+      int skip = scanner.indexOf( byteBuffer, endBuffer + 1, bufferSize ) - endBuffer - 1;
+      if ( skip > 0 ) {
+        endBuffer += skip;
+        totalBytesRead += skip;
+      }
+    }
+    return moveEndBufferPointer( true );
+  }
+
   void moveEndBufferPointerXTimes( int xTimes ) throws IOException {
     for ( int i = 0; i < xTimes; i++ ) {
       moveEndBufferPointer( true );
@@ -259,6 +290,10 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   void closeFile() throws KettleException {
     try {
+      if ( mappedReader != null ) {
+        mappedReader.close();
+        mappedReader = null;
+      }
       if ( fc != null ) {
         fc.close();
       }
@@ -0,0 +1,551 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Reads the records of a single byte encoded CSV file from memory mapped chunks. The chunks are split into records and
+ * fields on a pool of threads, the rows are handed out in file order.
+ * <p>
+ * A chunk owns the records that start in it. The start of the first record of a chunk is guessed to be right after the
+ * first line end in the chunk, and the chunks are parsed from that guess in parallel. Once the previous chunk is parsed
+ * the real start is known: the end of its last record, taking enclosures into account. If the guess was wrong (a line
+ * end inside an enclosed field) the chunk is parsed again from the real start. This way records with enclosed line
+ * ends are read correctly, while the usual file is parsed fully in parallel.
+ * <p>
+ * Every field value is copied once, straight from the mapped file into the binary string of the row. Line ends are
+ * CR, LF or CR+LF, empty lines are skipped.
+ *
+ * @since 10.3
+ */
+class CsvInputMappedReader {
+
+  /** The number of bytes parsed by one task */
+  static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  /** The number of bytes mapped beyond the end of a chunk for the record that starts in it and ends in the next one */
+  private static final int OVERLAP = 64 * 1024;
+
+  /** The largest overlap, a record that doesn't end within it is not read */
+  static final int MAX_OVERLAP = Integer.MAX_VALUE / 2;
+
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final FileChannel channel;
+  private final String filename;
+  private final long firstRecordStart;
+  private final long fileEnd;
+  private final byte[] delimiter;
+  private final byte[] enclosure;
+  private final FieldsMapping fieldsMapping;
+  private final ByteScanner fieldScanner;
+  private final ByteScanner enclosureScanner;
+  private final int rowSize;
+  private final RowMetaInterface convertRowMeta;
+  private final int chunkSize;
+  private final int maxOverlap;
+  private final int maxChunksInFlight;
+  private final ExecutorService executor;
+
+  private final Deque<Future<Chunk>> chunksInFlight = new ArrayDeque<>();
+  private long nextChunkStart;
+
+  /** The chunk the rows are taken from, null before the first chunk */
+  private Chunk chunk;
+  private int rowIndex;
+
+  /** Where the records of the next chunk really start: the end of the last record of the current chunk */
+  private long nextRecordStart;
+
+  /**
+   * The conversion errors of the values of a row, when the values are converted while reading.
+   */
+  static final class ConversionErrors {
+    final List<Exception> causes = new ArrayList<>();
+    final List<ValueMetaInterface> fields = new ArrayList<>();
+  }
+
+  /**
+   * The records that start in [start, end[, parsed into rows.
+   */
+  private static final class Chunk {
+    private final long start;
+    private final long end;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<ConversionErrors> errors = new ArrayList<>();
+
+    /** The position right after the last record of the chunk */
+    private long recordsEnd;
+
+    private Chunk( long start, long end ) {
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /**
+   * @param channel
+   *          the open file, only read through mapped buffers
+   * @param filename
+   *          the name of the file, for the error messages
+   * @param dataStart
+   *          the position of the first byte after the byte order mark
+   * @param convertRowMeta
+   *          the binary string metadata to convert the values with, null to keep the values as binary strings (lazy
+   *          conversion)
+   * @param rowSize
+   *          the size of the allocated rows
+   * @param nrThreads
+   *          the number of threads to parse with
+   * @param chunkSize
+   *          the number of bytes parsed by one task
+   * @param maxOverlap
+   *          the largest number of bytes mapped beyond the end of a chunk, which limits the size of a record
+   */
+  CsvInputMappedReader( FileChannel channel, String filename, long dataStart, byte[] delimiter, byte[] enclosure,
+                        boolean headerPresent, FieldsMapping fieldsMapping, RowMetaInterface convertRowMeta,
+                        int rowSize, int nrThreads, int chunkSize, int maxOverlap, final String threadName )
+    throws IOException, KettleFileException {
+    this.channel = channel;
+    this.filename = filename;
+    this.fileEnd = channel.size();
+    this.delimiter = delimiter;
+    this.enclosure = enclosure == null || enclosure.length == 0 ? null : enclosure;
+    this.fieldsMapping = fieldsMapping;
+    this.fieldScanner = new ByteScanner( delimiter[0], CR, LF );
+    this.enclosureScanner = this.enclosure == null ? null : new ByteScanner( this.enclosure[0] );
+    this.convertRowMeta = convertRowMeta;
+    this.rowSize = rowSize;
+    this.chunkSize = chunkSize;
+    this.maxOverlap = maxOverlap;
+    this.maxChunksInFlight = nrThreads + 1;
+    this.firstRecordStart = headerPresent ? skipRecord( dataStart ) : dataStart;
+    this.nextChunkStart = firstRecordStart;
+    this.nextRecordStart = firstRecordStart;
+    this.executor = Executors.newFixedThreadPool( nrThreads, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName );
+      return thread;
+    } );
+  }
+
+  /**
+   * @return the next row of the file or null when all rows are read
+   */
+  Object[] nextRow() throws KettleException {
+    while ( chunk == null || rowIndex >= chunk.rows.size() ) {
+      if ( !nextChunk() ) {
+        return null;
+      }
+    }
+    return chunk.rows.get( rowIndex++ );
+  }
+
+  /**
+   * @return the conversion errors of the last row returned by {@link #nextRow()}, null if there were none
+   */
+  ConversionErrors getConversionErrors() {
+    return chunk == null || rowIndex == 0 ? null : chunk.errors.get( rowIndex - 1 );
+  }
+
+  void close() {
+    executor.shutdownNow();
+    chunksInFlight.clear();
+    chunk = null;
+  }
+
+  private boolean nextChunk() throws KettleException {
+    if ( chunk != null ) {
+      nextRecordStart = chunk.recordsEnd;
+    }
+    submitChunks();
+    Future<Chunk> future = chunksInFlight.poll();
+    if ( future == null ) {
+      return false;
+    }
+    try {
+      Chunk parsed = future.get();
+      if ( parsed.start != nextRecordStart ) {
+        // The guessed start was inside a record (a line end in an enclosed field): parse again from the real start
+        parsed = parseChunk( nextRecordStart, parsed.end, convertRowMeta );
+      }
+      chunk = parsed;
+      rowIndex = 0;
+      submitChunks();
+      return true;
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof KettleFileException ) {
+        throw (KettleFileException) e.getCause();
+      }
+      throw new KettleFileException( "Exception reading line using memory mapped file", e.getCause() );
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Exception reading line using memory mapped file", e );
+    }
+  }
+
+  private void submitChunks() {
+    while ( chunksInFlight.size() < maxChunksInFlight && nextChunkStart < fileEnd ) {
+      final long start = nextChunkStart;
+      final long end = Math.min( fileEnd, start + chunkSize );
+      // The values are converted on the pool threads, and conversions use the date and number formats cached in the
+      // value metadata: a task gets a copy of the metadata so the chunks parsed at the same time don't share them
+      final RowMetaInterface taskRowMeta = convertRowMeta == null ? null : convertRowMeta.clone();
+      chunksInFlight.add( executor.submit( () -> start == firstRecordStart
+        ? parseChunk( start, end, taskRowMeta )
+        : parseChunk( guessRecordStart( start, end ), end, taskRowMeta ) ) );
+      nextChunkStart = end;
+    }
+  }
+
+  /**
+   * @return the position right after the first line end at or after the start of the chunk
+   */
+  long guessRecordStart( long chunkStart, long chunkEnd ) throws IOException {
+    Window window = new Window();
+    window.map( chunkStart - 1, chunkEnd + OVERLAP );
+    for ( long position = chunkStart - 1; position < fileEnd; position++ ) {
+      if ( !window.contains( position ) ) {
+        window.map( position, position + OVERLAP );
+      }
+      byte b = window.get( position );
+      if ( b == CR || b == LF ) {
+        return skipLineEnds( window, position );
+      }
+    }
+    return fileEnd;
+  }
+
+  /**
+   * Parse the records that start in [recordStart, chunkEnd[.
+   */
+  Chunk parseChunk( long recordStart, long chunkEnd, RowMetaInterface rowMeta )
+    throws IOException, KettleFileException {
+    Chunk parsed = new Chunk( recordStart, chunkEnd );
+    RecordParser parser = new RecordParser( fieldsMapping.size() );
+    Window window = new Window();
+    int overlap = Math.min( OVERLAP, maxOverlap );
+    window.map( recordStart, chunkEnd + overlap );
+
+    long position = skipLineEnds( window, recordStart );
+    while ( position < chunkEnd && position < fileEnd ) {
+      long recordEnd = parser.parse( window, position );
+      if ( recordEnd < 0 ) {
+        // The record doesn't end in the window: map a larger one
+        overlap = growOverlap( overlap, position );
+        window.map( position, chunkEnd + overlap );
+        continue;
+      }
+      addRow( parsed, parser, window, rowMeta );
+      position = skipLineEnds( window, recordEnd );
+    }
+    parsed.recordsEnd = position;
+    return parsed;
+  }
+
+  /**
+   * @return the start of the record after the one at the given position: used to skip the header row
+   */
+  private long skipRecord( long recordStart ) throws IOException, KettleFileException {
+    RecordParser parser = new RecordParser( fieldsMapping.size() );
+    Window window = new Window();
+    int overlap = Math.min( OVERLAP, maxOverlap );
+    window.map( recordStart, recordStart + overlap );
+    long position = skipLineEnds( window, recordStart );
+    if ( position >= fileEnd ) {
+      return position;
+    }
+    long recordEnd;
+    while ( ( recordEnd = parser.parse( window, position ) ) < 0 ) {
+      overlap = growOverlap( overlap, position );
+      window.map( position, position + overlap );
+    }
+    return skipLineEnds( window, recordEnd );
+  }
+
+  /**
+   * @return the overlap to map for a record that doesn't end in the current one
+   * @throws KettleFileException
+   *           if the overlap can't grow anymore: without this the record would be parsed again and again
+   */
+  private int growOverlap( int overlap, long recordStart ) throws KettleFileException {
+    if ( overlap >= maxOverlap ) {
+      throw new KettleFileException( "The record at offset " + recordStart + " of file " + filename
+        + " is larger than the maximum record size of " + maxOverlap + " bytes" );
+    }
+    return (int) Math.min( maxOverlap, overlap * 2L );
+  }
+
+  private void addRow( Chunk parsed, RecordParser parser, Window window, RowMetaInterface rowMeta ) {
+    ConversionErrors errors = null;
+    Object[] row = RowDataUtil.allocateRowData( rowSize );
+    for ( int i = 0; i < parser.nrFields; i++ ) {
+      int index = fieldsMapping.fieldMetaIndex( i );
+      if ( index == FieldsMapping.FIELD_DOES_NOT_EXIST ) {
+        continue;
+      }
+      byte[] field = parser.getField( window, i );
+      if ( rowMeta == null ) {
+        row[index] = field;
+      } else {
+        ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+        try {
+          row[index] = valueMeta.convertBinaryStringToNativeType( field );
+        } catch ( KettleValueException e ) {
+          if ( errors == null ) {
+            errors = new ConversionErrors();
+          }
+          errors.causes.add( e );
+          errors.fields.add( valueMeta );
+        }
+      }
+    }
+    parsed.rows.add( row );
+    parsed.errors.add( errors );
+  }
+
+  /**
+   * @return the position of the first byte at or after the given position that is not a line end
+   */
+  private long skipLineEnds( Window window, long position ) throws IOException {
+    while ( position < fileEnd ) {
+      if ( !window.contains( position ) ) {
+        window.map( position, position + OVERLAP );
+      }
+      byte b = window.get( position );
+      if ( b != CR && b != LF ) {
+        break;
+      }
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * A read-only mapping of a part of the file, moved along by one task.
+   */
+  private final class Window {
+    private long start;
+    private MappedByteBuffer buffer;
+    private int limit;
+
+    /** True if the window reaches the end of the file */
+    private boolean last;
+
+    private void map( long from, long to ) throws IOException {
+      start = Math.max( 0L, from );
+      long end = Math.min( fileEnd, Math.max( to, start ) );
+      if ( end - start > Integer.MAX_VALUE ) {
+        end = start + Integer.MAX_VALUE;
+      }
+      limit = (int) ( end - start );
+      buffer = channel.map( FileChannel.MapMode.READ_ONLY, start, limit );
+      buffer.order( ByteOrder.LITTLE_ENDIAN );
+      last = end == fileEnd;
+    }
+
+    private boolean contains( long position ) {
+      return position >= start && position < start + limit;
+    }
+
+    private byte get( long position ) {
+      return buffer.get( (int) ( position - start ) );
+    }
+
+    /**
+     * @return true if the pattern is found at the position relative to the start of the window
+     */
+    private boolean matches( int position, byte[] pattern ) {
+      if ( position + pattern.length > limit ) {
+        return false;
+      }
+      for ( int i = 0; i < pattern.length; i++ ) {
+        if ( buffer.get( position + i ) != pattern[i] ) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Finds the fields of one record. Only the positions are kept, so that only the fields that are used are copied.
+   */
+  private final class RecordParser {
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private final boolean[] escaped;
+    private int nrFields;
+
+    private RecordParser( int maxFields ) {
+      fieldStarts = new int[maxFields];
+      fieldEnds = new int[maxFields];
+      escaped = new boolean[maxFields];
+    }
+
+    /**
+     * @return the position right after the record or -1 if the record doesn't end in the window
+     */
+    private long parse( Window window, long recordStart ) {
+      MappedByteBuffer buffer = window.buffer;
+      int limit = window.limit;
+      int position = (int) ( recordStart - window.start );
+      nrFields = 0;
+
+      while ( true ) {
+        int fieldStart = position;
+        boolean enclosed = false;
+        boolean escapedEnclosure = false;
+
+        if ( enclosure != null && position + enclosure.length > limit && !window.last ) {
+          return -1;
+        }
+        if ( enclosure != null && window.matches( position, enclosure ) ) {
+          // An enclosure only counts at the start of a field
+          enclosed = true;
+          position += enclosure.length;
+          while ( true ) {
+            if ( position + 2 * enclosure.length > limit && !window.last ) {
+              return -1;
+            }
+            if ( position + enclosure.length > limit ) {
+              // Not closed at the end of the file: keep the enclosure in the value
+              enclosed = false;
+              position = limit;
+              break;
+            }
+            if ( window.matches( position, enclosure ) ) {
+              if ( window.matches( position + enclosure.length, enclosure ) ) {
+                escapedEnclosure = true;
+                position += 2 * enclosure.length;
+                continue;
+              }
+              position += enclosure.length;
+              break;
+            }
+            position = enclosureScanner.indexOf( buffer, position + 1, limit );
+          }
+        }
+
+        // Look for the end of the field
+        boolean delimiterFound = false;
+        while ( true ) {
+          if ( position >= limit ) {
+            if ( !window.last ) {
+              return -1;
+            }
+            break;
+          }
+          byte b = buffer.get( position );
+          if ( b == CR || b == LF ) {
+            break;
+          }
+          if ( b == delimiter[0] ) {
+            if ( position + delimiter.length > limit && !window.last ) {
+              return -1;
+            }
+            if ( window.matches( position, delimiter ) ) {
+              delimiterFound = true;
+              break;
+            }
+          }
+          position = fieldScanner.indexOf( buffer, position + 1, limit );
+        }
+
+        if ( nrFields < fieldStarts.length ) {
+          int start = fieldStart;
+          int end = position;
+          if ( enclosed ) {
+            start += enclosure.length;
+            end -= enclosure.length;
+          }
+          fieldStarts[nrFields] = start;
+          fieldEnds[nrFields] = Math.max( start, end );
+          escaped[nrFields] = escapedEnclosure;
+          nrFields++;
+        }
+
+        if ( !delimiterFound ) {
+          // Right after the line end, or at the end of the file
+          return window.start + Math.min( position + 1, limit );
+        }
+        position += delimiter.length;
+      }
+    }
+
+    private byte[] getField( Window window, int fieldNr ) {
+      int start = fieldStarts[fieldNr];
+      byte[] field = new byte[fieldEnds[fieldNr] - start];
+      window.buffer.position( start );
+      window.buffer.get( field );
+      return escaped[fieldNr] ? removeEscapedEnclosures( field ) : field;
+    }
+
+    /**
+     * [abcd "" defg] --&gt; [abcd " defg]
+     */
+    private byte[] removeEscapedEnclosures( byte[] field ) {
+      byte[] result = new byte[field.length];
+      int length = 0;
+      int i = 0;
+      while ( i < field.length ) {
+        if ( matches( field, i, enclosure ) && matches( field, i + enclosure.length, enclosure ) ) {
+          System.arraycopy( enclosure, 0, result, length, enclosure.length );
+          length += enclosure.length;
+          i += 2 * enclosure.length;
+        } else {
+          result[length++] = field[i++];
+        }
+      }
+      byte[] trimmed = new byte[length];
+      System.arraycopy( result, 0, trimmed, 0, length );
+      return trimmed;
+    }
+  }
+
+  private static boolean matches( byte[] bytes, int position, byte[] pattern ) {
+    if ( position + pattern.length > bytes.length ) {
+      return false;
+    }
+    for ( int i = 0; i < pattern.length; i++ ) {
+      if ( bytes[position + i] != pattern[i] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
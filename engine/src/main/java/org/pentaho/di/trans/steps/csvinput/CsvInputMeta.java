@@ -85,6 +85,9 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
 
   private String bufferSize;
 
+  /** The number of threads that parse the memory mapped file, empty or 0 to read it the usual way */
+  private String readerThreads;
+
   private boolean lazyConversionActive;
 
   private TextFileInputField[] inputFields;
@@ -140,6 +143,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       delimiter = XMLHandler.getTagValue( stepnode, getXmlCode( "DELIMITER" ) );
       enclosure = XMLHandler.getTagValue( stepnode, getXmlCode( "ENCLOSURE" ) );
       bufferSize = XMLHandler.getTagValue( stepnode, getXmlCode( "BUFFERSIZE" ) );
+      readerThreads = XMLHandler.getTagValue( stepnode, getXmlCode( "READER_THREADS" ) );
       headerPresent = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, getXmlCode( "HEADER_PRESENT" ) ) );
       lazyConversionActive =
         "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, getXmlCode( "LAZY_CONVERSION" ) ) );
@@ -203,6 +207,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "ENCLOSURE" ), enclosure ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "HEADER_PRESENT" ), headerPresent ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "BUFFERSIZE" ), bufferSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "READER_THREADS" ), readerThreads ) );
     retval
       .append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "LAZY_CONVERSION" ), lazyConversionActive ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "ADD_FILENAME_RESULT" ), isaddresult ) );
@@ -253,6 +258,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       enclosure = rep.getStepAttributeString( id_step, getRepCode( "ENCLOSURE" ) );
       headerPresent = rep.getStepAttributeBoolean( id_step, getRepCode( "HEADER_PRESENT" ) );
       bufferSize = rep.getStepAttributeString( id_step, getRepCode( "BUFFERSIZE" ) );
+      readerThreads = rep.getStepAttributeString( id_step, getRepCode( "READER_THREADS" ) );
       lazyConversionActive = rep.getStepAttributeBoolean( id_step, getRepCode( "LAZY_CONVERSION" ) );
       isaddresult = rep.getStepAttributeBoolean( id_step, getRepCode( "ADD_FILENAME_RESULT" ) );
       runningInParallel = rep.getStepAttributeBoolean( id_step, getRepCode( "PARALLEL" ) );
@@ -297,6 +303,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "DELIMITER" ), delimiter );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "ENCLOSURE" ), enclosure );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "BUFFERSIZE" ), bufferSize );
+      rep.saveStepAttribute( id_transformation, id_step, getRepCode( "READER_THREADS" ), readerThreads );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "HEADER_PRESENT" ), headerPresent );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "LAZY_CONVERSION" ), lazyConversionActive );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "ADD_FILENAME_RESULT" ), isaddresult );
@@ -478,6 +485,21 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     this.bufferSize = bufferSize;
   }
 
+  /**
+   * @return the number of threads that parse the memory mapped file, empty or 0 to read it the usual way
+   */
+  public String getReaderThreads() {
+    return readerThreads;
+  }
+
+  /**
+   * @param readerThreads
+   *          the number of threads that parse the memory mapped file, empty or 0 to read it the usual way
+   */
+  public void setReaderThreads( String readerThreads ) {
+    this.readerThreads = readerThreads;
+  }
+
   /**
    * @return true if lazy conversion is turned on: conversions are delayed as long as possible, perhaps to never occur
    *         at all.
@@ -815,6 +837,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
           enclosure = (String) entry.getValue();
         } else if ( attr.getKey().equals( "BUFFERSIZE" ) ) {
           bufferSize = (String) entry.getValue();
+        } else if ( attr.getKey().equals( "READER_THREADS" ) ) {
+          readerThreads = (String) entry.getValue();
         } else if ( attr.getKey().equals( "LAZY_CONVERSION" ) ) {
           lazyConversionActive = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "PARALLEL" ) ) {
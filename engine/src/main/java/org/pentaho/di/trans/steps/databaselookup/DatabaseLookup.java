@@ -13,11 +13,18 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.SharedLookupCache;
 import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.database.Database;
@@ -25,6 +32,7 @@ import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -52,6 +60,9 @@ import com.google.common.annotations.VisibleForTesting;
 public class DatabaseLookup extends BaseStep implements StepInterface {
   private static Class<?> PKG = DatabaseLookupMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** Databases limit the number of parameters of a statement or the length of an IN-list, Oracle to 1000 */
+  static final int MAX_BATCH_PARAMETERS = 1000;
+
   private DatabaseLookupMeta meta;
   private DatabaseLookupData data;
 
@@ -69,8 +80,13 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
    */
   @VisibleForTesting
   synchronized Object[] lookupValues( RowMetaInterface inputRowMeta, Object[] row ) throws KettleException {
-    Object[] outputRow = RowDataUtil.resizeArray( row, data.outputRowMeta.size() );
+    return lookupValues( inputRowMeta, row, createLookupRow( inputRowMeta, row ) );
+  }
 
+  /**
+   * @return the values of the input row to look up, converted to the types of the table
+   */
+  private Object[] createLookupRow( RowMetaInterface inputRowMeta, Object[] row ) throws KettleException {
     Object[] lookupRow = new Object[ data.lookupMeta.size() ];
     int lookupIndex = 0;
 
@@ -109,13 +125,25 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  private synchronized Object[] lookupValues( RowMetaInterface inputRowMeta, Object[] row, Object[] lookupRow )
+    throws KettleException {
+    Object[] outputRow = RowDataUtil.resizeArray( row, data.outputRowMeta.size() );
 
     Object[] add;
     boolean cache_now = false;
     boolean cacheHit = false;
 
     // First, check if we looked up before
-    if ( meta.isCached() ) {
+    if ( data.batchResults != null ) {
+      // Looked up with the other rows of the batch, in the cache or in the database
+      add = data.batchResults.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
+      if ( add != null ) {
+        cacheHit = true;
+      }
+    } else if ( meta.isCached() ) {
       add = data.cache.getRowFromCache( data.lookupMeta, lookupRow );
       if ( add != null ) {
         cacheHit = true;
@@ -124,7 +152,13 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       add = null;
     }
 
-    if ( add == null ) {
+    // The database had nothing for this key the last time, no need to ask again
+    boolean knownMissing = add == DatabaseLookupData.Cache.NOT_FOUND;
+    if ( knownMissing ) {
+      add = null;
+    }
+
+    if ( add == null && !knownMissing ) {
       if ( !( meta.isCached() && meta.isLoadingAllDataInCache() ) || data.hasDBCondition ) { // do not go to the
         // database when all rows
         // are in (exception LIKE
@@ -139,6 +173,12 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         data.db.setValuesLookup( data.lookupMeta, lookupRow );
         add = data.db.getLookup( meta.isFailingOnMultipleResults() );
         cache_now = true;
+
+        if ( add == null && meta.isCached() && !meta.isLoadingAllDataInCache() && data.allEquals ) {
+          // Remember the miss before the row is eaten or sent to error handling
+          data.cache.storeRowInCache( meta, data.lookupMeta, lookupRow, DatabaseLookupData.Cache.NOT_FOUND );
+          cache_now = false;
+        }
       }
     }
 
@@ -175,26 +215,14 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       // In that case, we already know the data type is OK.
       if ( !cacheHit ) {
         incrementLines();
-        int[] types = meta.getReturnValueDefaultType();
-
-        // The assumption here is that the types are in the same order
-        // as the returned lookup row, but since we make the lookup row
-        // that should not be a problem.
-        //
-        for ( int i = 0; i < types.length; i++ ) {
-          ValueMetaInterface returned = data.db.getReturnRowMeta().getValueMeta( i );
-          ValueMetaInterface expected = data.returnMeta.getValueMeta( i );
-
-          if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
-            // Set the type to the default return type
-            add[ i ] = expected.convertData( returned, add[ i ] );
-          }
-        }
+        convertReturnValues( data.db.getReturnRowMeta(), 0, add );
       }
     }
 
     // Store in cache if we need to!
     // If we already loaded all data into the cache, storing more makes no sense.
+    // Only lookups on "=" are stored: the row the database returns for <, <=, >, >=, BETWEEN or LIKE isn't
+    // necessarily the one it would return for other values that match the same conditions.
     //
     if ( meta.isCached() && cache_now && !meta.isLoadingAllDataInCache() && data.allEquals ) {
       data.cache.storeRowInCache( meta, data.lookupMeta, lookupRow, add );
@@ -207,6 +235,31 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return outputRow;
   }
 
+  /**
+   * Convert the values returned by the database to the default return types.
+   *
+   * @param returnedMeta the metadata of the returned row
+   * @param offset the index of the first return value in the returned row
+   * @param add the return values, converted in place
+   */
+  private void convertReturnValues( RowMetaInterface returnedMeta, int offset, Object[] add ) throws KettleException {
+    int[] types = meta.getReturnValueDefaultType();
+
+    // The assumption here is that the types are in the same order
+    // as the returned lookup row, but since we make the lookup row
+    // that should not be a problem.
+    //
+    for ( int i = 0; i < types.length; i++ ) {
+      ValueMetaInterface returned = returnedMeta.getValueMeta( offset + i );
+      ValueMetaInterface expected = data.returnMeta.getValueMeta( i );
+
+      if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
+        // Set the type to the default return type
+        add[ i ] = expected.convertData( returned, add[ i ] );
+      }
+    }
+  }
+
   @VisibleForTesting
   boolean isTimelessMask( String dateMask ) {
     if ( dateMask == null ) {
@@ -346,15 +399,18 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+    meta = (DatabaseLookupMeta) smi;
+    data = (DatabaseLookupData) sdi;
+
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !lookupBatch() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
 
-    meta = (DatabaseLookupMeta) smi;
-    data = (DatabaseLookupData) sdi;
-
     if ( first ) {
       first = false;
 
@@ -422,6 +478,7 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         loadAllTableDataIntoTheCache();
       }
 
+      initBatchLookup();
     }
 
     if ( log.isRowLevel() ) {
@@ -429,9 +486,23 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         + getInputRowMeta().getString( r ) );
     }
 
+    if ( data.batchSize > 0 ) {
+      return addToBatch( r );
+    }
+    return lookupRow( r, null );
+  }
+
+  /**
+   * Look up the values of a row and pass it on.
+   *
+   * @param lookupRow the values to look up, null to take them from the row
+   * @return false if the step has to stop
+   */
+  private boolean lookupRow( Object[] r, Object[] lookupRow ) throws KettleException {
     try {
       // add new lookup values to the row
-      Object[] outputRow = lookupValues( getInputRowMeta(), r );
+      Object[] outputRow = lookupRow == null
+        ? lookupValues( getInputRowMeta(), r ) : lookupValues( getInputRowMeta(), r, lookupRow );
 
       if ( outputRow != null ) {
         // copy row to output rowset(s);
@@ -446,21 +517,282 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         }
       }
     } catch ( KettleException e ) {
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        putError( getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001" );
-      } else {
-        logError( BaseMessages.getString( PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing" )
-          + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+      return handleLookupError( r, e );
+    }
+
+    return true;
+  }
+
+  /**
+   * @return false if the step has to stop
+   */
+  private boolean handleLookupError( Object[] r, KettleException e ) throws KettleException {
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      putError( getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001" );
+      return true;
+    }
+    logError( BaseMessages.getString( PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing" )
+      + e.getMessage() );
+    setErrors( 1 );
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /**
+   * Batches are only looked up when every key is compared with "=": the keys of a batch are then found with a
+   * single IN-list (or OR-ed) query.
+   */
+  @VisibleForTesting
+  void initBatchLookup() {
+    data.batchSize = 0;
+    if ( meta.getLookupBatchSize() <= 1 ) {
+      return;
+    }
+    boolean possible = !( meta.isCached() && meta.isLoadingAllDataInCache() ) && data.lookupMeta.size() > 0;
+    for ( int i = 0; i < data.conditions.length && possible; i++ ) {
+      possible = data.conditions[ i ] == DatabaseLookupMeta.CONDITION_EQ && data.keynrs2[ i ] < 0;
+    }
+    if ( !possible ) {
+      logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookupNotUsed" ) );
+      return;
+    }
+    data.batchSize = meta.getLookupBatchSize();
+    data.batchRows = new ArrayList<>( data.batchSize );
+    data.batchLookupRows = new ArrayList<>( data.batchSize );
+    data.batchErrors = new ArrayList<>( data.batchSize );
+    data.batchResults = new HashMap<>();
+    data.batchKeys = new ArrayList<>( data.batchSize );
+  }
+
+  /**
+   * Keep the row until its batch is complete: a batch holds the given number of keys that are not cached, or ten
+   * times as many rows at most. A row whose lookup values can't be converted waits with the others as well, so that
+   * the rows are passed on in the order they came in.
+   *
+   * @return false if the step has to stop
+   */
+  @VisibleForTesting
+  boolean addToBatch( Object[] r ) throws KettleException {
+    Object[] lookupRow = null;
+    KettleException error = null;
+    try {
+      lookupRow = createLookupRow( getInputRowMeta(), r );
+      RowMetaAndData key = new RowMetaAndData( data.lookupMeta, lookupRow );
+      if ( !data.batchResults.containsKey( key ) ) {
+        Object[] add = meta.isCached() ? data.cache.getRowFromCache( data.lookupMeta, lookupRow ) : null;
+        if ( add == null && hasNullValue( lookupRow ) ) {
+          // "=" never matches null values in the database
+          add = DatabaseLookupData.Cache.NOT_FOUND;
+        }
+        data.batchResults.put( key, add );
+        if ( add == null ) {
+          data.batchKeys.add( lookupRow );
+        }
       }
+    } catch ( KettleException e ) {
+      error = e;
     }
+    data.batchRows.add( r );
+    data.batchLookupRows.add( lookupRow );
+    data.batchErrors.add( error );
 
+    if ( data.batchKeys.size() >= data.batchSize || data.batchRows.size() >= 10 * data.batchSize ) {
+      return lookupBatch();
+    }
     return true;
   }
 
+  private static boolean hasNullValue( Object[] lookupRow ) {
+    for ( Object value : lookupRow ) {
+      if ( value == null ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Look up the keys of the batch and pass its rows on in the order they came in.
+   *
+   * @return false if the step has to stop
+   */
+  private boolean lookupBatch() throws KettleException {
+    try {
+      try {
+        lookupBatchKeys();
+      } catch ( KettleException e ) {
+        // Every row of the batch failed its lookup
+        for ( int i = 0; i < data.batchRows.size(); i++ ) {
+          KettleException error = data.batchErrors.get( i );
+          if ( !handleLookupError( data.batchRows.get( i ), error == null ? e : error ) ) {
+            return false;
+          }
+        }
+        return true;
+      }
+      for ( int i = 0; i < data.batchRows.size(); i++ ) {
+        KettleException error = data.batchErrors.get( i );
+        if ( error != null ) {
+          if ( !handleLookupError( data.batchRows.get( i ), error ) ) {
+            return false;
+          }
+        } else if ( !lookupRow( data.batchRows.get( i ), data.batchLookupRows.get( i ) ) ) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchLookupRows.clear();
+      data.batchErrors.clear();
+      data.batchResults.clear();
+      data.batchKeys.clear();
+    }
+  }
+
+  /**
+   * Find the keys of the batch that are not cached with as few queries as possible. Keys that the queries don't
+   * return are not found. Only when a query returns a row that is equal to one of its keys for the database alone,
+   * for example because the database compares strings without regard to case, are the keys it didn't return looked
+   * up one by one, like they would be without a batch. Keys with more than one row when that is an error are left
+   * to the lookup of their rows.
+   */
+  private void lookupBatchKeys() throws KettleException {
+    if ( data.batchKeys.isEmpty() ) {
+      return;
+    }
+    if ( data.batchDb == null ) {
+      data.batchDb = getDatabase( meta.getDatabaseMeta() );
+      connectDatabase( data.batchDb );
+    }
+
+    final int keysAmount = data.lookupMeta.size();
+    final int keysPerQuery = Math.max( 1, MAX_BATCH_PARAMETERS / keysAmount );
+    Set<RowMetaAndData> ambiguousKeys = new HashSet<>();
+    boolean inexactMatches = false;
+
+    for ( int from = 0; from < data.batchKeys.size(); from += keysPerQuery ) {
+      List<Object[]> keys = data.batchKeys.subList( from, Math.min( data.batchKeys.size(), from + keysPerQuery ) );
+
+      RowMetaInterface paramsMeta = new RowMeta();
+      Object[] params = new Object[ keys.size() * keysAmount ];
+      int index = 0;
+      for ( Object[] key : keys ) {
+        for ( int i = 0; i < keysAmount; i++ ) {
+          paramsMeta.addValueMeta( data.lookupMeta.getValueMeta( i ).clone() );
+          params[ index++ ] = key[ i ];
+        }
+      }
+
+      ResultSet resultSet = data.batchDb.openQuery( getBatchLookupSql( keys.size() ), paramsMeta, params );
+      try {
+        RowMetaInterface returnedMeta = data.batchDb.getReturnRowMeta();
+        for ( Object[] row = data.batchDb.getRow( resultSet ); row != null; row = data.batchDb.getRow( resultSet ) ) {
+          incrementLines();
+
+          Object[] keyData = new Object[ keysAmount ];
+          for ( int i = 0; i < keysAmount; i++ ) {
+            ValueMetaInterface keyMeta = data.lookupMeta.getValueMeta( i );
+            ValueMetaInterface returned = returnedMeta.getValueMeta( i );
+            keyData[ i ] =
+              keyMeta.getType() == returned.getType() ? row[ i ] : keyMeta.convertData( returned, row[ i ] );
+          }
+          RowMetaAndData key = new RowMetaAndData( data.lookupMeta, keyData );
+          if ( !data.batchResults.containsKey( key ) ) {
+            inexactMatches = true; // equal for the database only, the keys that are not found are looked up below
+            continue;
+          }
+          if ( data.batchResults.get( key ) != null ) {
+            // The first row in the order of the query counts, like with the lookup of a single row
+            if ( meta.isFailingOnMultipleResults() ) {
+              ambiguousKeys.add( key );
+            }
+            continue;
+          }
+
+          Object[] add = new Object[ data.returnMeta.size() ];
+          System.arraycopy( row, keysAmount, add, 0, add.length );
+          convertReturnValues( returnedMeta, keysAmount, add );
+          data.batchResults.put( key, add );
+        }
+      } finally {
+        data.batchDb.closeQuery( resultSet );
+      }
+    }
+
+    for ( Object[] lookupRow : data.batchKeys ) {
+      RowMetaAndData key = new RowMetaAndData( data.lookupMeta, lookupRow );
+      Object[] add = data.batchResults.get( key );
+      if ( ambiguousKeys.contains( key ) ) {
+        data.batchResults.remove( key );
+        continue;
+      }
+      if ( add == null ) {
+        if ( inexactMatches ) {
+          data.db.setValuesLookup( data.lookupMeta, lookupRow );
+          add = data.db.getLookup( meta.isFailingOnMultipleResults() );
+        }
+        if ( add != null ) {
+          incrementLines();
+          convertReturnValues( data.db.getReturnRowMeta(), 0, add );
+        } else {
+          add = DatabaseLookupData.Cache.NOT_FOUND;
+        }
+        data.batchResults.put( key, add );
+      }
+      if ( meta.isCached() ) {
+        data.cache.storeRowInCache( meta, data.lookupMeta, lookupRow, add );
+      }
+    }
+  }
+
+  /**
+   * @return the query for the given number of keys: with an IN-list for a single key field, OR-ed otherwise
+   */
+  private String getBatchLookupSql( int nrKeys ) {
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+    String[] keyFields = meta.getTableKeyField();
+
+    StringBuilder sql = new StringBuilder( "SELECT " );
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( dbMeta.quoteField( keyFields[ i ] ) );
+    }
+    for ( int i = 0; i < meta.getReturnValueField().length; i++ ) {
+      sql.append( ", " ).append( dbMeta.quoteField( meta.getReturnValueField()[ i ] ) );
+    }
+    sql.append( " FROM " ).append( dbMeta.getQuotedSchemaTableCombination(
+      environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTablename() ) ) );
+    sql.append( " WHERE " );
+
+    if ( keyFields.length == 1 ) {
+      sql.append( dbMeta.quoteField( keyFields[ 0 ] ) ).append( " IN ( " );
+      for ( int k = 0; k < nrKeys; k++ ) {
+        sql.append( k > 0 ? ", ?" : "?" );
+      }
+      sql.append( " )" );
+    } else {
+      for ( int k = 0; k < nrKeys; k++ ) {
+        sql.append( k > 0 ? " OR ( " : "( " );
+        for ( int i = 0; i < keyFields.length; i++ ) {
+          if ( i > 0 ) {
+            sql.append( " AND " );
+          }
+          sql.append( dbMeta.quoteField( keyFields[ i ] ) ).append( " = ?" );
+        }
+        sql.append( " )" );
+      }
+    }
+
+    if ( meta.getOrderByClause() != null && meta.getOrderByClause().length() != 0 ) {
+      sql.append( " ORDER BY " ).append( meta.getOrderByClause() );
+    }
+    return sql.toString();
+  }
+
   private void loadAllTableDataIntoTheCache() throws KettleException {
     DatabaseMeta dbMeta = meta.getDatabaseMeta();
 
@@ -498,12 +830,39 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
       // Now that we have the SQL constructed, let's store the rows...
       //
-      List<Object[]> rows = db.getRows( sql, 0 );
+      List<Object[]> rows;
+      RowMetaInterface returnRowMeta;
+      String sharedCacheName = environmentSubstitute( meta.getSharedCacheName() );
+      if ( Utils.isEmpty( sharedCacheName ) ) {
+        rows = db.getRows( sql, 0 );
+        returnRowMeta = db.getReturnRowMeta();
+      } else {
+        // Rows another transformation read before, as long as they didn't change
+        //
+        String version = SharedLookupCache.getVersion( db, sql );
+        String changeValue =
+          SharedLookupCache.getChangeValue( db, environmentSubstitute( meta.getSharedCacheCheckSql() ) );
+        SharedLookupCache.Entry entry = SharedLookupCache.getInstance().get( sharedCacheName, version, changeValue,
+          meta.getSharedCacheTimeToLive() * 60000L );
+        if ( entry == null ) {
+          rows = db.getRows( sql, 0 );
+          returnRowMeta = db.getReturnRowMeta();
+          if ( rows != null ) {
+            SharedLookupCache.getInstance().put( sharedCacheName, version, changeValue,
+              meta.getSharedCacheTimeToLive() * 60000L, returnRowMeta, rows );
+          }
+        } else {
+          logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.UsingSharedCache", sharedCacheName,
+            String.valueOf( entry.getRows().size() ) ) );
+          rows = entry.getRows();
+          returnRowMeta = entry.getRowMeta();
+        }
+      }
       if ( rows != null && rows.size() > 0 ) {
         if ( data.allEquals ) {
-          putToDefaultCache( db, rows );
+          putToDefaultCache( returnRowMeta, rows );
         } else {
-          putToReadOnlyCache( db, rows );
+          putToReadOnlyCache( returnRowMeta, rows );
         }
       }
     } catch ( Exception e ) {
@@ -515,9 +874,9 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     }
   }
 
-  private void putToDefaultCache( Database db, List<Object[]> rows ) {
+  private void putToDefaultCache( RowMetaInterface returnRowMeta, List<Object[]> rows ) {
     final int keysAmount = meta.getStreamKeyField1().length;
-    RowMetaInterface prototype = copyValueMetasFrom( db.getReturnRowMeta(), keysAmount );
+    RowMetaInterface prototype = copyValueMetasFrom( returnRowMeta, keysAmount );
 
     // Copy the data into 2 parts: key and value...
     //
@@ -553,12 +912,11 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return result;
   }
 
-  private void putToReadOnlyCache( Database db, List<Object[]> rows ) {
+  private void putToReadOnlyCache( RowMetaInterface returnRowMeta, List<Object[]> rows ) {
     ReadAllCache.Builder cacheBuilder = new ReadAllCache.Builder( data, rows.size() );
 
     // all keys have the same row meta,
     // it is useless to re-create it each time
-    RowMetaInterface returnRowMeta = db.getReturnRowMeta();
     cacheBuilder.setKeysMeta( returnRowMeta.clone() );
 
     final int keysAmount = meta.getStreamKeyField1().length;
@@ -590,6 +948,11 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       synchronized ( data.db ) {
         data.db.cancelQuery();
       }
+      if ( data.batchDb != null ) {
+        synchronized ( data.batchDb ) {
+          data.batchDb.cancelQuery();
+        }
+      }
       data.isCanceled = true;
     }
   }
@@ -645,6 +1008,14 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     if ( data.db != null ) {
       data.db.disconnect();
     }
+    if ( data.batchDb != null ) {
+      data.batchDb.disconnect();
+      data.batchDb = null;
+    }
+
+    if ( data.cache instanceof DefaultCache ) {
+      logCacheStatistics( (DefaultCache) data.cache );
+    }
 
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
@@ -653,6 +1024,24 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     super.dispose( smi, sdi );
   }
 
+  private void logCacheStatistics( DefaultCache cache ) {
+    long lookups = cache.getHits() + cache.getMisses();
+    if ( lookups == 0 ) {
+      return;
+    }
+    log.snap( Metrics.METRIC_DATABASE_LOOKUP_CACHE_HITS, getStepname(), cache.getHits() );
+    log.snap( Metrics.METRIC_DATABASE_LOOKUP_CACHE_MISSES, getStepname(), cache.getMisses() );
+    log.snap( Metrics.METRIC_DATABASE_LOOKUP_CACHE_EVICTIONS, getStepname(), cache.getEvictions() );
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.MaxCacheEntries",
+        String.valueOf( cache.getPeakSize() ) ) );
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.OverflowCount",
+        String.valueOf( cache.getEvictions() ) ) );
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.CacheMissRate",
+        String.format( "%.1f%%", 100.0 * cache.getMisses() / lookups ) ) );
+    }
+  }
+
   /*
    * this method is required in order to
    * provide ability for unit tests to
@@ -13,6 +13,10 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -40,6 +44,20 @@ public class DatabaseLookupData extends BaseStepData implements StepDataInterfac
   public int[] conditions;
   public boolean hasDBCondition;
 
+  /** The number of distinct keys to look up in one query, 0 to look up row by row */
+  public int batchSize;
+  /** The input rows waiting for the lookup of the batch, with their lookup rows */
+  public List<Object[]> batchRows;
+  public List<Object[]> batchLookupRows;
+  /** The error converting the lookup values of a waiting row, null if there was none */
+  public List<KettleException> batchErrors;
+  /** The result of every distinct key of the batch, null while it still has to be looked up */
+  public Map<RowMetaAndData, Object[]> batchResults;
+  /** The keys of the batch that are not cached */
+  public List<Object[]> batchKeys;
+  /** The connection the batches are looked up with, separate from the one of the row by row lookups */
+  public Database batchDb;
+
   public DatabaseLookupData() {
     super();
 
@@ -50,6 +68,12 @@ public class DatabaseLookupData extends BaseStepData implements StepDataInterfac
    * Cache for {@code DatabaseLookup} step.
    */
   public interface Cache {
+    /**
+     * Stored instead of a data row for keys that were looked up in the database without result, so that they are not
+     * looked up again.
+     */
+    Object[] NOT_FOUND = new Object[ 0 ];
+
     /**
      * Returns the very first data row that matches all conditions or {@code null} if none has been found.
      * Note, cache should keep the order in which elements were put into it.
@@ -108,9 +108,24 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   /** Limit the cache size to this! */
   private int cacheSize;
 
+  /** Limit the estimated memory of the cache to this many megabytes, 0 for no limit */
+  private int cacheMemorySize;
+
+  /** Look up this many distinct keys with one query, 0 to look up row by row */
+  private int lookupBatchSize;
+
   /** Flag to make it load all data into the cache at startup */
   private boolean loadingAllDataInCache;
 
+  /** Share the data loaded into the cache between transformations under this name, empty not to share it */
+  private String sharedCacheName;
+
+  /** The query telling whether the shared data changed */
+  private String sharedCacheCheckSql;
+
+  /** The number of minutes the shared data is used at most, 0 for no limit */
+  private int sharedCacheTimeToLive;
+
   /** Have the lookup fail if multiple results were found, renders the orderByClause useless */
   private boolean failingOnMultipleResults;
 
@@ -151,6 +166,81 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     this.cacheSize = cacheSize;
   }
 
+  /**
+   * @return the maximum estimated memory of the cache in megabytes, 0 for no limit
+   */
+  public int getCacheMemorySize() {
+    return cacheMemorySize;
+  }
+
+  /**
+   * @param cacheMemorySize
+   *          the maximum estimated memory of the cache in megabytes, 0 for no limit
+   */
+  public void setCacheMemorySize( int cacheMemorySize ) {
+    this.cacheMemorySize = cacheMemorySize;
+  }
+
+  /**
+   * @return the number of distinct keys to look up with one query, 0 to look up row by row
+   */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize
+   *          the number of distinct keys to look up with one query, 0 to look up row by row
+   */
+  public void setLookupBatchSize( int lookupBatchSize ) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
+  /**
+   * @return the name the rows are shared under between transformations, empty to read them every time
+   */
+  public String getSharedCacheName() {
+    return sharedCacheName;
+  }
+
+  /**
+   * @param sharedCacheName
+   *          the name the rows are shared under between transformations, empty to read them every time
+   */
+  public void setSharedCacheName( String sharedCacheName ) {
+    this.sharedCacheName = sharedCacheName;
+  }
+
+  /**
+   * @return the query of which the first value changes when the shared rows need to be read again
+   */
+  public String getSharedCacheCheckSql() {
+    return sharedCacheCheckSql;
+  }
+
+  /**
+   * @param sharedCacheCheckSql
+   *          the query of which the first value changes when the shared rows need to be read again
+   */
+  public void setSharedCacheCheckSql( String sharedCacheCheckSql ) {
+    this.sharedCacheCheckSql = sharedCacheCheckSql;
+  }
+
+  /**
+   * @return the number of minutes the shared rows are used, 0 to use them until they change
+   */
+  public int getSharedCacheTimeToLive() {
+    return sharedCacheTimeToLive;
+  }
+
+  /**
+   * @param sharedCacheTimeToLive
+   *          the number of minutes the shared rows are used, 0 to use them until they change
+   */
+  public void setSharedCacheTimeToLive( int sharedCacheTimeToLive ) {
+    this.sharedCacheTimeToLive = sharedCacheTimeToLive;
+  }
+
   /**
    * @return Returns the database.
    */
@@ -388,6 +478,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       loadingAllDataInCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "cache_load_all" ) );
       csize = XMLHandler.getTagValue( stepnode, "cache_size" );
       cacheSize = Const.toInt( csize, 0 );
+      cacheMemorySize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_memory_size" ), 0 );
+      lookupBatchSize = Const.toInt( XMLHandler.getTagValue( stepnode, "lookup_batch_size" ), 0 );
+      sharedCacheName = XMLHandler.getTagValue( stepnode, "shared_cache_name" );
+      sharedCacheCheckSql = XMLHandler.getTagValue( stepnode, "shared_cache_check_sql" );
+      sharedCacheTimeToLive = Const.toInt( XMLHandler.getTagValue( stepnode, "shared_cache_ttl" ), 0 );
       schemaName = XMLHandler.getTagValue( stepnode, "lookup", "schema" );
       tablename = XMLHandler.getTagValue( stepnode, "lookup", "table" );
 
@@ -442,6 +537,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     databaseMeta = null;
     cached = false;
     cacheSize = 0;
+    cacheMemorySize = 0;
+    lookupBatchSize = 0;
+    sharedCacheName = null;
+    sharedCacheCheckSql = null;
+    sharedCacheTimeToLive = 0;
     schemaName = "";
     tablename = BaseMessages.getString( PKG, "DatabaseLookupMeta.Default.TableName" );
 
@@ -507,6 +607,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     retval.append( "    " ).append( XMLHandler.addTagValue( "cache", cached ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "cache_load_all", loadingAllDataInCache ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "cache_memory_size", cacheMemorySize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "lookup_batch_size", lookupBatchSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "shared_cache_name", sharedCacheName ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "shared_cache_check_sql", sharedCacheCheckSql ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "shared_cache_ttl", sharedCacheTimeToLive ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( "      " ).append( XMLHandler.addTagValue( "schema", schemaName ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "table", tablename ) );
@@ -546,6 +651,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = rep.getStepAttributeBoolean( id_step, "cache" );
       loadingAllDataInCache = rep.getStepAttributeBoolean( id_step, "cache_load_all" );
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
+      cacheMemorySize = (int) rep.getStepAttributeInteger( id_step, "cache_memory_size" );
+      lookupBatchSize = (int) rep.getStepAttributeInteger( id_step, "lookup_batch_size" );
+      sharedCacheName = rep.getStepAttributeString( id_step, "shared_cache_name" );
+      sharedCacheCheckSql = rep.getStepAttributeString( id_step, "shared_cache_check_sql" );
+      sharedCacheTimeToLive = (int) rep.getStepAttributeInteger( id_step, "shared_cache_ttl" );
       schemaName = rep.getStepAttributeString( id_step, "lookup_schema" );
       tablename = rep.getStepAttributeString( id_step, "lookup_table" );
       orderByClause = rep.getStepAttributeString( id_step, "lookup_orderby" );
@@ -584,6 +694,11 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       rep.saveStepAttribute( id_transformation, id_step, "cache", cached );
       rep.saveStepAttribute( id_transformation, id_step, "cache_load_all", loadingAllDataInCache );
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_memory_size", cacheMemorySize );
+      rep.saveStepAttribute( id_transformation, id_step, "lookup_batch_size", lookupBatchSize );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_name", sharedCacheName );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_check_sql", sharedCacheCheckSql );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_ttl", sharedCacheTimeToLive );
       rep.saveStepAttribute( id_transformation, id_step, "lookup_schema", schemaName );
       rep.saveStepAttribute( id_transformation, id_step, "lookup_table", tablename );
       rep.saveStepAttribute( id_transformation, id_step, "lookup_orderby", orderByClause );
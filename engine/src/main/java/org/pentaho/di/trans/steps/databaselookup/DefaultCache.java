@@ -15,19 +15,30 @@ package org.pentaho.di.trans.steps.databaselookup;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 
+import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Old code, copied from {@linkplain DatabaseLookup}
+ * The cache of the Database Lookup step when not all the data is loaded up front. Rows are found by hash when all
+ * conditions are "=". The least recently used rows are evicted once the cache holds more rows or, by estimate, more
+ * memory than the step allows.
+ * <p>
+ * The step only stores rows when all conditions are "=": lookups with other conditions are not cached. Rows that
+ * other callers store are still matched against those conditions one by one, and the first stored match is returned.
  *
  * @author Andrey Khayrutdinov
  */
 public class DefaultCache implements DatabaseLookupData.Cache {
 
+  /** Rough overhead of a cached row: the map entry, the key object and both arrays */
+  private static final int ENTRY_OVERHEAD = 96;
+
   public static DefaultCache newCache( DatabaseLookupData data, int cacheSize ) {
     if ( cacheSize > 0 ) {
       cacheSize = (int) ( cacheSize * 1.5 );
@@ -37,96 +48,103 @@ public class DefaultCache implements DatabaseLookupData.Cache {
     return new DefaultCache( data, cacheSize );
   }
 
-
   private final DatabaseLookupData data;
   private final LinkedHashMap<RowMetaAndData, Object[]> map;
 
+  private long memoryUsed;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private int peakSize;
+
   DefaultCache( DatabaseLookupData data, int capacity ) {
     this.data = data;
-    map = new LinkedHashMap<>( capacity );
+    // access order: iteration starts with the least recently used row. Rows are only looked up by hash when all
+    // conditions are "=", otherwise the iteration order stays the order in which the rows were stored.
+    map = new LinkedHashMap<>( capacity, 0.75f, true );
   }
 
   @Override
   public Object[] getRowFromCache( RowMetaInterface lookupMeta, Object[] lookupRow ) throws KettleException {
+    Object[] row = null;
     if ( data.allEquals ) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong results
-      Object[] row = map.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
-      if ( row != null ) {
-        return row;
+      row = map.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
+    } else if ( !data.hasDBCondition ) { // e.g. LIKE not handled by this routine, yet
+      // Not all conditions are "=" so we are going to have to evaluate row by row
+      for ( Map.Entry<RowMetaAndData, Object[]> entry : map.entrySet() ) {
+        if ( matches( lookupMeta, lookupRow, entry.getKey() ) && entry.getValue() != null ) {
+          row = entry.getValue();
+          break;
+        }
       }
-    } else { // special handling of conditions <,>, <> etc.
-      if ( !data.hasDBCondition ) { // e.g. LIKE not handled by this routine, yet
-        // TODO: find an alternative way to look up the data based on the condition.
-        // Not all conditions are "=" so we are going to have to evaluate row by row
-        // A sorted list or index might be a good solution here...
-        //
-        for ( Map.Entry<RowMetaAndData, Object[]> entry : map.entrySet() ) {
-          final RowMetaAndData key = entry.getKey();
-          // Now verify that the key is matching our conditions...
-          //
-          boolean match = true;
-          int lookupIndex = 0;
-          for ( int i = 0; i < data.conditions.length && match; i++ ) {
-            ValueMetaInterface cmpMeta = lookupMeta.getValueMeta( lookupIndex );
-            Object cmpData = lookupRow[ lookupIndex ];
-            ValueMetaInterface keyMeta = key.getValueMeta( i );
-            Object keyData = key.getData()[ i ];
-
-            switch ( data.conditions[ i ] ) {
-              case DatabaseLookupMeta.CONDITION_EQ:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) == 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_NE:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) != 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_LT:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) > 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_LE:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) >= 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_GT:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) < 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_GE:
-                match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) <= 0 );
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NULL:
-                match = keyMeta.isNull( keyData );
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
-                match = !keyMeta.isNull( keyData );
-                break;
-              case DatabaseLookupMeta.CONDITION_BETWEEN:
-                // Between key >= cmp && key <= cmp2
-                ValueMetaInterface cmpMeta2 = lookupMeta.getValueMeta( lookupIndex + 1 );
-                Object cmpData2 = lookupRow[ lookupIndex + 1 ];
-                match = ( keyMeta.compare( keyData, cmpMeta, cmpData ) >= 0 );
-                if ( match ) {
-                  match = ( keyMeta.compare( keyData, cmpMeta2, cmpData2 ) <= 0 );
-                }
-                lookupIndex++;
-                break;
-              // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
-              default:
-                match = false;
-                data.hasDBCondition = true; // avoid looping in here the next time, also safety when a new condition
-                // will be introduced
-                break;
-
-            }
-            lookupIndex++;
-          }
+    }
+    if ( row != null ) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return row;
+  }
+
+  /**
+   * Verify that the key is matching our conditions...
+   */
+  private boolean matches( RowMetaInterface lookupMeta, Object[] lookupRow, RowMetaAndData key )
+    throws KettleValueException {
+    boolean match = true;
+    int lookupIndex = 0;
+    for ( int i = 0; i < data.conditions.length && match; i++ ) {
+      ValueMetaInterface cmpMeta = lookupMeta.getValueMeta( lookupIndex );
+      Object cmpData = lookupRow[ lookupIndex ];
+      ValueMetaInterface keyMeta = key.getValueMeta( i );
+      Object keyData = key.getData()[ i ];
+
+      switch ( data.conditions[ i ] ) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) == 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_NE:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) != 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) > 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) >= 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) < 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          match = ( cmpMeta.compare( cmpData, keyMeta, keyData ) <= 0 );
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyMeta.isNull( keyData );
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyMeta.isNull( keyData );
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          ValueMetaInterface cmpMeta2 = lookupMeta.getValueMeta( lookupIndex + 1 );
+          Object cmpData2 = lookupRow[ lookupIndex + 1 ];
+          match = ( keyMeta.compare( keyData, cmpMeta, cmpData ) >= 0 );
           if ( match ) {
-            Object[] row = entry.getValue();
-            if ( row != null ) {
-              return row;
-            }
+            match = ( keyMeta.compare( keyData, cmpMeta2, cmpData2 ) <= 0 );
           }
-        }
+          lookupIndex++;
+          break;
+        // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
+        default:
+          match = false;
+          data.hasDBCondition = true; // avoid looping in here the next time, also safety when a new condition
+          // will be introduced
+          break;
       }
+      lookupIndex++;
     }
-    return null;
+    return match;
   }
 
   @Override
@@ -135,12 +153,90 @@ public class DefaultCache implements DatabaseLookupData.Cache {
     RowMetaAndData rowMetaAndData = new RowMetaAndData( lookupMeta, lookupRow );
     if ( !map.containsKey( rowMetaAndData ) ) {
       map.put( rowMetaAndData, add );
+      memoryUsed += estimateMemory( lookupRow, add );
     }
 
     // DEinspanjer 2009-02-01: If you had previously set a cache size and then turned on load all, this
     // method would throw out entries if the previous cache size wasn't big enough.
-    if ( !meta.isLoadingAllDataInCache() && meta.getCacheSize() > 0 && map.size() > meta.getCacheSize() ) {
-      map.remove( map.entrySet().iterator().next().getKey() );
+    if ( !meta.isLoadingAllDataInCache() ) {
+      long maxMemory = meta.getCacheMemorySize() * 1024L * 1024L;
+      while ( map.size() > 1 && ( ( meta.getCacheSize() > 0 && map.size() > meta.getCacheSize() )
+        || ( maxMemory > 0 && memoryUsed > maxMemory ) ) ) {
+        evictLeastRecentlyUsed();
+      }
     }
+    peakSize = Math.max( peakSize, map.size() );
+  }
+
+  private void evictLeastRecentlyUsed() {
+    Iterator<Map.Entry<RowMetaAndData, Object[]>> iterator = map.entrySet().iterator();
+    Map.Entry<RowMetaAndData, Object[]> eldest = iterator.next();
+    memoryUsed -= estimateMemory( eldest.getKey().getData(), eldest.getValue() );
+    iterator.remove();
+    evictions++;
+  }
+
+  /**
+   * @return a rough estimate of the memory taken by a cached row
+   */
+  static long estimateMemory( Object[] key, Object[] value ) {
+    return ENTRY_OVERHEAD + estimateMemory( key ) + estimateMemory( value );
+  }
+
+  private static long estimateMemory( Object[] values ) {
+    if ( values == null ) {
+      return 0L;
+    }
+    long size = 16L + 8L * values.length;
+    for ( Object value : values ) {
+      if ( value == null ) {
+        continue;
+      }
+      if ( value instanceof String ) {
+        size += 40L + ( (String) value ).length();
+      } else if ( value instanceof byte[] ) {
+        size += 16L + ( (byte[]) value ).length;
+      } else if ( value instanceof BigDecimal ) {
+        size += 40L + ( ( (BigDecimal) value ).precision() >> 1 );
+      } else {
+        size += 24L;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return the number of lookups answered from the cache
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return the number of lookups the cache couldn't answer
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the number of rows thrown out of the cache to stay within its bounds
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the largest number of rows the cache held at once
+   */
+  public int getPeakSize() {
+    return peakSize;
+  }
+
+  /**
+   * @return the estimated memory taken by the cached rows in bytes
+   */
+  public long getMemoryUsed() {
+    return memoryUsed;
   }
 }
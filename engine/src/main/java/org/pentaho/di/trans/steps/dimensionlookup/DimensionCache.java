@@ -13,12 +13,18 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 
@@ -26,8 +32,9 @@ import org.pentaho.di.core.row.ValueMetaInterface;
  * This class will act as a special purpose dimension Cache. The idea here is to not only cache the last version of a
  * dimension entry, but all versions. So basically, the entry key is the natural key as well as the from-to date range.
  *
- * The way to achieve that result is to keep a sorted list in memory. Because we want as few conversion errors as
- * possible, we'll use the same row as we get from the database.
+ * The way to achieve that result is to keep a hash index on the natural key in memory, pointing to the versions of
+ * that key ordered by the start of their date range. Because we want as few conversion errors as possible, we'll use
+ * the same row as we get from the database.
  *
  * @author matt
  *
@@ -39,6 +46,11 @@ public class DimensionCache implements Comparator<Object[]> {
   private int fromDateIndex;
   private int toDateIndex;
 
+  /** The natural key fields, in the order of the key indexes */
+  private RowMetaInterface keyMeta;
+  /** The versions of every natural key, ordered by the start of their date range */
+  private Map<RowMetaAndData, List<Object[]>> versions;
+
   /**
    * Create a new dimension cache object
    *
@@ -56,16 +68,20 @@ public class DimensionCache implements Comparator<Object[]> {
     this.keyIndexes = keyIndexes;
     this.fromDateIndex = fromDateIndex;
     this.toDateIndex = toDateIndex;
+    this.rowCache = new ArrayList<Object[]>();
+    buildIndex();
   }
 
   /**
-   * Add a row to the back of the list
+   * Add a row to the back of the list. The row is inserted among the versions of its natural key, there is no need to
+   * sort the cache afterwards.
    *
    * @param row
    *          the row to add
    */
   public void addRow( Object[] row ) {
     rowCache.add( row );
+    index( row );
   }
 
   /**
@@ -74,7 +90,9 @@ public class DimensionCache implements Comparator<Object[]> {
    * @param index
    *          the index to look for
    * @return the row on the specified index
+   * @deprecated look up the version of a natural key with {@link #lookupVersion(Object[])}
    */
+  @Deprecated
   public Object[] getRow( int index ) {
     return rowCache.get( index );
   }
@@ -86,9 +104,57 @@ public class DimensionCache implements Comparator<Object[]> {
    *          the index on which the row should be inserted
    * @param row
    *          the row to add
+   * @deprecated the position in the list doesn't matter to the lookups, use {@link #addRow(Object[])}
    */
+  @Deprecated
   public void addRow( int index, Object[] row ) {
     rowCache.add( index, row );
+    index( row );
+  }
+
+  /**
+   * @return the number of rows in the cache
+   */
+  public int size() {
+    return rowCache.size();
+  }
+
+  /**
+   * Looks up the version of a natural key in the cache.
+   *
+   * @param lookupRowData
+   *          The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
+   * @return the version of the natural key of which the date range holds the lookup date or null if there is none
+   * @throws KettleException
+   *           in case there are conversion errors during the lookup of the row
+   */
+  public Object[] lookupVersion( Object[] lookupRowData ) throws KettleException {
+    if ( versions == null ) {
+      // No row metadata or natural key yet: nothing can be found
+      //
+      return null;
+    }
+    try {
+      List<Object[]> keyVersions = versions.get( getKey( lookupRowData ) );
+      if ( keyVersions == null ) {
+        return null;
+      }
+      Date lookupDate = rowMeta.getDate( lookupRowData, fromDateIndex );
+
+      // The versions that start at or before the lookup date come first, the last one of those that hasn't ended yet
+      // is the one we're looking for. With a proper dimension that is the very last one.
+      //
+      for ( int i = upperBound( keyVersions, lookupDate ) - 1; i >= 0; i-- ) {
+        Object[] row = keyVersions.get( i );
+        Date toDate = rowMeta.getDate( row, toDateIndex );
+        if ( toDate == null || ( lookupDate != null && toDate.compareTo( lookupDate ) > 0 ) ) {
+          return row;
+        }
+      }
+      return null;
+    } catch ( KettleValueException | RuntimeException e ) {
+      throw new KettleException( e );
+    }
   }
 
   /**
@@ -98,7 +164,10 @@ public class DimensionCache implements Comparator<Object[]> {
    *          The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
    * @throws a
    *           KettleException in case there are conversion errors during the lookup of the row
+   * @deprecated this is a binary search over all the rows that only works after {@link #sortRows()}, use
+   *             {@link #lookupVersion(Object[])}
    */
+  @Deprecated
   public int lookupRow( Object[] lookupRowData ) throws KettleException {
     try {
       // First perform the lookup!
@@ -175,10 +244,82 @@ public class DimensionCache implements Comparator<Object[]> {
     }
   }
 
+  /**
+   * Sort the rows of the cache on the natural key and the start of the date range.
+   *
+   * @deprecated the versions of a natural key are always in order, only {@link #lookupRow(Object[])} needs this
+   */
+  @Deprecated
   public void sortRows() {
     Collections.sort( rowCache, this );
   }
 
+  private void buildIndex() {
+    if ( rowMeta == null || keyIndexes == null || rowCache == null ) {
+      // The index is built once the missing pieces are set
+      //
+      keyMeta = null;
+      versions = null;
+      return;
+    }
+    keyMeta = new RowMeta();
+    for ( int keyIndex : keyIndexes ) {
+      keyMeta.addValueMeta( rowMeta.getValueMeta( keyIndex ) );
+    }
+    versions = new HashMap<RowMetaAndData, List<Object[]>>( Math.max( 16, rowCache.size() * 4 / 3 + 1 ) );
+    for ( Object[] row : rowCache ) {
+      index( row );
+    }
+  }
+
+  private void index( Object[] row ) {
+    if ( versions == null ) {
+      return;
+    }
+    try {
+      List<Object[]> keyVersions = versions.computeIfAbsent( getKey( row ), key -> new ArrayList<Object[]>( 2 ) );
+      // New versions usually start after all the others: then this is the end of the list
+      keyVersions.add( upperBound( keyVersions, rowMeta.getDate( row, fromDateIndex ) ), row );
+    } catch ( KettleValueException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private RowMetaAndData getKey( Object[] row ) {
+    Object[] key = new Object[ keyIndexes.length ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      key[ i ] = row[ keyIndexes[ i ] ];
+    }
+    return new RowMetaAndData( keyMeta, key );
+  }
+
+  /**
+   * @return the index of the first version that starts after the date, a null start date meaning -Infinity
+   */
+  private int upperBound( List<Object[]> keyVersions, Date date ) throws KettleValueException {
+    int low = 0;
+    int high = keyVersions.size();
+    if ( high > 0 && compareStart( rowMeta.getDate( keyVersions.get( high - 1 ), fromDateIndex ), date ) <= 0 ) {
+      return high;
+    }
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( compareStart( rowMeta.getDate( keyVersions.get( middle ), fromDateIndex ), date ) <= 0 ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int compareStart( Date start, Date date ) {
+    if ( start == null ) {
+      return date == null ? 0 : -1;
+    }
+    return date == null ? 1 : start.compareTo( date );
+  }
+
   /**
    * Compare 2 rows of data using the natural keys and indexes specified.
    *
@@ -245,6 +386,7 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public void setRowMeta( RowMetaInterface rowMeta ) {
     this.rowMeta = rowMeta;
+    buildIndex();
   }
 
   /**
@@ -260,6 +402,7 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public void setRowCache( List<Object[]> rowCache ) {
     this.rowCache = rowCache;
+    buildIndex();
   }
 
   /**
@@ -275,6 +418,7 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public void setKeyIndexes( int[] keyIndexes ) {
     this.keyIndexes = keyIndexes;
+    buildIndex();
   }
 
   /**
@@ -290,6 +434,7 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public void setFromDateIndex( int fromDateIndex ) {
     this.fromDateIndex = fromDateIndex;
+    buildIndex();
   }
 
   /**
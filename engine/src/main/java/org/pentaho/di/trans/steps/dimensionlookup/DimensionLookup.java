@@ -20,10 +20,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.SharedLookupCache;
+import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -279,10 +285,46 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       sql += ", " + databaseMeta.quoteField( meta.getDateTo() ); // extra info in cache
 
       sql += " FROM " + data.schemaTable;
-      logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
 
-      List<Object[]> rows = data.db.getRows( sql, -1 );
-      RowMetaInterface rowMeta = data.db.getReturnRowMeta();
+      List<Object[]> rows;
+      RowMetaInterface rowMeta;
+
+      // Rows another transformation read before, as long as they didn't change
+      //
+      String sharedCacheName = environmentSubstitute( meta.getSharedCacheName() );
+      String version = null;
+      String changeValue = null;
+      SharedLookupCache.Entry entry = null;
+      if ( !Utils.isEmpty( sharedCacheName ) ) {
+        version = SharedLookupCache.getVersion( data.db, sql );
+        changeValue =
+          SharedLookupCache.getChangeValue( data.db, environmentSubstitute( meta.getSharedCacheCheckSql() ) );
+        entry = SharedLookupCache.getInstance().get( sharedCacheName, version, changeValue,
+          meta.getSharedCacheTimeToLive() * 60000L );
+      }
+
+      String[] chunkConditions = entry == null ? getPreloadChunkConditions() : null;
+      if ( entry != null ) {
+        logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.UsingSharedCache", sharedCacheName,
+          String.valueOf( entry.getRows().size() ) ) );
+        // The shared rows stay untouched, the row metadata of the cache is changed during the lookups
+        rows = new ArrayList<>( entry.getRows() );
+        rowMeta = entry.getRowMeta().clone();
+      } else if ( chunkConditions == null ) {
+        logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
+        rows = data.db.getRows( sql, -1 );
+        rowMeta = data.db.getReturnRowMeta();
+      } else {
+        logDetailed( "Pre-loading cache in " + chunkConditions.length
+          + " parallel chunks by reading from database with: " + Const.CR + sql + Const.CR );
+        RowMetaInterface[] chunkRowMeta = new RowMetaInterface[ 1 ];
+        rows = preloadChunks( sql, chunkConditions, chunkRowMeta );
+        rowMeta = chunkRowMeta[ 0 ];
+      }
+      if ( entry == null && !Utils.isEmpty( sharedCacheName ) ) {
+        SharedLookupCache.getInstance().put( sharedCacheName, version, changeValue,
+          meta.getSharedCacheTimeToLive() * 60000L, rowMeta, new ArrayList<>( rows ) );
+      }
 
       data.preloadKeyIndexes = new int[ meta.getKeyLookup().length ];
       for ( int i = 0; i < data.preloadKeyIndexes.length; i++ ) {
@@ -291,13 +333,11 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       data.preloadFromDateIndex = rowMeta.indexOfValue( meta.getDateFrom() );
       data.preloadToDateIndex = rowMeta.indexOfValue( meta.getDateTo() );
 
+      logDetailed( "Indexing the cache rows..." );
       data.preloadCache =
         new DimensionCache( rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex );
       data.preloadCache.setRowCache( rows );
-
-      logDetailed( "Sorting the cache rows..." );
-      data.preloadCache.sortRows();
-      logDetailed( "Sorting of cached rows finished." );
+      logDetailed( "Indexing of " + rows.size() + " cached rows finished." );
 
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
@@ -320,6 +360,99 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Split the pre-load of the cache in ranges of the technical key, one for every pre-load thread.
+   *
+   * @return the conditions selecting the ranges or null to read the dimension with a single query
+   */
+  private String[] getPreloadChunkConditions() throws KettleException {
+    int nrThreads = meta.getPreloadThreads();
+    if ( nrThreads <= 1 || getTransMeta().isUsingUniqueConnections() ) {
+      return null;
+    }
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    String keyField = databaseMeta.quoteField( meta.getKeyField() );
+
+    RowMetaAndData range =
+      data.db.getOneRow( "SELECT MIN(" + keyField + "), MAX(" + keyField + ") FROM " + data.schemaTable );
+    if ( range == null || range.getInteger( 0 ) == null || range.getInteger( 1 ) == null ) {
+      return null; // an empty dimension
+    }
+    long min = range.getInteger( 0 );
+    long max = range.getInteger( 1 );
+    long span = max - min + 1;
+    if ( span <= 1 ) {
+      return null; // nothing to split or an overflow
+    }
+    nrThreads = (int) Math.min( nrThreads, span );
+    long chunkSize = ( span + nrThreads - 1 ) / nrThreads;
+
+    String[] conditions = new String[ nrThreads ];
+    for ( int i = 0; i < nrThreads; i++ ) {
+      long from = min + i * chunkSize;
+      long to = from + chunkSize;
+      if ( i == 0 ) {
+        conditions[ i ] = "( " + keyField + " IS NULL OR " + keyField + " < " + to + " )";
+      } else if ( i == nrThreads - 1 ) {
+        conditions[ i ] = keyField + " >= " + from;
+      } else {
+        conditions[ i ] = keyField + " >= " + from + " AND " + keyField + " < " + to;
+      }
+    }
+    return conditions;
+  }
+
+  /**
+   * Read the chunks of the dimension at the same time, every chunk on a connection of its own.
+   *
+   * @param rowMeta
+   *          receives the layout of the rows read
+   * @return the rows of all chunks, in the order of the chunks
+   */
+  private List<Object[]> preloadChunks( final String sql, String[] conditions, RowMetaInterface[] rowMeta )
+    throws Exception {
+    final String threadName = Thread.currentThread().getName() + " - preload";
+    ExecutorService executor = Executors.newFixedThreadPool( conditions.length, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName );
+      return thread;
+    } );
+    try {
+      final RowMetaInterface[] chunkRowMeta = new RowMetaInterface[ conditions.length ];
+      List<Future<List<Object[]>>> chunks = new ArrayList<>( conditions.length );
+      for ( int i = 0; i < conditions.length; i++ ) {
+        final int chunk = i;
+        final String chunkSql = sql + " WHERE " + conditions[ i ];
+        chunks.add( executor.submit( () -> {
+          Database db = new Database( this, meta.getDatabaseMeta() );
+          db.shareVariablesWith( this );
+          try {
+            db.connect( getPartitionID() );
+            List<Object[]> rows = db.getRows( chunkSql, -1 );
+            chunkRowMeta[ chunk ] = db.getReturnRowMeta();
+            return rows;
+          } finally {
+            db.disconnect();
+          }
+        } ) );
+      }
+
+      List<Object[]> rows = new ArrayList<>();
+      for ( Future<List<Object[]>> chunk : chunks ) {
+        try {
+          rows.addAll( chunk.get() );
+        } catch ( ExecutionException e ) {
+          throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }
+      rowMeta[ 0 ] = chunkRowMeta[ 0 ];
+      return rows;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
@@ -386,12 +519,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       // Look up the row in the pre-load cache...
       //
-      int index = data.preloadCache.lookupRow( lookupRow );
-      if ( index >= 0 ) {
-        returnRow = data.preloadCache.getRow( index );
-      } else {
-        returnRow = null; // Nothing found!
-      }
+      returnRow = data.preloadCache.lookupVersion( lookupRow ); // null: nothing found!
 
     } else {
       lookupRow = new Object[ data.lookupRowMeta.size() ];
@@ -226,6 +226,22 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadingCache;
 
+  /** The number of ranges of the technical key that are pre-loaded in parallel : 0 or 1 means a single query */
+  @Injection( name = "PRELOAD_THREADS" )
+  private int preloadThreads;
+
+  /** Share the pre-loaded rows between transformations under this name, empty not to share them */
+  @Injection( name = "SHARED_CACHE_NAME" )
+  private String sharedCacheName;
+
+  /** The query telling whether the shared rows changed */
+  @Injection( name = "SHARED_CACHE_CHECK_SQL" )
+  private String sharedCacheCheckSql;
+
+  /** The number of minutes the shared rows are used at most, 0 for no limit */
+  @Injection( name = "SHARED_CACHE_TTL" )
+  private int sharedCacheTimeToLive;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -730,6 +746,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     cacheSize = 5000;
     preloadingCache = false;
+    preloadThreads = 1;
+    sharedCacheName = null;
+    sharedCacheCheckSql = null;
+    sharedCacheTimeToLive = 0;
   }
 
   @Override
@@ -869,6 +889,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache", preloadingCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "preload_threads", preloadThreads ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "shared_cache_name", sharedCacheName ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "shared_cache_check_sql", sharedCacheCheckSql ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "shared_cache_ttl", sharedCacheTimeToLive ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "use_start_date_alternative",
         usingStartDateAlternative ) );
@@ -948,6 +972,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), -1 );
       preloadingCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache" ) );
+      preloadThreads = Const.toInt( XMLHandler.getTagValue( stepnode, "preload_threads" ), 1 );
+      sharedCacheName = XMLHandler.getTagValue( stepnode, "shared_cache_name" );
+      sharedCacheCheckSql = XMLHandler.getTagValue( stepnode, "shared_cache_check_sql" );
+      sharedCacheTimeToLive = Const.toInt( XMLHandler.getTagValue( stepnode, "shared_cache_ttl" ), 0 );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "useBatch" ) );
 
       usingStartDateAlternative =
@@ -1008,6 +1036,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
       preloadingCache = rep.getStepAttributeBoolean( id_step, "preload_cache" );
+      preloadThreads = (int) rep.getStepAttributeInteger( id_step, "preload_threads" );
+      sharedCacheName = rep.getStepAttributeString( id_step, "shared_cache_name" );
+      sharedCacheCheckSql = rep.getStepAttributeString( id_step, "shared_cache_check_sql" );
+      sharedCacheTimeToLive = (int) rep.getStepAttributeInteger( id_step, "shared_cache_ttl" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "useBatch" );
 
       usingStartDateAlternative = rep.getStepAttributeBoolean( id_step, "use_start_date_alternative" );
@@ -1063,6 +1095,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
       rep.saveStepAttribute( id_transformation, id_step, "preload_cache", preloadingCache );
+      rep.saveStepAttribute( id_transformation, id_step, "preload_threads", preloadThreads );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_name", sharedCacheName );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_check_sql", sharedCacheCheckSql );
+      rep.saveStepAttribute( id_transformation, id_step, "shared_cache_ttl", sharedCacheTimeToLive );
       rep.saveStepAttribute( id_transformation, id_step, "useBatch", useBatchUpdate );
 
       rep.saveStepAttribute( id_transformation, id_step, "use_start_date_alternative", usingStartDateAlternative );
@@ -1882,6 +1918,66 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.preloadingCache = preloadingCache;
   }
 
+  /**
+   * @return the number of ranges of the technical key that are pre-loaded in parallel
+   */
+  public int getPreloadThreads() {
+    return preloadThreads;
+  }
+
+  /**
+   * @param preloadThreads
+   *          the number of ranges of the technical key that are pre-loaded in parallel, 0 or 1 for a single query
+   */
+  public void setPreloadThreads( int preloadThreads ) {
+    this.preloadThreads = preloadThreads;
+  }
+
+  /**
+   * @return the name the rows are shared under between transformations, empty to read them every time
+   */
+  public String getSharedCacheName() {
+    return sharedCacheName;
+  }
+
+  /**
+   * @param sharedCacheName
+   *          the name the rows are shared under between transformations, empty to read them every time
+   */
+  public void setSharedCacheName( String sharedCacheName ) {
+    this.sharedCacheName = sharedCacheName;
+  }
+
+  /**
+   * @return the query of which the first value changes when the shared rows need to be read again
+   */
+  public String getSharedCacheCheckSql() {
+    return sharedCacheCheckSql;
+  }
+
+  /**
+   * @param sharedCacheCheckSql
+   *          the query of which the first value changes when the shared rows need to be read again
+   */
+  public void setSharedCacheCheckSql( String sharedCacheCheckSql ) {
+    this.sharedCacheCheckSql = sharedCacheCheckSql;
+  }
+
+  /**
+   * @return the number of minutes the shared rows are used, 0 to use them until they change
+   */
+  public int getSharedCacheTimeToLive() {
+    return sharedCacheTimeToLive;
+  }
+
+  /**
+   * @param sharedCacheTimeToLive
+   *          the number of minutes the shared rows are used, 0 to use them until they change
+   */
+  public void setSharedCacheTimeToLive( int sharedCacheTimeToLive ) {
+    this.sharedCacheTimeToLive = sharedCacheTimeToLive;
+  }
+
   /**
    * @return the useBatchUpdate
    */
@@ -38,16 +38,17 @@ public class DummyTrans extends BaseStep implements StepInterface {
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
-    Object[] r = getRow(); // get row, set busy!
+    long linesRead = getLinesRead();
+    Object[][] rows = getRows( NR_OF_ROWS_IN_BATCH ); // get a batch of rows, set busy!
     // no more input to be expected...
-    if ( r == null ) {
+    if ( rows == null ) {
       setOutputDone();
       return false;
     }
 
-    putRow( getInputRowMeta(), r ); // copy row to possible alternate rowset(s).
+    putRows( getInputRowMeta(), rows, rows.length ); // copy rows to possible alternate rowset(s).
 
-    if ( checkFeedback( getLinesRead() ) ) {
+    if ( checkFeedback( linesRead, getLinesRead() ) ) {
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "DummyTrans.Log.LineNumber" ) + getLinesRead() );
       }
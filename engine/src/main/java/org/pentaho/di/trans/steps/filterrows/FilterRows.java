@@ -63,10 +63,9 @@ public class FilterRows extends BaseStep implements StepInterface {
     meta = (FilterRowsMeta) smi;
     data = (FilterRowsData) sdi;
 
-    boolean keep;
-
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if ( r == null ) { // no more input to be expected...
+    long linesRead = getLinesRead();
+    Object[][] rows = getRows( NR_OF_ROWS_IN_BATCH ); // Get the next usable rows from input rowset(s)!
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
@@ -107,30 +106,37 @@ public class FilterRows extends BaseStep implements StepInterface {
       }
     }
 
-    keep = keepRow( getInputRowMeta(), r ); // Keep this row?
     if ( !data.chosesTargetSteps ) {
-      if ( keep ) {
-        putRow( data.outputRowMeta, r ); // copy row to output rowset(s);
+      // Compact the kept rows at the start of the batch and send them on in one go
+      //
+      int nrKept = 0;
+      for ( Object[] r : rows ) {
+        if ( keepRow( getInputRowMeta(), r ) ) { // Keep this row?
+          rows[nrKept++] = r;
+        }
       }
+      putRows( data.outputRowMeta, rows, nrKept ); // copy rows to output rowset(s);
     } else {
-      if ( keep ) {
-        if ( data.trueRowSet != null ) {
-          if ( log.isRowLevel() ) {
-            logRowlevel( "Sending row to true  :" + data.trueStepname + " : " + getInputRowMeta().getString( r ) );
+      for ( Object[] r : rows ) {
+        if ( keepRow( getInputRowMeta(), r ) ) {
+          if ( data.trueRowSet != null ) {
+            if ( log.isRowLevel() ) {
+              logRowlevel( "Sending row to true  :" + data.trueStepname + " : " + getInputRowMeta().getString( r ) );
+            }
+            putRowTo( data.outputRowMeta, r, data.trueRowSet );
           }
-          putRowTo( data.outputRowMeta, r, data.trueRowSet );
-        }
-      } else {
-        if ( data.falseRowSet != null ) {
-          if ( log.isRowLevel() ) {
-            logRowlevel( "Sending row to false :" + data.falseStepname + " : " + getInputRowMeta().getString( r ) );
+        } else {
+          if ( data.falseRowSet != null ) {
+            if ( log.isRowLevel() ) {
+              logRowlevel( "Sending row to false :" + data.falseStepname + " : " + getInputRowMeta().getString( r ) );
+            }
+            putRowTo( data.outputRowMeta, r, data.falseRowSet );
           }
-          putRowTo( data.outputRowMeta, r, data.falseRowSet );
         }
       }
     }
 
-    if ( checkFeedback( getLinesRead() ) ) {
+    if ( checkFeedback( linesRead, getLinesRead() ) ) {
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "FilterRows.Log.LineNumber" ) + getLinesRead() );
       }
@@ -0,0 +1,123 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fuzzymatch;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * A Burkhard-Keller tree of the lookup values, using the Levenshtein distance. Thanks to the triangle inequality a
+ * search for the values within a distance of a key only has to compare the key with a small part of the values.
+ *
+ * Every value is added with an id, the position of its row in the lookup cache. Equal values share a node.
+ */
+public class BKTree {
+  private Node root;
+
+  public void add( String value, int id ) {
+    if ( root == null ) {
+      root = new Node( value, id );
+      return;
+    }
+    Node node = root;
+    while ( true ) {
+      int distance = StringUtils.getLevenshteinDistance( value, node.value );
+      if ( distance == 0 ) {
+        node.addId( id );
+        return;
+      }
+      Node child = node.getChild( distance );
+      if ( child == null ) {
+        node.addChild( distance, new Node( value, id ) );
+        return;
+      }
+      node = child;
+    }
+  }
+
+  /**
+   * @return the ids of the values with a Levenshtein distance of at most {@code maxDistance} to the key, in ascending
+   *         order
+   */
+  public int[] search( String key, int maxDistance ) {
+    IntList ids = new IntList();
+    if ( root == null || maxDistance < 0 ) {
+      return ids.toArray();
+    }
+    Deque<Node> nodes = new ArrayDeque<>();
+    nodes.push( root );
+    while ( !nodes.isEmpty() ) {
+      Node node = nodes.pop();
+      int distance = StringUtils.getLevenshteinDistance( key, node.value );
+      if ( distance <= maxDistance ) {
+        ids.addAll( node.ids, node.nrIds );
+      }
+      // By the triangle inequality only the children within maxDistance of the distance of the key can hold matches
+      for ( int i = 0; i < node.nrChildren; i++ ) {
+        if ( Math.abs( node.childDistances[i] - distance ) <= maxDistance ) {
+          nodes.push( node.children[i] );
+        }
+      }
+    }
+    int[] result = ids.toArray();
+    Arrays.sort( result );
+    return result;
+  }
+
+  private static class Node {
+    private final String value;
+    private int[] ids;
+    private int nrIds;
+    private int[] childDistances;
+    private Node[] children;
+    private int nrChildren;
+
+    Node( String value, int id ) {
+      this.value = value;
+      this.ids = new int[] { id };
+      this.nrIds = 1;
+    }
+
+    void addId( int id ) {
+      if ( nrIds == ids.length ) {
+        ids = Arrays.copyOf( ids, nrIds * 2 );
+      }
+      ids[nrIds++] = id;
+    }
+
+    Node getChild( int distance ) {
+      for ( int i = 0; i < nrChildren; i++ ) {
+        if ( childDistances[i] == distance ) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    void addChild( int distance, Node child ) {
+      if ( children == null ) {
+        childDistances = new int[4];
+        children = new Node[4];
+      } else if ( nrChildren == children.length ) {
+        childDistances = Arrays.copyOf( childDistances, nrChildren * 2 );
+        children = Arrays.copyOf( children, nrChildren * 2 );
+      }
+      childDistances[nrChildren] = distance;
+      children[nrChildren++] = child;
+    }
+  }
+}
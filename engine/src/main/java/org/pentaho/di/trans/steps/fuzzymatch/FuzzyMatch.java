@@ -13,7 +13,12 @@
 
 package org.pentaho.di.trans.steps.fuzzymatch;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.codec.language.DoubleMetaphone;
 import org.apache.commons.codec.language.Metaphone;
@@ -25,7 +30,6 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
-import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -52,6 +56,9 @@ import com.wcohen.ss.NeedlemanWunsch;
 public class FuzzyMatch extends BaseStep implements StepInterface {
   private static Class<?> PKG = FuzzyMatchMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** Fewer values than this are not worth handing to another thread */
+  private static final int MIN_VALUES_PER_THREAD = 1000;
+
   private FuzzyMatchMeta meta;
   private FuzzyMatchData data;
 
@@ -199,7 +206,159 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
     }
   }
 
-  private Object[] getFromCache( Object[] keyRow ) throws KettleValueException {
+  /**
+   * Index the cached values, so that every main stream value is only compared with the values that can match it.
+   */
+  private void buildIndex() {
+    data.lookupRows = new ArrayList<Object[]>();
+    for ( Object[] cachedData : data.look ) {
+      data.lookupRows.add( cachedData );
+    }
+    int nrRows = data.lookupRows.size();
+    boolean distance = meta.getAlgorithmType() == FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN
+      || meta.getAlgorithmType() == FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN
+      || meta.getAlgorithmType() == FuzzyMatchMeta.OPERATION_TYPE_NEEDLEMAN_WUNSH;
+    data.lookupKeys = new String[nrRows];
+    for ( int i = 0; i < nrRows; i++ ) {
+      String cacheValue = (String) data.lookupRows.get( i )[0];
+      data.lookupKeys[i] = distance && !meta.isCaseSensitive() ? cacheValue.toLowerCase() : cacheValue;
+    }
+
+    switch ( meta.getAlgorithmType() ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN:
+      case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
+        data.distanceIndex = new BKTree();
+        for ( int i = 0; i < nrRows; i++ ) {
+          data.distanceIndex.add( data.lookupKeys[i], i );
+        }
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO:
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER:
+        data.similarityIndex = QGramIndex.characters( data.lookupKeys );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_PAIR_SIMILARITY:
+        data.similarityIndex = QGramIndex.letterPairs( data.lookupKeys );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_DOUBLE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX:
+      case FuzzyMatchMeta.OPERATION_TYPE_REFINED_SOUNDEX:
+        data.phoneticIndex = new HashMap<String, Integer>();
+        for ( int i = 0; i < nrRows; i++ ) {
+          String encodedValue = getEncodedMF( data.lookupKeys[i], meta.getAlgorithmType() );
+          if ( encodedValue != null ) {
+            data.phoneticIndex.put( encodedValue, i );
+          }
+        }
+        break;
+      default:
+        // Needleman-Wunsch scores are no metric, every value is scored
+        break;
+    }
+  }
+
+  /**
+   * @return the positions of the cached values that can be within the maximal distance, null for all of them
+   */
+  private int[] getDistanceCandidates( String lookupValue ) {
+    switch ( meta.getAlgorithmType() ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN:
+        return data.distanceIndex.search( lookupValue, data.maximalDistance );
+      case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
+        // A transposition is a single edit for Damerau-Levenshtein but two for Levenshtein
+        return data.distanceIndex.search( lookupValue, (int) Math.min( 2L * data.maximalDistance, Integer.MAX_VALUE ) );
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the positions of the cached values that can reach the minimal similarity, null for all of them
+   */
+  private int[] getSimilarityCandidates( String lookupValue ) {
+    // Values that share no characters score 0: they only match an empty value, or when all values are returned
+    if ( Utils.isEmpty( lookupValue ) || ( data.minimalSimilarity <= 0 && !meta.isGetCloserValue() ) ) {
+      return null;
+    }
+    switch ( meta.getAlgorithmType() ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO:
+        return data.similarityIndex.search( lookupValue, data.minimalSimilarity, QGramIndex.JARO );
+      case FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER:
+        return data.similarityIndex.search( lookupValue, data.minimalSimilarity, QGramIndex.JARO_WINKLER );
+      default:
+        return data.similarityIndex.search( lookupValue, data.minimalSimilarity, QGramIndex.LETTER_PAIRS );
+    }
+  }
+
+  /**
+   * Score the candidates, spread over the scoring threads when there are enough of them.
+   *
+   * @param candidates
+   *          the positions of the cached values to score, null for all of them
+   * @return the distances or similarities, in the order of the candidates
+   */
+  private double[] score( String lookupValue, int[] candidates ) throws KettleStepException {
+    int nrCandidates = candidates == null ? data.lookupKeys.length : candidates.length;
+    double[] scores = new double[nrCandidates];
+    int nrThreads = Math.min( data.nrScoringThreads, nrCandidates / MIN_VALUES_PER_THREAD );
+    if ( data.scoringExecutor == null || nrThreads <= 1 ) {
+      score( lookupValue, candidates, scores, 0, nrCandidates );
+      return scores;
+    }
+
+    List<Future<?>> futures = new ArrayList<Future<?>>( nrThreads );
+    int chunkSize = ( nrCandidates + nrThreads - 1 ) / nrThreads;
+    for ( int from = 0; from < nrCandidates; from += chunkSize ) {
+      int start = from;
+      int end = Math.min( from + chunkSize, nrCandidates );
+      futures.add( data.scoringExecutor.submit( () -> score( lookupValue, candidates, scores, start, end ) ) );
+    }
+    try {
+      for ( Future<?> future : futures ) {
+        future.get();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleStepException( e );
+    } catch ( ExecutionException e ) {
+      throw new KettleStepException( e.getCause() );
+    }
+    return scores;
+  }
+
+  private void score( String lookupValue, int[] candidates, double[] scores, int from, int to ) {
+    // Created once for every range of candidates rather than for every comparison, and never shared by threads
+    Jaro jaro = new Jaro();
+    JaroWinkler jaroWinkler = new JaroWinkler();
+    NeedlemanWunsch needlemanWunsch = new NeedlemanWunsch();
+
+    for ( int i = from; i < to; i++ ) {
+      String cacheValue = data.lookupKeys[candidates == null ? i : candidates[i]];
+      switch ( meta.getAlgorithmType() ) {
+        case FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN:
+          scores[i] = StringUtils.getLevenshteinDistance( cacheValue, lookupValue );
+          break;
+        case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
+          scores[i] = Utils.getDamerauLevenshteinDistance( cacheValue, lookupValue );
+          break;
+        case FuzzyMatchMeta.OPERATION_TYPE_NEEDLEMAN_WUNSH:
+          scores[i] = Math.abs( (int) needlemanWunsch.score( cacheValue, lookupValue ) );
+          break;
+        case FuzzyMatchMeta.OPERATION_TYPE_JARO:
+          scores[i] = jaro.score( cacheValue, lookupValue );
+          break;
+        case FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER:
+          scores[i] = jaroWinkler.score( cacheValue, lookupValue );
+          break;
+        default:
+          // Letters pair similarity
+          scores[i] = LetterPairSimilarity.getSimiliarity( cacheValue, lookupValue );
+          break;
+      }
+    }
+  }
+
+  private Object[] getFromCache( Object[] keyRow ) throws KettleException {
     if ( isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "FuzzyMatch.Log.ReadingMainStreamRow", getInputRowMeta().getString(
         keyRow ) ) );
@@ -230,42 +389,30 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
     return retval;
   }
 
-  private Object[] doDistance( Object[] row ) throws KettleValueException {
+  private Object[] doDistance( Object[] row ) throws KettleException {
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     long distance = -1;
 
     // Object o=row[data.indexOfMainField];
     String lookupvalue = getInputRowMeta().getString( row, data.indexOfMainField );
+    String uselookupvalue = lookupvalue;
+    if ( !meta.isCaseSensitive() ) {
+      uselookupvalue = lookupvalue.toLowerCase();
+    }
 
-    while ( it.hasNext() ) {
+    // Only score the values that can be close enough, in the order of the cache
+    int[] candidates = getDistanceCandidates( uselookupvalue );
+    double[] distances = score( uselookupvalue, candidates );
+
+    for ( int c = 0; c < distances.length; c++ ) {
       // Get cached row data
-      Object[] cachedData = it.next();
+      Object[] cachedData = data.lookupRows.get( candidates == null ? c : candidates[c] );
       // Key value is the first value
       String cacheValue = (String) cachedData[0];
 
-      int cdistance = -1;
-      String usecacheValue = cacheValue;
-      String uselookupvalue = lookupvalue;
-      if ( !meta.isCaseSensitive() ) {
-        usecacheValue = cacheValue.toLowerCase();
-        uselookupvalue = lookupvalue.toLowerCase();
-      }
-
-      switch ( meta.getAlgorithmType() ) {
-        case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
-          cdistance = Utils.getDamerauLevenshteinDistance( usecacheValue, uselookupvalue );
-          break;
-        case FuzzyMatchMeta.OPERATION_TYPE_NEEDLEMAN_WUNSH:
-          cdistance = Math.abs( (int) new NeedlemanWunsch().score( usecacheValue, uselookupvalue ) );
-          break;
-        default:
-          cdistance = StringUtils.getLevenshteinDistance( usecacheValue, uselookupvalue );
-          break;
-      }
+      int cdistance = (int) distances[c];
 
       if ( data.minimalDistance <= cdistance && cdistance <= data.maximalDistance ) {
         if ( meta.isGetCloserValue() ) {
@@ -306,38 +453,33 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     Object o = row[data.indexOfMainField];
     String lookupvalue = (String) o;
 
     String lookupValueMF = getEncodedMF( lookupvalue, meta.getAlgorithmType() );
 
-    while ( it.hasNext() ) {
+    // The last cached value with the same encoding is the match
+    Integer position = lookupValueMF == null ? null : data.phoneticIndex.get( lookupValueMF );
+    if ( position != null ) {
       // Get cached row data
-      Object[] cachedData = it.next();
+      Object[] cachedData = data.lookupRows.get( position );
       // Key value is the first value
       String cacheValue = (String) cachedData[0];
 
-      String cacheValueMF = getEncodedMF( cacheValue, meta.getAlgorithmType() );
-
-      if ( lookupValueMF.equals( cacheValueMF ) ) {
-
-        // Add match value
-        int index = 0;
-        rowData[index++] = cacheValue;
+      // Add match value
+      int index = 0;
+      rowData[index++] = cacheValue;
 
-        // Add metric value?
-        if ( data.addValueFieldName ) {
-          rowData[index++] = cacheValueMF;
-        }
-        // Add additional return values?
-        if ( data.addAdditionalFields ) {
-          for ( int i = 0; i < meta.getValue().length; i++ ) {
-            int nf = i + index;
-            int nr = i + 1;
-            rowData[nf] = cachedData[nr];
-          }
+      // Add metric value?
+      if ( data.addValueFieldName ) {
+        rowData[index++] = lookupValueMF;
+      }
+      // Add additional return values?
+      if ( data.addAdditionalFields ) {
+        for ( int i = 0; i < meta.getValue().length; i++ ) {
+          int nf = i + index;
+          int nr = i + 1;
+          rowData[nf] = cachedData[nr];
         }
       }
     }
@@ -366,12 +508,10 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
     return encodedValueMF;
   }
 
-  private Object[] doSimilarity( Object[] row ) {
+  private Object[] doSimilarity( Object[] row ) throws KettleException {
 
     // Reserve room
     Object[] rowData = buildEmptyRow();
-    // prepare to read from cache ...
-    Iterator<Object[]> it = data.look.iterator();
     double similarity = 0;
 
     // get current value from main stream
@@ -379,26 +519,17 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
 
     String lookupvalue = o == null ? "" : (String) o;
 
-    while ( it.hasNext() ) {
+    // Only score the values that can be similar enough, in the order of the cache
+    int[] candidates = getSimilarityCandidates( lookupvalue );
+    double[] similarities = score( lookupvalue, candidates );
+
+    for ( int c = 0; c < similarities.length; c++ ) {
       // Get cached row data
-      Object[] cachedData = it.next();
+      Object[] cachedData = data.lookupRows.get( candidates == null ? c : candidates[c] );
       // Key value is the first value
       String cacheValue = (String) cachedData[0];
 
-      double csimilarity = new Double( 0 );
-
-      switch ( meta.getAlgorithmType() ) {
-        case FuzzyMatchMeta.OPERATION_TYPE_JARO:
-          csimilarity = new Jaro().score( cacheValue, lookupvalue );
-          break;
-        case FuzzyMatchMeta.OPERATION_TYPE_JARO_WINKLER:
-          csimilarity = new JaroWinkler().score( cacheValue, lookupvalue );
-          break;
-        default:
-          // Letters pair similarity
-          csimilarity = LetterPairSimilarity.getSimiliarity( cacheValue, lookupvalue );
-          break;
-      }
+      double csimilarity = similarities[c];
 
       if ( data.minimalSimilarity <= csimilarity && csimilarity <= data.maximalSimilarity ) {
         if ( meta.isGetCloserValue() ) {
@@ -465,6 +596,9 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
         logDetailed( BaseMessages.getString( PKG, "FuzzyMatch.Log.ReadValuesInMemory", data.look.size() ) );
       }
     }
+    if ( data.lookupRows == null ) {
+      buildIndex();
+    }
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) {
@@ -603,6 +737,19 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
           break;
       }
 
+      if ( meta.getScoringThreads() > 1 ) {
+        data.nrScoringThreads = meta.getScoringThreads();
+        data.scoringExecutor = Executors.newFixedThreadPool( data.nrScoringThreads, runnable -> {
+          Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+          thread.setDaemon( true );
+          thread.setName( getStepname() + " - scoring" );
+          return thread;
+        } );
+        if ( isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "FuzzyMatch.Log.ScoringThreads", data.nrScoringThreads ) );
+        }
+      }
+
       data.readLookupValues = true;
 
       return true;
@@ -614,6 +761,15 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
     meta = (FuzzyMatchMeta) smi;
     data = (FuzzyMatchData) sdi;
     data.look.clear();
+    data.lookupRows = null;
+    data.lookupKeys = null;
+    data.distanceIndex = null;
+    data.similarityIndex = null;
+    data.phoneticIndex = null;
+    if ( data.scoringExecutor != null ) {
+      data.scoringExecutor.shutdownNow();
+      data.scoringExecutor = null;
+    }
     super.dispose( smi, sdi );
   }
 
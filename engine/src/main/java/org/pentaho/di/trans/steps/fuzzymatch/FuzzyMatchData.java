@@ -14,6 +14,9 @@
 package org.pentaho.di.trans.steps.fuzzymatch;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -58,6 +61,21 @@ public class FuzzyMatchData extends BaseStepData implements StepDataInterface {
   public int nrCachedFields;
   public RowMetaInterface infoCache;
 
+  /** the cached rows in the order they are matched in, the indexes refer to them by their position */
+  public List<Object[]> lookupRows;
+  /** the cached values as they are compared, lower case for case insensitive distances */
+  public String[] lookupKeys;
+  /** index of the cached values for the Levenshtein and Damerau-Levenshtein distances */
+  public BKTree distanceIndex;
+  /** index of the cached values for the Jaro, Jaro-Winkler and letter pair similarities */
+  public QGramIndex similarityIndex;
+  /** position of the last cached row with the encoded value for the phonetic algorithms */
+  public Map<String, Integer> phoneticIndex;
+
+  /** threads scoring the cached values, null to score them in the step thread */
+  public ExecutorService scoringExecutor;
+  public int nrScoringThreads;
+
   public FuzzyMatchData() {
     super();
     this.look = new HashSet<Object[]>();
@@ -126,6 +126,9 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
   /** get closer matching value **/
   private boolean closervalue;
 
+  /** number of threads scoring the lookup values **/
+  private int scoringThreads;
+
   /** return these field values from lookup */
   private String[] value;
 
@@ -319,6 +322,21 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
     this.separator = separator;
   }
 
+  /**
+   * @return Returns the number of threads scoring the lookup values.
+   */
+  public int getScoringThreads() {
+    return scoringThreads;
+  }
+
+  /**
+   * @param scoringThreads
+   *          The number of threads scoring the lookup values to set.
+   */
+  public void setScoringThreads( int scoringThreads ) {
+    this.scoringThreads = scoringThreads;
+  }
+
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode, databases );
   }
@@ -385,6 +403,7 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
       outputvaluefield = XMLHandler.getTagValue( stepnode, "outputvaluefield" );
 
       algorithm = getAlgorithmTypeByCode( Const.NVL( XMLHandler.getTagValue( stepnode, "algorithm" ), "" ) );
+      scoringThreads = Const.toInt( XMLHandler.getTagValue( stepnode, "scoringThreads" ), 1 );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       int nrvalues = XMLHandler.countNodes( lookup, "value" );
@@ -422,6 +441,7 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
     minimalValue = "0";
     maximalValue = "1";
     caseSensitive = false;
+    scoringThreads = 1;
     lookupfield = null;
     mainstreamfield = null;
     outputmatchfield = BaseMessages.getString( PKG, "FuzzyMatchMeta.OutputMatchFieldname" );
@@ -520,6 +540,7 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "separator", separator ) );
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "algorithm", getAlgorithmTypeCode( algorithm ) ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "scoringThreads", scoringThreads ) );
 
     retval.append( "    <lookup>" + Const.CR );
     for ( int i = 0; i < value.length; i++ ) {
@@ -550,6 +571,7 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
       separator = rep.getStepAttributeString( id_step, "separator" );
 
       algorithm = getAlgorithmTypeByCode( Const.NVL( rep.getStepAttributeString( id_step, "algorithm" ), "" ) );
+      scoringThreads = (int) rep.getStepAttributeInteger( id_step, "scoringThreads" );
 
       int nrvalues = rep.countNrStepAttributes( id_step, "return_value_name" );
       allocate( nrvalues );
@@ -579,6 +601,7 @@ public class FuzzyMatchMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "maximalValue", maximalValue );
       rep.saveStepAttribute( id_transformation, id_step, "separator", separator );
       rep.saveStepAttribute( id_transformation, id_step, "algorithm", getAlgorithmTypeCode( algorithm ) );
+      rep.saveStepAttribute( id_transformation, id_step, "scoringThreads", scoringThreads );
 
       for ( int i = 0; i < value.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "return_value_name", value[i] );
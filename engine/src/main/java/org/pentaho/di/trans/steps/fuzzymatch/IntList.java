@@ -0,0 +1,51 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fuzzymatch;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints, so that the ids of the lookup rows are not boxed.
+ */
+class IntList {
+  private int[] values = new int[16];
+  private int size;
+
+  void add( int value ) {
+    if ( size == values.length ) {
+      values = Arrays.copyOf( values, size * 2 );
+    }
+    values[size++] = value;
+  }
+
+  void addAll( int[] add, int length ) {
+    if ( size + length > values.length ) {
+      values = Arrays.copyOf( values, Math.max( values.length * 2, size + length ) );
+    }
+    System.arraycopy( add, 0, values, size, length );
+    size += length;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int get( int index ) {
+    return values[index];
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf( values, size );
+  }
+}
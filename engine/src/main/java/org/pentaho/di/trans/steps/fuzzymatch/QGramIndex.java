@@ -0,0 +1,245 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fuzzymatch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An inverted index from the grams of the lookup values (their characters or their letter pairs) to the values that
+ * contain them. A search only looks at the values that share grams with the key and that are neither too short nor too
+ * long to reach the minimal similarity, and it drops those that do not share enough grams to reach it.
+ *
+ * Every value is indexed with an id, the position of its row in the lookup cache. The index is not thread safe.
+ */
+public class QGramIndex {
+
+  /**
+   * The highest similarity two values can have, given their number of grams and the number of grams they share.
+   */
+  public interface Bound {
+    double getMaximum( int keySize, int valueSize, int overlap );
+  }
+
+  /**
+   * Jaro: the matching characters are shared characters, and at best none of them are transposed.
+   */
+  public static final Bound JARO = ( keySize, valueSize, overlap ) -> overlap == 0 ? 0
+    : ( (double) overlap / keySize + (double) overlap / valueSize + 1 ) / 3;
+
+  /**
+   * Jaro-Winkler: Jaro raised by 0.1 of the remainder for each of the at most 4 characters of the common prefix.
+   */
+  public static final Bound JARO_WINKLER = ( keySize, valueSize, overlap ) -> {
+    double jaro = JARO.getMaximum( keySize, valueSize, overlap );
+    return jaro == 0 ? 0 : jaro + 0.4 * ( 1 - jaro );
+  };
+
+  /**
+   * Letter pair similarity: twice the shared pairs divided by all pairs, exact rather than a bound.
+   */
+  public static final Bound LETTER_PAIRS = ( keySize, valueSize, overlap ) -> overlap == 0 ? 0
+    : 2.0 * overlap / ( keySize + valueSize );
+
+  /** Allowance for rounding, a bound must never drop a value that would be accepted */
+  private static final double EPSILON = 1e-9;
+
+  private final boolean letterPairs;
+  /** The ids of the values, ordered by their number of grams and then by id */
+  private final int[] ids;
+  /** The number of grams of the values, in the same order */
+  private final int[] sizes;
+  /** The position in ids of the first value with at least the number of grams of the index */
+  private final int[] sizeStarts;
+  /** The positions in ids of the values that contain the gram, each followed by the number of times they do */
+  private final Map<Integer, int[]> postings;
+  /** The number of grams each value shares with the key of the search that is running */
+  private final int[] overlaps;
+
+  private QGramIndex( String[] values, boolean letterPairs ) {
+    this.letterPairs = letterPairs;
+
+    int[][] grams = new int[values.length][];
+    int maxSize = 0;
+    for ( int id = 0; id < values.length; id++ ) {
+      grams[id] = getGrams( values[id] );
+      maxSize = Math.max( maxSize, grams[id].length );
+    }
+
+    // Order the values by their number of grams, so that the values of a size range are a range of positions
+    sizeStarts = new int[maxSize + 2];
+    for ( int[] valueGrams : grams ) {
+      sizeStarts[valueGrams.length + 1]++;
+    }
+    for ( int size = 1; size < sizeStarts.length; size++ ) {
+      sizeStarts[size] += sizeStarts[size - 1];
+    }
+    ids = new int[values.length];
+    sizes = new int[values.length];
+    int[] next = Arrays.copyOf( sizeStarts, sizeStarts.length );
+    for ( int id = 0; id < values.length; id++ ) {
+      int position = next[grams[id].length]++;
+      ids[position] = id;
+      sizes[position] = grams[id].length;
+    }
+
+    Map<Integer, IntList> lists = new HashMap<>();
+    for ( int position = 0; position < ids.length; position++ ) {
+      int[] valueGrams = grams[ids[position]];
+      for ( int i = 0; i < valueGrams.length; ) {
+        int count = countRun( valueGrams, i );
+        IntList list = lists.computeIfAbsent( valueGrams[i], gram -> new IntList() );
+        list.add( position );
+        list.add( count );
+        i += count;
+      }
+      grams[ids[position]] = null;
+    }
+    postings = new HashMap<>( lists.size() * 2 );
+    for ( Map.Entry<Integer, IntList> entry : lists.entrySet() ) {
+      postings.put( entry.getKey(), entry.getValue().toArray() );
+    }
+    overlaps = new int[values.length];
+  }
+
+  /**
+   * Index the characters of the values, ignoring case, for the Jaro and Jaro-Winkler similarities.
+   */
+  public static QGramIndex characters( String[] values ) {
+    return new QGramIndex( values, false );
+  }
+
+  /**
+   * Index the letter pairs of the words of the values, like {@link LetterPairSimilarity} forms them.
+   */
+  public static QGramIndex letterPairs( String[] values ) {
+    return new QGramIndex( values, true );
+  }
+
+  /**
+   * Only values that share a gram with the key are found. A key without grams, like the empty string, shares nothing
+   * with any value and finds nothing, even though the similarity algorithms take two empty values for equal: callers
+   * have to compare such a key with all the values themselves.
+   *
+   * @param key
+   *          the value to find similar values of
+   * @param minimalSimilarity
+   *          the similarity the values need to be able to reach, 0 or less for all values that share a gram
+   * @param bound
+   *          the bound of the similarity algorithm
+   * @return the ids of the values that may be similar enough, in ascending order, none for a key without grams
+   */
+  public int[] search( String key, double minimalSimilarity, Bound bound ) {
+    int[] keyGrams = getGrams( key );
+    int keySize = keyGrams.length;
+    int maxSize = sizeStarts.length - 2;
+
+    // Values that are too short or too long can not be similar enough, even when they share all their grams
+    int fromSize = 0;
+    int toSize = maxSize;
+    if ( minimalSimilarity > 0 ) {
+      while ( fromSize < keySize && !reaches( bound.getMaximum( keySize, fromSize, fromSize ), minimalSimilarity ) ) {
+        fromSize++;
+      }
+      while ( toSize > keySize && !reaches( bound.getMaximum( keySize, toSize, keySize ), minimalSimilarity ) ) {
+        toSize--;
+      }
+    }
+    int from = sizeStarts[Math.min( fromSize, maxSize + 1 )];
+    int to = sizeStarts[Math.min( toSize + 1, maxSize + 1 )];
+
+    IntList touched = new IntList();
+    for ( int i = 0; i < keyGrams.length; ) {
+      int keyCount = countRun( keyGrams, i );
+      int[] posting = postings.get( keyGrams[i] );
+      i += keyCount;
+      if ( posting == null ) {
+        continue;
+      }
+      for ( int p = firstPosting( posting, from ); p < posting.length && posting[p] < to; p += 2 ) {
+        int position = posting[p];
+        if ( overlaps[position] == 0 ) {
+          touched.add( position );
+        }
+        overlaps[position] += Math.min( keyCount, posting[p + 1] );
+      }
+    }
+
+    IntList result = new IntList();
+    for ( int i = 0; i < touched.size(); i++ ) {
+      int position = touched.get( i );
+      int overlap = overlaps[position];
+      overlaps[position] = 0;
+      if ( minimalSimilarity <= 0 || reaches( bound.getMaximum( keySize, sizes[position], overlap ),
+        minimalSimilarity ) ) {
+        result.add( ids[position] );
+      }
+    }
+    int[] found = result.toArray();
+    Arrays.sort( found );
+    return found;
+  }
+
+  private static boolean reaches( double maximum, double minimalSimilarity ) {
+    return maximum >= minimalSimilarity - EPSILON;
+  }
+
+  /**
+   * @return the first index of a posting at or after the position, the postings are in ascending order
+   */
+  private static int firstPosting( int[] posting, int position ) {
+    int low = 0;
+    int high = posting.length / 2;
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( posting[middle * 2] < position ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low * 2;
+  }
+
+  private static int countRun( int[] grams, int start ) {
+    int end = start + 1;
+    while ( end < grams.length && grams[end] == grams[start] ) {
+      end++;
+    }
+    return end - start;
+  }
+
+  /**
+   * @return the grams of the value as ints, sorted so that equal grams are next to each other
+   */
+  private int[] getGrams( String value ) {
+    IntList grams = new IntList();
+    if ( letterPairs ) {
+      for ( String word : value.toUpperCase().split( "\\s" ) ) {
+        for ( int i = 0; i < word.length() - 1; i++ ) {
+          grams.add( word.charAt( i ) << 16 | word.charAt( i + 1 ) );
+        }
+      }
+    } else {
+      // Case is ignored: the characters shared regardless of case bound the characters shared in any case
+      for ( int i = 0; i < value.length(); i++ ) {
+        grams.add( Character.toLowerCase( value.charAt( i ) ) );
+      }
+    }
+    int[] result = grams.toArray();
+    Arrays.sort( result );
+    return result;
+  }
+}
@@ -415,14 +415,23 @@ public class GroupBy extends BaseStep implements StepInterface {
       ValueMetaInterface subjMeta = data.inputRowMeta.getValueMeta( data.subjectnrs[ i ] );
       Object value = data.agg[ i ];
       ValueMetaInterface valueMeta = data.aggMeta.getValueMeta( i );
+      NumericAccumulator accumulator = data.accumulators == null ? null : data.accumulators[ i ];
 
       switch ( meta.getAggregateType()[ i ] ) {
         case GroupByMeta.TYPE_GROUP_SUM:
-          data.agg[ i ] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+          if ( accumulator != null ) {
+            accumulator.add( subjMeta, subj );
+          } else {
+            data.agg[ i ] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+          }
           break;
         case GroupByMeta.TYPE_GROUP_AVERAGE:
           if ( !subjMeta.isNull( subj ) ) {
-            data.agg[ i ] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+            if ( accumulator != null ) {
+              accumulator.add( subjMeta, subj );
+            } else {
+              data.agg[ i ] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+            }
             data.counts[ i ]++;
           }
           break;
@@ -437,18 +446,7 @@ public class GroupBy extends BaseStep implements StepInterface {
         case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION_SAMPLE:
           if ( !subjMeta.isNull( subj ) ) {
             data.counts[ i ]++;
-            double n = data.counts[ i ];
-            double x = subjMeta.getNumber( subj );
-            // for standard deviation null is exact 0
-            double sum = value == null ? new Double( 0 ) : (Double) value;
-            double mean = data.mean[ i ];
-
-            double delta = x - mean;
-            mean = mean + ( delta / n );
-            sum = sum + delta * ( x - mean );
-
-            data.mean[ i ] = mean;
-            data.agg[ i ] = sum;
+            accumulator.add( subjMeta, subj );
           }
           break;
         case GroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
@@ -572,7 +570,7 @@ public class GroupBy extends BaseStep implements StepInterface {
     }
     data.distinctObjs = null;
     data.agg = new Object[ data.subjectnrs.length ];
-    data.mean = new double[ data.subjectnrs.length ]; // sets all doubles to 0.0
+    data.accumulators = new NumericAccumulator[ data.subjectnrs.length ];
     data.aggMeta = new RowMeta();
 
     for ( int i = 0; i < data.subjectnrs.length; i++ ) {
@@ -604,6 +602,8 @@ public class GroupBy extends BaseStep implements StepInterface {
         case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
         case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION_SAMPLE:
           vMeta = new ValueMetaNumber( meta.getAggregateField()[ i ] );
+          data.accumulators[ i ] =
+            NumericAccumulator.createStandardDeviation( aggType == GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION_SAMPLE );
           break;
         case GroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
         case GroupByMeta.TYPE_GROUP_COUNT_ANY:
@@ -639,6 +639,9 @@ public class GroupBy extends BaseStep implements StepInterface {
           && aggType != GroupByMeta.TYPE_GROUP_COUNT_ANY ) ) {
         vMeta.setLength( subjMeta.getLength(), subjMeta.getPrecision() );
       }
+      if ( aggType == GroupByMeta.TYPE_GROUP_SUM || aggType == GroupByMeta.TYPE_GROUP_AVERAGE ) {
+        data.accumulators[ i ] = NumericAccumulator.createSum( vMeta );
+      }
       data.agg[ i ] = v;
       data.aggMeta.addValueMeta( vMeta );
     }
@@ -693,6 +696,9 @@ public class GroupBy extends BaseStep implements StepInterface {
 
     for ( int i = 0; i < data.subjectnrs.length; i++ ) {
       Object ag = data.agg[ i ];
+      if ( data.accumulators != null && data.accumulators[ i ] != null ) {
+        ag = data.accumulators[ i ].getResult();
+      }
       switch ( meta.getAggregateType()[ i ] ) {
         case GroupByMeta.TYPE_GROUP_SUM:
           break;
@@ -738,23 +744,10 @@ public class GroupBy extends BaseStep implements StepInterface {
           break;
         case GroupByMeta.TYPE_GROUP_MAX:
           break;
-        case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION: {
-          if ( ag == null ) {
-            // PMD-1037 - when all input data is null ag is null, npe on access ag
-            break;
-          }
-          double sum = (Double) ag / data.counts[ i ];
-          ag = Math.sqrt( sum );
-          break;
-        }
-        case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION_SAMPLE: {
-          if ( ag == null ) {
-            break;
-          }
-          double sum = (Double) ag / ( data.counts[ i ] - 1 );
-          ag = Math.sqrt( sum );
+        case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+        case GroupByMeta.TYPE_GROUP_STANDARD_DEVIATION_SAMPLE:
+          // PMD-1037 - the accumulator gives back null when all input data is null
           break;
-        }
         case GroupByMeta.TYPE_GROUP_CONCAT_COMMA:
         case GroupByMeta.TYPE_GROUP_CONCAT_STRING:
           ag = ( (StringBuilder) ag ).toString();
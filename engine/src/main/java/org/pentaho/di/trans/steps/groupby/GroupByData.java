@@ -90,6 +90,16 @@ public class GroupByData extends BaseStepData implements StepDataInterface {
   public ValueMetaInterface valueMetaInteger;
   public ValueMetaInterface valueMetaNumber;
 
+  /**
+   * primitive state of the sum, average and standard deviation aggregations of the current group, null for the other
+   * aggregations and for the sums on types without a primitive accumulator
+   */
+  public NumericAccumulator[] accumulators;
+
+  /**
+   * @deprecated no longer used, the running mean of the standard deviations is kept in {@link #accumulators}
+   */
+  @Deprecated
   public double[] mean;
 
   public boolean newBatch;
@@ -0,0 +1,176 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.groupby;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Keeps the running state of a numeric aggregation (sum, average, standard deviation) of one group in primitive fields,
+ * so that adding a value doesn't allocate anything. The result is only boxed once, when the group is finished.
+ * <p>
+ * The accumulator to use for an aggregation is picked once from the type of the aggregation result with
+ * {@link #createSum(ValueMetaInterface)} or {@link #createStandardDeviation(boolean)}. Aggregations on other types,
+ * like BigNumber, keep using the boxed values in {@link org.pentaho.di.core.row.ValueDataUtil}.
+ *
+ * @since 10.3
+ */
+public abstract class NumericAccumulator {
+
+  /** the number of non-null values added */
+  protected long count;
+
+  /**
+   * Create the accumulator for a sum or an average.
+   *
+   * @param aggMeta
+   *          the metadata of the aggregation result
+   * @return the accumulator or null if the result type has no primitive accumulator
+   */
+  public static NumericAccumulator createSum( ValueMetaInterface aggMeta ) {
+    switch ( aggMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return new LongSum();
+      case ValueMetaInterface.TYPE_NUMBER:
+        return new DoubleSum();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Create the accumulator for a standard deviation.
+   *
+   * @param sample
+   *          true for the sample standard deviation, false for the population standard deviation
+   * @return the accumulator
+   */
+  public static NumericAccumulator createStandardDeviation( boolean sample ) {
+    return new StandardDeviation( sample );
+  }
+
+  /**
+   * Add a value, a null value is ignored.
+   *
+   * @param meta
+   *          the metadata of the value
+   * @param data
+   *          the value
+   * @throws KettleValueException
+   *           in case the value can't be converted to a number
+   */
+  public abstract void add( ValueMetaInterface meta, Object data ) throws KettleValueException;
+
+  /**
+   * @return the result of the aggregation, null if only null values were added
+   */
+  public abstract Object getResult();
+
+  /**
+   * @return the number of non-null values added
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * A sum of Integer values, it overflows exactly like the boxed addition.
+   */
+  static final class LongSum extends NumericAccumulator {
+    private long sum;
+
+    @Override
+    public void add( ValueMetaInterface meta, Object data ) throws KettleValueException {
+      Long value = meta.getInteger( data );
+      if ( value != null ) {
+        sum += value;
+        count++;
+      }
+    }
+
+    @Override
+    public Object getResult() {
+      return count == 0 ? null : Long.valueOf( sum );
+    }
+  }
+
+  /**
+   * A compensated (Kahan-Babuska-Neumaier) sum of Number values: the low order bits lost by every addition are kept
+   * apart and added back at the end.
+   */
+  static final class DoubleSum extends NumericAccumulator {
+    private double sum;
+    private double compensation;
+
+    @Override
+    public void add( ValueMetaInterface meta, Object data ) throws KettleValueException {
+      Double value = meta.getNumber( data );
+      if ( value == null ) {
+        return;
+      }
+      double x = value;
+      double t = sum + x;
+      if ( Math.abs( sum ) >= Math.abs( x ) ) {
+        compensation += ( sum - t ) + x;
+      } else {
+        compensation += ( x - t ) + sum;
+      }
+      sum = t;
+      count++;
+    }
+
+    @Override
+    public Object getResult() {
+      if ( count == 0 ) {
+        return null;
+      }
+      // The compensation of an infinite or NaN sum is meaningless
+      return Double.valueOf( Double.isFinite( sum ) ? sum + compensation : sum );
+    }
+  }
+
+  /**
+   * The standard deviation, using Welford's online algorithm for the variance.
+   */
+  static final class StandardDeviation extends NumericAccumulator {
+    private final boolean sample;
+    private double mean;
+    private double m2;
+
+    StandardDeviation( boolean sample ) {
+      this.sample = sample;
+    }
+
+    @Override
+    public void add( ValueMetaInterface meta, Object data ) throws KettleValueException {
+      Double value = meta.getNumber( data );
+      if ( value == null ) {
+        return;
+      }
+      double x = value;
+      count++;
+      double delta = x - mean;
+      mean += delta / count;
+      m2 += delta * ( x - mean );
+    }
+
+    @Override
+    public Object getResult() {
+      if ( count == 0 ) {
+        return null;
+      }
+      return Double.valueOf( Math.sqrt( m2 / ( sample ? count - 1 : count ) ) );
+    }
+  }
+}
@@ -15,10 +15,19 @@ package org.pentaho.di.trans.steps.memgroupby;
 
 import java.util.Set;
 
+import org.pentaho.di.trans.steps.groupby.NumericAccumulator;
+
 public class Aggregate {
   public Object[] agg;
   public long[] counts;
   public Set<Object>[] distinctObjs;
+  /** primitive state of the sum, average and standard deviation aggregations, null for the other aggregations */
+  public NumericAccumulator[] accumulators;
+
+  /**
+   * @deprecated no longer used, the running mean of the standard deviations is kept in {@link #accumulators}
+   */
+  @Deprecated
   public double[] mean;
 
 }
@@ -42,6 +42,8 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.common.SpillPartitions;
+import org.pentaho.di.trans.steps.groupby.NumericAccumulator;
 import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.HashEntry;
 
 /**
@@ -191,27 +193,22 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
   }
 
   private void handleLastOfGroup() throws KettleException {
+    boolean noGroups = data.map.isEmpty();
+
     // Dump the content of the map...
     //
-    for ( HashEntry entry : data.map.keySet() ) {
-      Aggregate aggregate = data.map.get( entry );
-      Object[] aggregateResult = getAggregateResult( aggregate );
+    outputGroups();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
-      int index = 0;
-      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
-        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
-      }
-      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
-        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
-      }
-      putRow( data.outputRowMeta, outputRowData );
+    // Then aggregate the groups that didn't fit in memory
+    //
+    if ( data.spillPartitions != null ) {
+      aggregateSpilledRows();
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if ( data.map.isEmpty() && meta.isAlwaysGivingBackOneRow() ) {
+    if ( noGroups && meta.isAlwaysGivingBackOneRow() ) {
       Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
       int index = 0;
       for ( int i = 0; i < data.groupMeta.size(); i++ ) {
@@ -230,6 +227,91 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     }
   }
 
+  private void outputGroups() throws KettleException {
+    for ( HashEntry entry : data.map.keySet() ) {
+      Aggregate aggregate = data.map.get( entry );
+      Object[] aggregateResult = getAggregateResult( aggregate );
+
+      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+      int index = 0;
+      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
+        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
+      }
+      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
+        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+      }
+      putRow( data.outputRowMeta, outputRowData );
+    }
+  }
+
+  /**
+   * Aggregate the rows written to the spill files, one file at a time. All the rows of a group end up in the same
+   * file. A file that still holds too many groups is spilled again with another hash.
+   */
+  private void aggregateSpilledRows() throws KettleException {
+    SpillPartitions partitions = data.spillPartitions;
+    partitions.closeStreams();
+    data.spillPartitions = null;
+    data.spilling = false;
+    data.spillLevel++;
+
+    try {
+      for ( int partition = 0; partition < SpillPartitions.NR_OF_PARTITIONS; partition++ ) {
+        if ( !partitions.hasRows( partition ) || isStopped() ) {
+          continue;
+        }
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.AggregatingSpillFile", partitions.getFile(
+            partition ).getName().getBaseName(), data.spillLevel ) );
+        }
+        data.map.clear();
+        partitions.readRows( partition, row -> {
+          addToAggregate( row );
+          return !isStopped();
+        } );
+        outputGroups();
+        data.map.clear();
+        partitions.delete( partition );
+
+        // The groups of this file that still didn't fit in memory
+        //
+        if ( data.spillPartitions != null ) {
+          aggregateSpilledRows();
+        }
+      }
+    } finally {
+      data.spillLevel--;
+      partitions.deleteAll();
+    }
+  }
+
+  /**
+   * @return true if there is no room for another group in memory
+   */
+  private boolean isMemoryBudgetExceeded() {
+    boolean checkFreeMemory = data.freeMemoryPctLimit > 0 && ++data.newGroupCounter >= 1000;
+    if ( checkFreeMemory ) {
+      data.newGroupCounter = 0;
+    }
+    boolean exceeded = SpillPartitions.isMemoryBudgetExceeded( data.spillLevel, data.map.size(), data.maxGroups,
+      data.freeMemoryPctLimit, checkFreeMemory );
+    if ( exceeded && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.StartSpilling", data.map.size() ) );
+    }
+    return exceeded;
+  }
+
+  /**
+   * Write a row of a group that isn't in memory to the spill file of its partition.
+   */
+  private void spillRow( HashEntry entry, Object[] r ) throws KettleException {
+    if ( data.spillPartitions == null ) {
+      data.spillPartitions = new SpillPartitions( "memgroupby", environmentSubstitute( meta.getDirectory() ),
+        getTransMeta(), data.inputRowMeta, log );
+    }
+    data.spillPartitions.write( SpillPartitions.getPartition( entry.hashCode(), data.spillLevel ), r );
+  }
+
   @VisibleForTesting
   void updateValueMeta() throws KettleException {
 
@@ -261,6 +343,16 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     Aggregate aggregate = data.map.get( entry );
     if ( aggregate == null ) {
+      if ( data.spillToDisk && !data.spilling ) {
+        data.spilling = isMemoryBudgetExceeded();
+      }
+      if ( data.spilling ) {
+        // No room for another group: the row is aggregated later on, together with the rest of its group
+        //
+        spillRow( entry, r );
+        return;
+      }
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -276,14 +368,23 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       ValueMetaInterface subjMeta = data.inputRowMeta.getValueMeta( data.subjectnrs[i] );
       Object value = aggregate.agg[i];
       ValueMetaInterface valueMeta = data.aggMeta.getValueMeta( i );
+      NumericAccumulator accumulator = aggregate.accumulators == null ? null : aggregate.accumulators[i];
 
       switch ( meta.getAggregateType()[i] ) {
         case MemoryGroupByMeta.TYPE_GROUP_SUM:
-          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+          if ( accumulator != null ) {
+            accumulator.add( subjMeta, subj );
+          } else {
+            aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+          }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
           if ( !subjMeta.isNull( subj ) ) {
-            aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+            if ( accumulator != null ) {
+              accumulator.add( subjMeta, subj );
+            } else {
+              aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, subjMeta, subj );
+            }
             aggregate.counts[i]++;
           }
           break;
@@ -294,22 +395,10 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
           }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
-          if ( aggregate.mean == null ) {
-            aggregate.mean = new double[meta.getSubjectField().length];
+          if ( !subjMeta.isNull( subj ) ) {
+            aggregate.counts[i]++;
+            accumulator.add( subjMeta, subj );
           }
-          aggregate.counts[i]++;
-          double n = aggregate.counts[i];
-          double x = subjMeta.getNumber( subj );
-          // for standard deviation null is exact 0
-          double sum = value == null ? new Double( 0 ) : (Double) value;
-          double mean = aggregate.mean[i];
-
-          double delta = x - mean;
-          mean = mean + ( delta / n );
-          sum = sum + delta * ( x - mean );
-
-          aggregate.mean[i] = mean;
-          aggregate.agg[i] = sum;
           break;
         case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
           if ( aggregate.distinctObjs == null ) {
@@ -422,7 +511,7 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       }
       aggregate.distinctObjs = null;
       aggregate.agg = new Object[data.subjectnrs.length];
-      aggregate.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
+      aggregate.accumulators = new NumericAccumulator[data.subjectnrs.length];
     }
 
     for ( int i = 0; i < data.subjectnrs.length; i++ ) {
@@ -437,6 +526,9 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
           break;
         case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
           vMeta = new ValueMetaNumber( meta.getAggregateField()[i] );
+          if ( aggregate != null ) {
+            aggregate.accumulators[i] = NumericAccumulator.createStandardDeviation( false );
+          }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
         case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
@@ -447,6 +539,8 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
         case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
           vMeta = !compatibilityMode && subjMeta.isNumeric() ? subjMeta.clone() : new ValueMetaNumber();
           vMeta.setName( meta.getAggregateField()[i] );
+          // The accumulators always give back a native value, even for lazy converted input
+          vMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
           break;
         case MemoryGroupByMeta.TYPE_GROUP_FIRST:
         case MemoryGroupByMeta.TYPE_GROUP_LAST:
@@ -478,6 +572,10 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       if ( aggregate == null ) {
         data.aggMeta.addValueMeta( vMeta );
       } else {
+        if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_SUM
+          || meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_AVERAGE ) {
+          aggregate.accumulators[i] = NumericAccumulator.createSum( vMeta );
+        }
         aggregate.agg[i] = v;
       }
     }
@@ -511,6 +609,9 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     if ( data.subjectnrs != null ) {
       for ( int i = 0; i < data.subjectnrs.length; i++ ) {
         Object ag = aggregate.agg[i];
+        if ( aggregate.accumulators != null && aggregate.accumulators[i] != null ) {
+          ag = aggregate.accumulators[i].getResult();
+        }
         switch ( meta.getAggregateType()[i] ) {
           case MemoryGroupByMeta.TYPE_GROUP_SUM:
             break;
@@ -544,8 +645,6 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
           case MemoryGroupByMeta.TYPE_GROUP_MAX:
             break;
           case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
-            double sum = (Double) ag / aggregate.counts[i];
-            ag = Double.valueOf( Math.sqrt( sum ) );
             break;
           case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
           case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
@@ -574,6 +673,13 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     if ( super.init( smi, sdi ) ) {
       data.map = new HashMap<HashEntry, Aggregate>( 5000 );
+
+      data.spillToDisk = meta.isSpillToDisk();
+      data.maxGroups = Const.toInt( environmentSubstitute( meta.getMaxGroupsInMemory() ), -1 );
+      data.freeMemoryPctLimit = Const.toInt( environmentSubstitute( meta.getFreeMemoryLimit() ), -1 );
+      if ( data.spillToDisk && data.maxGroups <= 0 && data.freeMemoryPctLimit <= 0 ) {
+        data.freeMemoryPctLimit = SpillPartitions.DEFAULT_FREE_MEMORY_LIMIT;
+      }
       return true;
     }
     return false;
@@ -581,6 +687,10 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.spillPartitions != null ) {
+      data.spillPartitions.deleteAll();
+      data.spillPartitions = null;
+    }
     super.dispose( smi, sdi );
     ( (MemoryGroupByData) sdi ).clear();
   }
@@ -20,6 +20,7 @@ import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.steps.common.SpillPartitions;
 
 /**
  * @author Matt
@@ -29,6 +30,8 @@ import org.pentaho.di.trans.step.StepDataInterface;
 public class MemoryGroupByData extends BaseStepData implements StepDataInterface {
   public class HashEntry {
     private Object[] groupData;
+    private int hash;
+    private boolean hashed;
 
     public HashEntry( Object[] groupData ) {
       this.groupData = groupData;
@@ -49,11 +52,16 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
     }
 
     public int hashCode() {
-      try {
-        return groupMeta.hashCode( getHashValue() );
-      } catch ( KettleValueException e ) {
-        throw new RuntimeException( e );
+      // The hash is calculated on the normal storage values: only do that once per entry
+      if ( !hashed ) {
+        try {
+          hash = groupMeta.hashCode( getHashValue() );
+        } catch ( KettleValueException e ) {
+          throw new RuntimeException( e );
+        }
+        hashed = true;
       }
+      return hash;
     }
 
     private Object[] getHashValue() throws KettleValueException {
@@ -90,6 +98,20 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
 
   public boolean newBatch;
 
+  /*
+   * Spill to disk
+   */
+  public boolean spillToDisk;
+  public int maxGroups;
+  public int freeMemoryPctLimit;
+  public int newGroupCounter;
+  /** true if no new groups are accepted in the map, the rows of new groups go to the spill files */
+  public boolean spilling;
+  /** 0 while reading the input, +1 for every pass over spilled rows */
+  public int spillLevel;
+  /** the rows of the groups that didn't fit in memory, null until the first row is spilled */
+  public SpillPartitions spillPartitions;
+
   public MemoryGroupByData() {
     super();
 
@@ -137,6 +137,22 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   /** Flag to indicate that we always give back one row. Defaults to true for existing transformations. */
   private boolean alwaysGivingBackOneRow;
 
+  /** Write the rows of the groups that don't fit in memory to temporary files and aggregate those afterwards */
+  @Injection( name = "SPILL_TO_DISK" )
+  private boolean spillToDisk;
+
+  /** The maximum number of groups kept in memory before spilling, empty for no limit */
+  @Injection( name = "MAX_GROUPS_IN_MEMORY" )
+  private String maxGroupsInMemory;
+
+  /** Start spilling when the free memory drops below this percentage */
+  @Injection( name = "FREE_MEMORY_LIMIT" )
+  private String freeMemoryLimit;
+
+  /** Directory to store the temporary files */
+  @Injection( name = "SPILL_DIRECTORY" )
+  private String directory;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -280,6 +296,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase( giveBackRow );
       }
+
+      spillToDisk = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "spill_to_disk" ) );
+      maxGroupsInMemory = XMLHandler.getTagValue( stepnode, "max_groups_in_memory" );
+      freeMemoryLimit = XMLHandler.getTagValue( stepnode, "free_memory" );
+      directory = XMLHandler.getTagValue( stepnode, "directory" );
     } catch ( Exception e ) {
       throw new KettleXMLException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnableToLoadStepInfoFromXML" ), e );
@@ -320,6 +341,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     int nrfields = 0;
 
     allocate( sizegroup, nrfields );
+
+    spillToDisk = false;
+    maxGroupsInMemory = null;
+    freeMemoryLimit = "25";
+    directory = "%%java.io.tmpdir%%";
   }
 
   @Override
@@ -436,6 +462,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     StringBuilder retval = new StringBuilder( 500 );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "give_back_row", alwaysGivingBackOneRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "spill_to_disk", spillToDisk ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "max_groups_in_memory", maxGroupsInMemory ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "free_memory", freeMemoryLimit ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "directory", directory ) );
 
     retval.append( "      <group>" ).append( Const.CR );
     for ( int i = 0; i < groupField.length; i++ ) {
@@ -485,6 +515,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       }
 
       alwaysGivingBackOneRow = rep.getStepAttributeBoolean( id_step, 0, "give_back_row", hasNumberOfValues );
+
+      spillToDisk = rep.getStepAttributeBoolean( id_step, "spill_to_disk" );
+      maxGroupsInMemory = rep.getStepAttributeString( id_step, "max_groups_in_memory" );
+      freeMemoryLimit = rep.getStepAttributeString( id_step, "free_memory" );
+      directory = rep.getStepAttributeString( id_step, "directory" );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnexpectedErrorInReadingStepInfoFromRepository" ), e );
@@ -495,6 +530,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   public void saveRep( Repository rep, IMetaStore metaStore, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "give_back_row", alwaysGivingBackOneRow );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_to_disk", spillToDisk );
+      rep.saveStepAttribute( id_transformation, id_step, "max_groups_in_memory", maxGroupsInMemory );
+      rep.saveStepAttribute( id_transformation, id_step, "free_memory", freeMemoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
 
       for ( int i = 0; i < groupField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "group_name", groupField[i] );
@@ -558,6 +597,66 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return true if the rows of the groups that don't fit in memory are written to temporary files
+   */
+  public boolean isSpillToDisk() {
+    return spillToDisk;
+  }
+
+  /**
+   * @param spillToDisk
+   *          true to write the rows of the groups that don't fit in memory to temporary files
+   */
+  public void setSpillToDisk( boolean spillToDisk ) {
+    this.spillToDisk = spillToDisk;
+  }
+
+  /**
+   * @return the maximum number of groups kept in memory before spilling
+   */
+  public String getMaxGroupsInMemory() {
+    return maxGroupsInMemory;
+  }
+
+  /**
+   * @param maxGroupsInMemory
+   *          the maximum number of groups kept in memory before spilling
+   */
+  public void setMaxGroupsInMemory( String maxGroupsInMemory ) {
+    this.maxGroupsInMemory = maxGroupsInMemory;
+  }
+
+  /**
+   * @return the free memory percentage below which the step starts spilling
+   */
+  public String getFreeMemoryLimit() {
+    return freeMemoryLimit;
+  }
+
+  /**
+   * @param freeMemoryLimit
+   *          the free memory percentage below which the step starts spilling
+   */
+  public void setFreeMemoryLimit( String freeMemoryLimit ) {
+    this.freeMemoryLimit = freeMemoryLimit;
+  }
+
+  /**
+   * @return the directory to store the temporary files in
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          the directory to store the temporary files in
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -0,0 +1,58 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.scriptvalues_mod;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+import org.pentaho.di.trans.Trans;
+
+/**
+ * The scripts of the Modified JavaScript Value steps of a transformation, compiled once and shared by the copies of the
+ * steps. A script compiled to Java bytecode keeps no state of its own: every copy still runs it in its own context and
+ * scope. Interpreted scripts (optimization level -1) are not shared.
+ *
+ * The scripts are kept for as long as the transformation they were compiled for.
+ */
+public class ScriptValuesCompiledScripts {
+  private static final Map<Trans, Map<String, Script>> scripts =
+    Collections.synchronizedMap( new WeakHashMap<Trans, Map<String, Script>>() );
+
+  private ScriptValuesCompiledScripts() {
+  }
+
+  /**
+   * @param trans
+   *          the transformation to share the script in, null to compile it for the caller only
+   * @param cx
+   *          the context of the caller, its optimization level is the one the script is compiled with
+   * @param source
+   *          the source of the script
+   * @param sourceName
+   *          the name of the script in error messages
+   * @return the compiled script, compiled by the first copy that asked for it
+   */
+  public static Script compile( Trans trans, final Context cx, final String source, final String sourceName ) {
+    if ( trans == null || cx.getOptimizationLevel() < 0 ) {
+      return cx.compileString( source, sourceName, 1, null );
+    }
+    Map<String, Script> transScripts = scripts.computeIfAbsent( trans, t -> new ConcurrentHashMap<String, Script>() );
+    String key = cx.getOptimizationLevel() + ":" + sourceName + ":" + source;
+    return transScripts.computeIfAbsent( key, k -> cx.compileString( source, sourceName, 1, null ) );
+  }
+}
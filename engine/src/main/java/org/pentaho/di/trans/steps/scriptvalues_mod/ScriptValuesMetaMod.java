@@ -111,6 +111,10 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "OPTIMIZATION_LEVEL" )
   private String optimizationLevel;
 
+  /** Share the compiled scripts between the step copies and bind strings, numbers and booleans as primitives */
+  @Injection( name = "COMPILED" )
+  private boolean compiled;
+
   public ScriptValuesMetaMod() {
     super(); // allocate BaseStepMeta
     compatible = true;
@@ -312,6 +316,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
       String script = XMLHandler.getTagValue( stepnode, "script" );
       String strCompatible = XMLHandler.getTagValue( stepnode, "compatible" );
       optimizationLevel = XMLHandler.getTagValue( stepnode, "optimizationLevel" );
+      compiled = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compiled" ) );
 
       if ( strCompatible == null ) {
         compatible = true;
@@ -383,6 +388,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     compatible = false;
     optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+    compiled = false;
   }
 
   public void getFields( RowMetaInterface row, String originStepname, RowMetaInterface[] info, StepMeta nextStep,
@@ -444,6 +450,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "compatible", compatible ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "optimizationLevel", optimizationLevel ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "compiled", compiled ) );
 
     retval.append( "    <jsScripts>" );
     for ( int i = 0; i < jsScripts.length; i++ ) {
@@ -479,6 +486,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
       String script = rep.getStepAttributeString( id_step, "script" );
       compatible = rep.getStepAttributeBoolean( id_step, 0, "compatible", true );
       optimizationLevel = rep.getStepAttributeString( id_step, 0, "optimizationLevel" );
+      compiled = rep.getStepAttributeBoolean( id_step, 0, "compiled", false );
 
       // When in compatibility mode, we load the script, not the other tabs...
       //
@@ -517,6 +525,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
     try {
       rep.saveStepAttribute( id_transformation, id_step, 0, "compatible", compatible );
       rep.saveStepAttribute( id_transformation, id_step, 0, "optimizationLevel", optimizationLevel );
+      rep.saveStepAttribute( id_transformation, id_step, 0, "compiled", compiled );
 
       for ( int i = 0; i < jsScripts.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, JSSCRIPT_TAG_NAME, jsScripts[i].getScriptName() );
@@ -1051,4 +1060,20 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   public String getOptimizationLevel() {
     return this.optimizationLevel;
   }
+
+  /**
+   * @return true to share the compiled scripts between the step copies and to bind strings, numbers and booleans as
+   *         JavaScript primitives instead of wrapper objects
+   */
+  public boolean isCompiled() {
+    return compiled;
+  }
+
+  /**
+   * @param compiled
+   *          the compiled to set
+   */
+  public void setCompiled( boolean compiled ) {
+    this.compiled = compiled;
+  }
 }
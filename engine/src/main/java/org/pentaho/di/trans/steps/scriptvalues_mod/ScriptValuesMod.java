@@ -188,6 +188,10 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         throw new KettleException( iae.getMessage() );
       }
 
+      if ( meta.isCompiled() && log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "ScriptValuesMod.Log.CompiledMode" ) );
+      }
+
       data.scope = data.cx.initStandardObjects( null, false );
 
       bFirstRun = true;
@@ -232,13 +236,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
             data.scope.put( valueMeta.getName(), data.scope, jsarg );
           } else {
             Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
+            data.scope.put( valueMeta.getName(), data.scope, toJS( normalStorageValueData ) );
           }
         }
 
@@ -290,7 +288,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         try {
           // Checking for StartScript
           if ( strStartScript != null && strStartScript.length() > 0 ) {
-            Script startScript = data.cx.compileString( strStartScript, "trans_Start", 1, null );
+            Script startScript = compile( strStartScript, "trans_Start" );
             startScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "Start Script found!" ) );
@@ -307,7 +305,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
 
         }
         // Now Compile our Script
-        data.script = data.cx.compileString( strTransformScript, "script", 1, null );
+        data.script = compile( strTransformScript, "script" );
       } catch ( Exception e ) {
         throw new KettleValueException( BaseMessages.getString(
           PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript" ), e );
@@ -358,19 +356,15 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
             data.scope.put( valueMeta.getName(), data.scope, jsarg );
           } else {
             Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
+            data.scope.put( valueMeta.getName(), data.scope, toJS( normalStorageValueData ) );
           }
         }
 
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        // also add the meta information for the hole row, compiled scripts keep the one of the first row
+        if ( !meta.isCompiled() ) {
+          Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
+          data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        }
       } catch ( Exception e ) {
         throw new KettleValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UnexpectedeError" ), e );
       }
@@ -469,6 +463,28 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
     return bRC;
   }
 
+  /**
+   * Compiles a script, in compiled mode only once for all the copies of the step.
+   */
+  private Script compile( String source, String sourceName ) {
+    return ScriptValuesCompiledScripts.compile( meta.isCompiled() ? getTrans() : null, data.cx, source, sourceName );
+  }
+
+  /**
+   * @return the value as the script sees it: a wrapper object, or in compiled mode the value itself for strings,
+   *         numbers and booleans, which the script then sees as JavaScript primitives
+   */
+  private Object toJS( Object normalStorageValueData ) {
+    if ( normalStorageValueData == null ) {
+      return null;
+    }
+    if ( meta.isCompiled() && ( normalStorageValueData instanceof String || normalStorageValueData instanceof Long
+      || normalStorageValueData instanceof Double || normalStorageValueData instanceof Boolean ) ) {
+      return normalStorageValueData;
+    }
+    return Context.toObject( normalStorageValueData, data.scope );
+  }
+
   public Object getValueFromJScript( Object result, int i ) throws KettleValueException {
     String fieldName = meta.getFieldname()[ i ];
     if ( !Utils.isEmpty( fieldName ) ) {
@@ -502,7 +518,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         if ( data.cx != null ) {
           // Checking for EndScript
           if ( strEndScript != null && strEndScript.length() > 0 ) {
-            Script endScript = data.cx.compileString( strEndScript, "trans_End", 1, null );
+            Script endScript = compile( strEndScript, "trans_End" );
             endScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "End Script found!" ) );
@@ -558,6 +574,14 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
     return bRC;
   }
 
+  /**
+   * The Rhino context is entered on the first row and exited in dispose(), by the same thread.
+   */
+  @Override
+  public boolean isThreadBound() {
+    return true;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (ScriptValuesMetaMod) smi;
     data = (ScriptValuesModData) sdi;
@@ -331,23 +331,14 @@ public class SelectValues extends BaseStep implements StepInterface {
     meta = (SelectValuesMeta) smi;
     data = (SelectValuesData) sdi;
 
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if ( rowData == null ) { // no more input to be expected...
+    long linesRead = getLinesRead();
+    Object[][] rows = getRows( NR_OF_ROWS_IN_BATCH ); // get rows from rowset, wait for our turn, indicate busy!
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if ( getStepMeta().isDoingErrorHandling() ) {
-      rowCopy = getInputRowMeta().cloneRow( rowData );
-    }
-
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
-        + getInputRowMeta().getString( rowData ) );
-    }
-
     if ( first ) {
       first = false;
 
@@ -359,48 +350,75 @@ public class SelectValues extends BaseStep implements StepInterface {
       meta.getMetadataFields( data.metadataRowMeta, getStepname(), this );
     }
 
-    try {
-      Object[] outputData = rowData;
-
-      if ( data.select ) {
-        outputData = selectValues( getInputRowMeta(), outputData );
-      }
-      if ( data.deselect ) {
-        outputData = removeValues( data.selectRowMeta, outputData );
-      }
-      if ( data.metadata ) {
-        outputData = metadataValues( data.deselectRowMeta, outputData );
-      }
-
-      if ( outputData == null ) {
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+    // The converted rows replace the input rows at the start of the batch, error rows are left out.
+    // The converted rows before an error row are sent first, so that all rows leave in the order they came in.
+    //
+    int nrOutput = 0;
+    boolean stopProcessing = false;
+    for ( int i = 0; i < rows.length && !stopProcessing; i++ ) {
+      Object[] rowData = rows[i];
+      Object[] rowCopy = null;
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        rowCopy = getInputRowMeta().cloneRow( rowData );
       }
 
-      // Send the row on its way
-      //
-      putRow( data.metadataRowMeta, outputData );
       if ( log.isRowLevel() ) {
-        logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextStep" )
-          + data.metadataRowMeta.getString( outputData ) );
+        logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
+          + getInputRowMeta().getString( rowData ) );
       }
 
-    } catch ( KettleException e ) {
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        String field;
-        if ( e instanceof KettleConversionException ) {
-          List<ValueMetaInterface> fields = ( (KettleConversionException) e ).getFields();
-          field = fields.isEmpty() ? null : fields.get( 0 ).getName();
+      try {
+        Object[] outputData = rowData;
+
+        if ( data.select ) {
+          outputData = selectValues( getInputRowMeta(), outputData );
+        }
+        if ( data.deselect ) {
+          outputData = removeValues( data.selectRowMeta, outputData );
+        }
+        if ( data.metadata ) {
+          outputData = metadataValues( data.deselectRowMeta, outputData );
+        }
+
+        if ( outputData == null ) {
+          stopProcessing = true;
         } else {
-          field = null;
+          rows[nrOutput++] = outputData;
+          if ( log.isRowLevel() ) {
+            logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextStep" )
+              + data.metadataRowMeta.getString( outputData ) );
+          }
+        }
+      } catch ( KettleException e ) {
+        if ( getStepMeta().isDoingErrorHandling() ) {
+          String field;
+          if ( e instanceof KettleConversionException ) {
+            List<ValueMetaInterface> fields = ( (KettleConversionException) e ).getFields();
+            field = fields.isEmpty() ? null : fields.get( 0 ).getName();
+          } else {
+            field = null;
+          }
+          putRows( data.metadataRowMeta, rows, nrOutput );
+          nrOutput = 0;
+          putError( getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001" );
+        } else {
+          // Don't lose the rows that were converted before the failing one
+          putRows( data.metadataRowMeta, rows, nrOutput );
+          throw e;
         }
-        putError( getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001" );
-      } else {
-        throw e;
       }
     }
 
-    if ( checkFeedback( getLinesRead() ) ) {
+    // Send the rows on their way
+    //
+    putRows( data.metadataRowMeta, rows, nrOutput );
+
+    if ( stopProcessing ) {
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    if ( checkFeedback( linesRead, getLinesRead() ) ) {
       logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
     }
 
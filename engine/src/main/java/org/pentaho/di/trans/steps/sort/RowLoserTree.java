@@ -0,0 +1,119 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.Comparator;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * Merges k sorted streams of rows with a tournament tree of losers. Every internal node of the tree remembers the
+ * stream that lost the match played there, the overall winner sits on top. Taking the smallest row and replacing it
+ * with the next row of the same stream only replays the matches on the path from that stream to the top: log2(k)
+ * comparisons per row, no matter how many streams are merged.
+ * <p>
+ * Rows of different streams that compare equal come out in the order of their streams.
+ */
+public class RowLoserTree {
+
+  /**
+   * A sorted stream of rows.
+   */
+  public interface RowSource {
+    /**
+     * @return the next row or null if the stream is exhausted
+     */
+    Object[] next() throws KettleException;
+  }
+
+  private final RowSource[] sources;
+  private final Comparator<Object[]> comparator;
+  private final int k;
+
+  /** tree[0] is the winner, tree[1..k-1] are the losers of the internal nodes */
+  private final int[] tree;
+
+  /** the current row of every stream, null when the stream is exhausted */
+  private final Object[][] current;
+
+  public RowLoserTree( RowSource[] sources, Comparator<Object[]> comparator ) throws KettleException {
+    this.sources = sources;
+    this.comparator = comparator;
+    this.k = sources.length;
+    this.tree = new int[ Math.max( k, 1 ) ];
+    this.current = new Object[ k ][];
+
+    for ( int i = 0; i < k; i++ ) {
+      current[ i ] = sources[ i ].next();
+    }
+
+    // Start with every node pointing at a virtual stream k that beats everything, then let every stream play
+    //
+    for ( int i = 0; i < tree.length; i++ ) {
+      tree[ i ] = k;
+    }
+    for ( int i = k - 1; i >= 0; i-- ) {
+      replay( i );
+    }
+  }
+
+  /**
+   * @return the smallest row of all the streams or null if all the streams are exhausted
+   */
+  public Object[] next() throws KettleException {
+    if ( k == 0 ) {
+      return null;
+    }
+    int winner = tree[ 0 ];
+    Object[] row = current[ winner ];
+    if ( row == null ) {
+      return null;
+    }
+    current[ winner ] = sources[ winner ].next();
+    replay( winner );
+    return row;
+  }
+
+  private void replay( int stream ) {
+    int winner = stream;
+    for ( int node = ( stream + k ) >> 1; node > 0; node >>= 1 ) {
+      if ( loses( winner, tree[ node ] ) ) {
+        int loser = winner;
+        winner = tree[ node ];
+        tree[ node ] = loser;
+      }
+    }
+    tree[ 0 ] = winner;
+  }
+
+  /**
+   * @return true if stream a has to come after stream b
+   */
+  private boolean loses( int a, int b ) {
+    if ( a == k ) {
+      return false;
+    }
+    if ( b == k ) {
+      return true;
+    }
+    Object[] rowA = current[ a ];
+    Object[] rowB = current[ b ];
+    if ( rowA == null || rowB == null ) {
+      // an exhausted stream always loses
+      return rowA == null && ( rowB != null || a > b );
+    }
+    int cmp = comparator.compare( rowA, rowB );
+    return cmp > 0 || ( cmp == 0 && a > b );
+  }
+}
@@ -22,20 +22,31 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.compress.CompressionInputStream;
+import org.pentaho.di.core.compress.CompressionOutputStream;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.NormalizedKeyEncoder;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -46,6 +57,8 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 
+import com.google.common.annotations.VisibleForTesting;
+
 /**
  * Sort the rows in the input-streams based on certain criteria
  *
@@ -55,6 +68,9 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 public class SortRows extends BaseStep implements StepInterface {
   private static Class<?> PKG = SortRows.class; // for i18n
 
+  // below this many rows per core sorting on more cores doesn't pay off
+  private static final int MIN_ROWS_PER_SORT_TASK = 10000;
+
   private SortRowsMeta meta;
   private SortRowsData data;
 
@@ -119,6 +135,11 @@ public class SortRows extends BaseStep implements StepInterface {
       return;
     }
 
+    if ( data.parallelSort ) {
+      sortExternalRowsInBackground();
+      return;
+    }
+
     // First sort the rows in buffer[]
     quickSort( data.buffer );
 
@@ -221,6 +242,145 @@ public class SortRows extends BaseStep implements StepInterface {
     data.getBufferIndex = 0;
   }
 
+  // sort the in-memory buffer and hand it over to the spill writer
+  // while the next buffer is being filled.
+  private void sortExternalRowsInBackground() throws KettleException {
+    quickSort( data.buffer );
+
+    final List<Object[]> rows = data.buffer;
+    data.buffer = new ArrayList<Object[]>( Math.max( 5000, rows.size() ) );
+
+    // Only one temp-file is written at a time: this keeps at most two buffers in memory
+    //
+    waitForSpill();
+
+    final FileObject fileObject;
+    try {
+      fileObject =
+          KettleVFS.createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ),
+              getTransMeta() );
+    } catch ( Exception e ) {
+      throw new KettleException( "Error processing temp-file!", e );
+    }
+    data.files.add( fileObject ); // Remember the files!
+    // The writer compares and serializes with its own metadata: the formats of a value are not shared between threads
+    final RowMetaInterface rowMeta = data.outputRowMeta.clone();
+    data.pendingSpill = data.spillWriter.submit( () -> writeTempFile( fileObject, rowMeta, rows ) );
+
+    if ( data.sortSize < 0 ) {
+      if ( rows.size() > data.minSortSize ) {
+        // Lower the min sort size a bit, see sortExternalRows()
+        //
+        data.minSortSize = (int) Math.round( rows.size() * 0.90 );
+      }
+    }
+
+    // How much memory do we have left?
+    //
+    data.freeMemoryPct = Const.getPercentageFreeMemory();
+    data.freeCounter = 0;
+    if ( data.sortSize <= 0 ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct ) );
+      }
+    }
+
+    data.getBufferIndex = 0;
+  }
+
+  // write sorted rows to a temp-file, returns the number of rows written
+  private int writeTempFile( FileObject fileObject, RowMetaInterface rowMeta, List<Object[]> rows )
+    throws Exception {
+    OutputStream outputStream = new BufferedOutputStream( KettleVFS.getOutputStream( fileObject, false ), 500000 );
+    if ( data.compressionProvider != null ) {
+      CompressionOutputStream compressionOutputStream = data.compressionProvider.createOutputStream( outputStream );
+      compressionOutputStream.addEntry( fileObject.getName().getBaseName(), null );
+      outputStream = compressionOutputStream;
+    }
+
+    int nrRows = 0;
+    try ( DataOutputStream dos = new DataOutputStream( outputStream ) ) {
+      Object[] previousRow = null;
+      for ( Object[] row : rows ) {
+        if ( meta.isOnlyPassingUniqueRows() && previousRow != null
+            && rowMeta.compare( row, previousRow, data.fieldnrs ) == 0 ) {
+          if ( log.isRowLevel() ) {
+            logRowlevel( BaseMessages.getString( PKG, "SortRows.RowLevel.DuplicateRowRemoved", rowMeta
+                .getString( row ) ) );
+          }
+          continue;
+        }
+        rowMeta.writeData( dos, row );
+        previousRow = row;
+        nrRows++;
+      }
+    }
+    return nrRows;
+  }
+
+  // wait until the temp-file being written in the background is complete
+  private void waitForSpill() throws KettleException {
+    if ( data.pendingSpill == null ) {
+      return;
+    }
+    try {
+      data.bufferSizes.add( data.pendingSpill.get() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Error processing temp-file!", e );
+    } catch ( ExecutionException e ) {
+      throw new KettleException( "Error processing temp-file!", e.getCause() );
+    } finally {
+      data.pendingSpill = null;
+    }
+  }
+
+  // merge the temp-files written in the background
+  private Object[] getMergedBuffer() throws KettleException {
+    if ( data.mergeTree == null ) {
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "SortRows.Basic.OpeningTempFiles", data.files.size() ) );
+      }
+
+      RowLoserTree.RowSource[] sources = new RowLoserTree.RowSource[ data.files.size() ];
+      try {
+        for ( int f = 0; f < data.files.size(); f++ ) {
+          FileObject fileObject = data.files.get( f );
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.OpeningTempFile", KettleVFS
+                .getFilename( fileObject ) ) );
+          }
+          InputStream fi = KettleVFS.getInputStream( fileObject );
+          data.fis.add( fi );
+          InputStream inputStream = new BufferedInputStream( fi, 50000 );
+          if ( data.compressionProvider != null ) {
+            CompressionInputStream compressionInputStream = data.compressionProvider.createInputStream( inputStream );
+            compressionInputStream.nextEntry();
+            inputStream = compressionInputStream;
+          }
+          DataInputStream di = new DataInputStream( inputStream );
+          data.dis.add( di );
+          sources[ f ] = new TempFileRowSource( di, data.bufferSizes.get( f ) );
+        }
+      } catch ( IOException e ) {
+        throw new KettleException( BaseMessages.getString( PKG, "SortRows.Error.ErrorReadingBackTempFiles" ), e );
+      }
+      data.mergeTree = new RowLoserTree( sources, data.rowComparator );
+    }
+
+    Object[] row = data.mergeTree.next();
+    if ( row == null ) {
+      // all temp-files are read to the end
+      clearBuffers();
+      data.files.clear();
+      data.dis.clear();
+      data.fis.clear();
+      data.bufferSizes.clear();
+      data.mergeTree = null;
+    }
+    return row;
+  }
+
   private DataInputStream getDataInputStream( GZIPInputStream gzipInputStream ) {
     DataInputStream result = new DataInputStream( gzipInputStream );
     data.gzis.add( gzipInputStream );
@@ -230,9 +390,13 @@ public class SortRows extends BaseStep implements StepInterface {
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws KettleValueException {
+  Object[] getBuffer() throws KettleException {
     Object[] retval;
 
+    if ( data.parallelSort && !data.files.isEmpty() ) {
+      return getMergedBuffer();
+    }
+
     // Open all files at once and read one row from each file...
     if ( data.files.size() > 0 && ( data.dis.size() == 0 || data.fis.size() == 0 ) ) {
       if ( log.isBasic() ) {
@@ -429,6 +593,14 @@ public class SortRows extends BaseStep implements StepInterface {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator( data.outputRowMeta, data.fieldnrs );
+
+      if ( meta.isNormalizedKeys() ) {
+        if ( NormalizedKeyEncoder.isSupported( data.outputRowMeta, data.fieldnrs ) ) {
+          data.keyEncoder = new NormalizedKeyEncoder( data.outputRowMeta, data.fieldnrs );
+        } else if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "SortRows.Basic.NormalizedKeysNotSupported" ) );
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -571,11 +743,40 @@ public class SortRows extends BaseStep implements StepInterface {
 
     data.minSortSize = 5000;
 
+    data.parallelSort = meta.isParallelSort();
+    if ( data.parallelSort ) {
+      if ( data.compressFiles ) {
+        String compressionType = Const.NVL( environmentSubstitute( meta.getCompressionType() ), "GZip" );
+        data.compressionProvider =
+            CompressionProviderFactory.getInstance().getCompressionProviderByName( compressionType );
+        if ( data.compressionProvider == null ) {
+          logError( BaseMessages.getString( PKG, "SortRows.Error.UnknownCompressionType", compressionType ) );
+          return false;
+        }
+      }
+      final String threadName = getStepname() + " - spill writer";
+      data.spillWriter = Executors.newSingleThreadExecutor( runnable -> {
+        Thread thread = new Thread( runnable, threadName );
+        thread.setDaemon( true );
+        return thread;
+      } );
+    }
+
     return true;
   }
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.spillWriter != null ) {
+      // let a temp-file being written finish so that it can be removed
+      data.spillWriter.shutdown();
+      try {
+        data.spillWriter.awaitTermination( 1, TimeUnit.MINUTES );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      data.spillWriter = null;
+    }
     clearBuffers();
     super.dispose( smi, sdi );
   }
@@ -617,7 +818,13 @@ public class SortRows extends BaseStep implements StepInterface {
    */
   void quickSort( List<Object[]> elements ) throws KettleException {
     if ( elements.size() > 0 ) {
-      Collections.sort( elements, data.rowComparator );
+      if ( data.keyEncoder != null ) {
+        sortOnNormalizedKeys( elements );
+      } else if ( data.parallelSort ) {
+        sortInParallel( elements );
+      } else {
+        Collections.sort( elements, data.rowComparator );
+      }
 
       long nrConversions = 0L;
       for ( ValueMetaInterface valueMeta : data.outputRowMeta.getValueMetaList() ) {
@@ -630,6 +837,87 @@ public class SortRows extends BaseStep implements StepInterface {
     }
   }
 
+  // sort a part of the rows on every available core, then merge the sorted parts on this thread.
+  // Comparing rows formats and converts values, and value metadata can't do that on several threads at once:
+  // every part is sorted with a copy of the metadata of its own.
+  private void sortInParallel( List<Object[]> elements ) throws KettleException {
+    int nrTasks = getNrOfSortTasks( elements.size() );
+    if ( nrTasks < 2 ) {
+      Collections.sort( elements, data.rowComparator );
+      return;
+    }
+
+    List<List<Object[]>> parts = new ArrayList<List<Object[]>>( nrTasks );
+    List<RowMetaInterface> rowMetas = new ArrayList<RowMetaInterface>( nrTasks );
+    List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>( nrTasks );
+    int from = 0;
+    for ( int t = 0; t < nrTasks; t++ ) {
+      int to = (int) ( (long) elements.size() * ( t + 1 ) / nrTasks );
+      final List<Object[]> part = new ArrayList<Object[]>( elements.subList( from, to ) );
+      RowMetaInterface rowMeta = data.outputRowMeta.clone();
+      final Comparator<Object[]> comparator = new RowObjectArrayComparator( rowMeta, data.fieldnrs );
+      parts.add( part );
+      rowMetas.add( rowMeta );
+      tasks.add( ForkJoinPool.commonPool().submit( () -> part.sort( comparator ) ) );
+      from = to;
+    }
+    try {
+      for ( ForkJoinTask<?> task : tasks ) {
+        task.get();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      throw new KettleException( e.getCause() );
+    }
+
+    // Report the conversions of the copies along with the others
+    for ( RowMetaInterface rowMeta : rowMetas ) {
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        ValueMetaInterface valueMeta = data.outputRowMeta.getValueMeta( i );
+        valueMeta.setNumberOfBinaryStringConversions( valueMeta.getNumberOfBinaryStringConversions()
+          + rowMeta.getValueMeta( i ).getNumberOfBinaryStringConversions() );
+      }
+    }
+
+    // Equal rows of different parts come out in the order of the parts: the sort stays stable
+    RowLoserTree.RowSource[] sources = new RowLoserTree.RowSource[ nrTasks ];
+    for ( int t = 0; t < nrTasks; t++ ) {
+      final Iterator<Object[]> rows = parts.get( t ).iterator();
+      sources[ t ] = () -> rows.hasNext() ? rows.next() : null;
+    }
+    RowLoserTree mergeTree = new RowLoserTree( sources, data.rowComparator );
+    for ( int i = 0; i < elements.size(); i++ ) {
+      elements.set( i, mergeTree.next() );
+    }
+  }
+
+  /**
+   * @return the number of parts to sort at the same time, less than 2 to sort on the step thread only
+   */
+  @VisibleForTesting
+  int getNrOfSortTasks( int nrRows ) {
+    return Math.min( Runtime.getRuntime().availableProcessors(), nrRows / MIN_ROWS_PER_SORT_TASK );
+  }
+
+  // encode the keys once, then sort on plain byte comparisons
+  private void sortOnNormalizedKeys( List<Object[]> elements ) throws KettleException {
+    KeyedRow[] rows = new KeyedRow[ elements.size() ];
+    for ( int i = 0; i < rows.length; i++ ) {
+      Object[] row = elements.get( i );
+      rows[ i ] = new KeyedRow( data.keyEncoder.encode( row ), row );
+    }
+    if ( data.parallelSort ) {
+      Arrays.parallelSort( rows );
+    } else {
+      Arrays.sort( rows );
+    }
+    for ( int i = 0; i < rows.length; i++ ) {
+      elements.set( i, rows[ i ].row );
+    }
+  }
+
   /**
    * Calling this method will alert the step that we finished passing records to the step. Specifically for steps like
    * "Sort Rows" it means that the buffered rows can be sorted and passed on.
@@ -645,6 +933,7 @@ public class SortRows extends BaseStep implements StepInterface {
     if ( data.files.size() > 0 ) {
       // dump to dist and then read from disk
       sortExternalRows();
+      waitForSpill();
     } else {
       // sort in memory
       quickSort( data.buffer );
@@ -668,6 +957,44 @@ public class SortRows extends BaseStep implements StepInterface {
     }
   }
 
+  private static class KeyedRow implements Comparable<KeyedRow> {
+    private final byte[] key;
+    private final Object[] row;
+
+    KeyedRow( byte[] key, Object[] row ) {
+      this.key = key;
+      this.row = row;
+    }
+
+    @Override
+    public int compareTo( KeyedRow other ) {
+      return NormalizedKeyEncoder.compare( key, other.key );
+    }
+  }
+
+  private class TempFileRowSource implements RowLoserTree.RowSource {
+    private final DataInputStream inputStream;
+    private int remaining;
+
+    TempFileRowSource( DataInputStream inputStream, int nrRows ) {
+      this.inputStream = inputStream;
+      this.remaining = nrRows;
+    }
+
+    @Override
+    public Object[] next() throws KettleException {
+      if ( remaining <= 0 || isStopped() ) {
+        return null;
+      }
+      remaining--;
+      try {
+        return data.outputRowMeta.readData( inputStream );
+      } catch ( SocketTimeoutException e ) {
+        throw new KettleValueException( e ); // should never happen on local files
+      }
+    }
+  }
+
   private class SortRowsComparator {
     protected RowMetaInterface rowMeta;
     protected int[] fieldNrs;
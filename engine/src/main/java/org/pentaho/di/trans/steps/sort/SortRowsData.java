@@ -18,10 +18,14 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.compress.CompressionProvider;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.NormalizedKeyEncoder;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -67,6 +71,21 @@ public class SortRowsData extends BaseStepData implements StepDataInterface {
   public int[] groupnrs;
   public boolean newBatch;
 
+  /** builds the normalized keys to sort on, null to compare the key fields one by one */
+  public NormalizedKeyEncoder keyEncoder;
+
+  /*
+   * Parallel sort
+   */
+  public boolean parallelSort;
+  public CompressionProvider compressionProvider;
+  /** writes the temporary files in the background */
+  public ExecutorService spillWriter;
+  /** the temporary file being written, returns the number of rows written */
+  public Future<Integer> pendingSpill;
+  /** merges the temporary files */
+  public RowLoserTree mergeTree;
+
   public SortRowsData() {
     super();
 
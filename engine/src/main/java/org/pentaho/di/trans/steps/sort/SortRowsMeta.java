@@ -112,6 +112,26 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * Parallel sort: sort the buffers on several threads, write the temporary files in the background while reading
+   * new rows and merge them with a loser tree.
+   */
+  @Injection( name = "PARALLEL_SORT" )
+  private boolean parallelSort;
+
+  /**
+   * The compression provider to use for the temporary files of a parallel sort (GZip if empty), only used when the
+   * files are compressed
+   */
+  @Injection( name = "COMPRESSION_TYPE" )
+  private String compressionType;
+
+  /**
+   * Sort the in-memory buffers on normalized binary keys instead of comparing the key fields one by one
+   */
+  @Injection( name = "NORMALIZED_KEYS" )
+  private boolean normalizedKeys;
+
   public SortRowsMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -217,6 +237,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFiles = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compress" ) );
       compressFilesVariable = XMLHandler.getTagValue( stepnode, "compress_variable" );
       onlyPassingUniqueRows = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "unique_rows" ) );
+      parallelSort = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel_sort" ) );
+      compressionType = XMLHandler.getTagValue( stepnode, "compression_type" );
+      normalizedKeys = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "normalized_keys" ) );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -253,6 +276,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     compressFiles = false;
     compressFilesVariable = null;
     onlyPassingUniqueRows = false;
+    parallelSort = false;
+    compressionType = null;
+    normalizedKeys = false;
 
     int nrfields = 0;
 
@@ -283,6 +309,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress", compressFiles ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress_variable", compressFilesVariable ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "unique_rows", onlyPassingUniqueRows ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallel_sort", parallelSort ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "compression_type", compressionType ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "normalized_keys", normalizedKeys ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < fieldName.length; i++ ) {
@@ -313,6 +342,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFilesVariable = rep.getStepAttributeString( id_step, "compress_variable" );
 
       onlyPassingUniqueRows = rep.getStepAttributeBoolean( id_step, "unique_rows" );
+      parallelSort = rep.getStepAttributeBoolean( id_step, "parallel_sort" );
+      compressionType = rep.getStepAttributeString( id_step, "compression_type" );
+      normalizedKeys = rep.getStepAttributeBoolean( id_step, "normalized_keys" );
 
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
@@ -365,6 +397,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       rep.saveStepAttribute( id_transformation, id_step, "compress", compressFiles );
       rep.saveStepAttribute( id_transformation, id_step, "compress_variable", compressFilesVariable );
       rep.saveStepAttribute( id_transformation, id_step, "unique_rows", onlyPassingUniqueRows );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_sort", parallelSort );
+      rep.saveStepAttribute( id_transformation, id_step, "compression_type", compressionType );
+      rep.saveStepAttribute( id_transformation, id_step, "normalized_keys", normalizedKeys );
 
       for ( int i = 0; i < fieldName.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", fieldName[i] );
@@ -573,6 +608,51 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /**
+   * @return true if the rows are sorted on several threads and the temporary files are written in the background
+   */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /**
+   * @param parallelSort
+   *          true to sort the rows on several threads and write the temporary files in the background
+   */
+  public void setParallelSort( boolean parallelSort ) {
+    this.parallelSort = parallelSort;
+  }
+
+  /**
+   * @return the name of the compression provider used for the temporary files of a parallel sort
+   */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * @param compressionType
+   *          the name of the compression provider to use for the temporary files of a parallel sort, GZip if empty
+   */
+  public void setCompressionType( String compressionType ) {
+    this.compressionType = compressionType;
+  }
+
+  /**
+   * @return true if the rows are sorted on normalized binary keys when the key fields allow it
+   */
+  public boolean isNormalizedKeys() {
+    return normalizedKeys;
+  }
+
+  /**
+   * @param normalizedKeys
+   *          true to sort the rows on normalized binary keys when the key fields allow it
+   */
+  public void setNormalizedKeys( boolean normalizedKeys ) {
+    this.normalizedKeys = normalizedKeys;
+  }
+
   /**
    * @return the caseSensitive
    */
@@ -20,6 +20,7 @@ public class RowSetRow {
   private RowSet rowSet;
   private RowMetaInterface rowMeta;
   private Object[] rowData;
+  private byte[] sortKey;
 
   /**
    * @param rowSet
@@ -62,6 +63,21 @@ public class RowSetRow {
     this.rowData = rowData;
   }
 
+  /**
+   * @return the normalized sort key of the row or null if the rows are compared field by field
+   */
+  public byte[] getSortKey() {
+    return sortKey;
+  }
+
+  /**
+   * @param sortKey
+   *          the normalized sort key of the row
+   */
+  public void setSortKey( byte[] sortKey ) {
+    this.sortKey = sortKey;
+  }
+
   /**
    * @return the rowMeta
    */
@@ -22,6 +22,7 @@ import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.value.NormalizedKeyEncoder;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -87,7 +88,8 @@ public class SortedMerge extends BaseStep implements StepInterface {
           // Add this row to the sortedBuffer...
           // Which is not yet sorted, we'll get to that later.
           //
-          data.sortedBuffer.add( new RowSetRow( rowSet, rowSet.getRowMeta(), row ) );
+          RowSetRow rowSetRow = new RowSetRow( rowSet, rowSet.getRowMeta(), row );
+          data.sortedBuffer.add( rowSetRow );
           if ( data.rowMeta == null ) {
             data.rowMeta = rowSet.getRowMeta().clone();
           }
@@ -109,12 +111,27 @@ public class SortedMerge extends BaseStep implements StepInterface {
 
               data.rowMeta.getValueMeta( data.fieldIndices[f] ).setSortedDescending( !meta.getAscending()[f] );
             }
+
+            if ( meta.isNormalizedKeys() ) {
+              if ( NormalizedKeyEncoder.isSupported( data.rowMeta, data.fieldIndices ) ) {
+                data.keyEncoder = new NormalizedKeyEncoder( data.rowMeta, data.fieldIndices );
+              } else if ( log.isBasic() ) {
+                logBasic( BaseMessages.getString( PKG, "SortedMerge.Log.NormalizedKeysNotSupported" ) );
+              }
+            }
+          }
+
+          if ( data.keyEncoder != null ) {
+            rowSetRow.setSortKey( data.keyEncoder.encode( row ) );
           }
         }
 
         data.comparator = new Comparator<RowSetRow>() {
 
           public int compare( RowSetRow o1, RowSetRow o2 ) {
+            if ( data.keyEncoder != null ) {
+              return NormalizedKeyEncoder.compare( o1.getSortKey(), o2.getSortKey() );
+            }
             try {
               return o1.getRowMeta().compare( o1.getRowData(), o2.getRowData(), data.fieldIndices );
             } catch ( KettleValueException e ) {
@@ -153,6 +170,9 @@ public class SortedMerge extends BaseStep implements StepInterface {
       // Add this one to the sortedBuffer
       //
       RowSetRow add = new RowSetRow( smallestRow.getRowSet(), smallestRow.getRowSet().getRowMeta(), extraRow );
+      if ( data.keyEncoder != null ) {
+        add.setSortKey( data.keyEncoder.encode( extraRow ) );
+      }
       int index = Collections.binarySearch( data.sortedBuffer, add, data.comparator );
       if ( index < 0 ) {
         data.sortedBuffer.add( -index - 1, add );
@@ -17,6 +17,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.NormalizedKeyEncoder;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -31,6 +32,7 @@ public class SortedMergeData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface rowMeta;
   public List<RowSetRow> sortedBuffer;
   public Comparator<RowSetRow> comparator;
+  public NormalizedKeyEncoder keyEncoder;
 
   public SortedMergeData() {
     super();
@@ -58,6 +58,9 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
   /** false : descending, true=ascending */
   @Injection( name = "ASCENDING", group = "FIELDS" )
   private boolean[] ascending;
+  /** compare normalized binary keys instead of the fields one by one */
+  @Injection( name = "NORMALIZED_KEYS" )
+  private boolean normalizedKeys;
 
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode );
@@ -76,6 +79,7 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
     for ( int i = 0; i < nrfields; i++ ) {
       fieldName[i] = "field" + i;
     }
+    normalizedKeys = false;
   }
 
   public Object clone() {
@@ -108,6 +112,7 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
           ascending[i] = false;
         }
       }
+      normalizedKeys = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "normalized_keys" ) );
     } catch ( Exception e ) {
       throw new KettleXMLException( "Unable to load step info from XML", e );
     }
@@ -124,6 +129,7 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
       retval.append( "        </field>" + Const.CR );
     }
     retval.append( "      </fields>" + Const.CR );
+    retval.append( "    " + XMLHandler.addTagValue( "normalized_keys", normalizedKeys ) );
 
     return retval.toString();
   }
@@ -138,6 +144,7 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
         fieldName[i] = rep.getStepAttributeString( id_step, i, "field_name" );
         ascending[i] = rep.getStepAttributeBoolean( id_step, i, "field_ascending" );
       }
+      normalizedKeys = rep.getStepAttributeBoolean( id_step, "normalized_keys" );
     } catch ( Exception e ) {
       throw new KettleException( "Unexpected error reading step information from the repository", e );
     }
@@ -149,6 +156,7 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", fieldName[i] );
         rep.saveStepAttribute( id_transformation, id_step, i, "field_ascending", ascending[i] );
       }
+      rep.saveStepAttribute( id_transformation, id_step, "normalized_keys", normalizedKeys );
     } catch ( Exception e ) {
       throw new KettleException( "Unable to save step information to the repository for id_step=" + id_step, e );
     }
@@ -270,6 +278,21 @@ public class SortedMergeMeta extends BaseStepMeta implements StepMetaInterface {
     this.fieldName = fieldName;
   }
 
+  /**
+   * @return true if the rows are merged on normalized binary keys when the key fields allow it
+   */
+  public boolean isNormalizedKeys() {
+    return normalizedKeys;
+  }
+
+  /**
+   * @param normalizedKeys
+   *          true to merge the rows on normalized binary keys when the key fields allow it
+   */
+  public void setNormalizedKeys( boolean normalizedKeys ) {
+    this.normalizedKeys = normalizedKeys;
+  }
+
   public TransformationType[] getSupportedTransformationTypes() {
     return new TransformationType[] { TransformationType.Normal, };
   }
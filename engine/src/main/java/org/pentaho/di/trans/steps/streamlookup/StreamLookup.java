@@ -15,14 +15,20 @@ package org.pentaho.di.trans.steps.streamlookup;
 
 import java.math.BigDecimal;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
+import org.pentaho.di.core.hash.LongHashIndex;
+import org.pentaho.di.core.hash.OffHeapHashIndex;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -37,6 +43,7 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.common.SpillPartitions;
 
 /**
  * Looks up information by first reading data into a hash table (in memory)
@@ -204,11 +211,16 @@ public class StreamLookup extends BaseStep implements StepInterface {
         valueData[i] = rowData[valueNrs[i]];
       }
 
-      addToCache( data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData );
+      addLookupRow( keyData, valueData );
 
       rowData = getRowFrom( rowSet );
     }
 
+    if ( data.offHeapIndex != null && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.OffHeapIndexLoaded", data.offHeapIndex.getSize(),
+        data.offHeapIndex.getAllocatedBytes() / ( 1024 * 1024 ) ) );
+    }
+
     return true;
   }
 
@@ -276,6 +288,16 @@ public class StreamLookup extends BaseStep implements StepInterface {
       }
     }
 
+    if ( add == null && data.lookupSpill != null ) {
+      int partition = getPartition( lu );
+      if ( data.lookupSpill.hasRows( partition ) ) {
+        // The key can be in one of the lookup rows that didn't fit in memory: join this row with them later on
+        //
+        spillInputRow( partition, rowMeta, row );
+        return null;
+      }
+    }
+
     if ( add == null ) { // nothing was found, unknown code: add the specified default value...
       add = data.nullIf;
     }
@@ -283,6 +305,140 @@ public class StreamLookup extends BaseStep implements StepInterface {
     return RowDataUtil.addRowData( row, rowMeta.size(), add );
   }
 
+  /**
+   * Add a lookup row to the cache. Once the memory budget is exceeded only the keys that are already in memory are
+   * updated there, the lookup rows of new keys go to the spill file of their partition. This way a key is either in
+   * memory or in a spill file, never in both.
+   */
+  private void addLookupRow( Object[] keyData, Object[] valueData ) throws KettleException {
+    if ( data.spillToDisk ) {
+      if ( !data.spilling ) {
+        data.spilling = isMemoryBudgetExceeded();
+      }
+      if ( data.spilling && getFromCache( data.cacheKeyMeta, keyData ) == null ) {
+        spillLookupRow( keyData, valueData );
+        return;
+      }
+    }
+    addToCache( data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData );
+    data.rowsInMemory++;
+  }
+
+  /**
+   * @return true if there is no room for more lookup rows in memory
+   */
+  private boolean isMemoryBudgetExceeded() {
+    boolean checkFreeMemory = data.freeMemoryPctLimit > 0 && ++data.freeMemoryCounter >= 1000;
+    if ( checkFreeMemory ) {
+      data.freeMemoryCounter = 0;
+    }
+    boolean exceeded = SpillPartitions.isMemoryBudgetExceeded( data.spillLevel, data.rowsInMemory,
+      data.maxRowsInMemory, data.freeMemoryPctLimit, checkFreeMemory );
+    if ( exceeded && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.StartSpilling", data.rowsInMemory ) );
+    }
+    return exceeded;
+  }
+
+  private int getPartition( Object[] keyData ) throws KettleValueException {
+    return SpillPartitions.getPartition( data.cacheKeyMeta.hashCode( keyData ), data.spillLevel );
+  }
+
+  private void spillLookupRow( Object[] keyData, Object[] valueData ) throws KettleException {
+    if ( data.lookupSpill == null ) {
+      if ( data.spillLookupMeta == null ) {
+        data.spillLookupMeta = new RowMeta();
+        data.spillLookupMeta.addRowMeta( data.cacheKeyMeta );
+        data.spillLookupMeta.addRowMeta( data.cacheValueMeta );
+      }
+      data.lookupSpill = new SpillPartitions( "streamlookup", environmentSubstitute( meta.getDirectory() ),
+        getTransMeta(), data.spillLookupMeta, log );
+    }
+    Object[] row = new Object[keyData.length + valueData.length];
+    System.arraycopy( keyData, 0, row, 0, keyData.length );
+    System.arraycopy( valueData, 0, row, keyData.length, valueData.length );
+
+    data.lookupSpill.write( getPartition( keyData ), row );
+  }
+
+  private void spillInputRow( int partition, RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    if ( data.inputSpill == null ) {
+      data.inputSpill = new SpillPartitions( "streamlookup", environmentSubstitute( meta.getDirectory() ),
+        getTransMeta(), rowMeta, log );
+    }
+    data.inputSpill.write( partition, row );
+  }
+
+  /**
+   * Join the input rows that were written to the spill files with the spilled lookup rows, one partition at a time.
+   * All the lookup rows and input rows of a key end up in the same partition. A partition with lookup rows that still
+   * don't fit in memory is split again with another hash.
+   */
+  private void joinSpilledRows() throws KettleException {
+    SpillPartitions lookupSpill = data.lookupSpill;
+    SpillPartitions inputSpill = data.inputSpill;
+    data.lookupSpill = null;
+    data.inputSpill = null;
+    data.spilling = false;
+    data.spillLevel++;
+
+    try {
+      lookupSpill.closeStreams();
+      if ( inputSpill != null ) {
+        inputSpill.closeStreams();
+      }
+      for ( int partition = 0; partition < SpillPartitions.NR_OF_PARTITIONS && !isStopped(); partition++ ) {
+        if ( inputSpill == null || !inputSpill.hasRows( partition ) || !lookupSpill.hasRows( partition ) ) {
+          // No input row needs the lookup rows of this partition
+          continue;
+        }
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.JoiningSpillPartition", partition,
+            data.spillLevel ) );
+        }
+
+        clearCache();
+        int nrKeys = data.cacheKeyMeta.size();
+        lookupSpill.readRows( partition, row -> {
+          addLookupRow( Arrays.copyOfRange( row, 0, nrKeys ), Arrays.copyOfRange( row, nrKeys, row.length ) );
+          return !isStopped();
+        } );
+        lookupSpill.delete( partition );
+
+        inputSpill.readRows( partition, row -> {
+          Object[] outputRow = lookupValues( getInputRowMeta(), row );
+          if ( outputRow != null ) {
+            putRow( data.outputRowMeta, outputRow );
+          }
+          return !isStopped();
+        } );
+        inputSpill.delete( partition );
+
+        // The lookup rows of this partition that still didn't fit in memory
+        //
+        if ( data.lookupSpill != null ) {
+          joinSpilledRows();
+        }
+      }
+    } finally {
+      data.spillLevel--;
+      lookupSpill.deleteAll();
+      if ( inputSpill != null ) {
+        inputSpill.deleteAll();
+      }
+    }
+  }
+
+  private void clearCache() {
+    data.look = new HashMap<RowMetaAndData, Object[]>();
+    data.list = new ArrayList<KeyValue>();
+    data.hashIndex = null;
+    data.longIndex = new LongHashIndex();
+    data.offHeapIndex = null;
+    data.rowsInMemory = 0;
+    data.freeMemoryCounter = 0;
+  }
+
   private void addToCache( RowMetaInterface keyMeta, Object[] keyData, RowMetaInterface valueMeta,
     Object[] valueData ) throws KettleValueException {
     if ( meta.isMemoryPreservationActive() ) {
@@ -311,6 +467,12 @@ public class StreamLookup extends BaseStep implements StepInterface {
           Long key = keyMeta.getInteger( keyData, 0 );
           Long value = valueMeta.getInteger( valueData, 0 );
           data.longIndex.put( key, value );
+        } else if ( meta.isUsingOffHeapStorage() ) {
+          if ( data.offHeapIndex == null ) {
+            data.offHeapIndex = new OffHeapHashIndex();
+          }
+          data.offHeapIndex
+            .put( RowMeta.extractData( keyMeta, keyData ), RowMeta.extractData( valueMeta, valueData ) );
         } else {
           if ( data.hashIndex == null ) {
             data.hashIndex = new ByteArrayHashIndex( keyMeta );
@@ -344,6 +506,17 @@ public class StreamLookup extends BaseStep implements StepInterface {
             return null;
           }
           return new Object[] { value, };
+        } else if ( meta.isUsingOffHeapStorage() ) {
+          if ( data.offHeapIndex == null ) {
+            return null;
+          }
+          // Only the value of a match is decoded, the other lookup rows stay serialized
+          //
+          byte[] value = data.offHeapIndex.get( RowMeta.extractData( keyMeta, keyData ) );
+          if ( value == null ) {
+            return null;
+          }
+          return RowMeta.getRow( data.cacheValueMeta, value );
         } else {
           try {
             byte[] value = data.hashIndex.get( RowMeta.extractData( keyMeta, keyData ) );
@@ -385,6 +558,12 @@ public class StreamLookup extends BaseStep implements StepInterface {
     if ( r == null ) {
       // no more input to be expected...
 
+      // Join the rows that need lookup rows which didn't fit in memory
+      //
+      if ( data.lookupSpill != null ) {
+        joinSpilledRows();
+      }
+
       if ( log.isDetailed() ) {
         logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.StoppedProcessingWithEmpty", getLinesRead()
           + "" ) );
@@ -436,6 +615,10 @@ public class StreamLookup extends BaseStep implements StepInterface {
 
     Object[] outputRow = lookupValues( getInputRowMeta(), r ); // Do the actual lookup in the hastable.
     if ( outputRow == null ) {
+      if ( !isStopped() ) {
+        // The row went to a spill file, it is joined at the end
+        return true;
+      }
       setOutputDone(); // signal end to receiver(s)
 
       return false;
@@ -460,6 +643,13 @@ public class StreamLookup extends BaseStep implements StepInterface {
     if ( super.init( smi, sdi ) ) {
       data.readLookupValues = true;
 
+      data.spillToDisk = meta.isSpillToDisk();
+      data.maxRowsInMemory = Const.toInt( environmentSubstitute( meta.getMaxRowsInMemory() ), -1 );
+      data.freeMemoryPctLimit = Const.toInt( environmentSubstitute( meta.getFreeMemoryLimit() ), -1 );
+      if ( data.spillToDisk && data.maxRowsInMemory <= 0 && data.freeMemoryPctLimit <= 0 ) {
+        data.freeMemoryPctLimit = SpillPartitions.DEFAULT_FREE_MEMORY_LIMIT;
+      }
+
       return true;
     }
 
@@ -468,12 +658,22 @@ public class StreamLookup extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.lookupSpill != null ) {
+      data.lookupSpill.deleteAll();
+      data.lookupSpill = null;
+    }
+    if ( data.inputSpill != null ) {
+      data.inputSpill.deleteAll();
+      data.inputSpill = null;
+    }
+
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.look = null;
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    data.offHeapIndex = null;
 
     super.dispose( smi, sdi );
   }
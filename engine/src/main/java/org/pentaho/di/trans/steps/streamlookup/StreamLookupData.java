@@ -23,10 +23,12 @@ import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
 import org.pentaho.di.core.hash.LongHashIndex;
+import org.pentaho.di.core.hash.OffHeapHashIndex;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.common.SpillPartitions;
 
 /**
  * @author Matt
@@ -64,6 +66,7 @@ public class StreamLookupData extends BaseStepData implements StepDataInterface
 
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
+  public OffHeapHashIndex offHeapIndex;
 
   public RowMetaInterface lookupMeta;
 
@@ -81,6 +84,26 @@ public class StreamLookupData extends BaseStepData implements StepDataInterface
 
   public StreamInterface infoStream;
 
+  /*
+   * Spill to disk
+   */
+  public boolean spillToDisk;
+  public int maxRowsInMemory;
+  public int freeMemoryPctLimit;
+  public int freeMemoryCounter;
+  /** the number of lookup rows added to the cache since it was last cleared */
+  public long rowsInMemory;
+  /** true if the lookup rows of new keys go to the spill files */
+  public boolean spilling;
+  /** 0 while reading the input, +1 for every pass over spilled partitions */
+  public int spillLevel;
+  /** the layout of a spilled lookup row: the cache key followed by the cache value */
+  public RowMetaInterface spillLookupMeta;
+  /** the lookup rows that didn't fit in memory, null until the first row is spilled */
+  public SpillPartitions lookupSpill;
+  /** the input rows to join with the spilled lookup rows of the same partition */
+  public SpillPartitions inputSpill;
+
   public StreamLookupData() {
     super();
     look = new HashMap<RowMetaAndData, Object[]>();
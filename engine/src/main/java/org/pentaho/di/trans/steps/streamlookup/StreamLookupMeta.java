@@ -92,6 +92,26 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
   @Injection( name = "INTEGER_PAIR" )
   private boolean usingIntegerPair;
 
+  /** Keep the serialized keys and values in a hash index outside of the Java heap */
+  @Injection( name = "OFF_HEAP_STORAGE" )
+  private boolean usingOffHeapStorage;
+
+  /** Partition the lookup rows that don't fit in memory, and the rows that need them, over temporary files */
+  @Injection( name = "SPILL_TO_DISK" )
+  private boolean spillToDisk;
+
+  /** The maximum number of lookup rows kept in memory before spilling, empty for no limit */
+  @Injection( name = "MAX_ROWS_IN_MEMORY" )
+  private String maxRowsInMemory;
+
+  /** Start spilling when the free memory drops below this percentage */
+  @Injection( name = "FREE_MEMORY_LIMIT" )
+  private String freeMemoryLimit;
+
+  /** Directory to store the temporary files */
+  @Injection( name = "SPILL_DIRECTORY" )
+  private String directory;
+
   public StreamLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -154,6 +174,11 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserve_memory" ) ) );
       setUsingSortedList( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "sorted_list" ) ) );
       setUsingIntegerPair( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "integer_pair" ) ) );
+      setUsingOffHeapStorage( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "off_heap_storage" ) ) );
+      setSpillToDisk( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "spill_to_disk" ) ) );
+      setMaxRowsInMemory( XMLHandler.getTagValue( stepnode, "max_rows_in_memory" ) );
+      setFreeMemoryLimit( XMLHandler.getTagValue( stepnode, "free_memory" ) );
+      setDirectory( XMLHandler.getTagValue( stepnode, "directory" ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrkeys = XMLHandler.countNodes( lookup, "key" );
@@ -202,6 +227,11 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     setMemoryPreservationActive( true );
     setUsingSortedList( false );
     setUsingIntegerPair( false );
+    setUsingOffHeapStorage( false );
+    setSpillToDisk( false );
+    setMaxRowsInMemory( null );
+    setFreeMemoryLimit( "25" );
+    setDirectory( "%%java.io.tmpdir%%" );
 
     allocate( 0, 0 );
   }
@@ -245,6 +275,11 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "preserve_memory", isMemoryPreservationActive() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "sorted_list", isUsingSortedList() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "integer_pair", isUsingIntegerPair() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "off_heap_storage", isUsingOffHeapStorage() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "spill_to_disk", isSpillToDisk() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "max_rows_in_memory", getMaxRowsInMemory() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "free_memory", getFreeMemoryLimit() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "directory", getDirectory() ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
     for ( int i = 0; i < getKeystream().length; i++ ) {
@@ -279,6 +314,11 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( rep.getStepAttributeBoolean( id_step, "preserve_memory" ) );
       setUsingSortedList( rep.getStepAttributeBoolean( id_step, "sorted_list" ) );
       setUsingIntegerPair( rep.getStepAttributeBoolean( id_step, "integer_pair" ) );
+      setUsingOffHeapStorage( rep.getStepAttributeBoolean( id_step, "off_heap_storage" ) );
+      setSpillToDisk( rep.getStepAttributeBoolean( id_step, "spill_to_disk" ) );
+      setMaxRowsInMemory( rep.getStepAttributeString( id_step, "max_rows_in_memory" ) );
+      setFreeMemoryLimit( rep.getStepAttributeString( id_step, "free_memory" ) );
+      setDirectory( rep.getStepAttributeString( id_step, "directory" ) );
 
       int nrkeys = rep.countNrStepAttributes( id_step, "lookup_key_name" );
       int nrvalues = rep.countNrStepAttributes( id_step, "return_value_name" );
@@ -316,6 +356,11 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       rep.saveStepAttribute( id_transformation, id_step, "preserve_memory", isMemoryPreservationActive() );
       rep.saveStepAttribute( id_transformation, id_step, "sorted_list", isUsingSortedList() );
       rep.saveStepAttribute( id_transformation, id_step, "integer_pair", isUsingIntegerPair() );
+      rep.saveStepAttribute( id_transformation, id_step, "off_heap_storage", isUsingOffHeapStorage() );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_to_disk", isSpillToDisk() );
+      rep.saveStepAttribute( id_transformation, id_step, "max_rows_in_memory", getMaxRowsInMemory() );
+      rep.saveStepAttribute( id_transformation, id_step, "free_memory", getFreeMemoryLimit() );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", getDirectory() );
 
       for ( int i = 0; i < getKeystream().length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "lookup_key_name", getKeystream()[i] );
@@ -658,6 +703,81 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     this.usingIntegerPair = usingIntegerPair;
   }
 
+  /**
+   * @return true if the lookup data is kept in a hash index outside of the Java heap
+   */
+  public boolean isUsingOffHeapStorage() {
+    return usingOffHeapStorage;
+  }
+
+  /**
+   * @param usingOffHeapStorage
+   *          true to keep the lookup data in a hash index outside of the Java heap
+   */
+  public void setUsingOffHeapStorage( boolean usingOffHeapStorage ) {
+    this.usingOffHeapStorage = usingOffHeapStorage;
+  }
+
+  /**
+   * @return true if the lookup rows that don't fit in memory are written to temporary files
+   */
+  public boolean isSpillToDisk() {
+    return spillToDisk;
+  }
+
+  /**
+   * @param spillToDisk
+   *          true to write the lookup rows that don't fit in memory to temporary files
+   */
+  public void setSpillToDisk( boolean spillToDisk ) {
+    this.spillToDisk = spillToDisk;
+  }
+
+  /**
+   * @return the maximum number of lookup rows kept in memory before spilling
+   */
+  public String getMaxRowsInMemory() {
+    return maxRowsInMemory;
+  }
+
+  /**
+   * @param maxRowsInMemory
+   *          the maximum number of lookup rows kept in memory before spilling
+   */
+  public void setMaxRowsInMemory( String maxRowsInMemory ) {
+    this.maxRowsInMemory = maxRowsInMemory;
+  }
+
+  /**
+   * @return the free memory percentage below which the step starts spilling
+   */
+  public String getFreeMemoryLimit() {
+    return freeMemoryLimit;
+  }
+
+  /**
+   * @param freeMemoryLimit
+   *          the free memory percentage below which the step starts spilling
+   */
+  public void setFreeMemoryLimit( String freeMemoryLimit ) {
+    this.freeMemoryLimit = freeMemoryLimit;
+  }
+
+  /**
+   * @return the directory to store the temporary files in
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          the directory to store the temporary files in
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -34,8 +34,11 @@ import org.pentaho.di.trans.step.*;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Writes rows to a database table.
@@ -64,6 +67,17 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       if ( first && meta.truncateTable() ) {
         truncateTable();
       }
+      if ( data.batchWriters != null ) {
+        try {
+          flushBatch();
+          collectBatches( 0 );
+        } catch ( KettleException e ) {
+          logError( "Because of an error, this step can't continue: ", e );
+          setErrors( 1 );
+          stopAll();
+          setOutputDone(); // signal end to receiver(s)
+        }
+      }
       return false;
     }
 
@@ -106,10 +120,20 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           }
         }
       }
+
+      if ( data.nrBatchWriters > 0 ) {
+        createBatchWriters();
+      }
     }
 
     try {
-      Object[] outputRowData = writeToTable( getInputRowMeta(), r );
+      Object[] outputRowData;
+      if ( data.batchWriters != null ) {
+        addToBatch( r );
+        outputRowData = null;
+      } else {
+        outputRowData = writeToTable( getInputRowMeta(), r );
+      }
       if ( outputRowData != null ) {
         putRow( data.outputRowMeta, outputRowData ); // in case we want it go further...
         incrementLinesOutput();
@@ -323,16 +347,7 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       } else {
         data.db.clearBatch( insertStatement );
         data.db.rollback();
-        StringBuilder msg = new StringBuilder( "Error batch inserting rows into table [" + tableName + "]." );
-        msg.append( Const.CR );
-        msg.append( "Errors encountered (first 10):" ).append( Const.CR );
-        for ( int x = 0; x < be.getExceptionsList().size() && x < 10; x++ ) {
-          Exception exception = be.getExceptionsList().get( x );
-          if ( exception.getMessage() != null ) {
-            msg.append( exception.getMessage() ).append( Const.CR );
-          }
-        }
-        throw new KettleException( msg.toString(), be );
+        throw new KettleException( getBatchErrorMessage( tableName, be ), be );
       }
     } catch ( KettleDatabaseException dbe ) {
       if ( getStepMeta().isDoingErrorHandling() ) {
@@ -414,6 +429,168 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     return outputRowData;
   }
 
+  private String getBatchErrorMessage( String tableName, KettleDatabaseBatchException be ) {
+    StringBuilder msg = new StringBuilder( "Error batch inserting rows into table [" + tableName + "]." );
+    msg.append( Const.CR );
+    msg.append( "Errors encountered (first 10):" ).append( Const.CR );
+    for ( int x = 0; x < be.getExceptionsList().size() && x < 10; x++ ) {
+      Exception exception = be.getExceptionsList().get( x );
+      if ( exception.getMessage() != null ) {
+        msg.append( exception.getMessage() ).append( Const.CR );
+      }
+    }
+    return msg.toString();
+  }
+
+  /**
+   * Start the background writers of the pipelined batch mode. The first one uses the connection of the step, the
+   * others open a connection of their own.
+   */
+  private void createBatchWriters() throws KettleException {
+    String sql =
+      data.db.getInsertStatement( environmentSubstitute( meta.getSchemaName() ), data.tableName, data.insertRowMeta );
+    if ( log.isDetailed() ) {
+      logDetailed( "Prepared statement : " + sql );
+      logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.UsingBatchWriters", data.nrBatchWriters ) );
+    }
+    data.pendingBatches = new ArrayDeque<>();
+    data.currentBatch = new TableOutputBatchWriter.Batch();
+    data.batchWriters = new TableOutputBatchWriter[data.nrBatchWriters];
+    for ( int i = 0; i < data.batchWriters.length; i++ ) {
+      Database db = data.db;
+      if ( i > 0 ) {
+        db = new Database( this, data.databaseMeta );
+        db.shareVariablesWith( this );
+        db.setCommitSize( data.commitSize );
+        db.connect( getPartitionID() );
+        db.setAutoCommit();
+      }
+      data.batchWriters[i] =
+        new TableOutputBatchWriter( db, i > 0, data.tableName, sql, data.insertRowMeta,
+          getStepMeta().isDoingErrorHandling(), meta.ignoreErrors(), getStepname() + " - batch writer " + ( i + 1 ) );
+    }
+  }
+
+  /**
+   * Add the row to the current batch and hand the batch to a writer once it holds a commit size worth of rows.
+   */
+  private void addToBatch( Object[] r ) throws KettleException {
+    Object[] insertRowData = r;
+    if ( meta.specifyFields() ) {
+      insertRowData = new Object[data.valuenrs.length];
+      for ( int idx = 0; idx < data.valuenrs.length; idx++ ) {
+        insertRowData[idx] = r[data.valuenrs[idx]];
+      }
+    }
+    data.currentBatch.add( insertRowData, r );
+    if ( data.currentBatch.size() >= data.commitSize ) {
+      flushBatch();
+    }
+  }
+
+  private void flushBatch() throws KettleException {
+    if ( data.currentBatch.size() == 0 ) {
+      return;
+    }
+    // Never more batches in flight than there are writers: the next writer in line is idle
+    collectBatches( data.batchWriters.length - 1 );
+    TableOutputBatchWriter writer = data.batchWriters[data.batchNr++ % data.batchWriters.length];
+    data.pendingBatches.add( writer.write( data.currentBatch ) );
+    data.currentBatch = new TableOutputBatchWriter.Batch();
+
+    // Pass on the rows of the batches that are already written
+    while ( !data.pendingBatches.isEmpty() && data.pendingBatches.peek().isDone() ) {
+      processWrittenBatch( waitForBatch( data.pendingBatches.poll() ) );
+    }
+  }
+
+  /**
+   * Wait for the oldest batches until no more than the given number are still being written.
+   */
+  private void collectBatches( int maxPending ) throws KettleException {
+    while ( data.pendingBatches.size() > maxPending ) {
+      processWrittenBatch( waitForBatch( data.pendingBatches.poll() ) );
+    }
+  }
+
+  private TableOutputBatchWriter.Batch waitForBatch( Future<TableOutputBatchWriter.Batch> future )
+    throws KettleException {
+    try {
+      return future.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      setErrors( getErrors() + 1 );
+      if ( e.getCause() instanceof KettleException ) {
+        throw (KettleException) e.getCause();
+      }
+      throw new KettleException( "Unexpected error inserting rows into table [" + data.tableName + "]",
+        e.getCause() );
+    }
+  }
+
+  /**
+   * Pass on the rows of a written batch, the same way as the rows of a batch written by the step itself.
+   */
+  private void processWrittenBatch( TableOutputBatchWriter.Batch batch ) throws KettleException {
+    KettleDatabaseBatchException be = batch.batchException;
+    if ( be != null && !getStepMeta().isDoingErrorHandling() ) {
+      setErrors( getErrors() + 1 );
+      throw new KettleException( getBatchErrorMessage( data.tableName, be ), be );
+    }
+    int[] updateCounts = be == null ? null : be.getUpdateCounts();
+    int batchNr = 0;
+    int errNr = 0;
+    for ( int i = 0; i < batch.size(); i++ ) {
+      Object[] row = batch.outputRows.get( i );
+      String rowError = batch.rowErrors[i];
+      if ( rowError != null ) {
+        // The row never made it into the batch
+        if ( getStepMeta().isDoingErrorHandling() ) {
+          putError( data.outputRowMeta, row, 1L, rowError, null, "TOP001" );
+        } else {
+          if ( data.warnings <= 20 && log.isBasic() ) {
+            logBasic( ( data.warnings < 20 ? "" : "FINAL WARNING (no more then 20 displayed): " )
+              + "Couldn't insert row into table: " + data.outputRowMeta.getString( row ) + Const.CR + rowError );
+          }
+          data.warnings++;
+        }
+        continue;
+      }
+      if ( be == null || ( updateCounts != null && batchNr < updateCounts.length && updateCounts[batchNr] > 0 ) ) {
+        putRow( data.outputRowMeta, row );
+        incrementLinesOutput();
+      } else if ( updateCounts != null ) {
+        String exMessage = be.toString();
+        if ( errNr < be.getExceptionsList().size() ) {
+          exMessage = be.getExceptionsList().get( errNr++ ).toString();
+        }
+        putError( data.outputRowMeta, row, 1L, exMessage, null, "TOP0002" );
+      } else {
+        // Without update counts all the rows of the batch are considered to be in error
+        putError( data.outputRowMeta, row, 1L, be.toString(), null, "TOP0003" );
+      }
+      batchNr++;
+    }
+  }
+
+  private void closeBatchWriters() {
+    for ( TableOutputBatchWriter writer : data.batchWriters ) {
+      if ( writer != null ) {
+        try {
+          writer.close( getErrors() > 0 );
+        } catch ( KettleDatabaseException e ) {
+          logError( "Unexpected error closing a batch writer.", e );
+          setErrors( 1 );
+        }
+      }
+    }
+    data.batchWriters = null;
+    data.pendingBatches = null;
+    data.currentBatch = null;
+  }
+
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
@@ -510,6 +687,16 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           data.tableName = environmentSubstitute( meta.getTableName() );
         }
 
+        // Pipelined batch inserts, only for batches into a single table
+        int nrBatchWriters = Const.toInt( environmentSubstitute( meta.getBatchWriters() ), 0 );
+        if ( nrBatchWriters > 0 ) {
+          if ( data.batchMode && data.tableName != null && !getTransMeta().isUsingUniqueConnections() ) {
+            data.nrBatchWriters = nrBatchWriters;
+          } else if ( log.isBasic() ) {
+            logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BatchWritersNotUsed" ) );
+          }
+        }
+
         return true;
       } catch ( KettleException e ) {
         logError( "An error occurred intialising this step: " + e.getMessage() );
@@ -542,6 +729,22 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     meta = (TableOutputMeta) smi;
     data = (TableOutputData) sdi;
 
+    if ( data.batchWriters != null ) {
+      if ( getErrors() == 0 ) {
+        // Stopped without an error: the rows read so far are written, like the batch of a step without writers
+        try {
+          flushBatch();
+          collectBatches( 0 );
+        } catch ( KettleException e ) {
+          logError( "Unexpected error writing the last batch.", e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
+      // The writers are done with the connection of the step before it is committed and disconnected
+      closeBatchWriters();
+    }
+
     if ( data.db != null ) {
       try {
         for ( String schemaTable : data.preparedStatements.keySet() ) {
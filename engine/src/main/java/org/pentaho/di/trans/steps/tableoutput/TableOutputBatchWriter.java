@@ -0,0 +1,183 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.exception.KettleDatabaseBatchException;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Inserts batches of rows on its own thread, so that the Table Output step can build the next batch while the
+ * database is busy with this one. Every batch is executed and committed on its own. A writer uses one database
+ * connection: either the one of the step or a connection of its own.
+ *
+ * @since 10.3
+ */
+class TableOutputBatchWriter {
+
+  /**
+   * The rows of one batch and, once it is written, the errors.
+   */
+  static final class Batch {
+    final List<Object[]> insertRows = new ArrayList<>();
+    final List<Object[]> outputRows = new ArrayList<>();
+
+    /** The error of every row that couldn't be added to the batch, null for the others */
+    String[] rowErrors;
+
+    /** The error of the batch as a whole, null if it was committed */
+    KettleDatabaseBatchException batchException;
+
+    void add( Object[] insertRow, Object[] outputRow ) {
+      insertRows.add( insertRow );
+      outputRows.add( outputRow );
+    }
+
+    int size() {
+      return insertRows.size();
+    }
+  }
+
+  private final Database db;
+  private final boolean ownConnection;
+  private final String tableName;
+  private final String sql;
+  private final RowMetaInterface insertRowMeta;
+  private final boolean doingErrorHandling;
+  private final boolean ignoringErrors;
+  private final ExecutorService executor;
+
+  private PreparedStatement insertStatement;
+
+  /**
+   * @param db
+   *          the connection to write with, only used by the thread of this writer until it is closed
+   * @param ownConnection
+   *          true if the connection has to be disconnected when the writer is closed
+   * @param doingErrorHandling
+   *          true if failing rows go to the error handling of the step, false to roll back and stop
+   * @param ignoringErrors
+   *          true if rows that can't be inserted are skipped
+   */
+  TableOutputBatchWriter( Database db, boolean ownConnection, String tableName, String sql,
+                          RowMetaInterface insertRowMeta, boolean doingErrorHandling, boolean ignoringErrors,
+                          final String threadName ) {
+    this.db = db;
+    this.ownConnection = ownConnection;
+    this.tableName = tableName;
+    this.sql = sql;
+    this.insertRowMeta = insertRowMeta;
+    this.doingErrorHandling = doingErrorHandling;
+    this.ignoringErrors = ignoringErrors;
+    this.executor = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName );
+      return thread;
+    } );
+  }
+
+  /**
+   * Write the batch in the background.
+   *
+   * @return the batch once it is written. Errors that stop the step are thrown by the future.
+   */
+  Future<Batch> write( final Batch batch ) {
+    return executor.submit( () -> writeBatch( batch ) );
+  }
+
+  private Batch writeBatch( Batch batch ) throws KettleException {
+    if ( insertStatement == null ) {
+      insertStatement = db.prepareSQL( sql );
+    }
+    boolean useBatchInsert = db.getUseBatchInsert( true );
+
+    batch.rowErrors = new String[batch.size()];
+    for ( int i = 0; i < batch.size(); i++ ) {
+      Object[] row = batch.insertRows.get( i );
+      try {
+        db.setValues( insertRowMeta, row, insertStatement );
+        db.insertRow( insertStatement, true, false ); // false: no commit, it is handled per batch
+      } catch ( KettleDatabaseException e ) {
+        if ( !doingErrorHandling && !ignoringErrors ) {
+          db.clearBatch( insertStatement );
+          db.rollback();
+          throw new KettleException( "Error inserting row into table ["
+            + tableName + "] with values: " + insertRowMeta.getString( row ), e );
+        }
+        batch.rowErrors[i] = e.toString();
+      }
+    }
+
+    try {
+      if ( useBatchInsert ) {
+        insertStatement.executeBatch();
+        db.commit();
+        insertStatement.clearBatch();
+      } else {
+        db.commit();
+      }
+    } catch ( SQLException e ) {
+      batch.batchException = Database.createKettleDatabaseBatchException( "Error updating batch", e );
+      db.clearBatch( insertStatement );
+      if ( doingErrorHandling ) {
+        db.commit( true );
+      } else {
+        db.rollback();
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Wait for the batches that are being written and release the prepared statement and the connection of the writer.
+   *
+   * @param rollback
+   *          true to roll back the connection of the writer before it is disconnected
+   */
+  void close( boolean rollback ) throws KettleDatabaseException {
+    executor.shutdown();
+    try {
+      while ( !executor.awaitTermination( 1, TimeUnit.SECONDS ) ) {
+        // A batch is still being written, the connection can't be closed under it
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      if ( insertStatement != null ) {
+        db.closePreparedStatement( insertStatement );
+        insertStatement = null;
+      }
+      if ( ownConnection && rollback ) {
+        db.rollback();
+      }
+    } finally {
+      if ( ownConnection ) {
+        db.disconnect();
+      }
+    }
+  }
+}
@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Future;
 
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
@@ -69,6 +71,21 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
   public int commitSize;
 
+  /** The number of background batch writers, 0 to insert the rows on the step thread */
+  public int nrBatchWriters;
+
+  /** The background batch writers, null if the rows are inserted on the step thread */
+  TableOutputBatchWriter[] batchWriters;
+
+  /** The batch that is being filled */
+  TableOutputBatchWriter.Batch currentBatch;
+
+  /** The batches handed to the writers, oldest first */
+  Queue<Future<TableOutputBatchWriter.Batch>> pendingBatches;
+
+  /** The number of batches handed to the writers, to pick the next writer */
+  int batchNr;
+
   public TableOutputData() {
     super();
 
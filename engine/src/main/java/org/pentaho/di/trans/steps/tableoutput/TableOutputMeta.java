@@ -99,6 +99,10 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
   }
   private boolean useBatchUpdate;
 
+  /** The number of background writers inserting the batches, empty or 0 to insert them on the step thread */
+  @Injection( name = "BATCH_WRITERS" )
+  private String batchWriters;
+
 
   @Injection( name = "PARTITION_OVER_TABLES" )
   public void metaSetPartitionOverTables( String value ) {
@@ -348,6 +352,20 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return the number of background writers inserting the batches, empty or 0 to insert them on the step thread
+   */
+  public String getBatchWriters() {
+    return batchWriters;
+  }
+
+  /**
+   * @param batchWriters the number of background writers inserting the batches
+   */
+  public void setBatchWriters( String batchWriters ) {
+    this.batchWriters = batchWriters;
+  }
+
   /**
    * @return the table name
    */
@@ -448,6 +466,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "truncate" ) );
       ignoreErrors = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ignore_errors" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_batch" ) );
+      batchWriters = XMLHandler.getTagValue( stepnode, "batch_writers" );
 
       // If not present it will be false to be compatible with pre-v3.2
       specifyFields = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "specify_fields" ) );
@@ -484,6 +503,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     databaseMeta = null;
     tableName = "";
     commitSize = "1000";
+    batchWriters = "";
 
     partitioningEnabled = false;
     partitioningMonthly = true;
@@ -506,6 +526,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     retval.append( "    " + XMLHandler.addTagValue( "truncate", truncateTable ) );
     retval.append( "    " + XMLHandler.addTagValue( "ignore_errors", ignoreErrors ) );
     retval.append( "    " + XMLHandler.addTagValue( "use_batch", useBatchUpdate ) );
+    retval.append( "    " + XMLHandler.addTagValue( "batch_writers", batchWriters ) );
     retval.append( "    " + XMLHandler.addTagValue( "specify_fields", specifyFields ) );
 
     retval.append( "    " + XMLHandler.addTagValue( "partitioning_enabled", partitioningEnabled ) );
@@ -543,6 +564,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = rep.getStepAttributeBoolean( id_step, "truncate" );
       ignoreErrors = rep.getStepAttributeBoolean( id_step, "ignore_errors" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "use_batch" );
+      batchWriters = rep.getStepAttributeString( id_step, "batch_writers" );
       specifyFields = rep.getStepAttributeBoolean( id_step, "specify_fields" );
 
       partitioningEnabled = rep.getStepAttributeBoolean( id_step, "partitioning_enabled" );
@@ -582,6 +604,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "truncate", truncateTable );
       rep.saveStepAttribute( id_transformation, id_step, "ignore_errors", ignoreErrors );
       rep.saveStepAttribute( id_transformation, id_step, "use_batch", useBatchUpdate );
+      rep.saveStepAttribute( id_transformation, id_step, "batch_writers", batchWriters );
       rep.saveStepAttribute( id_transformation, id_step, "specify_fields", specifyFields );
 
       rep.saveStepAttribute( id_transformation, id_step, "partitioning_enabled", partitioningEnabled );
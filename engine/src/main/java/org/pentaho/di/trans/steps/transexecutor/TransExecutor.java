@@ -13,12 +13,18 @@
 
 package org.pentaho.di.trans.steps.transexecutor;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.Const;
@@ -82,6 +88,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
       if ( row == null ) {
         executeTransformation( null );
+        collectPendingExecutions( 0 );
         setOutputDone();
         return false;
       }
@@ -197,6 +204,11 @@ public class TransExecutor extends BaseStep implements StepInterface {
       discardLogLines( transExecutorData );
     }
 
+    if ( transExecutorData.executionPool != null ) {
+      // Wait for a free execution first, this group re-uses its TransMeta
+      collectPendingExecutions( transExecutorData.parallelExecutions - 1 );
+    }
+
     Trans executorTrans = createInternalTrans();
     transExecutorData.setExecutorTrans( executorTrans );
     if ( incomingFieldValues != null ) {
@@ -214,9 +226,27 @@ public class TransExecutor extends BaseStep implements StepInterface {
     getTrans().addActiveSubTransformation( getStepname(), executorTrans );
 
     Result result = new Result();
-    result.setRows( transExecutorData.groupBuffer );
-    executorTrans.setPreviousResult( result );
+    if ( transExecutorData.executionPool != null ) {
+      // The group buffer is re-used for the next group while this one is executing
+      result.setRows( new ArrayList<RowMetaAndData>( transExecutorData.groupBuffer ) );
+      executorTrans.setPreviousResult( result );
+      startExecution( executorTrans, result );
+    } else {
+      result.setRows( transExecutorData.groupBuffer );
+      executorTrans.setPreviousResult( result );
+      result = runExecutorTrans( executorTrans, result );
+      collectResults( result, executorTrans, System.currentTimeMillis() - transExecutorData.groupTimeStart );
+    }
+
+    transExecutorData.groupBuffer.clear();
+  }
 
+  /**
+   * Prepare, run and wait for the sub-transformation.
+   *
+   * @return the result of the sub-transformation or the given previous result, marked as failed, in case of an error
+   */
+  private Result runExecutorTrans( Trans executorTrans, Result result ) {
     try {
       executorTrans.prepareExecution( getTrans().getArguments() );
 
@@ -239,16 +269,83 @@ public class TransExecutor extends BaseStep implements StepInterface {
       result.setResult( false );
       result.setNrErrors( 1 );
     }
+    return result;
+  }
 
+  private void collectResults( Result result, Trans executorTrans, long executionTime ) throws KettleException {
     if ( result.isSafeStop() ) {
       getTrans().safeStop();
     }
 
     collectTransResults( result );
-    collectExecutionResults( result );
+    collectExecutionResults( result, executorTrans, executionTime );
     collectExecutionResultFiles( result );
+  }
 
-    transExecutorData.groupBuffer.clear();
+  /**
+   * Run the sub-transformation in the execution pool. The next groups are prepared and executed while this one runs,
+   * up to the number of parallel executions. The results are collected in the order of the groups.
+   */
+  private void startExecution( final Trans executorTrans, final Result previousResult ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+
+    final TransExecutorData.PendingExecution execution =
+      new TransExecutorData.PendingExecution( executorTrans, transExecutorData.groupTimeStart );
+    execution.result = transExecutorData.executionPool.submit( () -> {
+      try {
+        if ( isStopped() ) {
+          return previousResult;
+        }
+        return runExecutorTrans( executorTrans, previousResult );
+      } finally {
+        execution.endTime = System.currentTimeMillis();
+      }
+    } );
+    transExecutorData.pendingExecutions.add( execution );
+
+    // Pass on the results that are already available
+    while ( !transExecutorData.pendingExecutions.isEmpty()
+      && transExecutorData.pendingExecutions.peek().result.isDone() ) {
+      collectExecution( transExecutorData.pendingExecutions.poll() );
+    }
+  }
+
+  /**
+   * Wait for the oldest executions until no more than the given number of executions are pending.
+   */
+  private void collectPendingExecutions( int maxPending ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    if ( transExecutorData.pendingExecutions == null ) {
+      return;
+    }
+    while ( transExecutorData.pendingExecutions.size() > maxPending ) {
+      collectExecution( transExecutorData.pendingExecutions.poll() );
+    }
+  }
+
+  private void collectExecution( TransExecutorData.PendingExecution execution ) throws KettleException {
+    Result result;
+    try {
+      result = execution.result.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      throw new KettleException( e.getCause() );
+    }
+    // The execution is finished: the next group can use its TransMeta
+    getData().idleTransMetas.push( execution.trans.getTransMeta() );
+    collectResults( result, execution.trans, execution.endTime - execution.startTime );
+  }
+
+  private ExecutorService createExecutionPool( int nrThreads ) {
+    final AtomicInteger threadNr = new AtomicInteger( 1 );
+    return Executors.newFixedThreadPool( nrThreads, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( getStepname() + " execution " + threadNr.getAndIncrement() );
+      return thread;
+    } );
   }
 
   @VisibleForTesting
@@ -263,7 +360,14 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   @VisibleForTesting
   Trans createInternalTrans() throws KettleException {
-    Trans executorTrans = new Trans( getData().getExecutorTransMeta(), this );
+    // Parallel executions are prepared at the same time, so each one needs its own parameters and caches. A copy is
+    // only made for every execution that runs at the same time, a finished execution hands its copy to the next one.
+    TransMeta executorTransMeta = getData().getExecutorTransMeta();
+    if ( getData().executionPool != null ) {
+      TransMeta idleTransMeta = getData().idleTransMetas.poll();
+      executorTransMeta = idleTransMeta != null ? idleTransMeta : (TransMeta) executorTransMeta.clone();
+    }
+    Trans executorTrans = new Trans( executorTransMeta, this );
 
     executorTrans.setParentTrans( getTrans() );
     executorTrans.setRepository( getTrans().getRepository() );
@@ -405,13 +509,19 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   @VisibleForTesting
   void collectExecutionResults( Result result ) throws KettleException {
+    collectExecutionResults( result, getData().getExecutorTrans(),
+      System.currentTimeMillis() - getData().groupTimeStart );
+  }
+
+  private void collectExecutionResults( Result result, Trans executorTrans, long executionTime )
+    throws KettleException {
     RowSet executionResultsRowSet = getData().getExecutionResultRowSet();
     if ( meta.getExecutionResultTargetStepMeta() != null && executionResultsRowSet != null ) {
       Object[] outputRow = RowDataUtil.allocateRowData( getData().getExecutionResultsOutputRowMeta().size() );
       int idx = 0;
 
       if ( !Utils.isEmpty( meta.getExecutionTimeField() ) ) {
-        outputRow[ idx++ ] = Long.valueOf( System.currentTimeMillis() - getData().groupTimeStart );
+        outputRow[ idx++ ] = Long.valueOf( executionTime );
       }
       if ( !Utils.isEmpty( meta.getExecutionResultField() ) ) {
         outputRow[ idx++ ] = Boolean.valueOf( result.getResult() );
@@ -447,12 +557,12 @@ public class TransExecutor extends BaseStep implements StepInterface {
         outputRow[ idx++ ] = Long.valueOf( result.getExitStatus() );
       }
       if ( !Utils.isEmpty( meta.getExecutionLogTextField() ) ) {
-        String channelId = getData().getExecutorTrans().getLogChannelId();
+        String channelId = executorTrans.getLogChannelId();
         String logText = KettleLogStore.getAppender().getBuffer( channelId, false ).toString();
         outputRow[ idx++ ] = logText;
       }
       if ( !Utils.isEmpty( meta.getExecutionLogChannelIdField() ) ) {
-        outputRow[ idx++ ] = getData().getExecutorTrans().getLogChannelId();
+        outputRow[ idx++ ] = executorTrans.getLogChannelId();
       }
 
       putRowTo( getData().getExecutionResultsOutputRowMeta(), outputRow, executionResultsRowSet );
@@ -510,6 +620,15 @@ public class TransExecutor extends BaseStep implements StepInterface {
           if ( !Utils.isEmpty( meta.getGroupField() ) ) {
             transExecutorData.groupField = environmentSubstitute( meta.getGroupField() );
           }
+
+          // How many groups can be executed at the same time?
+          transExecutorData.parallelExecutions =
+            Math.max( 1, Const.toInt( environmentSubstitute( meta.getParallelExecutions() ), 1 ) );
+          if ( transExecutorData.parallelExecutions > 1 ) {
+            transExecutorData.executionPool = createExecutionPool( transExecutorData.parallelExecutions );
+            transExecutorData.pendingExecutions = new ConcurrentLinkedQueue<TransExecutorData.PendingExecution>();
+            transExecutorData.idleTransMetas = new ArrayDeque<TransMeta>();
+          }
           // That's all for now...
           return true;
         } else {
@@ -532,6 +651,14 @@ public class TransExecutor extends BaseStep implements StepInterface {
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
     transExecutorData.groupBuffer = null;
+    if ( transExecutorData.executionPool != null ) {
+      // Only left in case of an error or when the step was stopped
+      stopPendingExecutions();
+      transExecutorData.executionPool.shutdownNow();
+      transExecutorData.executionPool = null;
+      transExecutorData.pendingExecutions = null;
+      transExecutorData.idleTransMetas = null;
+    }
     super.dispose( smi, sdi );
   }
 
@@ -540,6 +667,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
     if ( getData().getExecutorTrans() != null ) {
       getData().getExecutorTrans().stopAll();
     }
+    stopPendingExecutions();
   }
 
   public void stopAll() {
@@ -547,11 +675,20 @@ public class TransExecutor extends BaseStep implements StepInterface {
     if ( getData().getExecutorTrans() != null ) {
       getData().getExecutorTrans().stopAll();
     }
+    stopPendingExecutions();
 
     // Also stop this step
     super.stopAll();
   }
 
+  private void stopPendingExecutions() {
+    if ( getData().pendingExecutions != null ) {
+      for ( TransExecutorData.PendingExecution execution : getData().pendingExecutions ) {
+        execution.trans.stopAll();
+      }
+    }
+  }
+
   public Trans getExecutorTrans() {
     return getData().getExecutorTrans();
   }
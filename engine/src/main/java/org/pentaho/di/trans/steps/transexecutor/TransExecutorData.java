@@ -13,8 +13,13 @@
 
 package org.pentaho.di.trans.steps.transexecutor;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -50,6 +55,18 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
 
   public Object prevGroupFieldData;
 
+  /** The number of groups that can be executed at the same time */
+  public int parallelExecutions;
+
+  /** Runs the sub-transformations when more than one group can be executed at the same time, null otherwise */
+  public ExecutorService executionPool;
+
+  /** The executions that were started in the pool and not collected yet, in the order of the groups */
+  public Queue<PendingExecution> pendingExecutions;
+
+  /** The copies of the executor TransMeta that no pending execution uses, only used by the step thread */
+  public Deque<TransMeta> idleTransMetas;
+
   private RowSet executorStepOutputRowSet;
   private RowSet resultRowsRowSet;
   private RowSet resultFilesRowSet;
@@ -59,6 +76,21 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
     super();
   }
 
+  /**
+   * A sub-transformation that was started in the execution pool.
+   */
+  static final class PendingExecution {
+    final Trans trans;
+    final long startTime;
+    Future<Result> result;
+    long endTime;
+
+    PendingExecution( Trans trans, long startTime ) {
+      this.trans = trans;
+      this.startTime = startTime;
+    }
+  }
+
   public Trans getExecutorTrans() {
     return executorTrans;
   }
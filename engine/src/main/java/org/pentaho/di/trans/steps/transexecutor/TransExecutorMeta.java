@@ -92,6 +92,12 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
    */
   private String groupTime;
 
+  /**
+   * The number of groups of rows that can be executed at the same time, each in its own sub-transformation (defaults
+   * to "1": one execution at a time). The results are always passed on in the order of the groups.
+   */
+  private String parallelExecutions;
+
   private TransExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -261,6 +267,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallel_executions", parallelExecutions ) );
 
     // Add the mapping parameters too
     //
@@ -329,6 +336,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      parallelExecutions = XMLHandler.getTagValue( stepnode, "parallel_executions" );
 
       // Load the mapping parameters too..
       //
@@ -390,6 +398,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    parallelExecutions = rep.getStepAttributeString( id_step, "parallel_executions" );
 
     parameters = new TransExecutorParameters( rep, id_step );
 
@@ -439,6 +448,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "parallel_executions", parallelExecutions );
 
     // save the mapping parameters too
     //
@@ -491,6 +501,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelExecutions = "1";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1015,6 +1026,20 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return the number of groups of rows that can be executed at the same time
+   */
+  public String getParallelExecutions() {
+    return parallelExecutions;
+  }
+
+  /**
+   * @param parallelExecutions the number of groups of rows that can be executed at the same time
+   */
+  public void setParallelExecutions( String parallelExecutions ) {
+    this.parallelExecutions = parallelExecutions;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
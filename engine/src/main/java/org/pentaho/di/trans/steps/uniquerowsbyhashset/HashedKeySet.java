@@ -0,0 +1,420 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.uniquerowsbyhashset;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * A set of row keys that only keeps a 128-bit hash of every key, in an open addressing table of longs: 16 bytes per key
+ * instead of a wrapper object holding the values of the key. Once the table outgrows the memory limit it moves to a
+ * memory mapped temporary file, so that it no longer takes heap space.
+ *
+ * Two different keys with the same 128-bit hash are practically impossible, but the set can verify it: the keys are
+ * then also written to a temporary file, and a key with a known hash is compared with the key stored for it. Keys
+ * that really collide are kept in memory.
+ */
+public class HashedKeySet implements Closeable {
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  private static final double MAX_LOAD = 0.7;
+
+  private final long memoryLimit;
+  private final File directory;
+  /** The longs of a slot: the two halves of the hash and, when verifying, the position of the key in the key file */
+  private final int slotLongs;
+
+  private Slots slots;
+  private long capacity;
+  private long size;
+
+  private final KeyFile keyFile;
+  private final Set<ByteBuffer> collisions;
+
+  /** The hash of the last key added */
+  private long hash1;
+  private long hash2;
+
+  /**
+   * @param memoryLimit
+   *          the maximum size of the table in memory in bytes, 0 or less for no limit
+   * @param directory
+   *          the directory of the temporary files
+   * @param verify
+   *          true to compare keys with the same hash, false to take them for equal
+   */
+  public HashedKeySet( long memoryLimit, File directory, boolean verify ) throws KettleFileException {
+    this.memoryLimit = memoryLimit;
+    this.directory = directory;
+    this.slotLongs = verify ? 3 : 2;
+    try {
+      this.keyFile = verify ? new KeyFile( createTempFile( ".keys" ) ) : null;
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to create a key file in directory [" + directory + "]", e );
+    }
+    this.collisions = verify ? new HashSet<ByteBuffer>() : null;
+    this.capacity = INITIAL_CAPACITY;
+    this.slots = allocate( capacity );
+  }
+
+  /**
+   * @param key
+   *          the serialized values of the key
+   * @return true if the key was not in the set yet
+   */
+  public boolean add( byte[] key ) throws KettleFileException {
+    hash( key );
+    try {
+      long mask = capacity - 1;
+      for ( long slot = hash1 & mask;; slot = ( slot + 1 ) & mask ) {
+        long index = slot * slotLongs;
+        long slotHash1 = slots.get( index );
+        long slotHash2 = slots.get( index + 1 );
+        if ( slotHash1 == 0 && slotHash2 == 0 ) {
+          slots.set( index, hash1 );
+          slots.set( index + 1, hash2 );
+          if ( keyFile != null ) {
+            slots.set( index + 2, keyFile.append( key ) );
+          }
+          if ( ++size > capacity * MAX_LOAD ) {
+            resize();
+          }
+          return true;
+        }
+        if ( slotHash1 == hash1 && slotHash2 == hash2 ) {
+          if ( keyFile == null || keyFile.equals( slots.get( index + 2 ), key ) ) {
+            return false;
+          }
+          return collisions.add( ByteBuffer.wrap( key ) );
+        }
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to access the temporary files of the key set", e );
+    }
+  }
+
+  /**
+   * @return the number of distinct keys
+   */
+  public long size() {
+    return size + ( collisions == null ? 0 : collisions.size() );
+  }
+
+  /**
+   * @return true if the table has moved to a temporary file
+   */
+  public boolean isOnDisk() {
+    return slots instanceof MappedSlots;
+  }
+
+  @Override
+  public void close() {
+    if ( slots != null ) {
+      slots.close();
+      slots = null;
+    }
+    if ( keyFile != null ) {
+      keyFile.close();
+    }
+  }
+
+  private void resize() throws KettleFileException {
+    long newCapacity = capacity * 2;
+    Slots newSlots = allocate( newCapacity );
+    long mask = newCapacity - 1;
+    for ( long slot = 0; slot < capacity; slot++ ) {
+      long index = slot * slotLongs;
+      long slotHash1 = slots.get( index );
+      long slotHash2 = slots.get( index + 1 );
+      if ( slotHash1 == 0 && slotHash2 == 0 ) {
+        continue;
+      }
+      long newSlot = slotHash1 & mask;
+      while ( newSlots.get( newSlot * slotLongs ) != 0 || newSlots.get( newSlot * slotLongs + 1 ) != 0 ) {
+        newSlot = ( newSlot + 1 ) & mask;
+      }
+      for ( int i = 0; i < slotLongs; i++ ) {
+        newSlots.set( newSlot * slotLongs + i, slots.get( index + i ) );
+      }
+    }
+    slots.close();
+    slots = newSlots;
+    capacity = newCapacity;
+  }
+
+  private Slots allocate( long nrSlots ) throws KettleFileException {
+    long nrLongs = nrSlots * slotLongs;
+    if ( ( memoryLimit <= 0 || nrLongs * 8 <= memoryLimit ) && nrLongs <= Integer.MAX_VALUE - 8 ) {
+      return new HeapSlots( (int) nrLongs );
+    }
+    File file = null;
+    try {
+      file = createTempFile( ".hash" );
+      return new MappedSlots( file, nrLongs );
+    } catch ( IOException e ) {
+      if ( file != null ) {
+        file.delete();
+      }
+      throw new KettleFileException( "Unable to create a key hash file in directory [" + directory + "]", e );
+    }
+  }
+
+  private File createTempFile( String suffix ) throws IOException {
+    File file = File.createTempFile( "unique-rows", suffix, directory );
+    file.deleteOnExit();
+    return file;
+  }
+
+  /**
+   * MurmurHash3, x64 128-bit variant.
+   */
+  private void hash( byte[] key ) {
+    long c1 = 0x87c37b91114253d5L;
+    long c2 = 0x4cf5ad432745937fL;
+    long h1 = 0;
+    long h2 = 0;
+    ByteBuffer buffer = ByteBuffer.wrap( key ).order( ByteOrder.LITTLE_ENDIAN );
+    int nrBlocks = key.length / 16;
+    for ( int i = 0; i < nrBlocks; i++ ) {
+      long k1 = buffer.getLong( i * 16 );
+      long k2 = buffer.getLong( i * 16 + 8 );
+      k1 *= c1;
+      k1 = Long.rotateLeft( k1, 31 );
+      k1 *= c2;
+      h1 ^= k1;
+      h1 = Long.rotateLeft( h1, 27 );
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+      k2 *= c2;
+      k2 = Long.rotateLeft( k2, 33 );
+      k2 *= c1;
+      h2 ^= k2;
+      h2 = Long.rotateLeft( h2, 31 );
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    long k1 = 0;
+    long k2 = 0;
+    int tail = nrBlocks * 16;
+    for ( int i = key.length - tail - 1; i >= 8; i-- ) {
+      k2 ^= ( key[tail + i] & 0xFFL ) << ( ( i - 8 ) * 8 );
+    }
+    for ( int i = Math.min( key.length - tail, 8 ) - 1; i >= 0; i-- ) {
+      k1 ^= ( key[tail + i] & 0xFFL ) << ( i * 8 );
+    }
+    if ( key.length - tail > 8 ) {
+      k2 *= c2;
+      k2 = Long.rotateLeft( k2, 33 );
+      k2 *= c1;
+      h2 ^= k2;
+    }
+    if ( key.length - tail > 0 ) {
+      k1 *= c1;
+      k1 = Long.rotateLeft( k1, 31 );
+      k1 *= c2;
+      h1 ^= k1;
+    }
+
+    h1 ^= key.length;
+    h2 ^= key.length;
+    h1 += h2;
+    h2 += h1;
+    h1 = mix( h1 );
+    h2 = mix( h2 );
+    h1 += h2;
+    h2 += h1;
+
+    // Two zeros mark an empty slot
+    hash1 = h1;
+    hash2 = h1 == 0 && h2 == 0 ? 1 : h2;
+  }
+
+  private static long mix( long k ) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private interface Slots {
+    long get( long index );
+
+    void set( long index, long value );
+
+    void close();
+  }
+
+  private static class HeapSlots implements Slots {
+    private final long[] longs;
+
+    HeapSlots( int nrLongs ) {
+      longs = new long[nrLongs];
+    }
+
+    @Override
+    public long get( long index ) {
+      return longs[(int) index];
+    }
+
+    @Override
+    public void set( long index, long value ) {
+      longs[(int) index] = value;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class MappedSlots implements Slots {
+    /** 2^27 longs, 1 GB per mapped segment */
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = ( 1L << SEGMENT_SHIFT ) - 1;
+
+    private final File file;
+    private LongBuffer[] segments;
+
+    MappedSlots( File file, long nrLongs ) throws IOException {
+      this.file = file;
+      // The file starts out sparse and filled with zeros: empty slots
+      try ( RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+            FileChannel channel = randomAccessFile.getChannel() ) {
+        randomAccessFile.setLength( nrLongs * 8 );
+        segments = new LongBuffer[(int) ( ( nrLongs + SEGMENT_MASK ) >>> SEGMENT_SHIFT )];
+        for ( int i = 0; i < segments.length; i++ ) {
+          long start = (long) i << SEGMENT_SHIFT;
+          long length = Math.min( SEGMENT_MASK + 1, nrLongs - start );
+          // The mapping stays valid after the channel is closed
+          segments[i] = channel.map( FileChannel.MapMode.READ_WRITE, start * 8, length * 8 ).asLongBuffer();
+        }
+      }
+    }
+
+    @Override
+    public long get( long index ) {
+      return segments[(int) ( index >>> SEGMENT_SHIFT )].get( (int) ( index & SEGMENT_MASK ) );
+    }
+
+    @Override
+    public void set( long index, long value ) {
+      segments[(int) ( index >>> SEGMENT_SHIFT )].put( (int) ( index & SEGMENT_MASK ), value );
+    }
+
+    @Override
+    public void close() {
+      segments = null;
+      file.delete();
+    }
+  }
+
+  /**
+   * The keys of the set, one after the other, each preceded by its length.
+   */
+  private static class KeyFile {
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate( 65536 );
+    /** The keys before this position have been written to the file, the others are still in the buffer */
+    private long flushed;
+
+    KeyFile( File file ) throws IOException {
+      this.file = file;
+      this.channel = FileChannel.open( file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE );
+    }
+
+    long append( byte[] key ) throws IOException {
+      if ( buffer.remaining() < 4 + key.length ) {
+        flush();
+      }
+      long position = flushed + buffer.position();
+      if ( buffer.remaining() < 4 + key.length ) {
+        ByteBuffer large = ByteBuffer.allocate( 4 + key.length );
+        large.putInt( key.length ).put( key ).flip();
+        write( large );
+      } else {
+        buffer.putInt( key.length ).put( key );
+      }
+      return position;
+    }
+
+    boolean equals( long position, byte[] key ) throws IOException {
+      ByteBuffer stored;
+      if ( position >= flushed ) {
+        stored = buffer.duplicate();
+        stored.flip();
+        stored.position( (int) ( position - flushed ) );
+      } else {
+        stored = ByteBuffer.allocate( 4 );
+        read( stored, position );
+        if ( stored.getInt( 0 ) != key.length ) {
+          return false;
+        }
+        stored = ByteBuffer.allocate( 4 + key.length );
+        read( stored, position );
+      }
+      if ( stored.getInt() != key.length ) {
+        return false;
+      }
+      for ( byte b : key ) {
+        if ( stored.get() != b ) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void read( ByteBuffer target, long position ) throws IOException {
+      while ( target.hasRemaining() ) {
+        if ( channel.read( target, position + target.position() ) < 0 ) {
+          throw new IOException( "Unexpected end of key file [" + file + "]" );
+        }
+      }
+      target.flip();
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      write( buffer );
+      buffer.clear();
+    }
+
+    private void write( ByteBuffer source ) throws IOException {
+      while ( source.hasRemaining() ) {
+        flushed += channel.write( source, flushed );
+      }
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch ( IOException e ) {
+        // Only the temporary file is left behind, it is deleted on exit
+      }
+      file.delete();
+    }
+  }
+}
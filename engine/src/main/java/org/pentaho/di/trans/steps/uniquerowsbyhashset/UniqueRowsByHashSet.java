@@ -13,6 +13,10 @@
 
 package org.pentaho.di.trans.steps.uniquerowsbyhashset;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
@@ -38,8 +42,31 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     data = (UniqueRowsByHashSetData) stepDataInterface; // create new data object.
   }
 
-  private boolean isUniqueRow( Object[] row ) {
-    return data.seen.add( new RowKey( row, data ) );
+  private boolean isUniqueRow( Object[] row ) throws KettleException {
+    if ( data.hashedKeys == null ) {
+      return data.seen.add( new RowKey( row, data ) );
+    }
+
+    // Serialize the key: equal values give equal bytes and so equal hashes
+    data.keyBuffer.reset();
+    if ( data.fieldnrs.length == 0 ) {
+      for ( int i = 0; i < data.inputRowMeta.size(); i++ ) {
+        data.inputRowMeta.getValueMeta( i ).writeData( data.keyStream, row[i] );
+      }
+    } else {
+      for ( int fieldnr : data.fieldnrs ) {
+        data.inputRowMeta.getValueMeta( fieldnr ).writeData( data.keyStream, row[fieldnr] );
+      }
+    }
+    boolean unique = data.hashedKeys.add( data.keyBuffer.toByteArray() );
+
+    if ( !data.keysOnDisk && data.hashedKeys.isOnDisk() ) {
+      data.keysOnDisk = true;
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "UniqueRowsByHashSet.Log.KeysMovedToDisk", data.hashedKeys.size() ) );
+      }
+    }
+    return unique;
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
@@ -63,6 +90,18 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
 
       data.storeValues = meta.getStoreValues();
 
+      if ( meta.isHashKeys() ) {
+        // Storing the values means verifying the hashes against the keys spilled to a temporary file
+        long memoryLimit = meta.getMemoryLimit() * 1024L * 1024L;
+        String directory = environmentSubstitute( meta.getDirectory() );
+        if ( Utils.isEmpty( directory ) ) {
+          directory = System.getProperty( "java.io.tmpdir" );
+        }
+        data.hashedKeys = new HashedKeySet( memoryLimit, new File( directory ), data.storeValues );
+        data.keyBuffer = new ByteArrayOutputStream();
+        data.keyStream = new DataOutputStream( data.keyBuffer );
+      }
+
       // Cache lookup of fields
       data.fieldnrs = new int[meta.getCompareFields().length];
 
@@ -118,4 +157,10 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     return false;
   }
 
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (UniqueRowsByHashSetData) sdi;
+
+    data.clearHashSet();
+    super.dispose( smi, sdi );
+  }
 }
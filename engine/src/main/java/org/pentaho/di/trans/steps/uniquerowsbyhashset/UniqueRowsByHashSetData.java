@@ -13,6 +13,8 @@
 
 package org.pentaho.di.trans.steps.uniquerowsbyhashset;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.util.HashSet;
 
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -30,6 +32,12 @@ public class UniqueRowsByHashSetData extends BaseStepData implements StepDataInt
 
   public HashSet<RowKey> seen = new HashSet<RowKey>();
 
+  /** The hashes of the keys seen, used instead of the row keys when hashing keys */
+  public HashedKeySet hashedKeys;
+  public ByteArrayOutputStream keyBuffer;
+  public DataOutputStream keyStream;
+  boolean keysOnDisk;
+
   public UniqueRowsByHashSetData() {
     super();
   }
@@ -38,5 +46,9 @@ public class UniqueRowsByHashSetData extends BaseStepData implements StepDataInt
     sendDuplicateRows = false;
     compareFields = null;
     realErrorDescription = null;
+    if ( hashedKeys != null ) {
+      hashedKeys.close();
+      hashedKeys = null;
+    }
   }
 }
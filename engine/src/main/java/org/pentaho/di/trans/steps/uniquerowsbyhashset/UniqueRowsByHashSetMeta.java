@@ -17,6 +17,7 @@ import java.util.List;
 
 import org.pentaho.di.core.CheckResult;
 import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -49,6 +50,15 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
   private boolean rejectDuplicateRow;
   private String errorDescription;
 
+  /** Whether to only keep a 128-bit hash of every key, verified against the spilled keys when storing values */
+  private boolean hashKeys;
+
+  /** The memory the hashed keys may take in MB before they move to a temporary file, 0 means no limit */
+  private int memoryLimit;
+
+  /** The directory of the temporary files of the hashed keys */
+  private String directory;
+
   public UniqueRowsByHashSetMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -110,6 +120,51 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
     return errorDescription;
   }
 
+  /**
+   * @param hashKeys
+   *          The hashKeys to set.
+   */
+  public void setHashKeys( boolean hashKeys ) {
+    this.hashKeys = hashKeys;
+  }
+
+  /**
+   * @return Returns the hashKeys.
+   */
+  public boolean isHashKeys() {
+    return hashKeys;
+  }
+
+  /**
+   * @param memoryLimit
+   *          The memoryLimit in MB to set.
+   */
+  public void setMemoryLimit( int memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return Returns the memoryLimit in MB.
+   */
+  public int getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param directory
+   *          The directory to set.
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return Returns the directory.
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode );
   }
@@ -130,6 +185,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       storeValues = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "store_values" ) );
       rejectDuplicateRow = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reject_duplicate_row" ) );
       errorDescription = XMLHandler.getTagValue( stepnode, "error_description" );
+      hashKeys = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "hash_keys" ) );
+      memoryLimit = Const.toInt( XMLHandler.getTagValue( stepnode, "memory_limit" ), 0 );
+      directory = XMLHandler.getTagValue( stepnode, "directory" );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -151,6 +209,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
   public void setDefault() {
     rejectDuplicateRow = false;
     errorDescription = null;
+    hashKeys = false;
+    memoryLimit = 0;
+    directory = "%%java.io.tmpdir%%";
     int nrfields = 0;
 
     allocate( nrfields );
@@ -170,6 +231,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
     retval.append( "      " + XMLHandler.addTagValue( "store_values", storeValues ) );
     retval.append( "      " + XMLHandler.addTagValue( "reject_duplicate_row", rejectDuplicateRow ) );
     retval.append( "      " + XMLHandler.addTagValue( "error_description", errorDescription ) );
+    retval.append( "      " + XMLHandler.addTagValue( "hash_keys", hashKeys ) );
+    retval.append( "      " + XMLHandler.addTagValue( "memory_limit", memoryLimit ) );
+    retval.append( "      " + XMLHandler.addTagValue( "directory", directory ) );
     retval.append( "    <fields>" );
     for ( int i = 0; i < compareFields.length; i++ ) {
       retval.append( "      <field>" );
@@ -186,6 +250,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       storeValues = rep.getStepAttributeBoolean( id_step, "store_values" );
       rejectDuplicateRow = rep.getStepAttributeBoolean( id_step, "reject_duplicate_row" );
       errorDescription = rep.getStepAttributeString( id_step, "error_description" );
+      hashKeys = rep.getStepAttributeBoolean( id_step, "hash_keys" );
+      memoryLimit = (int) rep.getStepAttributeInteger( id_step, "memory_limit" );
+      directory = rep.getStepAttributeString( id_step, "directory" );
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
       allocate( nrfields );
@@ -204,6 +271,9 @@ public class UniqueRowsByHashSetMeta extends BaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "store_values", storeValues );
       rep.saveStepAttribute( id_transformation, id_step, "reject_duplicate_row", rejectDuplicateRow );
       rep.saveStepAttribute( id_transformation, id_step, "error_description", errorDescription );
+      rep.saveStepAttribute( id_transformation, id_step, "hash_keys", hashKeys );
+      rep.saveStepAttribute( id_transformation, id_step, "memory_limit", memoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
       for ( int i = 0; i < compareFields.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", compareFields[i] );
       }
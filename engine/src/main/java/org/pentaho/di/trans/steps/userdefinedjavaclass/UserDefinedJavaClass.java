@@ -40,6 +40,8 @@ public class UserDefinedJavaClass extends BaseStep implements StepInterface {
   protected final UserDefinedJavaClassMeta meta;
   protected final UserDefinedJavaClassData data;
   public static final String KETTLE_DEFAULT_CLASS_CACHE_SIZE = "KETTLE_DEFAULT_CLASS_CACHE_SIZE";
+  /** The directory to save the bytecode of the cooked classes in, so that a restarted server does not cook them again */
+  public static final String KETTLE_UDJC_CLASS_CACHE_DIR = "KETTLE_UDJC_CLASS_CACHE_DIR";
 
   public UserDefinedJavaClass( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr,
     TransMeta transMeta, Trans trans ) {
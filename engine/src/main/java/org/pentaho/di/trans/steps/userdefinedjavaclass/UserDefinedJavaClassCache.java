@@ -0,0 +1,286 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.userdefinedjavaclass;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.codehaus.commons.compiler.CompileException;
+import org.pentaho.di.core.exception.KettleStepException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The classes cooked by the User Defined Java Class steps, shared by all steps, step copies and sub-transformations
+ * in the JVM and keyed by a hash of their source. The first step that needs a class cooks it, the steps that need it
+ * at the same time wait for it, and they all get the same class.
+ *
+ * When a directory is given, the bytecode of the cooked classes is saved there as well, so that after a restart the
+ * classes are loaded instead of cooked again. Saved bytecode is only trusted when the directory and the file belong
+ * to the user running this JVM and can not be written by the group or by others; on file systems without POSIX
+ * permissions, or when that check fails, the classes are cooked and nothing is saved or loaded. Each file starts with
+ * a SHA-256 digest of its key and bytecode, a file that does not match its digest or belongs to another key is cooked
+ * again. The digest only guards against damaged or misplaced files. Ownership and permissions together keep other
+ * users from planting classes: a file or directory another user owns is never trusted, since its owner can change
+ * its permissions at any time.
+ */
+public class UserDefinedJavaClassCache {
+  private static final String EXTENSION = ".classes";
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final int DIGEST_LENGTH = 32;
+
+  /**
+   * Cooks a class.
+   */
+  public interface Cook {
+    /**
+     * @return the cooked class and, to save it, the bytecode of the class and its inner classes by class name
+     */
+    Cooked cook() throws CompileException, IOException, KettleStepException;
+  }
+
+  public static class Cooked {
+    private final Class<?> cookedClass;
+    private final Map<String, byte[]> bytecodes;
+
+    public Cooked( Class<?> cookedClass, Map<String, byte[]> bytecodes ) {
+      this.cookedClass = cookedClass;
+      this.bytecodes = bytecodes;
+    }
+  }
+
+  private final Cache<String, Class<?>> classes;
+  private final File directory;
+
+  /**
+   * @param maxSize
+   *          the maximum number of classes kept in memory
+   * @param directory
+   *          the directory to save the bytecode in, null to only keep the classes in memory
+   */
+  public UserDefinedJavaClassCache( int maxSize, File directory ) {
+    this.classes = CacheBuilder.newBuilder().maximumSize( maxSize ).build();
+    this.directory = directory;
+  }
+
+  /**
+   * @param key
+   *          the hash of the source of the class and of the classes it is cooked against
+   * @param className
+   *          the name of the class
+   * @param parent
+   *          the class loader the class is cooked with, used to load saved bytecode
+   * @param cook
+   *          cooks the class when it is neither in memory nor saved
+   * @return the class
+   */
+  public Class<?> get( String key, String className, ClassLoader parent, Cook cook )
+    throws CompileException, IOException, KettleStepException {
+    try {
+      return classes.get( key, () -> load( key, className, parent, cook ) );
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof CompileException ) {
+        throw (CompileException) cause;
+      }
+      if ( cause instanceof IOException ) {
+        throw (IOException) cause;
+      }
+      if ( cause instanceof KettleStepException ) {
+        throw (KettleStepException) cause;
+      }
+      throw new KettleStepException( cause );
+    } catch ( UncheckedExecutionException | ExecutionError e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  private Class<?> load( String key, String className, ClassLoader parent, Cook cook )
+    throws CompileException, IOException, KettleStepException {
+    if ( directory != null && isPrivate( directory.toPath() ) ) {
+      Map<String, byte[]> bytecodes = read( key );
+      if ( bytecodes != null && bytecodes.containsKey( className ) ) {
+        try {
+          return new BytecodeClassLoader( parent, bytecodes ).loadClass( className );
+        } catch ( ClassNotFoundException | LinkageError e ) {
+          // Saved by another version, or against other classes: cook it again
+        }
+      }
+    }
+
+    Cooked cooked = cook.cook();
+    if ( directory != null && cooked.bytecodes != null ) {
+      try {
+        write( key, cooked.bytecodes );
+      } catch ( IOException e ) {
+        // The class can still be used, it is cooked again after a restart
+      }
+    }
+    return cooked.cookedClass;
+  }
+
+  private Map<String, byte[]> read( String key ) {
+    File file = new File( directory, key + EXTENSION );
+    if ( !file.isFile() || !isPrivate( file.toPath() ) ) {
+      return null;
+    }
+    try {
+      byte[] content = Files.readAllBytes( file.toPath() );
+      if ( content.length < DIGEST_LENGTH || !MessageDigest.isEqual( Arrays.copyOf( content, DIGEST_LENGTH ),
+        digest( Arrays.copyOfRange( content, DIGEST_LENGTH, content.length ) ) ) ) {
+        return null;
+      }
+      DataInputStream in =
+        new DataInputStream( new ByteArrayInputStream( content, DIGEST_LENGTH, content.length - DIGEST_LENGTH ) );
+      if ( !key.equals( in.readUTF() ) ) {
+        return null;
+      }
+      int nrClasses = in.readInt();
+      Map<String, byte[]> bytecodes = new HashMap<>();
+      for ( int i = 0; i < nrClasses; i++ ) {
+        String name = in.readUTF();
+        byte[] bytecode = new byte[in.readInt()];
+        in.readFully( bytecode );
+        bytecodes.put( name, bytecode );
+      }
+      return bytecodes;
+    } catch ( IOException | RuntimeException e ) {
+      // A damaged file is cooked and written again
+      return null;
+    }
+  }
+
+  private void write( String key, Map<String, byte[]> bytecodes ) throws IOException {
+    if ( !directory.isDirectory() ) {
+      try {
+        Files.createDirectories( directory.toPath(),
+          PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rwx------" ) ) );
+      } catch ( UnsupportedOperationException e ) {
+        throw new IOException( "Unable to create the class cache directory [" + directory + "]", e );
+      }
+    }
+    if ( !isPrivate( directory.toPath() ) ) {
+      throw new IOException( "The class cache directory [" + directory + "] is not owned by this user or is writable "
+        + "by other users" );
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try ( DataOutputStream out = new DataOutputStream( body ) ) {
+      out.writeUTF( key );
+      out.writeInt( bytecodes.size() );
+      for ( Map.Entry<String, byte[]> entry : bytecodes.entrySet() ) {
+        out.writeUTF( entry.getKey() );
+        out.writeInt( entry.getValue().length );
+        out.write( entry.getValue() );
+      }
+    }
+    // Written to a temporary file first, so that other servers sharing the directory never read half a file.
+    // Files.createTempFile() only lets the owner read and write it.
+    Path temp = Files.createTempFile( directory.toPath(), "udjc", ".tmp" );
+    try {
+      byte[] content = body.toByteArray();
+      try ( OutputStream out = Files.newOutputStream( temp ) ) {
+        out.write( digest( content ) );
+        out.write( content );
+      }
+      Files.move( temp, new File( directory, key + EXTENSION ).toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    } finally {
+      Files.deleteIfExists( temp );
+    }
+  }
+
+  /**
+   * @return true if the path belongs to the user running this JVM and can not be written by the group or by others,
+   *         false if it can or if that is unknown
+   */
+  static boolean isPrivate( Path path ) {
+    try {
+      UserPrincipal currentUser =
+        path.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName( System.getProperty( "user.name" ) );
+      return isPrivate( path, currentUser );
+    } catch ( IOException | UnsupportedOperationException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * @return true if the path belongs to the user and can not be written by the group or by others, false if it can or
+   *         if that is unknown
+   */
+  static boolean isPrivate( Path path, UserPrincipal user ) {
+    try {
+      if ( !Files.getOwner( path ).equals( user ) ) {
+        return false;
+      }
+      Set<PosixFilePermission> permissions = Files.getPosixFilePermissions( path );
+      return !permissions.contains( PosixFilePermission.GROUP_WRITE )
+        && !permissions.contains( PosixFilePermission.OTHERS_WRITE );
+    } catch ( IOException | UnsupportedOperationException e ) {
+      return false;
+    }
+  }
+
+  private static byte[] digest( byte[] content ) throws IOException {
+    try {
+      return MessageDigest.getInstance( DIGEST_ALGORITHM ).digest( content );
+    } catch ( NoSuchAlgorithmException e ) {
+      throw new IOException( e );
+    }
+  }
+
+  /**
+   * Defines saved classes, looking them up in the parent class loader first like the class loader of Janino does.
+   */
+  private static class BytecodeClassLoader extends ClassLoader {
+    private final Map<String, byte[]> bytecodes;
+
+    BytecodeClassLoader( ClassLoader parent, Map<String, byte[]> bytecodes ) {
+      super( parent );
+      this.bytecodes = bytecodes;
+    }
+
+    @Override
+    protected Class<?> findClass( String name ) throws ClassNotFoundException {
+      byte[] bytecode = bytecodes.get( name );
+      if ( bytecode == null ) {
+        throw new ClassNotFoundException( name );
+      }
+      return defineClass( name, bytecode, 0, bytecode.length );
+    }
+  }
+}
@@ -14,6 +14,7 @@
 package org.pentaho.di.trans.steps.userdefinedjavaclass;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.codehaus.janino.ClassBodyEvaluator;
 import org.codehaus.commons.compiler.CompileException;
 import org.codehaus.janino.Scanner;
@@ -32,6 +33,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.core.xml.XMLHandler;
@@ -48,14 +50,15 @@ import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.fieldsplitter.DataTypeConverter;
 import org.pentaho.di.trans.steps.userdefinedjavaclass.UserDefinedJavaClassDef.ClassType;
+import org.pentaho.di.version.BuildVersion;
 import org.pentaho.metastore.api.IMetaStore;
 import org.w3c.dom.Node;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -84,7 +87,7 @@ public class UserDefinedJavaClassMeta extends BaseStepMeta implements StepMetaIn
   private List<UserDefinedJavaClassDef> definitions = new ArrayList<UserDefinedJavaClassDef>();
   public Class<TransformClassBase> cookedTransformClass;
   public List<Exception> cookErrors = new ArrayList<Exception>( 0 );
-  private static final Cache<String, Class<?>> classCache;
+  private static final UserDefinedJavaClassCache classCache;
 
   @Injection( name = "CLEAR_RESULT_FIELDS" )
   private boolean clearingResultFields;
@@ -108,8 +111,10 @@ public class UserDefinedJavaClassMeta extends BaseStepMeta implements StepMetaIn
     } catch ( Exception ignored ) {
       maxCacheSize = 100; // default to 100 if property not set
     }
+    String cacheDirectory = vs.getVariable( UserDefinedJavaClass.KETTLE_UDJC_CLASS_CACHE_DIR );
     // Initialize Class Cache
-    classCache = CacheBuilder.newBuilder().maximumSize( maxCacheSize ).build();
+    classCache = new UserDefinedJavaClassCache( maxCacheSize,
+      Utils.isEmpty( cacheDirectory ) ? null : new File( cacheDirectory ) );
   }
 
   public static class FieldInfo implements Cloneable {
@@ -149,52 +154,60 @@ public class UserDefinedJavaClassMeta extends BaseStepMeta implements StepMetaIn
 
   @VisibleForTesting
   Class<?> cookClass( UserDefinedJavaClassDef def, ClassLoader clsloader ) throws CompileException, IOException, RuntimeException, KettleStepException {
+    return cookClass( def, clsloader, getCacheKey( def, null ) );
+  }
 
-    String checksum = def.getChecksum();
-    Class<?> rtn = UserDefinedJavaClassMeta.classCache.getIfPresent( checksum );
-    if ( rtn != null ) {
-      return rtn;
-    }
+  private Class<?> cookClass( UserDefinedJavaClassDef def, ClassLoader clsloader, String key ) throws CompileException, IOException, RuntimeException, KettleStepException {
 
     if ( Thread.currentThread().getContextClassLoader() == null ) {
       Thread.currentThread().setContextClassLoader( this.getClass().getClassLoader() );
     }
 
-    ClassBodyEvaluator cbe = new ClassBodyEvaluator();
-    if ( clsloader == null ) {
-      cbe.setParentClassLoader( Thread.currentThread().getContextClassLoader() );
-    } else {
-      cbe.setParentClassLoader( clsloader );
-    }
+    ClassLoader parentClassLoader = clsloader == null ? Thread.currentThread().getContextClassLoader() : clsloader;
 
-    cbe.setClassName( def.getClassName() );
+    return UserDefinedJavaClassMeta.classCache.get( key, def.getClassName(), parentClassLoader, () -> {
+      ClassBodyEvaluator cbe = new ClassBodyEvaluator();
+      cbe.setParentClassLoader( parentClassLoader );
 
-    StringReader sr;
-    if ( def.isTransformClass() ) {
-      cbe.setExtendedType( TransformClassBase.class );
-      sr = new StringReader( def.getTransformedSource() );
-    } else {
-      sr = new StringReader( def.getSource() );
-    }
+      cbe.setClassName( def.getClassName() );
 
-    cbe.setDefaultImports( new String[] {
-      "org.pentaho.di.trans.steps.userdefinedjavaclass.*", "org.pentaho.di.trans.step.*",
-      "org.pentaho.di.core.row.*", "org.pentaho.di.core.*", "org.pentaho.di.core.exception.*" } );
+      StringReader sr;
+      if ( def.isTransformClass() ) {
+        cbe.setExtendedType( TransformClassBase.class );
+        sr = new StringReader( def.getTransformedSource() );
+      } else {
+        sr = new StringReader( def.getSource() );
+      }
+
+      cbe.setDefaultImports( new String[] {
+        "org.pentaho.di.trans.steps.userdefinedjavaclass.*", "org.pentaho.di.trans.step.*",
+        "org.pentaho.di.core.row.*", "org.pentaho.di.core.*", "org.pentaho.di.core.exception.*" } );
+
+      cbe.cook( new Scanner( null, sr ) );
+      return new UserDefinedJavaClassCache.Cooked( cbe.getClazz(), cbe.getBytecodes() );
+    } );
+  }
 
-    cbe.cook( new Scanner( null, sr ) );
-    rtn = cbe.getClazz();
-    UserDefinedJavaClassMeta.classCache.put( checksum, rtn );
-    return rtn;
+  /**
+   * The key of a class in the class cache changes with its type and source, with the classes cooked before it (which it
+   * may use) and with the Kettle version (which saved bytecode was compiled against).
+   */
+  private static String getCacheKey( UserDefinedJavaClassDef def, String previousKey ) throws KettleStepException {
+    String key = BuildVersion.getInstance().getVersion() + ":" + previousKey + ":" + def.getClassType() + ":"
+      + def.getChecksum();
+    return DigestUtils.md5Hex( key.getBytes( StandardCharsets.UTF_8 ) );
   }
 
   @SuppressWarnings( "unchecked" )
   public void cookClasses() {
     cookErrors.clear();
     ClassLoader clsloader = null;
+    String key = null;
     for ( UserDefinedJavaClassDef def : getDefinitions() ) {
       if ( def.isActive() ) {
         try {
-          Class<?> cookedClass = cookClass( def, clsloader );
+          key = getCacheKey( def, key );
+          Class<?> cookedClass = cookClass( def, clsloader, key );
           clsloader = cookedClass.getClassLoader();
           if ( def.isTransformClass() ) {
             cookedTransformClass = (Class<TransformClassBase>) cookedClass;
@@ -201,6 +201,8 @@ public class PrepareExecutionTransServlet extends BaseHttpServlet implements Car
         trans.setArguments( executionConfiguration.getArgumentStrings() );
         trans.setReplayDate( executionConfiguration.getReplayDate() );
         trans.setSafeModeEnabled( executionConfiguration.isSafeModeEnabled() );
+        trans.setStepExecutionMode( executionConfiguration.getStepExecutionMode() );
+        trans.setStepWorkerPoolSize( executionConfiguration.getStepWorkerPoolSize() );
         trans.setGatheringMetrics( executionConfiguration.isGatheringMetrics() );
         trans.injectVariables( executionConfiguration.getVariables() );
         trans.setPreviousResult( executionConfiguration.getPreviousResult() );
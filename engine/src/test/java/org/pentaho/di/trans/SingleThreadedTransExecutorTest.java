@@ -0,0 +1,75 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SingleThreadedTransExecutorTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    KettleEnvironment.init( false );
+  }
+
+  /**
+   * Dummy reads its rows in batches, an iteration must still return once its input is drained.
+   */
+  @Test( timeout = 30000 )
+  public void oneIterationReturnsWhenBatchingStepDrainedItsInput() throws Exception {
+    TransMeta transMeta = TransTestFactory.generateTestTransformation( null, new DummyTransMeta(), "batching" );
+    transMeta.setTransformationType( TransMeta.TransformationType.SingleThreaded );
+
+    Trans trans = new Trans( transMeta );
+    trans.prepareExecution( null );
+    RowProducer producer = trans.addRowProducer( TransTestFactory.INJECTOR_STEPNAME, 0 );
+    RowStepCollector collector = new RowStepCollector();
+    trans.getStepInterface( TransTestFactory.DUMMY_STEPNAME, 0 ).addRowListener( collector );
+    trans.startThreads();
+
+    SingleThreadedTransExecutor executor = new SingleThreadedTransExecutor( trans );
+    executor.init();
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    for ( long i = 0; i < 250; i++ ) {
+      producer.putRow( rowMeta, new Object[] { i } );
+    }
+    executor.oneIteration();
+    assertEquals( 250, collector.getRowsWritten().size() );
+    assertEquals( 249L, collector.getRowsWritten().get( 249 ).getData()[ 0 ] );
+
+    producer.putRow( rowMeta, new Object[] { 250L } );
+    executor.oneIteration();
+    assertEquals( 251, collector.getRowsWritten().size() );
+
+    producer.finished();
+    while ( executor.oneIteration() ) {
+      // run until all the steps are done
+    }
+    assertFalse( trans.isStopped() );
+    executor.dispose();
+  }
+}
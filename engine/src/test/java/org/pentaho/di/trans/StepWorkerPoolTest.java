@@ -0,0 +1,70 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StepWorkerPoolTest {
+
+  @Test
+  public void testBlockedWorkerDoesNotStarveOtherTasks() throws Exception {
+    StepWorkerPool pool = new StepWorkerPool( "test", 1, 2 );
+    try {
+      final CountDownLatch secondTaskRan = new CountDownLatch( 1 );
+      final CountDownLatch firstTaskDone = new CountDownLatch( 1 );
+
+      // The first task occupies the only worker until the second one ran, like a step waiting on another step
+      //
+      pool.execute( () -> {
+        try {
+          if ( secondTaskRan.await( 10, TimeUnit.SECONDS ) ) {
+            firstTaskDone.countDown();
+          }
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+      } );
+      pool.execute( secondTaskRan::countDown );
+
+      assertTrue( firstTaskDone.await( 10, TimeUnit.SECONDS ) );
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testScheduledTaskRuns() throws Exception {
+    StepWorkerPool pool = new StepWorkerPool( "test", 2, 2 );
+    try {
+      final CountDownLatch ran = new CountDownLatch( 1 );
+      pool.schedule( ran::countDown, 1, TimeUnit.MILLISECONDS );
+      assertTrue( ran.await( 10, TimeUnit.SECONDS ) );
+    } finally {
+      pool.shutdown();
+      assertTrue( pool.isShutdown() );
+    }
+  }
+
+  @Test
+  public void testStepExecutionModeByCode() {
+    assertEquals( StepExecutionMode.WORKER_POOL, StepExecutionMode.getStepExecutionModeByCode( "workerpool" ) );
+    assertEquals( StepExecutionMode.THREAD_PER_STEP, StepExecutionMode.getStepExecutionModeByCode( null ) );
+    assertEquals( StepExecutionMode.THREAD_PER_STEP, StepExecutionMode.getStepExecutionModeByCode( "unknown" ) );
+  }
+}
@@ -180,4 +180,18 @@ public class TransExecutionConfigurationTest {
       assertEquals( "xml-copy", tec.getPassedBatchId(), tecCopy.getPassedBatchId() );
     }
   }
+
+  @Test
+  public void testStepExecutionModeXml() throws Exception {
+    TransExecutionConfiguration tec = new TransExecutionConfiguration();
+    assertEquals( StepExecutionMode.THREAD_PER_STEP, tec.getStepExecutionMode() );
+
+    tec.setStepExecutionMode( StepExecutionMode.WORKER_POOL );
+    tec.setStepWorkerPoolSize( 3 );
+    Document doc = XMLHandler.loadXMLString( tec.getXML() );
+    Node node = XMLHandler.getSubNode( doc, TransExecutionConfiguration.XML_TAG );
+    TransExecutionConfiguration tecCopy = new TransExecutionConfiguration( node );
+    assertEquals( StepExecutionMode.WORKER_POOL, tecCopy.getStepExecutionMode() );
+    assertEquals( 3, tecCopy.getStepWorkerPoolSize() );
+  }
 }
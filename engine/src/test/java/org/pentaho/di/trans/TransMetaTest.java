@@ -21,6 +21,7 @@ import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.ProgressMonitorListener;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -35,6 +36,7 @@ import org.pentaho.di.core.row.value.ValueMetaFactory;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.metastore.DatabaseMetaStoreUtil;
 import org.pentaho.di.repository.ObjectRevision;
 import org.pentaho.di.repository.Repository;
@@ -519,6 +521,17 @@ public class TransMetaTest {
     assertNotEquals( oldCacheVersion, currCacheVersion );
   }
 
+  @Test
+  public void testRowSetWaitStrategyXmlRoundTrip() throws Exception {
+    assertEquals( RowSetWaitStrategy.BLOCKING, transMeta.getRowSetWaitStrategy() );
+    transMeta.setRowSetWaitStrategy( RowSetWaitStrategy.YIELD );
+
+    Node transNode = XMLHandler.getSubNode( XMLHandler.loadXMLString( transMeta.getXML() ), TransMeta.XML_TAG );
+    TransMeta loaded = new TransMeta();
+    loaded.loadXML( transNode, null, false );
+    assertEquals( RowSetWaitStrategy.YIELD, loaded.getRowSetWaitStrategy() );
+  }
+
   @Test
   public void testGetCacheVersionWithIrrelevantParameters() throws Exception {
     TransMeta transMeta = new TransMeta( getClass().getResource( "one-step-trans.ktr" ).getPath() );
@@ -353,6 +353,45 @@ public class TransTest {
     verify( trans ).notifyStoppedListeners();
   }
 
+  @Test
+  public void stepWorkerPoolIsShutDownWhenAStepFailsToStart() throws Exception {
+    StepInterface stepMock = mock( StepInterface.class );
+    when( stepMock.isThreadBound() ).thenThrow( new IllegalStateException( "Unable to start" ) );
+    trans.setSteps( of( combi( stepMock, mock( StepDataInterface.class ), mock( StepMeta.class ) ) ) );
+    trans.setStepExecutionMode( StepExecutionMode.WORKER_POOL );
+
+    try ( MockedConstruction<StepWorkerPool> poolMockedConstruction = mockConstruction( StepWorkerPool.class ) ) {
+      try {
+        trans.startThreads();
+        fail( "The step should not have started" );
+      } catch ( IllegalStateException e ) {
+        assertEquals( "Unable to start", e.getMessage() );
+      }
+
+      assertEquals( 1, poolMockedConstruction.constructed().size() );
+      verify( poolMockedConstruction.constructed().get( 0 ) ).shutdown();
+    }
+  }
+
+  @Test
+  public void stepWorkerPoolIsShutDownOnCleanup() throws Exception {
+    StepInterface stepMock = mock( StepInterface.class );
+    trans.setSteps( of( combi( stepMock, mock( StepDataInterface.class ), mock( StepMeta.class ) ) ) );
+    trans.setStepExecutionMode( StepExecutionMode.WORKER_POOL );
+
+    try ( MockedConstruction<StepWorkerPool> poolMockedConstruction = mockConstruction( StepWorkerPool.class ) ) {
+      trans.startThreads();
+      StepWorkerPool pool = poolMockedConstruction.constructed().get( 0 );
+      verify( pool ).execute( any() );
+      verify( pool, times( 0 ) ).shutdown();
+
+      // The step never finishes
+      trans.cleanup();
+
+      verify( pool ).shutdown();
+    }
+  }
+
   private void verifyStopped( StepInterface step, int numberTimesCalled ) throws Exception {
     verify( step, times( numberTimesCalled ) ).setStopped( true );
     verify( step, times( numberTimesCalled ) ).setSafeStopped( true );
@@ -24,7 +24,9 @@ import org.pentaho.di.core.BlockingRowSet;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.SingleRowRowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -59,6 +61,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -164,6 +167,37 @@ public class BaseStepTest {
       .getLogLevel();
   }
 
+  @Test
+  @SuppressWarnings( "deprecation" )
+  public void testDeprecatedCountersFollowTheMetrics() {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.incrementLinesRead();
+    baseStep.incrementLinesRead( 2L );
+    baseStep.decrementLinesRead();
+    baseStep.incrementLinesWritten( 4L );
+    baseStep.incrementLinesInput();
+    baseStep.setLinesOutput( 5L );
+    baseStep.incrementLinesUpdated();
+    baseStep.incrementLinesSkipped();
+    baseStep.incrementLinesRejected();
+
+    assertEquals( 2L, baseStep.linesRead );
+    assertEquals( 4L, baseStep.linesWritten );
+    assertEquals( 1L, baseStep.linesInput );
+    assertEquals( 5L, baseStep.linesOutput );
+    assertEquals( 1L, baseStep.linesUpdated );
+    assertEquals( 1L, baseStep.linesSkipped );
+    assertEquals( 1L, baseStep.linesRejected );
+
+    StepMetricsSnapshot snapshot = baseStep.getMetricsSnapshot();
+    baseStep.setLinesRead( 0L );
+    assertEquals( 0L, baseStep.linesRead );
+    // a snapshot is not affected by later updates
+    assertEquals( 2L, snapshot.getLinesRead() );
+    assertEquals( 5L, snapshot.getLinesOutput() );
+  }
+
   @Test
   public void testStepListenersConcurrentModification() throws InterruptedException {
     // Create a base step
@@ -509,4 +543,97 @@ public class BaseStepTest {
     baseStepSpy.getRow();
     verify( mockHelper.transMeta, times( 1 ) ).checkRowMixingStatically( any( StepMeta.class ), any() );
   }
+
+  @Test
+  public void getRowsReturnsAvailableRowsOfCurrentRowSet() throws KettleException {
+    BaseStep baseStep =
+      spy( new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta,
+        mockHelper.trans ) );
+    doNothing().when( baseStep ).waitUntilTransformationIsStarted();
+    doNothing().when( baseStep ).openRemoteInputStepSocketsOnce();
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    BlockingRowSet rowSet = new BlockingRowSet( 10 );
+    for ( long i = 0; i < 5; i++ ) {
+      rowSet.putRow( rowMeta, new Object[] { i } );
+    }
+    rowSet.setDone();
+    baseStep.setInputRowSets( new ArrayList<>( Collections.singletonList( rowSet ) ) );
+
+    Object[][] batch = baseStep.getRows( 3 );
+    assertEquals( 3, batch.length );
+    assertEquals( 0L, batch[ 0 ][ 0 ] );
+    assertEquals( 2L, batch[ 2 ][ 0 ] );
+
+    batch = baseStep.getRows( 3 );
+    assertEquals( 2, batch.length );
+    assertEquals( 4L, batch[ 1 ][ 0 ] );
+    assertEquals( 5, baseStep.getLinesRead() );
+
+    assertNull( baseStep.getRows( 3 ) );
+  }
+
+  @Test
+  public void putRowsCopiesBatchToAllOutputRowSets() throws KettleException {
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+    RowSet rs1 = new BlockingRowSet( 2 );
+    RowSet rs2 = new QueueRowSet();
+    baseStep.setOutputRowSets( Arrays.asList( rs1, rs2 ) );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    Object[][] rows = new Object[][] { { 1L }, { 2L } };
+    baseStep.putRows( rowMeta, rows, 2 );
+
+    assertEquals( 2, rs1.size() );
+    assertEquals( 2, rs2.size() );
+    assertEquals( 4, baseStep.getLinesWritten() );
+    assertSame( rows[ 0 ], rs1.getRowImmediate() );
+    Object[] copy = rs2.getRowImmediate();
+    assertNotSame( rows[ 0 ], copy );
+    assertEquals( 1L, copy[ 0 ] );
+  }
+
+  @Test( timeout = 5000 )
+  public void putRowsRejectsBatchWithNullRow() throws KettleException {
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    baseStep.setRepartitioning( StepPartitioningMeta.PARTITIONING_METHOD_NONE );
+    RowSet rowSet = new RingBufferRowSet( 4, RowSetWaitStrategy.PARK );
+    baseStep.setOutputRowSets( Collections.singletonList( rowSet ) );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    try {
+      baseStep.putRows( rowMeta, new Object[][] { { 1L }, null, { 3L } }, 3 );
+      fail( "A batch with a null row should be rejected" );
+    } catch ( KettleStepException e ) {
+      // expected
+    }
+
+    // None of the rows of the batch was passed on
+    assertEquals( 0, rowSet.size() );
+    assertEquals( 0, baseStep.getLinesWritten() );
+  }
+
+  @Test
+  public void putRowsWithRowHandlerFallsBackToSingleRows() throws KettleException {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface,
+        0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setRowHandler( rowHandler );
+
+    RowMetaInterface rowMetaInterface = mock( RowMetaInterface.class );
+    Object[][] rows = new Object[][] { { "foo" }, { "bar" } };
+    baseStep.putRows( rowMetaInterface, rows, 2 );
+    verify( rowHandler, times( 1 ) ).putRow( rowMetaInterface, rows[ 0 ] );
+    verify( rowHandler, times( 1 ) ).putRow( rowMetaInterface, rows[ 1 ] );
+  }
 }
@@ -0,0 +1,69 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.step;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class StepMetricsTest {
+
+  @Test
+  public void testAddAndSet() {
+    StepMetrics metrics = new StepMetrics();
+    metrics.addLinesRead( 3L );
+    metrics.addLinesRead( -1L );
+    metrics.addLinesWritten( 5L );
+    metrics.setLinesInput( 7L );
+    metrics.setLinesInput( 8L );
+    metrics.addLinesRejected( 1L );
+
+    assertEquals( 2L, metrics.getLinesRead() );
+    assertEquals( 5L, metrics.getLinesWritten() );
+    assertEquals( 8L, metrics.getLinesInput() );
+    assertEquals( 0L, metrics.getLinesOutput() );
+    assertEquals( 1L, metrics.getLinesRejected() );
+
+    metrics.reset();
+    assertEquals( 0L, metrics.getLinesRead() );
+    assertEquals( 0L, metrics.getLinesInput() );
+  }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    final StepMetrics metrics = new StepMetrics();
+    final int nrThreads = 4;
+    final int nrUpdates = 10000;
+
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < nrThreads; t++ ) {
+      Thread thread = new Thread( () -> {
+        for ( int i = 0; i < nrUpdates; i++ ) {
+          metrics.addLinesRead( 1L );
+          metrics.addLinesWritten( 1L );
+        }
+      } );
+      threads.add( thread );
+      thread.start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+
+    assertEquals( nrThreads * nrUpdates, metrics.getLinesRead() );
+    assertEquals( nrThreads * nrUpdates, metrics.getLinesWritten() );
+  }
+}
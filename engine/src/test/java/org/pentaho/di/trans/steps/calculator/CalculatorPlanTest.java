@@ -0,0 +1,157 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.calculator;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueDataUtil;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CalculatorPlanTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @BeforeClass
+  public static void init() throws KettleException {
+    KettleEnvironment.init( false );
+  }
+
+  @Test
+  public void compiledIntegerArithmeticMatchesValueDataUtil() throws Exception {
+    ValueMetaInterface meta = new ValueMetaInteger( "a" );
+    Object[][] rows = { { 7L, 3L, 5L }, { -9L, 2L, 4L }, { Long.MAX_VALUE, 2L, 3L }, { null, 3L, 1L } };
+    for ( Object[] row : rows ) {
+      assertEquals( ValueDataUtil.plus( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_ADD, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.minus( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_SUBTRACT, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.multiply( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_MULTIPLY, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.divide( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_DIVIDE, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.multiply( meta, row[0], meta, row[0] ),
+        evaluate( CalculatorMetaFunction.CALC_SQUARE, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.percent1( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_PERCENT_1, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.plus3( meta, row[0], meta, row[1], meta, row[2] ),
+        evaluate( CalculatorMetaFunction.CALC_ADD3, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( ValueDataUtil.combination1( meta, row[0], meta, row[1], meta, row[2] ),
+        evaluate( CalculatorMetaFunction.CALC_COMBINATION_1, ValueMetaInterface.TYPE_INTEGER, row ) );
+      assertEquals( row[0], evaluate( CalculatorMetaFunction.CALC_COPY_OF_FIELD, ValueMetaInterface.TYPE_INTEGER,
+        row ) );
+    }
+  }
+
+  @Test
+  public void compiledNumberArithmeticMatchesValueDataUtil() throws Exception {
+    ValueMetaInterface meta = new ValueMetaNumber( "a" );
+    Object[][] rows = { { 7.5D, 0.1D, 0.2D }, { -9.25D, 0.0D, 4.0D }, { 1.0D, null, 3.0D } };
+    for ( Object[] row : rows ) {
+      assertEquals( ValueDataUtil.plus( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_ADD, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.minus( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_SUBTRACT, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.multiply( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_MULTIPLY, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.divide( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_DIVIDE, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.percent1( meta, row[0], meta, row[1] ),
+        evaluate( CalculatorMetaFunction.CALC_PERCENT_1, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.plus3( meta, row[0], meta, row[1], meta, row[2] ),
+        evaluate( CalculatorMetaFunction.CALC_ADD3, ValueMetaInterface.TYPE_NUMBER, row ) );
+      assertEquals( ValueDataUtil.combination1( meta, row[0], meta, row[1], meta, row[2] ),
+        evaluate( CalculatorMetaFunction.CALC_COMBINATION_1, ValueMetaInterface.TYPE_NUMBER, row ) );
+    }
+  }
+
+  @Test
+  public void leavesOtherCalculationsToTheCalculator() throws Exception {
+    // Mixed types, a target type of its own, strings, big numbers, lazy conversion and other functions
+    assertNull( compile( CalculatorMetaFunction.CALC_ADD, new ValueMetaInteger( "a" ), new ValueMetaNumber( "b" ),
+      ValueMetaInterface.TYPE_INTEGER ) );
+    assertNull( compile( CalculatorMetaFunction.CALC_ADD, new ValueMetaInteger( "a" ), new ValueMetaInteger( "b" ),
+      ValueMetaInterface.TYPE_NUMBER ) );
+    assertNull( compile( CalculatorMetaFunction.CALC_ADD, new ValueMetaString( "a" ), new ValueMetaString( "b" ),
+      ValueMetaInterface.TYPE_STRING ) );
+    assertNull( compile( CalculatorMetaFunction.CALC_MULTIPLY, new ValueMetaBigNumber( "a" ),
+      new ValueMetaBigNumber( "b" ), ValueMetaInterface.TYPE_BIGNUMBER ) );
+    assertNull( compile( CalculatorMetaFunction.CALC_REMAINDER, new ValueMetaInteger( "a" ),
+      new ValueMetaInteger( "b" ), ValueMetaInterface.TYPE_INTEGER ) );
+    ValueMetaInterface lazy = new ValueMetaInteger( "a" );
+    lazy.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    assertNull( compile( CalculatorMetaFunction.CALC_ADD, lazy, new ValueMetaInteger( "b" ),
+      ValueMetaInterface.TYPE_INTEGER ) );
+
+    assertNotNull( compile( CalculatorMetaFunction.CALC_COPY_OF_FIELD, new ValueMetaString( "a" ),
+      new ValueMetaString( "b" ), ValueMetaInterface.TYPE_STRING ) );
+  }
+
+  @Test
+  public void skipsCalculationsWithoutAFieldName() throws Exception {
+    // CalculatorMeta.getAllFields() adds no value for a calculation without a field name
+    RowMetaInterface calcRowMeta = new RowMeta();
+    calcRowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    calcRowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+
+    CalculatorMetaFunction function = new CalculatorMetaFunction( "", CalculatorMetaFunction.CALC_ADD, "a", "b", "",
+      ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" );
+    assertNull( CalculatorPlan.compile( function, calcRowMeta, 2, 0, 1, -1 ) );
+
+    function.setFieldName( null );
+    assertNull( CalculatorPlan.compile( function, calcRowMeta, 2, 0, 1, -1 ) );
+
+    // nor compile against a calculation row without the target value
+    function.setFieldName( "result" );
+    assertNull( CalculatorPlan.compile( function, calcRowMeta, 2, 0, 1, -1 ) );
+  }
+
+  private static Object evaluate( int calcType, int type, Object[] values ) throws Exception {
+    ValueMetaInterface metaA = type == ValueMetaInterface.TYPE_INTEGER ? new ValueMetaInteger( "a" )
+      : new ValueMetaNumber( "a" );
+    ValueMetaInterface metaB = type == ValueMetaInterface.TYPE_INTEGER ? new ValueMetaInteger( "b" )
+      : new ValueMetaNumber( "b" );
+    CalculatorPlan.Evaluation evaluation = compile( calcType, metaA, metaB, type );
+    assertNotNull( evaluation );
+    return evaluation.evaluate( new Object[] { values[0], values[1], values[2], null } );
+  }
+
+  private static CalculatorPlan.Evaluation compile( int calcType, ValueMetaInterface metaA,
+                                                    ValueMetaInterface metaB, int targetType ) throws Exception {
+    RowMetaInterface calcRowMeta = new RowMeta();
+    calcRowMeta.addValueMeta( metaA );
+    calcRowMeta.addValueMeta( metaB );
+    ValueMetaInterface metaC = metaB.clone();
+    metaC.setName( "c" );
+    calcRowMeta.addValueMeta( metaC );
+    calcRowMeta.addValueMeta( ValueMetaFactory.createValueMeta( "result", targetType ) );
+
+    CalculatorMetaFunction function = new CalculatorMetaFunction( "result", calcType, "a", "b", "c", targetType,
+      0, 0, false, "", "", "", "" );
+    return CalculatorPlan.compile( function, calcRowMeta, 3, 0, 1, 2 );
+  }
+}
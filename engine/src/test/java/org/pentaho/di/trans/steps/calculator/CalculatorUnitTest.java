@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.calculator;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +28,7 @@ import static org.mockito.Mockito.times;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -858,6 +860,55 @@ public class CalculatorUnitTest {
     }
   }
 
+  @Test
+  public void compiledAndInterpretedCalculationsChain() throws Exception {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "x" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "y" ) );
+
+    RowSet inputRowSet = smh.getMockInputRowSet( new Object[][] {
+      { 3L, -4L, 1.0D, 4.0D }, { null, 2L, 2.0D, 0.5D } } );
+    inputRowSet.setRowMeta( inputRowMeta );
+
+    Calculator calculator = new Calculator( smh.stepMeta, smh.stepDataInterface, 0, smh.transMeta, smh.trans );
+    calculator.addRowSetToInputRowSets( inputRowSet );
+    calculator.setInputRowMeta( inputRowMeta );
+    calculator.init( smh.initStepMetaInterface, smh.initStepDataInterface );
+
+    CalculatorMeta meta = new CalculatorMeta();
+    meta.setCalculation( new CalculatorMetaFunction[] {
+      new CalculatorMetaFunction( "sum", CalculatorMetaFunction.CALC_ADD, "a", "b", null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, true, "", "", "", "" ),
+      new CalculatorMetaFunction( "product", CalculatorMetaFunction.CALC_MULTIPLY, "sum", "b", null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "absolute", CalculatorMetaFunction.CALC_ABS, "product", null, null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "ratio", CalculatorMetaFunction.CALC_DIVIDE, "x", "y", null,
+        ValueMetaInterface.TYPE_NUMBER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "mixed", CalculatorMetaFunction.CALC_ADD, "a", "x", null,
+        ValueMetaInterface.TYPE_NUMBER, 0, 0, false, "", "", "", "" ) } );
+
+    final List<Object[]> written = new ArrayList<Object[]>();
+    calculator.addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+        written.add( row );
+      }
+    } );
+    CalculatorData data = new CalculatorData();
+    calculator.processRow( meta, data );
+    calculator.processRow( meta, data );
+
+    // The sums, products and ratios are compiled, the absolute values and the mixed types are interpreted
+    Assert.assertEquals( 3, CalculatorPlan.count( data.getEvaluations() ) );
+    Assert.assertEquals( 2, written.size() );
+    assertArrayEquals( new Object[] { 3L, -4L, 1.0D, 4.0D, 4L, 4L, 0.25D, 4.0D },
+      Arrays.copyOf( written.get( 0 ), 8 ) );
+    assertArrayEquals( new Object[] { null, 2L, 2.0D, 0.5D, null, null, 4.0D, null },
+      Arrays.copyOf( written.get( 1 ), 8 ) );
+  }
+
   @Test
   public void calculatorDistanceLevenshteinDistance() throws Exception {
     assertCalculatorDistance( CalculatorMetaFunction.CALC_LEVENSHTEIN_DISTANCE, Double.valueOf( "0.0" ), new Object[]{ "abcd", "abcd" }, new int[]{ ValueMetaInterface.TYPE_STRING, ValueMetaInterface.TYPE_STRING } );
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+
+public class SpillPartitionsTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Test
+  public void testKeysOfOnePartitionAreSpreadOverAllPartitionsOfTheNextLevel() {
+    int partitions = SpillPartitions.NR_OF_PARTITIONS;
+    int[] level1 = new int[partitions];
+    int[] level2 = new int[partitions];
+    int inPartition = 0;
+    for ( int hashCode = 0; hashCode < 400000; hashCode++ ) {
+      if ( SpillPartitions.getPartition( hashCode, 0 ) != 3 ) {
+        continue;
+      }
+      inPartition++;
+      int partition = SpillPartitions.getPartition( hashCode, 1 );
+      level1[partition]++;
+      if ( partition == 5 ) {
+        level2[SpillPartitions.getPartition( hashCode, 2 )]++;
+      }
+    }
+
+    for ( int i = 0; i < partitions; i++ ) {
+      assertTrue( "level 1, partition " + i + ": " + level1[i], level1[i] > inPartition / partitions / 2 );
+      assertTrue( "level 2, partition " + i + ": " + level2[i], level2[i] > level1[5] / partitions / 2 );
+    }
+  }
+
+  @Test
+  public void testMemoryBudget() {
+    assertFalse( SpillPartitions.isMemoryBudgetExceeded( 0, 9, 10, -1, true ) );
+    assertTrue( SpillPartitions.isMemoryBudgetExceeded( 0, 10, 10, -1, true ) );
+    assertFalse( SpillPartitions.isMemoryBudgetExceeded( SpillPartitions.MAX_SPILL_LEVEL, 10, 10, -1, true ) );
+    // Too few rows to look at the free memory
+    assertFalse( SpillPartitions.isMemoryBudgetExceeded( 0, 10, -1, 100, true ) );
+    assertTrue( SpillPartitions.isMemoryBudgetExceeded( 0, SpillPartitions.MIN_ROWS_IN_MEMORY, -1, 101, true ) );
+    assertFalse( SpillPartitions.isMemoryBudgetExceeded( 0, SpillPartitions.MIN_ROWS_IN_MEMORY, -1, 101, false ) );
+  }
+
+  @Test
+  public void testRowsAreReadBackInOrder() throws KettleException {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    SpillPartitions partitions = new SpillPartitions( "spilltest", tempFolder.getRoot().getAbsolutePath(),
+      new Variables(), rowMeta, mock( LogChannelInterface.class ) );
+    for ( long id = 0; id < 100; id++ ) {
+      partitions.write( (int) ( id % 2 ), new Object[] { id, "name" + id } );
+    }
+    partitions.closeStreams();
+    assertTrue( partitions.hasRows( 0 ) );
+    assertTrue( partitions.hasRows( 1 ) );
+    assertFalse( partitions.hasRows( 2 ) );
+    assertEquals( 2, tempFolder.getRoot().list().length );
+
+    List<Object[]> rows = new ArrayList<>();
+    partitions.readRows( 1, row -> rows.add( row ) );
+    assertEquals( 50, rows.size() );
+    for ( int i = 0; i < rows.size(); i++ ) {
+      long id = 2 * i + 1;
+      assertArrayEquals( new Object[] { id, "name" + id }, rows.get( i ) );
+    }
+
+    partitions.delete( 1 );
+    assertEquals( 1, tempFolder.getRoot().list().length );
+    partitions.deleteAll();
+    assertEquals( 0, tempFolder.getRoot().list().length );
+  }
+}
@@ -0,0 +1,89 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ByteScannerTest {
+
+  @Test
+  public void testIndexOf() {
+    ByteScanner scanner = new ByteScanner( (byte) ';', (byte) '\r', (byte) '\n' );
+    byte[] bytes = "abcdefghijklmnop;qrstuvwxyz\r\n".getBytes( StandardCharsets.US_ASCII );
+
+    assertEquals( 16, scanner.indexOf( bytes, 0, bytes.length ) );
+    assertEquals( 27, scanner.indexOf( bytes, 17, bytes.length ) );
+    assertEquals( 28, scanner.indexOf( bytes, 28, bytes.length ) );
+    // Nothing found: the end of the range
+    assertEquals( 16, scanner.indexOf( bytes, 2, 16 ) );
+    assertEquals( 5, scanner.indexOf( bytes, 5, 5 ) );
+    assertEquals( 16, scanner.indexOf( ByteBuffer.wrap( bytes ), 0, bytes.length ) );
+  }
+
+  @Test
+  public void testHighBytesAreNotConfused() {
+    // 0x80 and 0x00 bytes would give false positives to a scanner that lets carries cross bytes
+    ByteScanner scanner = new ByteScanner( (byte) 0x7F );
+    byte[] bytes = { (byte) 0x80, 0, (byte) 0xFF, 1, (byte) 0xFE, (byte) 0x80, 0, 0, 0x7F };
+    assertEquals( 8, scanner.indexOf( bytes, 0, bytes.length ) );
+    assertEquals( 5, new ByteScanner( (byte) 0x80 ).indexOf( bytes, 1, bytes.length ) );
+  }
+
+  @Test
+  public void testMatchesByteByByteSearch() {
+    Random random = new Random( 5 );
+    byte[] candidates = { ',', '"', '\n', '\r', (byte) 0x80, (byte) 0xFF, 0 };
+    for ( int test = 0; test < 10000; test++ ) {
+      byte[] bytes = new byte[random.nextInt( 50 )];
+      random.nextBytes( bytes );
+      for ( int i = 0; i < bytes.length; i++ ) {
+        if ( random.nextInt( 5 ) == 0 ) {
+          bytes[i] = candidates[random.nextInt( candidates.length )];
+        }
+      }
+      byte[] stopBytes = new byte[1 + random.nextInt( 3 )];
+      for ( int i = 0; i < stopBytes.length; i++ ) {
+        stopBytes[i] = candidates[random.nextInt( candidates.length )];
+      }
+      int from = random.nextInt( bytes.length + 1 );
+      int to = from + random.nextInt( bytes.length - from + 1 );
+
+      int expected = to;
+      for ( int i = from; i < to && expected == to; i++ ) {
+        for ( byte stopByte : stopBytes ) {
+          if ( bytes[i] == stopByte ) {
+            expected = i;
+          }
+        }
+      }
+
+      ByteScanner scanner = new ByteScanner( stopBytes );
+      assertEquals( expected, scanner.indexOf( bytes, from, to ) );
+      assertEquals( expected, scanner.indexOf( ByteBuffer.wrap( bytes ), from, to ) );
+      assertEquals( expected, scanner.indexOf( ByteBuffer.wrap( bytes ).order( ByteOrder.LITTLE_ENDIAN ), from, to ) );
+    }
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testTooManyStopBytes() {
+    new ByteScanner( (byte) 1, (byte) 2, (byte) 3, (byte) 4 );
+  }
+}
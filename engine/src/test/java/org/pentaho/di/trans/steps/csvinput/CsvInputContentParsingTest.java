@@ -23,6 +23,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import static org.junit.Assert.assertEquals;
+
 public class CsvInputContentParsingTest extends BaseCsvParsingTest {
   @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
 
@@ -209,6 +211,26 @@ public class CsvInputContentParsingTest extends BaseCsvParsingTest {
       { "2", "Test isn't even\nhere", "b" } } );
   }
 
+  @Test
+  public void testEnclosuresWithNewlinePossibleAndReaderThreads() throws Exception {
+    meta.setDelimiter( ";" );
+    meta.setEnclosure( "'" );
+    meta.setNewlinePossibleInFields( true );
+    meta.setReaderThreads( "2" );
+    init( "enclosures.csv" );
+
+    // New lines in fields are read with the NIO buffer
+    assertEquals( 0, data.readerThreads );
+
+    setFields( new TextFileInputField( "Field 1", -1, -1 ), new TextFileInputField( "Field 2", -1, -1 ),
+      new TextFileInputField( "Field 3", -1, -1 ) );
+
+    process();
+
+    check( new Object[][] { { "1", "This line is un-even enclosure-wise because I'm using an escaped enclosure", "a" },
+      { "2", "Test isn't even\nhere", "b" } } );
+  }
+
   @Test( expected = KettleStepException.class )
   public void testNoHeaderOptions() throws Exception {
     meta.setHeaderPresent( false );
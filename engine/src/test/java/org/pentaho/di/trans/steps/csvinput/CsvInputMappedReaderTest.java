@@ -0,0 +1,166 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CsvInputMappedReaderTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsAreSplitOverChunks() throws Exception {
+    String content = "a,1\r\nbb,22\n\nccc,333\r\ndddd,4444\neeeee,55555";
+    for ( int chunkSize = 1; chunkSize <= content.length(); chunkSize++ ) {
+      List<String[]> rows = read( content, 0, ",", "\"", false, 2, chunkSize );
+      assertRows( rows, new String[][] {
+        { "a", "1" }, { "bb", "22" }, { "ccc", "333" }, { "dddd", "4444" }, { "eeeee", "55555" } } );
+    }
+  }
+
+  @Test
+  public void testEnclosedLineEndsAndDelimiters() throws Exception {
+    String content = "h1;h2\n\"a\nb\";\"x;\"\"y\"\"\"\n\"\n\n\";z\nlast;\"open\n";
+    for ( int chunkSize = 1; chunkSize <= content.length(); chunkSize++ ) {
+      List<String[]> rows = read( content, 0, ";", "\"", true, 2, chunkSize );
+      assertRows( rows, new String[][] {
+        { "a\nb", "x;\"y\"" }, { "\n\n", "z" }, { "last", "\"open\n" } } );
+    }
+  }
+
+  @Test
+  public void testMultiByteDelimiterAndMissingFields() throws Exception {
+    String content = "\u00ef\u00bb\u00bfa||b||c||extra\nd\ne||||f\n";
+    for ( int chunkSize = 1; chunkSize <= content.length(); chunkSize++ ) {
+      List<String[]> rows = read( content, 3, "||", null, false, 3, chunkSize );
+      assertRows( rows, new String[][] { { "a", "b", "c" }, { "d", null, null }, { "e", "", "f" } } );
+    }
+  }
+
+  @Test
+  public void testConversionErrors() throws Exception {
+    File file = temporaryFolder.newFile( "numbers.csv" );
+    Files.write( file.toPath(), "name,number\nfirst,1\nsecond,x\nthird,3\n".getBytes( StandardCharsets.ISO_8859_1 ) );
+
+    RowMetaInterface convertRowMeta = new RowMeta();
+    convertRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    convertRowMeta.addValueMeta( new ValueMetaInteger( "number" ) );
+    for ( ValueMetaInterface valueMeta : convertRowMeta.getValueMetaList() ) {
+      valueMeta.setStorageMetadata( new ValueMetaString( valueMeta.getName() ) );
+      valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    }
+
+    try ( RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" ) ) {
+      CsvInputMappedReader reader = new CsvInputMappedReader( randomAccessFile.getChannel(), file.getName(), 0,
+        ",".getBytes(), null, true, new UnnamedFieldsMapping( 2 ), convertRowMeta, 2, 2, 8,
+        CsvInputMappedReader.MAX_OVERLAP, "test" );
+      try {
+        assertArrayEquals( new Object[] { "first", 1L }, Arrays.copyOf( reader.nextRow(), 2 ) );
+        assertNull( reader.getConversionErrors() );
+        assertArrayEquals( new Object[] { "second", null }, Arrays.copyOf( reader.nextRow(), 2 ) );
+        assertNotNull( reader.getConversionErrors() );
+        assertEquals( "number", reader.getConversionErrors().fields.get( 0 ).getName() );
+        assertArrayEquals( new Object[] { "third", 3L }, Arrays.copyOf( reader.nextRow(), 2 ) );
+        assertNull( reader.nextRow() );
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  @Test
+  public void testRecordLargerThanTheMaximumOverlap() throws Exception {
+    StringBuilder content = new StringBuilder( "a,b\n" );
+    for ( int i = 0; i < 200; i++ ) {
+      content.append( 'x' );
+    }
+    content.append( "\nc,d\n" );
+    try {
+      read( content.toString(), 0, ",", null, false, 2, 8, 64 );
+      fail( "A record that doesn't fit in the largest window should not be read" );
+    } catch ( KettleFileException e ) {
+      assertTrue( e.getMessage(), e.getMessage().contains( "offset 4 of file " ) );
+    }
+    try {
+      read( content.toString(), 4, ",", null, true, 2, 8, 64 );
+      fail( "A header that doesn't fit in the largest window should not be skipped" );
+    } catch ( KettleFileException e ) {
+      assertTrue( e.getMessage(), e.getMessage().contains( "offset 4 of file " ) );
+    }
+  }
+
+  private List<String[]> read( String content, int dataStart, String delimiter, String enclosure,
+                               boolean headerPresent, int nrFields, int chunkSize ) throws Exception {
+    return read( content, dataStart, delimiter, enclosure, headerPresent, nrFields, chunkSize,
+      CsvInputMappedReader.MAX_OVERLAP );
+  }
+
+  private List<String[]> read( String content, int dataStart, String delimiter, String enclosure,
+                               boolean headerPresent, int nrFields, int chunkSize, int maxOverlap )
+    throws Exception {
+    File file = temporaryFolder.newFile();
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.ISO_8859_1 ) );
+
+    List<String[]> rows = new ArrayList<>();
+    try ( RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" ) ) {
+      CsvInputMappedReader reader = new CsvInputMappedReader( randomAccessFile.getChannel(), file.getName(),
+        dataStart, delimiter.getBytes( StandardCharsets.ISO_8859_1 ),
+        enclosure == null ? null : enclosure.getBytes( StandardCharsets.ISO_8859_1 ), headerPresent,
+        new UnnamedFieldsMapping( nrFields ), null, nrFields, 3, chunkSize, maxOverlap, "test" );
+      try {
+        for ( Object[] row = reader.nextRow(); row != null; row = reader.nextRow() ) {
+          String[] strings = new String[nrFields];
+          for ( int i = 0; i < nrFields; i++ ) {
+            strings[i] = row[i] == null ? null : new String( (byte[]) row[i], StandardCharsets.ISO_8859_1 );
+          }
+          rows.add( strings );
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return rows;
+  }
+
+  private static void assertRows( List<String[]> rows, String[][] expected ) {
+    assertEquals( expected.length, rows.size() );
+    for ( int i = 0; i < expected.length; i++ ) {
+      assertArrayEquals( expected[i], rows.get( i ) );
+    }
+  }
+}
@@ -45,7 +45,7 @@ public class CsvInputMetaTest implements InitializerInterface<StepMetaInterface>
     KettleEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-        Arrays.asList( "BufferSize", "Delimiter", "Enclosure", "Encoding", "Filename", "FilenameField", "InputFields", "RowNumField",
+        Arrays.asList( "BufferSize", "ReaderThreads", "Delimiter", "Enclosure", "Encoding", "Filename", "FilenameField", "InputFields", "RowNumField",
             "AddResultFile", "HeaderPresent", "IncludingFilename", "LazyConversionActive", "NewlinePossibleInFields", "RunningInParallel" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
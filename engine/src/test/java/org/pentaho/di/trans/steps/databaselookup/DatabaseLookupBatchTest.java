@@ -0,0 +1,265 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.MySQLDatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.RowHandler;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.pentaho.test.util.InternalState.setInternalState;
+
+/**
+ * Looks up batches of rows against a mocked database: the "table" maps an id to the row the database returns for it.
+ */
+public class DatabaseLookupBatchTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private StepMockHelper<DatabaseLookupMeta, DatabaseLookupData> mockHelper;
+  private DatabaseLookupMeta meta;
+  private DatabaseLookupData data;
+  private DatabaseLookup step;
+
+  private final Map<Long, Object[]> table = new HashMap<>();
+  private final List<Integer> queryKeys = new ArrayList<>();
+  private final Deque<Object[]> queryResult = new ArrayDeque<>();
+  private final List<String> output = new ArrayList<>();
+
+  @BeforeClass
+  public static void setUpClass() throws KettleException {
+    KettleEnvironment.init();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    KettleEnvironment.reset();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    mockHelper = new StepMockHelper<>( "Database Lookup", DatabaseLookupMeta.class, DatabaseLookupData.class );
+    when( mockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) )
+      .thenReturn( mockHelper.logChannelInterface );
+
+    MySQLDatabaseMeta mysql = new MySQLDatabaseMeta();
+    mysql.setName( "MySQL" );
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setDatabaseInterface( mysql );
+
+    meta = new DatabaseLookupMeta();
+    meta.setDatabaseMeta( dbMeta );
+    meta.setTablename( "names" );
+    meta.setTableKeyField( new String[] { "id" } );
+    meta.setKeyCondition( new String[] { "=" } );
+    meta.setStreamKeyField1( new String[] { "key" } );
+    meta.setStreamKeyField2( new String[] { null } );
+    meta.setReturnValueField( new String[] { "name" } );
+    meta.setReturnValueNewName( new String[] { "name" } );
+    meta.setReturnValueDefault( new String[] { null } );
+    meta.setReturnValueDefaultType( new int[] { ValueMetaInterface.TYPE_STRING } );
+
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+
+    data = new DatabaseLookupData();
+    data.keynrs = new int[] { 0 };
+    data.keynrs2 = new int[] { -1 };
+    data.conditions = new int[] { DatabaseLookupMeta.CONDITION_EQ };
+    data.allEquals = true;
+    data.nullif = new Object[] { null };
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    data.returnMeta = new RowMeta();
+    data.returnMeta.addValueMeta( new ValueMetaString( "name" ) );
+    data.outputRowMeta = inputRowMeta.clone();
+    data.outputRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    data.db = mock( Database.class );
+    data.batchDb = mockBatchDatabase();
+
+    step = new DatabaseLookup( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta,
+      mockHelper.trans );
+    step.setInputRowMeta( inputRowMeta );
+    step.setRowHandler( new RowHandler() {
+      @Override
+      public Object[] getRow() {
+        return null; // the end of the input
+      }
+
+      @Override
+      public void putRow( RowMetaInterface rowMeta, Object[] row ) {
+        output.add( row[ 0 ] + "=" + row[ 1 ] );
+      }
+
+      @Override
+      public void putError( RowMetaInterface rowMeta, Object[] row, long nrErrors, String errorDescriptions,
+                            String fieldNames, String errorCodes ) {
+        output.add( row[ 0 ] + " failed" );
+      }
+    } );
+    setInternalState( step, "meta", meta );
+    setInternalState( step, "data", data );
+
+    table.put( 1L, new Object[] { 1L, "one" } );
+    table.put( 3L, new Object[] { 3L, "three" } );
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  /**
+   * The batch database returns the rows of the table for the keys of a query, in the order of the keys.
+   */
+  private Database mockBatchDatabase() throws Exception {
+    Database db = mock( Database.class );
+    ResultSet resultSet = mock( ResultSet.class );
+    Answer<ResultSet> openQuery = invocation -> {
+      Object[] keys = invocation.getArgument( 2 );
+      queryKeys.add( keys.length );
+      queryResult.clear();
+      for ( Object key : keys ) {
+        if ( table.containsKey( key ) ) {
+          queryResult.add( table.get( key ) );
+        }
+      }
+      return resultSet;
+    };
+    when( db.openQuery( anyString(), any( RowMetaInterface.class ), any( Object[].class ) ) ).thenAnswer( openQuery );
+    when( db.getRow( resultSet ) ).thenAnswer( invocation -> queryResult.poll() );
+    RowMetaInterface returnedMeta = new RowMeta();
+    returnedMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    returnedMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.getReturnRowMeta() ).thenReturn( returnedMeta );
+    return db;
+  }
+
+  private void lookUp( int batchSize, String... keys ) throws KettleException {
+    meta.setLookupBatchSize( batchSize );
+    step.initBatchLookup();
+    for ( String key : keys ) {
+      assertTrue( step.addToBatch( new Object[] { key } ) );
+    }
+  }
+
+  @Test
+  public void looksUpHitsAndMissesInOneQuery() throws Exception {
+    lookUp( 10, "1", "2", "3" );
+    assertTrue( output.isEmpty() );
+
+    // The end of the input flushes the batch
+    step.processRow( meta, data );
+
+    assertEquals( Arrays.asList( "1=one", "2=null", "3=three" ), output );
+    assertEquals( Arrays.asList( 3 ), queryKeys );
+    // A key the query doesn't return is not found, it is not looked up again by itself
+    verify( data.db, never() ).getLookup( anyBoolean() );
+  }
+
+  @Test
+  public void looksUpDuplicateKeysOnce() throws Exception {
+    lookUp( 10, "3", "1", "3", "3" );
+    step.processRow( meta, data );
+
+    assertEquals( Arrays.asList( "3=three", "1=one", "3=three", "3=three" ), output );
+    assertEquals( Arrays.asList( 2 ), queryKeys );
+  }
+
+  @Test
+  public void looksUpFullBatchesRightAway() throws Exception {
+    lookUp( 2, "1", "3", "4" );
+    assertEquals( Arrays.asList( "1=one", "3=three" ), output );
+    assertEquals( Arrays.asList( 2 ), queryKeys );
+
+    step.processRow( meta, data );
+    assertEquals( Arrays.asList( "1=one", "3=three", "4=null" ), output );
+    assertEquals( Arrays.asList( 2, 1 ), queryKeys );
+  }
+
+  @Test
+  public void splitsBatchesOverTheMaximumNumberOfParameters() throws Exception {
+    int nrKeys = DatabaseLookup.MAX_BATCH_PARAMETERS + 500;
+    String[] keys = new String[ nrKeys ];
+    for ( int i = 0; i < nrKeys; i++ ) {
+      keys[ i ] = String.valueOf( i );
+    }
+    lookUp( nrKeys, keys );
+
+    assertEquals( nrKeys, output.size() );
+    assertEquals( "1=one", output.get( 1 ) );
+    assertEquals( "3=three", output.get( 3 ) );
+    assertEquals( Arrays.asList( DatabaseLookup.MAX_BATCH_PARAMETERS, 500 ), queryKeys );
+  }
+
+  @Test
+  public void keepsTheOrderOfRowsInError() throws Exception {
+    when( mockHelper.stepMeta.isDoingErrorHandling() ).thenReturn( true );
+    lookUp( 10, "1", "not a number", "3" );
+    step.processRow( meta, data );
+
+    assertEquals( Arrays.asList( "1=one", "not a number failed", "3=three" ), output );
+  }
+
+  @Test
+  public void looksUpKeysByThemselvesWhenTheDatabaseMatchesOtherValues() throws Exception {
+    // Like a database comparing strings without regard to case: key 1 returns a row of another key
+    table.put( 1L, new Object[] { 100L, "one hundred" } );
+    RowMetaInterface returnedMeta = new RowMeta();
+    returnedMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( data.db.getReturnRowMeta() ).thenReturn( returnedMeta );
+    when( data.db.getLookup( anyBoolean() ) ).thenReturn( new Object[] { "one hundred" } );
+
+    lookUp( 10, "1", "3" );
+    step.processRow( meta, data );
+
+    assertEquals( Arrays.asList( "1=one hundred", "3=three" ), output );
+    verify( data.db, times( 1 ) ).getLookup( anyBoolean() );
+  }
+}
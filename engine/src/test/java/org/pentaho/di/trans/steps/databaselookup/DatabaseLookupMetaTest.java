@@ -57,9 +57,10 @@ public class DatabaseLookupMetaTest implements InitializerInterface<StepMetaInte
     PluginRegistry.init( false );
     List<String> attributes =
         Arrays.asList( "schemaName", "tablename", "databaseMeta", "orderByClause", "cached",
-            "cacheSize", "loadingAllDataInCache", "failingOnMultipleResults", "eatingRowOnLookupFailure",
-            "streamKeyField1", "streamKeyField2", "keyCondition", "tableKeyField", "returnValueField",
-            "returnValueNewName", "returnValueDefault", "returnValueDefaultType" );
+            "cacheSize", "cacheMemorySize", "lookupBatchSize", "loadingAllDataInCache", "failingOnMultipleResults",
+            "eatingRowOnLookupFailure", "streamKeyField1", "streamKeyField2", "keyCondition", "tableKeyField",
+            "returnValueField", "returnValueNewName", "returnValueDefault", "returnValueDefaultType",
+            "sharedCacheName", "sharedCacheCheckSql", "sharedCacheTimeToLive" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     Map<String, String> setterMap = new HashMap<String, String>();
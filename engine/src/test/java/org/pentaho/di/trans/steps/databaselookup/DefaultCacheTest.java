@@ -23,6 +23,9 @@ import java.util.LinkedHashMap;
 
 import static org.mockito.Mockito.mock;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.pentaho.test.util.InternalState.getInternalState;
 import static org.pentaho.test.util.InternalState.setInternalState;
@@ -308,4 +311,88 @@ public class DefaultCacheTest {
       assertEquals( new Object[]{ i * 100 }[0], result[0] );
     }
   }
+
+  @Test
+  public void storeRowInCacheEvictsLeastRecentlyUsedTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 3 );
+    when( databaseLookupMeta.getCacheSize() ).thenReturn( 3 );
+    setInternalState( databaseLookupData, "allEquals", true );
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    setInternalState( databaseLookupData, "lookupMeta", rowMeta );
+    for ( long i = 1; i <= 3; ++i ) {
+      defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ i }, new Object[]{ i * 100 } );
+    }
+    //Using the first row makes the second one the least recently used
+    assertEquals( 100L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 1L } )[0] );
+    defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ 4L }, new Object[]{ 400L } );
+
+    assertEquals( 100L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 1L } )[0] );
+    assertNull( defaultCache.getRowFromCache( rowMeta, new Object[]{ 2L } ) );
+    assertEquals( 300L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 3L } )[0] );
+    assertEquals( 400L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 4L } )[0] );
+    assertEquals( 1, defaultCache.getEvictions() );
+    assertEquals( 4, defaultCache.getHits() );
+    assertEquals( 1, defaultCache.getMisses() );
+    assertEquals( 3, defaultCache.getPeakSize() );
+  }
+
+  @Test
+  public void storeRowInCacheMaxMemoryTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 16 );
+    when( databaseLookupMeta.getCacheMemorySize() ).thenReturn( 1 );
+    setInternalState( databaseLookupData, "allEquals", true );
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    //Every row holds about 100k characters, only ten of them fit in a megabyte
+    String value = new String( new char[ 100000 ] );
+    for ( long i = 1; i <= 50; ++i ) {
+      defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ i }, new Object[]{ value } );
+    }
+    LinkedHashMap<RowMetaAndData, Object[]> map = (LinkedHashMap<RowMetaAndData, Object[]>) getInternalState( defaultCache, "map" );
+    assertEquals( 10, map.size() );
+    assertTrue( defaultCache.getMemoryUsed() <= 1024 * 1024 );
+    assertEquals( 40, defaultCache.getEvictions() );
+    assertTrue( map.containsKey( new RowMetaAndData( rowMeta, new Object[]{ 50L } ) ) );
+  }
+
+  @Test
+  public void getRowFromCacheRangeConditionFollowsEvictionsTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 5 );
+    when( databaseLookupMeta.getCacheSize() ).thenReturn( 5 );
+    setInternalState( databaseLookupData, "allEquals", false );
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    setInternalState( databaseLookupData, "lookupMeta", rowMeta );
+    setInternalState( databaseLookupData, "conditions", new int[]{ DatabaseLookupMeta.CONDITION_LT } );
+    //Stored in descending order: the first matching row is the largest key below the value
+    for ( long i = 10; i >= 1; --i ) {
+      defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ i }, new Object[]{ i * 100 } );
+    }
+    //Only the keys 5 to 1 are left
+    assertNull( defaultCache.getRowFromCache( rowMeta, new Object[]{ 1L } ) );
+    assertEquals( 500L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 11L } )[0] );
+    assertEquals( 300L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 4L } )[0] );
+    assertEquals( 100L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 2L } )[0] );
+  }
+
+  @Test
+  public void getRowFromCacheNotFoundMarkerTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    setInternalState( databaseLookupData, "allEquals", true );
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    setInternalState( databaseLookupData, "lookupMeta", rowMeta );
+    defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ 1L }, DatabaseLookupData.Cache.NOT_FOUND );
+    assertSame( DatabaseLookupData.Cache.NOT_FOUND, defaultCache.getRowFromCache( rowMeta, new Object[]{ 1L } ) );
+    assertNull( defaultCache.getRowFromCache( rowMeta, new Object[]{ 2L } ) );
+  }
 }
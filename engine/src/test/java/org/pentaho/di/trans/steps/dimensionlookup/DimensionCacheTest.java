@@ -14,14 +14,22 @@
 package org.pentaho.di.trans.steps.dimensionlookup;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 
 import org.junit.Test;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.row.value.ValueMetaTimestamp;
 import org.pentaho.di.core.util.Assert;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
 public class DimensionCacheTest {
 
   @Test
@@ -65,6 +73,103 @@ public class DimensionCacheTest {
     assertCompareDateInterval( dc, null, D4, D5, null, -1 ); // NPE
   }
 
+  @Test
+  public void testLookupRow() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+
+    long t0 = 1425300000000L;
+    final Date D1 = new Timestamp( t0 );
+    final Date D2 = new Timestamp( t0 + 3600000L );
+    final Date D3 = new Timestamp( t0 + 3600000L * 2 );
+
+    Object[] a1 = new Object[] { 1L, "A", null, D1 };
+    Object[] a2 = new Object[] { 2L, "A", D1, D3 };
+    Object[] a3 = new Object[] { 3L, "A", D3, null };
+    Object[] b1 = new Object[] { 4L, "B", D2, D3 };
+
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+    dc.setRowCache( new ArrayList<>( Arrays.asList( a3, b1, a1, a2 ) ) );
+    assertEquals( 4, dc.size() );
+
+    assertSame( a1, dc.lookupVersion( new Object[] { null, "A", new Timestamp( t0 - 1L ), null } ) );
+    assertSame( a2, dc.lookupVersion( new Object[] { null, "A", D1, null } ) );
+    assertSame( a2, dc.lookupVersion( new Object[] { null, "A", D2, null } ) );
+    assertSame( a3, dc.lookupVersion( new Object[] { null, "A", D3, null } ) );
+    assertSame( b1, dc.lookupVersion( new Object[] { null, "B", D2, null } ) );
+    // Outside of the date ranges or an unknown natural key
+    assertNull( dc.lookupVersion( new Object[] { null, "B", D1, null } ) );
+    assertNull( dc.lookupVersion( new Object[] { null, "B", D3, null } ) );
+    assertNull( dc.lookupVersion( new Object[] { null, "C", D2, null } ) );
+  }
+
+  @Test
+  public void testAddRowKeepsVersionsOrdered() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "KEY" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 0 }, 1, 2 );
+
+    Object[][] versions = new Object[ 10 ][];
+    for ( int i = 0; i < versions.length; i++ ) {
+      versions[ i ] = new Object[] { 7L, new Timestamp( i * 1000L ), new Timestamp( ( i + 1 ) * 1000L ) };
+    }
+    // Out of order, no sorting needed afterwards
+    for ( int i : new int[] { 5, 0, 9, 3, 1, 8, 2, 7, 4, 6 } ) {
+      dc.addRow( versions[ i ] );
+    }
+
+    for ( int i = 0; i < versions.length; i++ ) {
+      assertSame( versions[ i ], dc.lookupVersion( new Object[] { 7L, new Timestamp( i * 1000L + 500L ), null } ) );
+    }
+    assertNull( dc.lookupVersion( new Object[] { 7L, new Timestamp( 10000L ), null } ) );
+    assertNull( dc.lookupVersion( new Object[] { 8L, new Timestamp( 500L ), null } ) );
+  }
+
+  @Test
+  public void testSettersBeforeTheRowMetaAndKeyAreKnown() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "KEY" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    Object[] row = new Object[] { 7L, new Timestamp( 0L ), null };
+
+    DimensionCache dc = new DimensionCache( null, null, 1, 2 );
+    dc.setRowCache( new ArrayList<>( Arrays.asList( new Object[][] { row } ) ) );
+    dc.setFromDateIndex( 1 );
+    assertNull( dc.lookupVersion( new Object[] { 7L, new Timestamp( 500L ), null } ) );
+    dc.setRowMeta( rowMeta );
+    assertNull( dc.lookupVersion( new Object[] { 7L, new Timestamp( 500L ), null } ) );
+    dc.setKeyIndexes( new int[] { 0 } );
+    assertSame( row, dc.lookupVersion( new Object[] { 7L, new Timestamp( 500L ), null } ) );
+  }
+
+  @Test
+  @SuppressWarnings( "deprecation" )
+  public void testLegacyLookupRowAfterSortRows() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "KEY" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 0 }, 1, 2 );
+
+    Object[] v2 = new Object[] { 7L, new Timestamp( 1000L ), new Timestamp( 2000L ) };
+    Object[] v1 = new Object[] { 7L, new Timestamp( 0L ), new Timestamp( 1000L ) };
+    Object[] v3 = new Object[] { 7L, new Timestamp( 2000L ), new Timestamp( 3000L ) };
+    dc.addRow( v2 );
+    dc.addRow( 0, v3 );
+    dc.addRow( v1 );
+    dc.sortRows();
+
+    int index = dc.lookupRow( new Object[] { 7L, new Timestamp( 500L ), null } );
+    assertSame( v1, dc.getRow( index ) );
+    assertSame( v1, dc.lookupVersion( new Object[] { 7L, new Timestamp( 500L ), null } ) );
+  }
+
   private static void assertCompareDateInterval( DimensionCache dc, Object from1, Object to1, Object from2, Object to2,
       int expectedValue ) {
 
@@ -165,6 +165,30 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.isPreloadingCache();
       }
     } );
+    check( "PRELOAD_THREADS", new IntGetter() {
+      @Override
+      public int get() {
+        return meta.getPreloadThreads();
+      }
+    } );
+    check( "SHARED_CACHE_NAME", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getSharedCacheName();
+      }
+    } );
+    check( "SHARED_CACHE_CHECK_SQL", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getSharedCacheCheckSql();
+      }
+    } );
+    check( "SHARED_CACHE_TTL", new IntGetter() {
+      @Override
+      public int get() {
+        return meta.getSharedCacheTimeToLive();
+      }
+    } );
     check( "CONNECTION_NAME", new StringGetter() {
       public String get() {
         return "My Connection";
@@ -83,7 +83,8 @@ public class DimensionLookupMetaTest implements InitializerInterface<StepMetaInt
         Arrays.asList( "schemaName", "tableName", "update", "dateField", "dateFrom", "dateTo", "keyField", "keyRename",
             "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "minYear", "maxYear", "techKeyCreation",
             "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "keyStream",
-            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
+            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName",
+            "preloadThreads", "sharedCacheName", "sharedCacheCheckSql", "sharedCacheTimeToLive" );
 
     Map<String, String> getterMap = new HashMap<>() {
       {
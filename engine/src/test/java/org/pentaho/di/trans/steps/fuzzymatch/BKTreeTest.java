@@ -0,0 +1,72 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fuzzymatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class BKTreeTest {
+
+  @Test
+  public void testSearch() {
+    BKTree tree = new BKTree();
+    String[] values = { "john", "jon", "joan", "catrine", "catriny", "john" };
+    for ( int i = 0; i < values.length; i++ ) {
+      tree.add( values[i], i );
+    }
+    assertArrayEquals( new int[] { 0, 5 }, tree.search( "john", 0 ) );
+    assertArrayEquals( new int[] { 0, 1, 2, 5 }, tree.search( "john", 1 ) );
+    assertArrayEquals( new int[] { 3, 4 }, tree.search( "katrine", 2 ) );
+    assertArrayEquals( new int[0], tree.search( "john", -1 ) );
+    assertArrayEquals( new int[0], new BKTree().search( "john", 5 ) );
+  }
+
+  @Test
+  public void testMatchesFullScan() {
+    Random random = new Random( 21 );
+    for ( int test = 0; test < 200; test++ ) {
+      BKTree tree = new BKTree();
+      String[] values = new String[random.nextInt( 100 )];
+      for ( int i = 0; i < values.length; i++ ) {
+        values[i] = randomString( random );
+        tree.add( values[i], i );
+      }
+      for ( int query = 0; query < 20; query++ ) {
+        String key = randomString( random );
+        int maxDistance = random.nextInt( 5 );
+        int[] expected = new int[values.length];
+        int nrExpected = 0;
+        for ( int i = 0; i < values.length; i++ ) {
+          if ( StringUtils.getLevenshteinDistance( values[i], key ) <= maxDistance ) {
+            expected[nrExpected++] = i;
+          }
+        }
+        assertArrayEquals( Arrays.copyOf( expected, nrExpected ), tree.search( key, maxDistance ) );
+      }
+    }
+  }
+
+  static String randomString( Random random ) {
+    StringBuilder string = new StringBuilder();
+    for ( int i = random.nextInt( 10 ); i > 0; i-- ) {
+      string.append( "abcde AB".charAt( random.nextInt( 8 ) ) );
+    }
+    return string.toString();
+  }
+}
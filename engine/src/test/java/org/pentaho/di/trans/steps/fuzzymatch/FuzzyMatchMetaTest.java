@@ -38,7 +38,7 @@ public class FuzzyMatchMetaTest {
     List<String> attributes =
         Arrays.asList( "value", "valueName", "algorithm", "lookupfield", "mainstreamfield",
             "outputmatchfield", "outputvaluefield", "caseSensitive", "minimalValue",
-            "maximalValue", "separator", "closervalue" );
+            "maximalValue", "separator", "closervalue", "scoringThreads" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -54,6 +54,7 @@ public class FuzzyMatchMetaTest {
         put( "maximalValue", "getMaximalValue" );
         put( "separator", "getSeparator" );
         put( "closervalue", "isGetCloserValue" );
+        put( "scoringThreads", "getScoringThreads" );
       }
     };
 
@@ -71,6 +72,7 @@ public class FuzzyMatchMetaTest {
         put( "maximalValue", "setMaximalValue" );
         put( "separator", "setSeparator" );
         put( "closervalue", "setGetCloserValue" );
+        put( "scoringThreads", "setScoringThreads" );
       }
     };
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
@@ -0,0 +1,85 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fuzzymatch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QGramIndexTest {
+
+  @Test
+  public void testLetterPairs() {
+    String[] values = { "France", "French Republic", "Frank", "Spain", "" };
+    QGramIndex index = QGramIndex.letterPairs( values );
+
+    // FR, RA, AN, NC, CE: France shares all, French Republic FR and NC, Frank FR, RA and AN
+    assertArrayEquals( new int[] { 0, 1, 2 }, index.search( "france", 0, QGramIndex.LETTER_PAIRS ) );
+    assertArrayEquals( new int[] { 0, 2 }, index.search( "france", 0.6, QGramIndex.LETTER_PAIRS ) );
+    assertArrayEquals( new int[] { 0 }, index.search( "france", 1, QGramIndex.LETTER_PAIRS ) );
+    assertArrayEquals( new int[0], index.search( "x", 0, QGramIndex.LETTER_PAIRS ) );
+    // A key without grams finds nothing, not even the empty value
+    assertArrayEquals( new int[0], index.search( "", 0, QGramIndex.LETTER_PAIRS ) );
+    assertArrayEquals( new int[0], index.search( "", 1, QGramIndex.LETTER_PAIRS ) );
+  }
+
+  @Test
+  public void testLetterPairsMatchFullScan() {
+    Random random = new Random( 21 );
+    for ( int test = 0; test < 200; test++ ) {
+      String[] values = new String[random.nextInt( 100 )];
+      for ( int i = 0; i < values.length; i++ ) {
+        values[i] = BKTreeTest.randomString( random );
+      }
+      QGramIndex index = QGramIndex.letterPairs( values );
+      for ( int query = 0; query < 20; query++ ) {
+        String key = BKTreeTest.randomString( random );
+        if ( key.isEmpty() ) {
+          // The step compares an empty key with all the values itself
+          continue;
+        }
+        double minimalSimilarity = random.nextInt( 4 ) == 0 ? 0 : random.nextDouble();
+        int[] expected = new int[values.length];
+        int nrExpected = 0;
+        for ( int i = 0; i < values.length; i++ ) {
+          double similarity = LetterPairSimilarity.getSimiliarity( values[i], key );
+          if ( minimalSimilarity <= 0 ? similarity > 0 : similarity >= minimalSimilarity ) {
+            expected[nrExpected++] = i;
+          }
+        }
+        // The letter pair bound is exact
+        assertArrayEquals( Arrays.copyOf( expected, nrExpected ),
+          index.search( key, minimalSimilarity, QGramIndex.LETTER_PAIRS ) );
+      }
+    }
+  }
+
+  @Test
+  public void testCharactersSkipValuesThatCanNotBeSimilarEnough() {
+    String[] values = { "Martha", "MARHTA", "Marhta Stewart", "Marcel", "Dixon" };
+    QGramIndex index = QGramIndex.characters( values );
+
+    // Characters are shared regardless of case
+    assertArrayEquals( new int[] { 0, 1, 2, 3 }, index.search( "martha", 0, QGramIndex.JARO ) );
+    // Too long to reach a Jaro similarity of 0.9 with 6 characters
+    assertArrayEquals( new int[] { 0, 1 }, index.search( "martha", 0.9, QGramIndex.JARO ) );
+    // Marcel shares 3 of 6 characters: at most (0.5 + 0.5 + 1) / 3
+    assertArrayEquals( new int[] { 0, 1, 2 }, index.search( "martha", 0.7, QGramIndex.JARO ) );
+    assertTrue( QGramIndex.JARO_WINKLER.getMaximum( 6, 6, 3 ) > QGramIndex.JARO.getMaximum( 6, 6, 3 ) );
+  }
+}
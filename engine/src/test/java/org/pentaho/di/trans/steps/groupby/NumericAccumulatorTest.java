@@ -0,0 +1,96 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.groupby;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NumericAccumulatorTest {
+
+  @Test
+  public void testSumAccumulatorByType() {
+    assertTrue( NumericAccumulator.createSum( new ValueMetaInteger( "i" ) ) instanceof NumericAccumulator.LongSum );
+    assertTrue( NumericAccumulator.createSum( new ValueMetaNumber( "n" ) ) instanceof NumericAccumulator.DoubleSum );
+    assertNull( NumericAccumulator.createSum( new ValueMetaBigNumber( "b" ) ) );
+  }
+
+  @Test
+  public void testLongSumIgnoresNulls() throws Exception {
+    ValueMetaInterface meta = new ValueMetaInteger( "i" );
+    NumericAccumulator accumulator = NumericAccumulator.createSum( meta );
+    assertNull( accumulator.getResult() );
+
+    accumulator.add( meta, null );
+    assertNull( accumulator.getResult() );
+
+    accumulator.add( meta, 5L );
+    accumulator.add( meta, null );
+    accumulator.add( meta, -7L );
+    assertEquals( -2L, accumulator.getResult() );
+    assertEquals( 2L, accumulator.getCount() );
+  }
+
+  @Test
+  public void testDoubleSumIsCompensated() throws Exception {
+    ValueMetaInterface meta = new ValueMetaNumber( "n" );
+    NumericAccumulator accumulator = NumericAccumulator.createSum( meta );
+    accumulator.add( meta, 1.0 );
+    accumulator.add( meta, 1e100 );
+    accumulator.add( meta, 1.0 );
+    accumulator.add( meta, -1e100 );
+    assertEquals( 2.0, (Double) accumulator.getResult(), 0.0 );
+
+    accumulator = NumericAccumulator.createSum( meta );
+    for ( int i = 0; i < 10; i++ ) {
+      accumulator.add( meta, 0.1 );
+    }
+    assertEquals( 1.0, (Double) accumulator.getResult(), 0.0 );
+
+    accumulator.add( meta, Double.POSITIVE_INFINITY );
+    assertEquals( Double.POSITIVE_INFINITY, (Double) accumulator.getResult(), 0.0 );
+  }
+
+  @Test
+  public void testDoubleSumConvertsStrings() throws Exception {
+    ValueMetaInterface meta = new ValueMetaString( "s" );
+    NumericAccumulator accumulator = NumericAccumulator.createSum( new ValueMetaNumber( "n" ) );
+    accumulator.add( meta, "1.5" );
+    accumulator.add( meta, "2" );
+    assertEquals( 3.5, (Double) accumulator.getResult(), 0.0 );
+  }
+
+  @Test
+  public void testStandardDeviation() throws Exception {
+    ValueMetaInterface meta = new ValueMetaInteger( "i" );
+    NumericAccumulator population = NumericAccumulator.createStandardDeviation( false );
+    NumericAccumulator sample = NumericAccumulator.createStandardDeviation( true );
+    assertNull( population.getResult() );
+
+    for ( long value : new long[] { 2, 4, 4, 4, 5, 5, 7, 9 } ) {
+      population.add( meta, value );
+      sample.add( meta, value );
+    }
+    population.add( meta, null );
+    assertEquals( 2.0, (Double) population.getResult(), 1e-12 );
+    assertEquals( Math.sqrt( 32.0 / 7 ), (Double) sample.getResult(), 1e-12 );
+    assertEquals( 8L, population.getCount() );
+  }
+}
@@ -314,6 +314,36 @@ public class MemoryGroupByAggregationTest {
     assertThat( output.getInteger( "value_count_distinct" ), is( 3L ) );
   }
 
+  @Test
+  public void testLazyConversion() throws Exception {
+    aggregates = Maps.toMap( ImmutableList.of( "sum", "ave", "count" ), Functions.forMap( default_aggregates ) );
+
+    addColumn( lazy( new ValueMetaInteger( "intg" ) ), bytes( "0" ), bytes( "1" ), null, bytes( "10" ) );
+    addColumn( lazy( new ValueMetaNumber( "num" ) ), bytes( "-1.0" ), null, bytes( "2.5" ), null );
+
+    RowMetaAndData output = runStep();
+
+    assertThat( output.getInteger( "intg_sum" ), is( 11L ) );
+    assertThat( output.getInteger( "intg_ave" ), is( 3L ) );
+    assertThat( output.getInteger( "intg_count" ), is( 3L ) );
+
+    assertThat( output.getNumber( "num_sum", Double.NaN ), is( 1.5 ) );
+    assertThat( output.getNumber( "num_ave", Double.NaN ), is( 0.75 ) );
+    assertThat( output.getInteger( "num_count" ), is( 2L ) );
+  }
+
+  private static ValueMetaInterface lazy( ValueMetaInterface meta ) {
+    meta.setDecimalSymbol( "." );
+    meta.setGroupingSymbol( "," );
+    meta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    meta.setStorageMetadata( new ValueMetaString( meta.getName() ) );
+    return meta;
+  }
+
+  private static byte[] bytes( String value ) {
+    return value.getBytes();
+  }
+
   private RowMetaAndData runStep() throws KettleException {
     // Allocate meta
     List<String> aggKeys = ImmutableList.copyOf( aggregates.keySet() );
@@ -63,5 +63,29 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
           return meta.isAlwaysGivingBackOneRow();
         }
       } );
+    check( "SPILL_TO_DISK", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isSpillToDisk();
+      }
+    } );
+    check( "MAX_GROUPS_IN_MEMORY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getMaxGroupsInMemory();
+      }
+    } );
+    check( "FREE_MEMORY_LIMIT", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getFreeMemoryLimit();
+      }
+    } );
+    check( "SPILL_DIRECTORY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
   }
 }
@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String STEP_NAME = "testStep";
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Test
+  public void testGroupsThatDontFitInMemoryAreSpilled() throws Exception {
+    Map<Long, Long> sums = runStep( 100, 10 );
+
+    assertSums( 100, sums );
+  }
+
+  @Test
+  public void testSpilledFilesAreSpilledAgain() throws Exception {
+    // 3000 groups and room for 2: the files of the first level hold about 190 groups, those of the second about 12
+    //
+    Map<Long, Long> sums = runStep( 3000, 2 );
+
+    assertSums( 3000, sums );
+  }
+
+  private void assertSums( int nrGroups, Map<Long, Long> sums ) {
+    assertEquals( nrGroups, sums.size() );
+    for ( long group = 0; group < nrGroups; group++ ) {
+      assertEquals( "group " + group, Long.valueOf( 3 * group ), sums.get( group ) );
+    }
+    // The spill files are removed once they are aggregated
+    //
+    assertEquals( 0, tempFolder.getRoot().list().length );
+  }
+
+  /**
+   * Sum "value" by "key" for two rows of every group: the value of a group, then twice that value.
+   *
+   * @return the sum of every group
+   */
+  private Map<Long, Long> runStep( int nrGroups, int maxGroups ) throws KettleException {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.allocate( 1, 1 );
+    meta.getGroupField()[0] = "key";
+    meta.getAggregateField()[0] = "sum";
+    meta.getSubjectField()[0] = "value";
+    meta.getAggregateType()[0] = MemoryGroupByMeta.TYPE_GROUP_SUM;
+    meta.setSpillToDisk( true );
+    meta.setMaxGroupsInMemory( String.valueOf( maxGroups ) );
+    meta.setDirectory( tempFolder.getRoot().getAbsolutePath() );
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+    data.spillToDisk = true;
+    data.maxGroups = maxGroups;
+
+    TransMeta transMeta = new TransMeta();
+    StepMeta stepMeta = new StepMeta( STEP_NAME, meta );
+    transMeta.addStep( stepMeta );
+
+    MemoryGroupBy step = spy( new MemoryGroupBy( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    doNothing().when( step ).putRow( any(), any() );
+    doNothing().when( step ).setOutputDone();
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    doReturn( rowMeta ).when( step ).getInputRowMeta();
+
+    for ( int pass = 1; pass <= 2; pass++ ) {
+      for ( long group = 0; group < nrGroups; group++ ) {
+        doReturn( new Object[] { group, pass * group } ).when( step ).getRow();
+        assertTrue( step.processRow( meta, data ) );
+      }
+    }
+    assertNotNull( data.spillPartitions );
+
+    doReturn( null ).when( step ).getRow();
+    assertFalse( step.processRow( meta, data ) );
+    assertEquals( 0, data.spillLevel );
+
+    ArgumentCaptor<Object[]> rowCaptor = ArgumentCaptor.forClass( Object[].class );
+    verify( step, atLeastOnce() ).putRow( any(), rowCaptor.capture() );
+    List<Object[]> rows = rowCaptor.getAllValues();
+    Map<Long, Long> sums = new HashMap<>();
+    for ( Object[] row : rows ) {
+      assertNull( sums.put( (Long) row[0], (Long) row[1] ) );
+    }
+    return sums;
+  }
+}
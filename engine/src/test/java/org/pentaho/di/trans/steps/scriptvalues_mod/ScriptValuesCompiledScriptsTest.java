@@ -0,0 +1,61 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.scriptvalues_mod;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.pentaho.di.trans.Trans;
+
+public class ScriptValuesCompiledScriptsTest {
+  private Context cx;
+
+  @Before
+  public void setUp() {
+    cx = ContextFactory.getGlobal().enterContext();
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+  }
+
+  @Test
+  public void sharesCompiledScriptsWithinATransformation() {
+    Trans trans = mock( Trans.class );
+    cx.setOptimizationLevel( 9 );
+
+    Script script = ScriptValuesCompiledScripts.compile( trans, cx, "var a = 1;", "script" );
+    assertSame( script, ScriptValuesCompiledScripts.compile( trans, cx, "var a = 1;", "script" ) );
+    assertNotSame( script, ScriptValuesCompiledScripts.compile( trans, cx, "var a = 2;", "script" ) );
+    assertNotSame( script, ScriptValuesCompiledScripts.compile( mock( Trans.class ), cx, "var a = 1;", "script" ) );
+    assertNotSame( script, ScriptValuesCompiledScripts.compile( null, cx, "var a = 1;", "script" ) );
+  }
+
+  @Test
+  public void doesNotShareInterpretedScripts() {
+    Trans trans = mock( Trans.class );
+    cx.setOptimizationLevel( -1 );
+
+    Script script = ScriptValuesCompiledScripts.compile( trans, cx, "var a = 1;", "script" );
+    assertNotSame( script, ScriptValuesCompiledScripts.compile( trans, cx, "var a = 1;", "script" ) );
+  }
+}
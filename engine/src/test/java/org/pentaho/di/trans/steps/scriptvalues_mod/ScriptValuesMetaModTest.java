@@ -53,7 +53,8 @@ public class ScriptValuesMetaModTest implements InitializerInterface<StepMetaInt
     KettleEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-        Arrays.asList( "fieldname", "rename", "type", "length", "precision", "replace", "jsScripts", "compatible", "optimizationLevel" );
+        Arrays.asList( "fieldname", "rename", "type", "length", "precision", "replace", "jsScripts", "compatible", "optimizationLevel",
+          "compiled" );
 
     Map<String, String> getterMap = new HashMap<>() {
       {
@@ -65,6 +66,7 @@ public class ScriptValuesMetaModTest implements InitializerInterface<StepMetaInt
         put( "replace", "getReplace" );
         put( "compatible", "isCompatible" );
         put( "optimizationLevel", "getOptimizationLevel" );
+        put( "compiled", "isCompiled" );
         put( "jsScripts", "getJSScripts" );
       }
     };
@@ -78,6 +80,7 @@ public class ScriptValuesMetaModTest implements InitializerInterface<StepMetaInt
         put( "replace", "setReplace" );
         put( "compatible", "setCompatible" );
         put( "optimizationLevel", "setOptimizationLevel" );
+        put( "compiled", "setCompiled" );
         put( "jsScripts", "setJSScripts" );
       }
     };
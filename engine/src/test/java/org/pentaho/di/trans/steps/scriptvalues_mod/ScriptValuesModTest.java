@@ -20,6 +20,8 @@ import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 import org.pentaho.di.trans.TransTestingUtil;
@@ -103,4 +105,37 @@ public class ScriptValuesModTest {
     Object[] row = TransTestingUtil.execute( step, meta, data, 1, false ).get( 0 );
     TransTestingUtil.assertResult( expectedRow, row );
   }
+
+  @Test
+  public void compiledModeBindsPrimitives() throws Exception {
+    ScriptValuesMod step = StepMockUtil.getStep( ScriptValuesMod.class, ScriptValuesMetaMod.class, "test" );
+
+    RowMeta input = new RowMeta();
+    input.addValueMeta( new ValueMetaBoolean( "flag" ) );
+    input.addValueMeta( new ValueMetaInteger( "count" ) );
+    step.setInputRowMeta( input );
+
+    step = spy( step );
+    doReturn( new Object[] { Boolean.FALSE, 41L } ).when( step ).getRow();
+
+    ScriptValuesMetaMod meta = new ScriptValuesMetaMod();
+    meta.setCompatible( false );
+    meta.setCompiled( true );
+    meta.allocate( 2 );
+    meta.setFieldname( new String[] { "result", "count" } );
+    meta.setType( new int[] { ValueMetaInterface.TYPE_STRING, ValueMetaInterface.TYPE_INTEGER } );
+    meta.setReplace( new boolean[] { false, true } );
+
+    meta.setJSScripts( new ScriptValuesScript[] {
+      new ScriptValuesScript( ScriptValuesScript.TRANSFORM_SCRIPT, "script",
+        "var result = flag ? 'yes' : 'no';\ncount = count + 1;" )
+    } );
+
+    ScriptValuesModData data = new ScriptValuesModData();
+    step.init( meta, data );
+
+    Object[] expectedRow = { Boolean.FALSE, 42L, "no" };
+    Object[] row = TransTestingUtil.execute( step, meta, data, 1, false ).get( 0 );
+    TransTestingUtil.assertResult( expectedRow, row );
+  }
 }
@@ -43,8 +43,10 @@ import org.pentaho.di.trans.steps.mock.StepMockHelper;
 import org.pentaho.di.trans.steps.selectvalues.SelectValuesMeta.SelectField;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
@@ -53,6 +55,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author Andrey Khayrutdinov
@@ -322,6 +327,45 @@ public class SelectValuesTest {
     assertTrue( properException );
   }
 
+  @Test
+  public void errorRowsKeepTheirPlaceInTheBatch() throws Exception {
+    SelectValuesMeta stepMeta = new SelectValuesMeta();
+    stepMeta.allocate( 1, 0, 1 );
+    stepMeta.getSelectFields()[0] = new SelectField();
+    stepMeta.getSelectFields()[0].setName( SELECTED_FIELD );
+    stepMeta.getMeta()[ 0 ] =
+      new SelectMetadataChange( stepMeta, SELECTED_FIELD, null, ValueMetaInterface.TYPE_INTEGER, -2, -2,
+        ValueMetaInterface.STORAGE_TYPE_NORMAL, null, false, null, null, false, null, null, null );
+
+    SelectValuesData stepData = new SelectValuesData();
+    stepData.select = true;
+    stepData.metadata = true;
+    stepData.firstselect = true;
+    stepData.firstmetadata = true;
+
+    final List<String> sent = new ArrayList<>();
+    doReturn( new Object[][] { { "1" }, { "2" }, { "not a number" }, { "4" } } ).when( step ).getRows( anyInt() );
+    doAnswer( invocation -> {
+      Object[][] rows = invocation.getArgument( 1 );
+      int nrRows = invocation.getArgument( 2 );
+      for ( int i = 0; i < nrRows; i++ ) {
+        sent.add( "row " + rows[ i ][ 0 ] );
+      }
+      return null;
+    } ).when( step ).putRows( any( RowMetaInterface.class ), any( Object[][].class ), anyInt() );
+    doAnswer( invocation -> {
+      Object[] row = invocation.getArgument( 1 );
+      sent.add( "error " + row[ 0 ] );
+      return null;
+    } ).when( step )
+      .putError( any( RowMetaInterface.class ), any( Object[].class ), anyLong(), anyString(), anyString(),
+        anyString() );
+
+    step.processRow( stepMeta, stepData );
+
+    assertEquals( Arrays.asList( "row 1", "row 2", "error not a number", "row 4" ), sent );
+  }
+
   public static class SelectValuesHandler extends SelectValues {
     private RowMetaInterface rowMeta;
     private RowSet rowset;
@@ -0,0 +1,92 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.sort;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RowLoserTreeTest {
+
+  private static final Comparator<Object[]> BY_FIRST = ( o1, o2 ) -> Long.compare( (Long) o1[0], (Long) o2[0] );
+
+  private static RowLoserTree.RowSource source( List<Object[]> rows ) {
+    final Iterator<Object[]> iterator = rows.iterator();
+    return () -> iterator.hasNext() ? iterator.next() : null;
+  }
+
+  @Test
+  public void testNoSources() throws Exception {
+    assertNull( new RowLoserTree( new RowLoserTree.RowSource[0], BY_FIRST ).next() );
+  }
+
+  @Test
+  public void testEmptySources() throws Exception {
+    RowLoserTree tree = new RowLoserTree( new RowLoserTree.RowSource[] {
+      source( new ArrayList<>() ), source( new ArrayList<>() ) }, BY_FIRST );
+    assertNull( tree.next() );
+  }
+
+  @Test
+  public void testEqualRowsComeOutInStreamOrder() throws Exception {
+    Object[] r0 = new Object[] { 1L, "a" };
+    Object[] r1 = new Object[] { 1L, "b" };
+    Object[] r2 = new Object[] { 1L, "c" };
+    RowLoserTree tree = new RowLoserTree( new RowLoserTree.RowSource[] {
+      source( Arrays.<Object[]>asList( r0 ) ), source( Arrays.<Object[]>asList( r1 ) ),
+      source( Arrays.<Object[]>asList( r2 ) ) }, BY_FIRST );
+
+    assertSame( r0, tree.next() );
+    assertSame( r1, tree.next() );
+    assertSame( r2, tree.next() );
+    assertNull( tree.next() );
+  }
+
+  @Test
+  public void testMergeRandomStreams() throws Exception {
+    Random random = new Random( 42 );
+    for ( int k = 1; k <= 9; k++ ) {
+      List<Long> expected = new ArrayList<>();
+      RowLoserTree.RowSource[] sources = new RowLoserTree.RowSource[ k ];
+      for ( int s = 0; s < k; s++ ) {
+        List<Object[]> rows = new ArrayList<>();
+        int nrRows = random.nextInt( 50 );
+        for ( int i = 0; i < nrRows; i++ ) {
+          long value = random.nextInt( 100 );
+          rows.add( new Object[] { value } );
+          expected.add( value );
+        }
+        rows.sort( BY_FIRST );
+        sources[ s ] = source( rows );
+      }
+      expected.sort( null );
+
+      RowLoserTree tree = new RowLoserTree( sources, BY_FIRST );
+      List<Long> merged = new ArrayList<>();
+      Object[] row;
+      while ( ( row = tree.next() ) != null ) {
+        merged.add( (Long) row[0] );
+      }
+      assertEquals( expected, merged );
+    }
+  }
+}
@@ -64,6 +64,24 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
         return meta.getCompressFiles();
       }
     } );
+    check( "PARALLEL_SORT", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isParallelSort();
+      }
+    } );
+    check( "COMPRESSION_TYPE", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getCompressionType();
+      }
+    } );
+    check( "NORMALIZED_KEYS", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isNormalizedKeys();
+      }
+    } );
     check( "NAME", new StringGetter() {
       @Override
       public String get() {
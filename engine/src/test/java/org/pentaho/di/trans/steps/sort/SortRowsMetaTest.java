@@ -49,7 +49,8 @@ public class SortRowsMetaTest {
   public void testRoundTrips() throws KettleException {
     List<String> attributes = Arrays.asList( "Directory", "Prefix", "SortSize", "FreeMemoryLimit", "CompressFiles",
       "CompressFilesVariable", "OnlyPassingUniqueRows", "FieldName", "Ascending", "CaseSensitive", "CollatorEnabled",
-      "CollatorStrength", "PreSortedField" );
+      "CollatorStrength", "PreSortedField", "ParallelSort", "CompressionType",
+      "NormalizedKeys" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     Map<String, String> setterMap = new HashMap<String, String>();
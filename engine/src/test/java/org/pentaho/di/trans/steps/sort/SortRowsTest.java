@@ -0,0 +1,151 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+public class SortRowsTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String STEP_NAME = "testStep";
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Test
+  public void testParallelSortInMemory() throws Exception {
+    List<Object[]> rows = runStep( 5000, 4, "1000000" );
+
+    assertSortedAndStable( 5000, rows );
+    assertEquals( 0, tempFolder.getRoot().list().length );
+  }
+
+  @Test
+  public void testParallelSortOfSpilledRows() throws Exception {
+    // Every temp-file is sorted on 4 tasks as well before it is written
+    //
+    List<Object[]> rows = runStep( 5000, 4, "700" );
+
+    assertSortedAndStable( 5000, rows );
+    assertEquals( 0, tempFolder.getRoot().list().length );
+  }
+
+  @Test
+  public void testParallelSortWithMoreTasksThanRows() throws Exception {
+    List<Object[]> rows = runStep( 3, 8, "1000000" );
+
+    assertSortedAndStable( 3, rows );
+  }
+
+  @Test
+  public void testParallelSortOnTheStepThreadOnly() throws Exception {
+    List<Object[]> rows = runStep( 5000, 1, "1000000" );
+
+    assertSortedAndStable( 5000, rows );
+  }
+
+  /**
+   * The keys come out in order, the rows of a key in the order they were read.
+   */
+  private void assertSortedAndStable( int nrRows, List<Object[]> rows ) {
+    assertEquals( nrRows, rows.size() );
+    for ( int i = 1; i < rows.size(); i++ ) {
+      Object[] previous = rows.get( i - 1 );
+      Object[] row = rows.get( i );
+      int cmp = ( (String) previous[0] ).compareTo( (String) row[0] );
+      assertTrue( "row " + i, cmp < 0 || ( cmp == 0 && (Long) previous[1] < (Long) row[1] ) );
+    }
+  }
+
+  /**
+   * Sort rows on a "key" that repeats in a scrambled order, "seq" is the position of the row in the input.
+   *
+   * @return the rows passed on
+   */
+  private List<Object[]> runStep( int nrRows, int nrTasks, String sortSize ) throws KettleException {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.allocate( 1 );
+    meta.getFieldName()[0] = "key";
+    meta.getAscending()[0] = true;
+    meta.getCaseSensitive()[0] = true;
+    meta.setParallelSort( true );
+    meta.setSortSize( sortSize );
+    meta.setDirectory( tempFolder.getRoot().getAbsolutePath() );
+
+    SortRowsData data = new SortRowsData();
+
+    TransMeta transMeta = new TransMeta();
+    StepMeta stepMeta = new StepMeta( STEP_NAME, meta );
+    transMeta.addStep( stepMeta );
+
+    SortRows step = spy( new SortRows( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    doReturn( nrTasks ).when( step ).getNrOfSortTasks( anyInt() );
+    doNothing().when( step ).setOutputDone();
+    final List<Object[]> output = new ArrayList<>();
+    doAnswer( invocation -> {
+      output.add( invocation.getArgument( 1 ) );
+      return null;
+    } ).when( step ).putRow( any(), any() );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "seq" ) );
+    doReturn( rowMeta ).when( step ).getInputRowMeta();
+
+    assertTrue( step.init( meta, data ) );
+    for ( long seq = 0; seq < nrRows; seq++ ) {
+      String key = String.format( "key-%05d", ( seq * 7919 ) % Math.max( 1, nrRows / 3 ) );
+      doReturn( new Object[] { key, seq } ).when( step ).getRow();
+      assertTrue( step.processRow( meta, data ) );
+    }
+    doReturn( null ).when( step ).getRow();
+    assertFalse( step.processRow( meta, data ) );
+    step.dispose( meta, data );
+
+    return output;
+  }
+}
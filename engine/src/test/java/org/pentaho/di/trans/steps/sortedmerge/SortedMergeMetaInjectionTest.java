@@ -39,5 +39,10 @@ public class SortedMergeMetaInjectionTest extends BaseMetadataInjectionTest<Sort
         return meta.getAscending()[0];
       }
     } );
+    check( "NORMALIZED_KEYS", new BooleanGetter() {
+      public boolean get() {
+        return meta.isNormalizedKeys();
+      }
+    } );
   }
 }
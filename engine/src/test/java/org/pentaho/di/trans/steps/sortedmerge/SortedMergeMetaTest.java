@@ -36,15 +36,17 @@ public class SortedMergeMetaTest {
 
   @Test
   public void testRoundTrips() throws KettleException {
-    List<String> attributes = Arrays.asList( "name", "ascending" );
+    List<String> attributes = Arrays.asList( "name", "ascending", "normalizedKeys" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     getterMap.put( "name", "getFieldName" );
     getterMap.put( "ascending", "getAscending" );
+    getterMap.put( "normalizedKeys", "isNormalizedKeys" );
 
     Map<String, String> setterMap = new HashMap<String, String>();
     setterMap.put( "name", "setFieldName" );
     setterMap.put( "ascending", "setAscending" );
+    setterMap.put( "normalizedKeys", "setNormalizedKeys" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<String, FieldLoadSaveValidator<?>>();
@@ -20,12 +20,17 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.After;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import junit.framework.Assert;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
@@ -53,6 +58,8 @@ import org.pentaho.metastore.api.IMetaStore;
 public class StreamLookupTest {
   private StepMockHelper<StreamLookupMeta, StreamLookupData> smh;
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Before
   public void setUp() {
     smh =
@@ -77,8 +84,11 @@ public class StreamLookupTest {
   }
 
   private RowSet mockLookupRowSet( boolean binary ) {
+    return mockLookupRowSet( binary, new Object[][] { { "Value1", "1" }, { "Value2", "2" } } );
+  }
+
+  private RowSet mockLookupRowSet( boolean binary, Object[][] data ) {
     final int storageType = binary ? ValueMetaInterface.STORAGE_TYPE_BINARY_STRING : ValueMetaInterface.STORAGE_TYPE_NORMAL;
-    Object[][] data = { { "Value1", "1" }, { "Value2", "2" } };
 
     if ( binary ) {
       convertDataToBinary( data );
@@ -105,8 +115,11 @@ public class StreamLookupTest {
   }
 
   private RowSet mockDataRowSet( boolean binary ) {
+    return mockDataRowSet( binary, new Object[][] { { "Name1", "1" }, { "Name2", "2" } } );
+  }
+
+  private RowSet mockDataRowSet( boolean binary, Object[][] data ) {
     final int storageType = binary ? ValueMetaInterface.STORAGE_TYPE_BINARY_STRING : ValueMetaInterface.STORAGE_TYPE_NORMAL;
-    Object[][] data = { { "Name1", "1" }, { "Name2", "2" } };
 
     if ( binary ) {
       convertDataToBinary( data );
@@ -190,6 +203,64 @@ public class StreamLookupTest {
     Assert.assertEquals( "Incorrect output row number", 2, rowNumber );
   }
 
+  private void doSpillTest( boolean memoryPreservationActive ) throws KettleException {
+    int nrKeys = 100;
+    Object[][] lookupData = new Object[nrKeys][];
+    Object[][] inputData = new Object[nrKeys + 1][];
+    for ( int i = 0; i < nrKeys; i++ ) {
+      lookupData[i] = new Object[] { "Value" + i, String.valueOf( i ) };
+      inputData[i] = new Object[] { "Name" + i, String.valueOf( i ) };
+    }
+    inputData[nrKeys] = new Object[] { "Unknown", "unknown" };
+
+    StreamLookup step = new StreamLookup( smh.stepMeta, smh.stepDataInterface, 0, smh.transMeta, smh.trans );
+    step.init( smh.initStepMetaInterface, smh.initStepDataInterface );
+    step.addRowSetToInputRowSets( mockLookupRowSet( false, lookupData ) );
+    step.addRowSetToInputRowSets( mockDataRowSet( false, inputData ) );
+    step.addRowSetToOutputRowSets( new QueueRowSet() );
+
+    StreamLookupMeta meta = mockProcessRowMeta( memoryPreservationActive );
+    doReturn( tempFolder.getRoot().getAbsolutePath() ).when( meta ).getDirectory();
+    StreamLookupData data = new StreamLookupData();
+    data.readLookupValues = true;
+    // Room for 5 lookup rows: the 95 others are spread over the partitions, most of them are spilled again
+    data.spillToDisk = true;
+    data.maxRowsInMemory = 5;
+
+    RowSet outputRowSet = step.getOutputRowSets().get( 0 );
+    Map<String, String> output = new HashMap<>();
+    boolean spilled = false;
+    boolean more = true;
+    while ( more ) {
+      more = step.processRow( meta, data );
+      spilled |= data.lookupSpill != null;
+      Object[] rowData;
+      while ( ( rowData = outputRowSet.getRow() ) != null ) {
+        Assert.assertNull( output.put( (String) rowData[0], (String) rowData[2] ) );
+      }
+    }
+
+    Assert.assertTrue( "No lookup row was spilled", spilled );
+    Assert.assertEquals( nrKeys + 1, output.size() );
+    for ( int i = 0; i < nrKeys; i++ ) {
+      Assert.assertEquals( "Value" + i, output.get( "Name" + i ) );
+    }
+    Assert.assertTrue( output.containsKey( "Unknown" ) );
+    Assert.assertNull( output.get( "Unknown" ) );
+    Assert.assertEquals( 0, data.spillLevel );
+    Assert.assertEquals( "The temporary files are removed", 0, tempFolder.getRoot().list().length );
+  }
+
+  @Test
+  public void testSpilledLookupRowsAreJoined() throws KettleException {
+    doSpillTest( false );
+  }
+
+  @Test
+  public void testMemoryPreservationSpilledLookupRowsAreJoined() throws KettleException {
+    doSpillTest( true );
+  }
+
   @Test
   public void testWithNormalStreams() throws KettleException {
     doTest( false, false, false );
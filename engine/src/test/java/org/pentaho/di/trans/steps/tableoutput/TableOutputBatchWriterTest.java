@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TableOutputBatchWriterTest {
+
+  private static final String SQL = "INSERT INTO sas(id) VALUES ( ?)";
+
+  private Database db;
+  private PreparedStatement insertStatement;
+  private RowMetaInterface insertRowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    db = mock( Database.class );
+    insertStatement = mock( PreparedStatement.class );
+    doReturn( insertStatement ).when( db ).prepareSQL( SQL );
+    doReturn( true ).when( db ).getUseBatchInsert( true );
+    insertRowMeta = new RowMeta();
+    insertRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+  }
+
+  @Test
+  public void testEveryBatchIsCommitted() throws Exception {
+    TableOutputBatchWriter writer = createWriter( false, false );
+
+    TableOutputBatchWriter.Batch first = writer.write( batch( 1L, 2L ) ).get();
+    TableOutputBatchWriter.Batch second = writer.write( batch( 3L ) ).get();
+    writer.close( false );
+
+    assertNull( first.batchException );
+    assertArrayEquals( new String[2], first.rowErrors );
+    assertEquals( 1, second.size() );
+    verify( db ).prepareSQL( SQL );
+    verify( db, times( 3 ) ).insertRow( insertStatement, true, false );
+    verify( insertStatement, times( 2 ) ).executeBatch();
+    verify( db, times( 2 ) ).commit();
+    verify( db ).closePreparedStatement( insertStatement );
+    // The connection of the step is disconnected by the step
+    verify( db, never() ).disconnect();
+  }
+
+  @Test
+  public void testRowErrorsAreKeptWithErrorHandling() throws Exception {
+    doThrow( new KettleDatabaseException( "bad row" ) ).doReturn( false )
+      .when( db ).insertRow( insertStatement, true, false );
+    TableOutputBatchWriter writer = createWriter( true, false );
+
+    TableOutputBatchWriter.Batch batch = writer.write( batch( 1L, 2L ) ).get();
+    writer.close( false );
+
+    assertNotNull( batch.rowErrors[0] );
+    assertNull( batch.rowErrors[1] );
+    verify( db ).commit();
+  }
+
+  @Test
+  public void testRowErrorRollsBackWithoutErrorHandling() throws Exception {
+    doThrow( new KettleDatabaseException( "bad row" ) ).when( db ).insertRow( insertStatement, true, false );
+    TableOutputBatchWriter writer = createWriter( false, false );
+
+    try {
+      writer.write( batch( 1L ) ).get();
+      fail( "The row error should stop the step" );
+    } catch ( ExecutionException e ) {
+      assertTrue( e.getCause() instanceof KettleException );
+    }
+    writer.close( true );
+
+    verify( db ).rollback();
+    verify( db, never() ).commit();
+  }
+
+  @Test
+  public void testBatchErrorIsReturned() throws Exception {
+    doThrow( new BatchUpdateException( new int[] { 1, -3 } ) ).when( insertStatement ).executeBatch();
+    TableOutputBatchWriter writer = createWriter( true, false );
+
+    TableOutputBatchWriter.Batch batch = writer.write( batch( 1L, 2L ) ).get();
+    writer.close( false );
+
+    assertNotNull( batch.batchException );
+    assertArrayEquals( new int[] { 1, -3 }, batch.batchException.getUpdateCounts() );
+    verify( db ).clearBatch( insertStatement );
+    verify( db ).commit( true );
+  }
+
+  @Test
+  public void testOwnConnectionIsDisconnected() throws Exception {
+    TableOutputBatchWriter writer =
+      new TableOutputBatchWriter( db, true, "sas", SQL, insertRowMeta, false, false, "writer" );
+    writer.write( batch( 1L ) ).get();
+    writer.close( true );
+
+    verify( db ).rollback();
+    verify( db ).disconnect();
+  }
+
+  private TableOutputBatchWriter createWriter( boolean doingErrorHandling, boolean ignoringErrors ) {
+    return new TableOutputBatchWriter( db, false, "sas", SQL, insertRowMeta, doingErrorHandling, ignoringErrors,
+      "writer" );
+  }
+
+  private static TableOutputBatchWriter.Batch batch( Long... ids ) {
+    TableOutputBatchWriter.Batch batch = new TableOutputBatchWriter.Batch();
+    for ( Long id : ids ) {
+      Object[] row = new Object[] { id };
+      batch.add( row, row );
+    }
+    return batch;
+  }
+}
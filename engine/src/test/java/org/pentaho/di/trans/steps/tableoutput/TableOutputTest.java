@@ -16,6 +16,7 @@ package org.pentaho.di.trans.steps.tableoutput;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseInterface;
 import org.pentaho.di.core.database.DatabaseMeta;
@@ -27,16 +28,21 @@ import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
 
 import java.sql.Connection;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.same;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -93,6 +99,30 @@ public class TableOutputTest {
     tableOutputSpy.writeToTable( mock( RowMetaInterface.class ), new Object[]{} );
   }
 
+  @Test
+  public void testDisposeWritesTheLastBatchOfAStoppedStep() throws Exception {
+    TableOutputBatchWriter writer = mock( TableOutputBatchWriter.class );
+    doAnswer( invocation -> {
+      TableOutputBatchWriter.Batch batch = invocation.getArgument( 0 );
+      batch.rowErrors = new String[batch.size()];
+      return CompletableFuture.completedFuture( batch );
+    } ).when( writer ).write( any() );
+    tableOutputData.db = null;
+    tableOutputData.batchWriters = new TableOutputBatchWriter[] { writer };
+    tableOutputData.pendingBatches = new ArrayDeque<>();
+    tableOutputData.currentBatch = new TableOutputBatchWriter.Batch();
+    Object[] row = new Object[] { 1L };
+    tableOutputData.currentBatch.add( row, row );
+    doNothing().when( tableOutputSpy ).putRow( any(), any() );
+
+    tableOutputSpy.dispose( tableOutputMeta, tableOutputData );
+
+    InOrder inOrder = inOrder( writer, tableOutputSpy );
+    inOrder.verify( writer ).write( any() );
+    inOrder.verify( tableOutputSpy ).putRow( any(), same( row ) );
+    inOrder.verify( writer ).close( false );
+  }
+
   @Test
   public void testTruncateTable_off() throws Exception {
     tableOutputSpy.truncateTable();
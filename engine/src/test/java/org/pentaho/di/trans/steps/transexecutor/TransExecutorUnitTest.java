@@ -42,17 +42,22 @@ import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.steps.StepMockUtil;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -140,6 +145,56 @@ public class TransExecutorUnitTest {
   }
 
 
+  @Test
+  public void testCreateInternalTransClonesMetaForParallelExecutions() throws KettleException {
+    Trans transParentMock = mock( Trans.class );
+    TransExecutorData transExecutorDataMock = mock( TransExecutorData.class );
+    transExecutorDataMock.executionPool = mock( ExecutorService.class );
+    transExecutorDataMock.idleTransMetas = new ArrayDeque<>();
+    TransMeta transMetaMock = mock( TransMeta.class );
+    TransMeta clonedTransMetaMock = mock( TransMeta.class );
+
+    executor.init( meta, data );
+    when( transParentMock.getLogLevel() ).thenReturn( LogLevel.DEBUG );
+    when( executor.getLogLevel() ).thenReturn( LogLevel.DEBUG );
+    when( executor.createInternalTrans() ).thenCallRealMethod();
+    when( executor.getTrans() ).thenReturn( transParentMock );
+    when( executor.getData() ).thenReturn( transExecutorDataMock );
+    when( transMetaMock.clone() ).thenReturn( clonedTransMetaMock );
+    when( clonedTransMetaMock.listVariables() ).thenReturn( new String[0] );
+    when( clonedTransMetaMock.listParameters() ).thenReturn( new String[0] );
+    when( transExecutorDataMock.getExecutorTransMeta() ).thenReturn( transMetaMock );
+
+    Trans internalTrans = executor.createInternalTrans();
+    assertSame( clonedTransMetaMock, internalTrans.getTransMeta() );
+  }
+
+  @Test
+  public void testCreateInternalTransReusesIdleMetaForParallelExecutions() throws KettleException {
+    Trans transParentMock = mock( Trans.class );
+    TransExecutorData transExecutorDataMock = mock( TransExecutorData.class );
+    transExecutorDataMock.executionPool = mock( ExecutorService.class );
+    transExecutorDataMock.idleTransMetas = new ArrayDeque<>();
+    TransMeta transMetaMock = mock( TransMeta.class );
+    TransMeta idleTransMetaMock = mock( TransMeta.class );
+    transExecutorDataMock.idleTransMetas.push( idleTransMetaMock );
+
+    executor.init( meta, data );
+    when( transParentMock.getLogLevel() ).thenReturn( LogLevel.DEBUG );
+    when( executor.getLogLevel() ).thenReturn( LogLevel.DEBUG );
+    when( executor.createInternalTrans() ).thenCallRealMethod();
+    when( executor.getTrans() ).thenReturn( transParentMock );
+    when( executor.getData() ).thenReturn( transExecutorDataMock );
+    when( idleTransMetaMock.listVariables() ).thenReturn( new String[0] );
+    when( idleTransMetaMock.listParameters() ).thenReturn( new String[0] );
+    when( transExecutorDataMock.getExecutorTransMeta() ).thenReturn( transMetaMock );
+
+    Trans internalTrans = executor.createInternalTrans();
+    assertSame( idleTransMetaMock, internalTrans.getTransMeta() );
+    assertTrue( transExecutorDataMock.idleTransMetas.isEmpty() );
+    verify( transMetaMock, never() ).clone();
+  }
+
   @Test
   public void collectsResultsFromInternalTransformation() throws Exception {
     prepareOneRowForExecutor();
@@ -167,6 +222,61 @@ public class TransExecutorUnitTest {
   }
 
 
+  @Test
+  public void collectsResultsOfParallelExecutionsInOrder() throws Exception {
+    doReturn( new Object[] { "row1" } )
+      .doReturn( new Object[] { "row2" } )
+      .doReturn( new Object[] { "row3" } )
+      .doReturn( new Object[] { "row4" } )
+      .doReturn( new Object[] { "row5" } )
+      .doReturn( null )
+      .when( executor ).getRow();
+
+    // Every execution returns its group, the first ones take the longest
+    final AtomicInteger executionNr = new AtomicInteger();
+    doAnswer( invocation -> {
+      Trans trans = spy( new Trans() );
+      trans.setLog( mock( LogChannelInterface.class ) );
+      final long delay = 50L - 10L * executionNr.getAndIncrement();
+      doNothing().when( trans ).prepareExecution( nullable( String[].class ) );
+      doNothing().when( trans ).startThreads();
+      doAnswer( wait -> {
+        Thread.sleep( delay );
+        return null;
+      } ).when( trans ).waitUntilFinished();
+      doAnswer( result -> trans.getPreviousResult() ).when( trans ).getResult();
+      doReturn( mock( TransMeta.class ) ).when( trans ).getTransMeta();
+      return trans;
+    } ).when( executor ).createInternalTrans();
+
+    RowSet rowSet = new QueueRowSet();
+    StepMeta stepMeta = mockStepAndMapItToRowSet( "stepMetaMock", rowSet );
+    meta.setOutputRowsSourceStepMeta( stepMeta );
+    meta.setGroupSize( "1" );
+    meta.setParallelExecutions( "3" );
+
+    Trans parent = new Trans();
+    Mockito.when( executor.getTrans() ).thenReturn( parent );
+
+    executor.init( meta, data );
+    assertNotNull( data.executionPool );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "field" ) );
+    executor.setInputRowMeta( rowMeta );
+    while ( executor.processRow( meta, data ) ) {
+      assertTrue( data.pendingExecutions.size() <= 3 );
+    }
+    assertTrue( data.pendingExecutions.isEmpty() );
+    // Every finished execution gave its TransMeta back
+    assertEquals( 5, data.idleTransMetas.size() );
+    data.executionPool.shutdown();
+
+    for ( int i = 1; i <= 5; i++ ) {
+      assertArrayEquals( new Object[] { "row" + i }, rowSet.getRowImmediate() );
+    }
+    assertNull( rowSet.getRowImmediate() );
+  }
+
   @Test
   public void collectsExecutionResults() throws Exception {
     prepareOneRowForExecutor();
@@ -0,0 +1,108 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.uniquerowsbyhashset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedKeySetTest {
+  private File directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory( "hashed-keys" ).toFile();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory( directory );
+  }
+
+  @Test
+  public void keepsDistinctKeysInMemory() throws Exception {
+    try ( HashedKeySet keys = new HashedKeySet( 0, directory, false ) ) {
+      assertSameAsHashSet( keys, 20000 );
+      assertFalse( keys.isOnDisk() );
+    }
+  }
+
+  @Test
+  public void verifiesKeysAgainstTheKeyFile() throws Exception {
+    try ( HashedKeySet keys = new HashedKeySet( 0, directory, true ) ) {
+      assertSameAsHashSet( keys, 20000 );
+      assertFalse( keys.isOnDisk() );
+    }
+  }
+
+  @Test
+  public void movesToDiskOverTheMemoryLimit() throws Exception {
+    // The first table of 4096 slots of 3 longs takes 96 KB, the table grows to 192 KB and then moves to disk
+    //
+    try ( HashedKeySet keys = new HashedKeySet( 256 * 1024, directory, true ) ) {
+      assertFalse( keys.isOnDisk() );
+      assertSameAsHashSet( keys, 50000 );
+      assertTrue( keys.isOnDisk() );
+    }
+  }
+
+  @Test
+  public void removesItsTemporaryFiles() throws Exception {
+    HashedKeySet keys = new HashedKeySet( 1024, directory, true );
+    for ( int i = 0; i < 10000; i++ ) {
+      keys.add( key( "key" + i ) );
+    }
+    assertTrue( keys.isOnDisk() );
+    assertEquals( 2, directory.list().length );
+
+    keys.close();
+    assertEquals( 0, directory.list().length );
+  }
+
+  @Test
+  public void acceptsTheEmptyKeyOnce() throws Exception {
+    try ( HashedKeySet keys = new HashedKeySet( 0, directory, true ) ) {
+      assertTrue( keys.add( new byte[0] ) );
+      assertFalse( keys.add( new byte[0] ) );
+      assertTrue( keys.add( new byte[1] ) );
+      assertEquals( 2, keys.size() );
+    }
+  }
+
+  private void assertSameAsHashSet( HashedKeySet keys, int nrKeys ) throws Exception {
+    Random random = new Random( 42 );
+    Set<String> reference = new HashSet<>();
+    for ( int i = 0; i < nrKeys; i++ ) {
+      String value = Integer.toString( random.nextInt( nrKeys ) );
+      assertEquals( value, reference.add( value ), keys.add( key( value ) ) );
+    }
+    assertEquals( reference.size(), keys.size() );
+  }
+
+  private static byte[] key( String value ) {
+    return value.getBytes( StandardCharsets.UTF_8 );
+  }
+}
@@ -33,18 +33,25 @@ public class UniqueRowsByHashSetMetaTest {
   @Test
   public void testRoundTrip() throws KettleException {
     List<String> attributes =
-      Arrays.asList( "store_values", "reject_duplicate_row", "error_description", "name" );
+      Arrays.asList( "store_values", "reject_duplicate_row", "error_description", "hash_keys", "memory_limit",
+        "directory", "name" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     getterMap.put( "store_values", "getStoreValues" );
     getterMap.put( "reject_duplicate_row", "isRejectDuplicateRow" );
     getterMap.put( "error_description", "getErrorDescription" );
+    getterMap.put( "hash_keys", "isHashKeys" );
+    getterMap.put( "memory_limit", "getMemoryLimit" );
+    getterMap.put( "directory", "getDirectory" );
     getterMap.put( "name", "getCompareFields" );
 
     Map<String, String> setterMap = new HashMap<String, String>();
     setterMap.put( "store_values", "setStoreValues" );
     setterMap.put( "reject_duplicate_row", "setRejectDuplicateRow" );
     setterMap.put( "error_description", "setErrorDescription" );
+    setterMap.put( "hash_keys", "setHashKeys" );
+    setterMap.put( "memory_limit", "setMemoryLimit" );
+    setterMap.put( "directory", "setDirectory" );
     setterMap.put( "name", "setCompareFields" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.userdefinedjavaclass;
+
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.ClassBodyEvaluator;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserDefinedJavaClassCacheTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void cooksEachClassOnce() throws Exception {
+    UserDefinedJavaClassCache cache = new UserDefinedJavaClassCache( 10, null );
+    AtomicInteger cooks = new AtomicInteger();
+
+    Class<?> first = cache.get( "key", "Answer", getClass().getClassLoader(), () -> {
+      cooks.incrementAndGet();
+      return cook( "Answer" );
+    } );
+    Class<?> second = cache.get( "key", "Answer", getClass().getClassLoader(), () -> {
+      cooks.incrementAndGet();
+      return cook( "Answer" );
+    } );
+
+    Assert.assertSame( first, second );
+    Assert.assertEquals( 1, cooks.get() );
+  }
+
+  @Test
+  public void loadsSavedBytecodeAfterARestart() throws Exception {
+    File directory = privateFolder();
+    Class<?> cooked =
+      new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(), () -> cook(
+        "Answer" ) );
+
+    Class<?> loaded =
+      new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(), () -> {
+        throw new CompileException( "Should have been loaded from disk", null );
+      } );
+
+    Assert.assertNotSame( cooked, loaded );
+    Assert.assertEquals( "Answer", loaded.getName() );
+    Assert.assertEquals( 42, loaded.getMethod( "answer" ).invoke( null ) );
+  }
+
+  @Test
+  public void passesCookErrorsOn() throws Exception {
+    UserDefinedJavaClassCache cache = new UserDefinedJavaClassCache( 10, temporaryFolder.newFolder( "classes" ) );
+    try {
+      cache.get( "key", "Broken", getClass().getClassLoader(), () -> {
+        throw new CompileException( "Broken", null );
+      } );
+      Assert.fail();
+    } catch ( CompileException e ) {
+      Assert.assertEquals( "Broken", e.getMessage() );
+    }
+  }
+
+  @Test
+  public void cooksDamagedBytecodeAgain() throws Exception {
+    File directory = privateFolder();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(),
+      () -> cook( "Answer" ) );
+    File saved = new File( directory, "key.classes" );
+    byte[] content = Files.readAllBytes( saved.toPath() );
+    content[content.length - 1] ^= 1;
+    Files.write( saved.toPath(), content );
+
+    AtomicInteger cooks = new AtomicInteger();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(), () -> {
+      cooks.incrementAndGet();
+      return cook( "Answer" );
+    } );
+    Assert.assertEquals( 1, cooks.get() );
+  }
+
+  @Test
+  public void cooksClassesSavedUnderAnotherKeyAgain() throws Exception {
+    File directory = privateFolder();
+    new UserDefinedJavaClassCache( 10, directory ).get( "other", "Answer", getClass().getClassLoader(),
+      () -> cook( "Answer" ) );
+    Files.copy( new File( directory, "other.classes" ).toPath(), new File( directory, "key.classes" ).toPath() );
+
+    AtomicInteger cooks = new AtomicInteger();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(), () -> {
+      cooks.incrementAndGet();
+      return cook( "Answer" );
+    } );
+    Assert.assertEquals( 1, cooks.get() );
+  }
+
+  @Test
+  public void doesNotTrustDirectoriesOthersCanWrite() throws Exception {
+    File directory = privateFolder();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(),
+      () -> cook( "Answer" ) );
+    Files.setPosixFilePermissions( directory.toPath(), PosixFilePermissions.fromString( "rwxrwxrwx" ) );
+
+    AtomicInteger cooks = new AtomicInteger();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(), () -> {
+      cooks.incrementAndGet();
+      return cook( "Answer" );
+    } );
+    Assert.assertEquals( 1, cooks.get() );
+  }
+
+  @Test
+  public void doesNotTrustFilesOfOtherUsers() throws Exception {
+    File directory = privateFolder();
+    new UserDefinedJavaClassCache( 10, directory ).get( "key", "Answer", getClass().getClassLoader(),
+      () -> cook( "Answer" ) );
+    File saved = new File( directory, "key.classes" );
+    Assert.assertTrue( UserDefinedJavaClassCache.isPrivate( directory.toPath() ) );
+    Assert.assertTrue( UserDefinedJavaClassCache.isPrivate( saved.toPath() ) );
+
+    // The permissions are private, but the owner is not the given user
+    UserPrincipal otherUser = Mockito.mock( UserPrincipal.class );
+    Assert.assertFalse( UserDefinedJavaClassCache.isPrivate( directory.toPath(), otherUser ) );
+    Assert.assertFalse( UserDefinedJavaClassCache.isPrivate( saved.toPath(), otherUser ) );
+    Assert.assertTrue(
+      UserDefinedJavaClassCache.isPrivate( saved.toPath(), Files.getOwner( saved.toPath() ) ) );
+  }
+
+  /**
+   * Saved classes are only trusted on file systems with POSIX permissions, in a directory of the current user that only
+   * this user can write to.
+   */
+  private File privateFolder() throws IOException {
+    File directory = temporaryFolder.newFolder( "classes" );
+    Assume.assumeTrue( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) );
+    Files.setPosixFilePermissions( directory.toPath(), PosixFilePermissions.fromString( "rwx------" ) );
+    return directory;
+  }
+
+  private static UserDefinedJavaClassCache.Cooked cook( String className ) throws CompileException {
+    ClassBodyEvaluator cbe = new ClassBodyEvaluator();
+    cbe.setClassName( className );
+    cbe.cook( "public static int answer() { return 42; }" );
+    return new UserDefinedJavaClassCache.Cooked( cbe.getClazz(), cbe.getBytecodes() );
+  }
+}
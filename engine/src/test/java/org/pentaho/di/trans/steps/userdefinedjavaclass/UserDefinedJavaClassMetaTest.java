@@ -20,6 +20,7 @@ import org.mockito.Mockito;
 import org.pentaho.di.trans.step.StepMeta;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -92,6 +93,30 @@ public class UserDefinedJavaClassMetaTest {
     Assert.assertTrue( clazz3 != clazz1 ); // They should not be the exact same class
   }
 
+  @Test
+  public void cookClassesRecooksClassesUsingAChangedClass() throws Exception {
+    String processCode = "public boolean processRow( StepMetaInterface smi, StepDataInterface sdi )"
+      + " throws KettleException {\n"
+      + "    return Helper.value() > 0;\n"
+      + "}\n";
+    UserDefinedJavaClassDef processClassDef = new UserDefinedJavaClassDef( UserDefinedJavaClassDef.ClassType.TRANSFORM_CLASS, "Processor", processCode );
+
+    UserDefinedJavaClassMeta userDefinedJavaClassMeta1 = new UserDefinedJavaClassMeta();
+    userDefinedJavaClassMeta1.replaceDefinitions( Arrays.asList( processClassDef,
+      new UserDefinedJavaClassDef( UserDefinedJavaClassDef.ClassType.NORMAL_CLASS, "Helper", "public static int value() { return 1; }" ) ) );
+    userDefinedJavaClassMeta1.cookClasses();
+
+    UserDefinedJavaClassMeta userDefinedJavaClassMeta2 = new UserDefinedJavaClassMeta();
+    userDefinedJavaClassMeta2.replaceDefinitions( Arrays.asList( processClassDef,
+      new UserDefinedJavaClassDef( UserDefinedJavaClassDef.ClassType.NORMAL_CLASS, "Helper", "public static int value() { return 2; }" ) ) );
+    userDefinedJavaClassMeta2.cookClasses();
+
+    Assert.assertEquals( 0, userDefinedJavaClassMeta1.cookErrors.size() );
+    Assert.assertEquals( 0, userDefinedJavaClassMeta2.cookErrors.size() );
+    // The unchanged transform class is cooked again against the changed helper class
+    Assert.assertTrue( userDefinedJavaClassMeta1.cookedTransformClass != userDefinedJavaClassMeta2.cookedTransformClass );
+  }
+
   @Test
   public void oderDefinitionTest() throws Exception {
     String codeBlock1 = "public boolean processRow() {\n"
@@ -3900,6 +3900,8 @@ public class TransGraph extends AbstractGraph implements XulEventHandler, Redraw
             + trans.getTransMeta().getName() + "]..." );
 
           trans.setSafeModeEnabled( executionConfiguration.isSafeModeEnabled() );
+          trans.setStepExecutionMode( executionConfiguration.getStepExecutionMode() );
+          trans.setStepWorkerPoolSize( executionConfiguration.getStepWorkerPoolSize() );
           trans.setGatheringMetrics( executionConfiguration.isGatheringMetrics() );
 
           // Launch the step preparation in a different thread.
@@ -4016,6 +4018,8 @@ public class TransGraph extends AbstractGraph implements XulEventHandler, Redraw
         //
         trans = new Trans( transMeta );
         trans.setSafeModeEnabled( executionConfiguration.isSafeModeEnabled() );
+        trans.setStepExecutionMode( executionConfiguration.getStepExecutionMode() );
+        trans.setStepWorkerPoolSize( executionConfiguration.getStepWorkerPoolSize() );
         trans.setPreview( true );
         trans.setGatheringMetrics( executionConfiguration.isGatheringMetrics() );
         trans.setMetaStore( spoon.getMetaStore() );
@@ -44,6 +44,7 @@ import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.Props;
+import org.pentaho.di.core.RowSetWaitStrategy;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.ChannelLogTable;
@@ -197,6 +198,8 @@ public class TransDialog extends Dialog {
 
   private CCombo wTransformationType;
 
+  private CCombo wRowSetWaitStrategy;
+
   private Tabs currentTab = null;
 
   protected boolean changed;
@@ -1963,6 +1966,29 @@ public class TransDialog extends Dialog {
     wTransformationType.setLayoutData( fdTransformationType );
     wTransformationType.setItems( TransformationType.getTransformationTypesDescriptions() );
 
+    // Row set wait strategy ...
+    Label wlRowSetWaitStrategy = new Label( wMiscComp, SWT.RIGHT );
+    wlRowSetWaitStrategy.setText( BaseMessages.getString( PKG, "TransDialog.RowSetWaitStrategy.Label" ) );
+    wlRowSetWaitStrategy.setToolTipText( BaseMessages.getString(
+      PKG, "TransDialog.RowSetWaitStrategy.Tooltip", Const.CR ) );
+    props.setLook( wlRowSetWaitStrategy );
+    FormData fdlRowSetWaitStrategy = new FormData();
+    fdlRowSetWaitStrategy.left = new FormAttachment( 0, 0 );
+    fdlRowSetWaitStrategy.right = new FormAttachment( middle, -margin );
+    fdlRowSetWaitStrategy.top = new FormAttachment( wTransformationType, margin );
+    wlRowSetWaitStrategy.setLayoutData( fdlRowSetWaitStrategy );
+    wRowSetWaitStrategy = new CCombo( wMiscComp, SWT.READ_ONLY | SWT.BORDER );
+    wRowSetWaitStrategy.setToolTipText( BaseMessages.getString(
+      PKG, "TransDialog.RowSetWaitStrategy.Tooltip", Const.CR ) );
+    wRowSetWaitStrategy.addSelectionListener( lsModSel );
+    props.setLook( wRowSetWaitStrategy );
+    FormData fdRowSetWaitStrategy = new FormData();
+    fdRowSetWaitStrategy.left = new FormAttachment( middle, 0 );
+    fdRowSetWaitStrategy.top = new FormAttachment( wTransformationType, margin );
+    fdRowSetWaitStrategy.right = new FormAttachment( 100, 0 );
+    wRowSetWaitStrategy.setLayoutData( fdRowSetWaitStrategy );
+    wRowSetWaitStrategy.setItems( getRowSetWaitStrategyDescriptions() );
+
     FormData fdMiscComp = new FormData();
     fdMiscComp.left = new FormAttachment( 0, 0 );
     fdMiscComp.top = new FormAttachment( 0, 0 );
@@ -1979,6 +2005,15 @@ public class TransDialog extends Dialog {
 
   }
 
+  private static String[] getRowSetWaitStrategyDescriptions() {
+    RowSetWaitStrategy[] strategies = RowSetWaitStrategy.values();
+    String[] descriptions = new String[strategies.length];
+    for ( int i = 0; i < strategies.length; i++ ) {
+      descriptions[i] = BaseMessages.getString( PKG, "TransDialog.RowSetWaitStrategy." + strategies[i].getCode() );
+    }
+    return descriptions;
+  }
+
   private void addMonitoringTab() {
     // ////////////////////////
     // START OF MONITORING TAB///
@@ -2167,6 +2202,7 @@ public class TransDialog extends Dialog {
     wSharedObjectsFile.setText( Const.NVL( transMeta.getSharedObjectsFile(), "" ) );
     wManageThreads.setSelection( transMeta.isUsingThreadPriorityManagment() );
     wTransformationType.setText( transMeta.getTransformationType().getDescription() );
+    wRowSetWaitStrategy.select( transMeta.getRowSetWaitStrategy().ordinal() );
 
     wFields.setRowNums();
     wFields.optWidth( true );
@@ -2306,6 +2342,9 @@ public class TransDialog extends Dialog {
     transMeta.setUsingThreadPriorityManagment( wManageThreads.getSelection() );
     transMeta.setTransformationType( TransformationType.values()[Const.indexOfString( wTransformationType
       .getText(), TransformationType.getTransformationTypesDescriptions() )] );
+    int waitStrategyIndex = wRowSetWaitStrategy.getSelectionIndex();
+    transMeta.setRowSetWaitStrategy( waitStrategyIndex < 0 ? RowSetWaitStrategy.BLOCKING
+      : RowSetWaitStrategy.values()[waitStrategyIndex] );
 
     if ( directoryChangeAllowed && transMeta.getObjectId() != null ) {
       if ( newDirectory != null ) {
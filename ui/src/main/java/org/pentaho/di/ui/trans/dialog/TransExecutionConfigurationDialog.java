@@ -29,6 +29,7 @@ import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.StepExecutionMode;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.ui.core.dialog.ConfigurationDialog;
@@ -43,6 +44,9 @@ import java.util.List;
 public class TransExecutionConfigurationDialog extends ConfigurationDialog {
   private static Class<?> PKG = TransExecutionConfigurationDialog.class; // for i18n purposes, needed by Translator2!!
 
+  private Label wlStepExecutionMode;
+  private CCombo wStepExecutionMode;
+
   public TransExecutionConfigurationDialog( Shell parent, TransExecutionConfiguration configuration,
     TransMeta transMeta ) {
     super( parent, configuration, transMeta );
@@ -100,6 +104,38 @@ public class TransExecutionConfigurationDialog extends ConfigurationDialog {
     fdLogLevel.left = new FormAttachment( wlLogLevel, 6 );
     wLogLevel.setLayoutData( fdLogLevel );
     wLogLevel.setItems( LogLevel.getLogLevelDescriptions() );
+
+    wlStepExecutionMode = new Label( gDetails, SWT.NONE );
+    props.setLook( wlStepExecutionMode );
+    wlStepExecutionMode.setText( BaseMessages.getString( PKG,
+        "TransExecutionConfigurationDialog.StepExecutionMode.Label" ) );
+    wlStepExecutionMode.setToolTipText( BaseMessages.getString( PKG,
+        "TransExecutionConfigurationDialog.StepExecutionMode.Tooltip" ) );
+    FormData fdlStepExecutionMode = new FormData();
+    fdlStepExecutionMode.top = new FormAttachment( wLogLevel, 10 );
+    fdlStepExecutionMode.left = new FormAttachment( 45, 0 );
+    wlStepExecutionMode.setLayoutData( fdlStepExecutionMode );
+
+    wStepExecutionMode = new CCombo( gDetails, SWT.READ_ONLY | SWT.BORDER );
+    wStepExecutionMode.setToolTipText( BaseMessages.getString( PKG,
+        "TransExecutionConfigurationDialog.StepExecutionMode.Tooltip" ) );
+    props.setLook( wStepExecutionMode );
+    FormData fdStepExecutionMode = new FormData();
+    fdStepExecutionMode.top = new FormAttachment( wlStepExecutionMode, -2, SWT.TOP );
+    fdStepExecutionMode.width = 180;
+    fdStepExecutionMode.left = new FormAttachment( wlStepExecutionMode, 6 );
+    wStepExecutionMode.setLayoutData( fdStepExecutionMode );
+    wStepExecutionMode.setItems( getStepExecutionModeDescriptions() );
+  }
+
+  private static String[] getStepExecutionModeDescriptions() {
+    StepExecutionMode[] modes = StepExecutionMode.values();
+    String[] descriptions = new String[ modes.length ];
+    for ( int i = 0; i < modes.length; i++ ) {
+      descriptions[ i ] = BaseMessages.getString( PKG,
+        "TransExecutionConfigurationDialog.StepExecutionMode." + modes[ i ].getCode() );
+    }
+    return descriptions;
   }
 
   public boolean open() {
@@ -171,6 +207,7 @@ public class TransExecutionConfigurationDialog extends ConfigurationDialog {
     }
 
     wLogLevel.select( configuration.getLogLevel().getLevel() );
+    wStepExecutionMode.select( getConfiguration().getStepExecutionMode().ordinal() );
     getParamsData();
     getVariablesData();
   }
@@ -184,6 +221,9 @@ public class TransExecutionConfigurationDialog extends ConfigurationDialog {
       configuration.setClearingLog( wClearLog.getSelection() );
       configuration.setLogLevel( LogLevel.values()[wLogLevel.getSelectionIndex()] );
       configuration.setGatheringMetrics( wGatherMetrics.getSelection() );
+      if ( wStepExecutionMode.getSelectionIndex() >= 0 ) {
+        getConfiguration().setStepExecutionMode( StepExecutionMode.values()[ wStepExecutionMode.getSelectionIndex() ] );
+      }
 
       // The lower part of the dialog...
       getInfoParameters();
@@ -112,6 +112,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   private TextVar wDelimiter;
   private TextVar wEnclosure;
   private TextVar wBufferSize;
+  private TextVar wReaderThreads;
   private Button wLazyConversion;
   private Button wHeaderPresent;
   private FormData fdAddResult;
@@ -356,6 +357,26 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wBufferSize.setLayoutData( fdBufferSize );
     lastControl = wBufferSize;
 
+    // readerThreads
+    Label wlReaderThreads = new Label( shell, SWT.RIGHT );
+    wlReaderThreads.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "READER_THREADS" ) ) );
+    props.setLook( wlReaderThreads );
+    FormData fdlReaderThreads = new FormData();
+    fdlReaderThreads.top = new FormAttachment( lastControl, margin );
+    fdlReaderThreads.left = new FormAttachment( 0, 0 );
+    fdlReaderThreads.right = new FormAttachment( middle, -margin );
+    wlReaderThreads.setLayoutData( fdlReaderThreads );
+    wReaderThreads = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wReaderThreads.setToolTipText( BaseMessages.getString( PKG, inputMeta.getTooltip( "READER_THREADS" ) ) );
+    props.setLook( wReaderThreads );
+    wReaderThreads.addModifyListener( lsMod );
+    FormData fdReaderThreads = new FormData();
+    fdReaderThreads.top = new FormAttachment( lastControl, margin );
+    fdReaderThreads.left = new FormAttachment( middle, 0 );
+    fdReaderThreads.right = new FormAttachment( 100, 0 );
+    wReaderThreads.setLayoutData( fdReaderThreads );
+    lastControl = wReaderThreads;
+
     // performingLazyConversion?
     //
     Label wlLazyConversion = new Label( shell, SWT.RIGHT );
@@ -661,6 +682,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wDelimiter.addSelectionListener( lsDef );
     wEnclosure.addSelectionListener( lsDef );
     wBufferSize.addSelectionListener( lsDef );
+    wReaderThreads.addSelectionListener( lsDef );
     wRowNumField.addSelectionListener( lsDef );
 
     // Allow the insertion of tabs as separator...
@@ -777,6 +799,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wDelimiter.setText( Const.NVL( inputMeta.getDelimiter(), "" ) );
     wEnclosure.setText( Const.NVL( inputMeta.getEnclosure(), "" ) );
     wBufferSize.setText( Const.NVL( inputMeta.getBufferSize(), "" ) );
+    wReaderThreads.setText( Const.NVL( inputMeta.getReaderThreads(), "" ) );
     wLazyConversion.setSelection( inputMeta.isLazyConversionActive() );
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
@@ -834,6 +857,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     inputMeta.setDelimiter( wDelimiter.getText() );
     inputMeta.setEnclosure( wEnclosure.getText() );
     inputMeta.setBufferSize( wBufferSize.getText() );
+    inputMeta.setReaderThreads( wReaderThreads.getText() );
     inputMeta.setLazyConversionActive( wLazyConversion.getSelection() );
     inputMeta.setHeaderPresent( wHeaderPresent.getSelection() );
     inputMeta.setRowNumField( wRowNumField.getText() );
@@ -78,6 +78,26 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
   private Text wCachesize;
   private FormData fdlCachesize, fdCachesize;
 
+  private Label wlCacheMemorySize;
+  private Text wCacheMemorySize;
+  private FormData fdlCacheMemorySize, fdCacheMemorySize;
+
+  private Label wlLookupBatchSize;
+  private Text wLookupBatchSize;
+  private FormData fdlLookupBatchSize, fdLookupBatchSize;
+
+  private Label wlSharedCacheName;
+  private TextVar wSharedCacheName;
+  private FormData fdlSharedCacheName, fdSharedCacheName;
+
+  private Label wlSharedCacheCheckSql;
+  private TextVar wSharedCacheCheckSql;
+  private FormData fdlSharedCacheCheckSql, fdSharedCacheCheckSql;
+
+  private Label wlSharedCacheTtl;
+  private Text wSharedCacheTtl;
+  private FormData fdlSharedCacheTtl, fdSharedCacheTtl;
+
   private Label wlKey;
   private TableView wKey;
   private FormData fdlKey, fdKey;
@@ -302,6 +322,26 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     fdCachesize.top = new FormAttachment( wCache, margin );
     wCachesize.setLayoutData( fdCachesize );
 
+    // Cache memory size line
+    wlCacheMemorySize = new Label( shell, SWT.RIGHT );
+    wlCacheMemorySize.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheMemorySize.Label" ) );
+    props.setLook( wlCacheMemorySize );
+    wlCacheMemorySize.setEnabled( input.isCached() );
+    fdlCacheMemorySize = new FormData();
+    fdlCacheMemorySize.left = new FormAttachment( 0, 0 );
+    fdlCacheMemorySize.right = new FormAttachment( middle, -margin );
+    fdlCacheMemorySize.top = new FormAttachment( wCachesize, margin );
+    wlCacheMemorySize.setLayoutData( fdlCacheMemorySize );
+    wCacheMemorySize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wCacheMemorySize );
+    wCacheMemorySize.setEnabled( input.isCached() );
+    wCacheMemorySize.addModifyListener( lsMod );
+    fdCacheMemorySize = new FormData();
+    fdCacheMemorySize.left = new FormAttachment( middle, 0 );
+    fdCacheMemorySize.right = new FormAttachment( 100, 0 );
+    fdCacheMemorySize.top = new FormAttachment( wCachesize, margin );
+    wCacheMemorySize.setLayoutData( fdCacheMemorySize );
+
     // Cache : Load all?
     wlCacheLoadAll = new Label( shell, SWT.RIGHT );
     wlCacheLoadAll.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheLoadAll.Label" ) );
@@ -309,13 +349,13 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment( 0, 0 );
     fdlCacheLoadAll.right = new FormAttachment( middle, -margin );
-    fdlCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdlCacheLoadAll.top = new FormAttachment( wCacheMemorySize, margin );
     wlCacheLoadAll.setLayoutData( fdlCacheLoadAll );
     wCacheLoadAll = new Button( shell, SWT.CHECK );
     props.setLook( wCacheLoadAll );
     fdCacheLoadAll = new FormData();
     fdCacheLoadAll.left = new FormAttachment( middle, 0 );
-    fdCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdCacheLoadAll.top = new FormAttachment( wCacheMemorySize, margin );
     wCacheLoadAll.setLayoutData( fdCacheLoadAll );
     wCacheLoadAll.addSelectionListener( new SelectionAdapter() {
       public void widgetSelected( SelectionEvent e ) {
@@ -324,12 +364,94 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
       }
     } );
 
+    // Lookup batch size line
+    wlLookupBatchSize = new Label( shell, SWT.RIGHT );
+    wlLookupBatchSize.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Label" ) );
+    wlLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip" ) );
+    props.setLook( wlLookupBatchSize );
+    fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment( 0, 0 );
+    fdlLookupBatchSize.right = new FormAttachment( middle, -margin );
+    fdlLookupBatchSize.top = new FormAttachment( wCacheLoadAll, margin );
+    wlLookupBatchSize.setLayoutData( fdlLookupBatchSize );
+    wLookupBatchSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip" ) );
+    props.setLook( wLookupBatchSize );
+    wLookupBatchSize.addModifyListener( lsMod );
+    fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment( middle, 0 );
+    fdLookupBatchSize.right = new FormAttachment( 100, 0 );
+    fdLookupBatchSize.top = new FormAttachment( wCacheLoadAll, margin );
+    wLookupBatchSize.setLayoutData( fdLookupBatchSize );
+
+    // Shared cache name line
+    wlSharedCacheName = new Label( shell, SWT.RIGHT );
+    wlSharedCacheName.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheName.Label" ) );
+    wlSharedCacheName.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheName.Tooltip" ) );
+    props.setLook( wlSharedCacheName );
+    fdlSharedCacheName = new FormData();
+    fdlSharedCacheName.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheName.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheName.top = new FormAttachment( wLookupBatchSize, margin );
+    wlSharedCacheName.setLayoutData( fdlSharedCacheName );
+    wSharedCacheName = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheName.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheName.Tooltip" ) );
+    props.setLook( wSharedCacheName );
+    wSharedCacheName.addModifyListener( lsMod );
+    fdSharedCacheName = new FormData();
+    fdSharedCacheName.left = new FormAttachment( middle, 0 );
+    fdSharedCacheName.right = new FormAttachment( 100, 0 );
+    fdSharedCacheName.top = new FormAttachment( wLookupBatchSize, margin );
+    wSharedCacheName.setLayoutData( fdSharedCacheName );
+
+    // Shared cache change detection query line
+    wlSharedCacheCheckSql = new Label( shell, SWT.RIGHT );
+    wlSharedCacheCheckSql.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheCheckSql.Label" ) );
+    wlSharedCacheCheckSql.setToolTipText(
+      BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheCheckSql.Tooltip" ) );
+    props.setLook( wlSharedCacheCheckSql );
+    fdlSharedCacheCheckSql = new FormData();
+    fdlSharedCacheCheckSql.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheCheckSql.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheCheckSql.top = new FormAttachment( wSharedCacheName, margin );
+    wlSharedCacheCheckSql.setLayoutData( fdlSharedCacheCheckSql );
+    wSharedCacheCheckSql = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheCheckSql.setToolTipText(
+      BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheCheckSql.Tooltip" ) );
+    props.setLook( wSharedCacheCheckSql );
+    wSharedCacheCheckSql.addModifyListener( lsMod );
+    fdSharedCacheCheckSql = new FormData();
+    fdSharedCacheCheckSql.left = new FormAttachment( middle, 0 );
+    fdSharedCacheCheckSql.right = new FormAttachment( 100, 0 );
+    fdSharedCacheCheckSql.top = new FormAttachment( wSharedCacheName, margin );
+    wSharedCacheCheckSql.setLayoutData( fdSharedCacheCheckSql );
+
+    // Shared cache time to live line
+    wlSharedCacheTtl = new Label( shell, SWT.RIGHT );
+    wlSharedCacheTtl.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheTtl.Label" ) );
+    wlSharedCacheTtl.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheTtl.Tooltip" ) );
+    props.setLook( wlSharedCacheTtl );
+    fdlSharedCacheTtl = new FormData();
+    fdlSharedCacheTtl.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheTtl.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheTtl.top = new FormAttachment( wSharedCacheCheckSql, margin );
+    wlSharedCacheTtl.setLayoutData( fdlSharedCacheTtl );
+    wSharedCacheTtl = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheTtl.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.SharedCacheTtl.Tooltip" ) );
+    props.setLook( wSharedCacheTtl );
+    wSharedCacheTtl.addModifyListener( lsMod );
+    fdSharedCacheTtl = new FormData();
+    fdSharedCacheTtl.left = new FormAttachment( middle, 0 );
+    fdSharedCacheTtl.right = new FormAttachment( 100, 0 );
+    fdSharedCacheTtl.top = new FormAttachment( wSharedCacheCheckSql, margin );
+    wSharedCacheTtl.setLayoutData( fdSharedCacheTtl );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wCacheLoadAll, margin );
+    fdlKey.top = new FormAttachment( wSharedCacheTtl, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -521,6 +643,11 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wTable.addSelectionListener( lsDef );
     wOrderBy.addSelectionListener( lsDef );
     wCachesize.addSelectionListener( lsDef );
+    wCacheMemorySize.addSelectionListener( lsDef );
+    wLookupBatchSize.addSelectionListener( lsDef );
+    wSharedCacheName.addSelectionListener( lsDef );
+    wSharedCacheCheckSql.addSelectionListener( lsDef );
+    wSharedCacheTtl.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -632,8 +759,17 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
 
     wCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wlCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wCacheMemorySize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlCacheMemorySize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wCacheLoadAll.setEnabled( wCache.getSelection() );
     wlCacheLoadAll.setEnabled( wCache.getSelection() );
+    boolean sharing = wCache.getSelection() && wCacheLoadAll.getSelection();
+    wlSharedCacheName.setEnabled( sharing );
+    wSharedCacheName.setEnabled( sharing );
+    wlSharedCacheCheckSql.setEnabled( sharing );
+    wSharedCacheCheckSql.setEnabled( sharing );
+    wlSharedCacheTtl.setEnabled( sharing );
+    wSharedCacheTtl.setEnabled( sharing );
     wFailMultiple.setEnabled( !wCache.getSelection() );
     wlFailMultiple.setEnabled( !wCache.getSelection() );
   }
@@ -646,6 +782,11 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
 
     wCache.setSelection( input.isCached() );
     wCachesize.setText( "" + input.getCacheSize() );
+    wCacheMemorySize.setText( "" + input.getCacheMemorySize() );
+    wLookupBatchSize.setText( "" + input.getLookupBatchSize() );
+    wSharedCacheName.setText( Const.NVL( input.getSharedCacheName(), "" ) );
+    wSharedCacheCheckSql.setText( Const.NVL( input.getSharedCacheCheckSql(), "" ) );
+    wSharedCacheTtl.setText( "" + input.getSharedCacheTimeToLive() );
     wCacheLoadAll.setSelection( input.isLoadingAllDataInCache() );
 
     if ( input.getStreamKeyField1() != null ) {
@@ -730,6 +871,11 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
 
     input.setCached( wCache.getSelection() );
     input.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
+    input.setCacheMemorySize( Const.toInt( wCacheMemorySize.getText(), 0 ) );
+    input.setLookupBatchSize( Const.toInt( wLookupBatchSize.getText(), 0 ) );
+    input.setSharedCacheName( wSharedCacheName.getText() );
+    input.setSharedCacheCheckSql( wSharedCacheCheckSql.getText() );
+    input.setSharedCacheTimeToLive( Const.toInt( wSharedCacheTtl.getText(), 0 ) );
     input.setLoadingAllDataInCache( wCacheLoadAll.getSelection() );
 
     logDebug( BaseMessages.getString( PKG, "DatabaseLookupDialog.Log.FoundKeys", String.valueOf( nrkeys ) ) );
@@ -118,6 +118,18 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlPreloadThreads;
+  private Text wPreloadThreads;
+
+  private Label wlSharedCacheName;
+  private TextVar wSharedCacheName;
+
+  private Label wlSharedCacheCheckSql;
+  private TextVar wSharedCacheCheckSql;
+
+  private Label wlSharedCacheTtl;
+  private Text wSharedCacheTtl;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
@@ -455,6 +467,92 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Pre-load threads ...
+    //
+    wlPreloadThreads = new Label( comp, SWT.RIGHT );
+    wlPreloadThreads.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadThreads.Label" ) );
+    wlPreloadThreads.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadThreads.Tooltip" ) );
+    props.setLook( wlPreloadThreads );
+    FormData fdlPreloadThreads = new FormData();
+    fdlPreloadThreads.left = new FormAttachment( 0, 0 );
+    fdlPreloadThreads.right = new FormAttachment( middle, -margin );
+    fdlPreloadThreads.top = new FormAttachment( wPreloadCache, margin );
+    wlPreloadThreads.setLayoutData( fdlPreloadThreads );
+    wPreloadThreads = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wPreloadThreads.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadThreads.Tooltip" ) );
+    props.setLook( wPreloadThreads );
+    wPreloadThreads.addModifyListener( lsMod );
+    FormData fdPreloadThreads = new FormData();
+    fdPreloadThreads.left = new FormAttachment( middle, 0 );
+    fdPreloadThreads.top = new FormAttachment( wPreloadCache, margin );
+    fdPreloadThreads.right = new FormAttachment( 100, 0 );
+    wPreloadThreads.setLayoutData( fdPreloadThreads );
+
+    // Shared cache name ...
+    //
+    wlSharedCacheName = new Label( comp, SWT.RIGHT );
+    wlSharedCacheName.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheName.Label" ) );
+    wlSharedCacheName.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheName.Tooltip" ) );
+    props.setLook( wlSharedCacheName );
+    FormData fdlSharedCacheName = new FormData();
+    fdlSharedCacheName.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheName.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheName.top = new FormAttachment( wPreloadThreads, margin );
+    wlSharedCacheName.setLayoutData( fdlSharedCacheName );
+    wSharedCacheName = new TextVar( transMeta, comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheName.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheName.Tooltip" ) );
+    props.setLook( wSharedCacheName );
+    wSharedCacheName.addModifyListener( lsMod );
+    FormData fdSharedCacheName = new FormData();
+    fdSharedCacheName.left = new FormAttachment( middle, 0 );
+    fdSharedCacheName.top = new FormAttachment( wPreloadThreads, margin );
+    fdSharedCacheName.right = new FormAttachment( 100, 0 );
+    wSharedCacheName.setLayoutData( fdSharedCacheName );
+
+    // Shared cache change detection query ...
+    //
+    wlSharedCacheCheckSql = new Label( comp, SWT.RIGHT );
+    wlSharedCacheCheckSql.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheCheckSql.Label" ) );
+    wlSharedCacheCheckSql.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheCheckSql.Tooltip" ) );
+    props.setLook( wlSharedCacheCheckSql );
+    FormData fdlSharedCacheCheckSql = new FormData();
+    fdlSharedCacheCheckSql.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheCheckSql.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheCheckSql.top = new FormAttachment( wSharedCacheName, margin );
+    wlSharedCacheCheckSql.setLayoutData( fdlSharedCacheCheckSql );
+    wSharedCacheCheckSql = new TextVar( transMeta, comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheCheckSql.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheCheckSql.Tooltip" ) );
+    props.setLook( wSharedCacheCheckSql );
+    wSharedCacheCheckSql.addModifyListener( lsMod );
+    FormData fdSharedCacheCheckSql = new FormData();
+    fdSharedCacheCheckSql.left = new FormAttachment( middle, 0 );
+    fdSharedCacheCheckSql.top = new FormAttachment( wSharedCacheName, margin );
+    fdSharedCacheCheckSql.right = new FormAttachment( 100, 0 );
+    wSharedCacheCheckSql.setLayoutData( fdSharedCacheCheckSql );
+
+    // Shared cache time to live ...
+    //
+    wlSharedCacheTtl = new Label( comp, SWT.RIGHT );
+    wlSharedCacheTtl.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheTtl.Label" ) );
+    wlSharedCacheTtl.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheTtl.Tooltip" ) );
+    props.setLook( wlSharedCacheTtl );
+    FormData fdlSharedCacheTtl = new FormData();
+    fdlSharedCacheTtl.left = new FormAttachment( 0, 0 );
+    fdlSharedCacheTtl.right = new FormAttachment( middle, -margin );
+    fdlSharedCacheTtl.top = new FormAttachment( wSharedCacheCheckSql, margin );
+    wlSharedCacheTtl.setLayoutData( fdlSharedCacheTtl );
+    wSharedCacheTtl = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSharedCacheTtl.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.SharedCacheTtl.Tooltip" ) );
+    props.setLook( wSharedCacheTtl );
+    wSharedCacheTtl.addModifyListener( lsMod );
+    FormData fdSharedCacheTtl = new FormData();
+    fdSharedCacheTtl.left = new FormAttachment( middle, 0 );
+    fdSharedCacheTtl.top = new FormAttachment( wSharedCacheCheckSql, margin );
+    fdSharedCacheTtl.right = new FormAttachment( 100, 0 );
+    wSharedCacheTtl.setLayoutData( fdSharedCacheTtl );
+
     // Cache size ...
     wlCacheSize = new Label( comp, SWT.RIGHT );
     wlCacheSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheSize.Label" ) );
@@ -462,14 +560,14 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment( 0, 0 );
     fdlCacheSize.right = new FormAttachment( middle, -margin );
-    fdlCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdlCacheSize.top = new FormAttachment( wSharedCacheTtl, margin );
     wlCacheSize.setLayoutData( fdlCacheSize );
     wCacheSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wCacheSize );
     wCacheSize.addModifyListener( lsMod );
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment( middle, 0 );
-    fdCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdCacheSize.top = new FormAttachment( wSharedCacheTtl, margin );
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
@@ -1064,6 +1162,10 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     wTable.addSelectionListener( lsDef );
     wCommit.addSelectionListener( lsDef );
     wCacheSize.addSelectionListener( lsDef );
+    wPreloadThreads.addSelectionListener( lsDef );
+    wSharedCacheName.addSelectionListener( lsDef );
+    wSharedCacheCheckSql.addSelectionListener( lsDef );
+    wSharedCacheTtl.addSelectionListener( lsDef );
     wTk.addSelectionListener( lsDef );
     wTkRename.addSelectionListener( lsDef );
     wSeq.addSelectionListener( lsDef );
@@ -1191,6 +1293,14 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     //
     wlPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
     wPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
+    wlPreloadThreads.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
+    wPreloadThreads.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
+    wlSharedCacheName.setEnabled( wPreloadThreads.isEnabled() );
+    wSharedCacheName.setEnabled( wPreloadThreads.isEnabled() );
+    wlSharedCacheCheckSql.setEnabled( wPreloadThreads.isEnabled() );
+    wSharedCacheCheckSql.setEnabled( wPreloadThreads.isEnabled() );
+    wlSharedCacheTtl.setEnabled( wPreloadThreads.isEnabled() );
+    wSharedCacheTtl.setEnabled( wPreloadThreads.isEnabled() );
 
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
@@ -1362,6 +1472,10 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     wUseCache.setSelection( input.getCacheSize() >= 0 );
     wPreloadCache.setSelection( input.isPreloadingCache() );
+    wPreloadThreads.setText( "" + input.getPreloadThreads() );
+    wSharedCacheName.setText( Const.NVL( input.getSharedCacheName(), "" ) );
+    wSharedCacheCheckSql.setText( Const.NVL( input.getSharedCacheCheckSql(), "" ) );
+    wSharedCacheTtl.setText( "" + input.getSharedCacheTimeToLive() );
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
@@ -1486,6 +1600,10 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
       in.setCacheSize( -1 );
     }
     in.setPreloadingCache( wPreloadCache.getSelection() );
+    in.setPreloadThreads( Const.toInt( wPreloadThreads.getText(), 1 ) );
+    in.setSharedCacheName( wSharedCacheName.getText() );
+    in.setSharedCacheCheckSql( wSharedCacheCheckSql.getText() );
+    in.setSharedCacheTimeToLive( Const.toInt( wSharedCacheTtl.getText(), 0 ) );
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
@@ -133,6 +133,10 @@ public class FuzzyMatchDialog extends BaseStepDialog implements StepDialogInterf
   private TextVar wseparator;
   private FormData fdseparator, fdlseparator;
 
+  private Label wlscoringThreads;
+  private Text wscoringThreads;
+  private FormData fdscoringThreads, fdlscoringThreads;
+
   private CTabFolder wTabFolder;
   private FormData fdTabFolder;
 
@@ -492,6 +496,24 @@ public class FuzzyMatchDialog extends BaseStepDialog implements StepDialogInterf
     fdseparator.right = new FormAttachment( 100, 0 );
     wseparator.setLayoutData( fdseparator );
 
+    wlscoringThreads = new Label( wSettingsGroup, SWT.RIGHT );
+    wlscoringThreads.setText( BaseMessages.getString( PKG, "FuzzyMatchDialog.scoringThreads.Label" ) );
+    props.setLook( wlscoringThreads );
+    fdlscoringThreads = new FormData();
+    fdlscoringThreads.left = new FormAttachment( 0, 0 );
+    fdlscoringThreads.top = new FormAttachment( wseparator, margin );
+    fdlscoringThreads.right = new FormAttachment( middle, -margin );
+    wlscoringThreads.setLayoutData( fdlscoringThreads );
+    wscoringThreads = new Text( wSettingsGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wscoringThreads );
+    wscoringThreads.setToolTipText( BaseMessages.getString( PKG, "FuzzyMatchDialog.scoringThreads.Tooltip" ) );
+    wscoringThreads.addModifyListener( lsMod );
+    fdscoringThreads = new FormData();
+    fdscoringThreads.left = new FormAttachment( middle, 0 );
+    fdscoringThreads.top = new FormAttachment( wseparator, margin );
+    fdscoringThreads.right = new FormAttachment( 100, 0 );
+    wscoringThreads.setLayoutData( fdscoringThreads );
+
     fdSettingsGroup = new FormData();
     fdSettingsGroup.left = new FormAttachment( 0, margin );
     fdSettingsGroup.top = new FormAttachment( wMainStreamGroup, margin );
@@ -743,6 +765,7 @@ public class FuzzyMatchDialog extends BaseStepDialog implements StepDialogInterf
     if ( input.getSeparator() != null ) {
       wseparator.setText( input.getSeparator() );
     }
+    wscoringThreads.setText( String.valueOf( input.getScoringThreads() ) );
 
     if ( input.getValue() != null ) {
       for ( int i = 0; i < input.getValue().length; i++ ) {
@@ -789,6 +812,7 @@ public class FuzzyMatchDialog extends BaseStepDialog implements StepDialogInterf
     input.setOutputMatchField( wmatchField.getText() );
     input.setOutputValueField( wvalueField.getText() );
     input.setSeparator( wseparator.getText() );
+    input.setScoringThreads( Const.toInt( wscoringThreads.getText(), 1 ) );
 
     int nrvalues = wReturn.nrNonEmpty();
     input.allocate( nrvalues );
@@ -930,6 +954,8 @@ public class FuzzyMatchDialog extends BaseStepDialog implements StepDialogInterf
     wminValue.setEnabled( enable );
     wlmaxValue.setEnabled( enable );
     wmaxValue.setEnabled( enable );
+    wlscoringThreads.setEnabled( enable );
+    wscoringThreads.setEnabled( enable );
 
     if ( FuzzyMatchMeta.getAlgorithmTypeByDesc( wAlgorithm.getText() )
         == FuzzyMatchMeta.OPERATION_TYPE_JARO
@@ -51,6 +51,7 @@ import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInterface {
@@ -68,6 +69,22 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
   private Button wAlwaysAddResult;
   private FormData fdlAlwaysAddResult, fdAlwaysAddResult;
 
+  private Label wlSpillToDisk;
+  private Button wSpillToDisk;
+  private FormData fdlSpillToDisk, fdSpillToDisk;
+
+  private Label wlMaxGroups;
+  private TextVar wMaxGroups;
+  private FormData fdlMaxGroups, fdMaxGroups;
+
+  private Label wlFreeMemory;
+  private TextVar wFreeMemory;
+  private FormData fdlFreeMemory, fdFreeMemory;
+
+  private Label wlSpillDir;
+  private TextVar wSpillDir;
+  private FormData fdlSpillDir, fdSpillDir;
+
   private Button wGet, wGetAgg;
   private FormData fdGet, fdGetAgg;
   private Listener lsGet, lsGetAgg;
@@ -159,12 +176,92 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wAlwaysAddResult.setLayoutData( fdAlwaysAddResult );
     wAlwaysAddResult.addSelectionListener( lsSel );
 
+    // Spill the groups that don't fit in memory to disk?
+    wlSpillToDisk = new Label( shell, SWT.RIGHT );
+    wlSpillToDisk.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.Label" ) );
+    wlSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.ToolTip" ) );
+    props.setLook( wlSpillToDisk );
+    fdlSpillToDisk = new FormData();
+    fdlSpillToDisk.left = new FormAttachment( 0, 0 );
+    fdlSpillToDisk.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlSpillToDisk.right = new FormAttachment( middle, -margin );
+    wlSpillToDisk.setLayoutData( fdlSpillToDisk );
+    wSpillToDisk = new Button( shell, SWT.CHECK );
+    wSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.ToolTip" ) );
+    props.setLook( wSpillToDisk );
+    fdSpillToDisk = new FormData();
+    fdSpillToDisk.left = new FormAttachment( middle, 0 );
+    fdSpillToDisk.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdSpillToDisk.right = new FormAttachment( 100, 0 );
+    wSpillToDisk.setLayoutData( fdSpillToDisk );
+    wSpillToDisk.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setSpillFlags();
+      }
+    } );
+
+    // Maximum number of groups in memory
+    wlMaxGroups = new Label( shell, SWT.RIGHT );
+    wlMaxGroups.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MaxGroups.Label" ) );
+    props.setLook( wlMaxGroups );
+    fdlMaxGroups = new FormData();
+    fdlMaxGroups.left = new FormAttachment( 0, 0 );
+    fdlMaxGroups.top = new FormAttachment( wSpillToDisk, margin );
+    fdlMaxGroups.right = new FormAttachment( middle, -margin );
+    wlMaxGroups.setLayoutData( fdlMaxGroups );
+    wMaxGroups = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMaxGroups );
+    wMaxGroups.addModifyListener( lsMod );
+    fdMaxGroups = new FormData();
+    fdMaxGroups.left = new FormAttachment( middle, 0 );
+    fdMaxGroups.top = new FormAttachment( wSpillToDisk, margin );
+    fdMaxGroups.right = new FormAttachment( 100, 0 );
+    wMaxGroups.setLayoutData( fdMaxGroups );
+
+    // Free memory threshold
+    wlFreeMemory = new Label( shell, SWT.RIGHT );
+    wlFreeMemory.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.FreeMemory.Label" ) );
+    props.setLook( wlFreeMemory );
+    fdlFreeMemory = new FormData();
+    fdlFreeMemory.left = new FormAttachment( 0, 0 );
+    fdlFreeMemory.top = new FormAttachment( wMaxGroups, margin );
+    fdlFreeMemory.right = new FormAttachment( middle, -margin );
+    wlFreeMemory.setLayoutData( fdlFreeMemory );
+    wFreeMemory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wFreeMemory );
+    wFreeMemory.addModifyListener( lsMod );
+    fdFreeMemory = new FormData();
+    fdFreeMemory.left = new FormAttachment( middle, 0 );
+    fdFreeMemory.top = new FormAttachment( wMaxGroups, margin );
+    fdFreeMemory.right = new FormAttachment( 100, 0 );
+    wFreeMemory.setLayoutData( fdFreeMemory );
+
+    // Temporary directory
+    wlSpillDir = new Label( shell, SWT.RIGHT );
+    wlSpillDir.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillDirectory.Label" ) );
+    props.setLook( wlSpillDir );
+    fdlSpillDir = new FormData();
+    fdlSpillDir.left = new FormAttachment( 0, 0 );
+    fdlSpillDir.top = new FormAttachment( wFreeMemory, margin );
+    fdlSpillDir.right = new FormAttachment( middle, -margin );
+    wlSpillDir.setLayoutData( fdlSpillDir );
+    wSpillDir = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSpillDir );
+    wSpillDir.addModifyListener( lsMod );
+    fdSpillDir = new FormData();
+    fdSpillDir.left = new FormAttachment( middle, 0 );
+    fdSpillDir.top = new FormAttachment( wFreeMemory, margin );
+    fdSpillDir.right = new FormAttachment( 100, 0 );
+    wSpillDir.setLayoutData( fdSpillDir );
+
     wlGroup = new Label( shell, SWT.NONE );
     wlGroup.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Group.Label" ) );
     props.setLook( wlGroup );
     fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment( 0, 0 );
-    fdlGroup.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlGroup.top = new FormAttachment( wSpillDir, margin );
     wlGroup.setLayoutData( fdlGroup );
 
     int nrKeyCols = 1;
@@ -359,6 +456,16 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     ciReturn[1].setComboValues( fieldNames );
   }
 
+  private void setSpillFlags() {
+    boolean spill = wSpillToDisk.getSelection();
+    wlMaxGroups.setEnabled( spill );
+    wMaxGroups.setEnabled( spill );
+    wlFreeMemory.setEnabled( spill );
+    wFreeMemory.setEnabled( spill );
+    wlSpillDir.setEnabled( spill );
+    wSpillDir.setEnabled( spill );
+  }
+
   /**
    * Copy information from the meta-data input to the dialog fields.
    */
@@ -366,6 +473,11 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     logDebug( BaseMessages.getString( PKG, "MemoryGroupByDialog.Log.GettingKeyInfo" ) );
 
     wAlwaysAddResult.setSelection( input.isAlwaysGivingBackOneRow() );
+    wSpillToDisk.setSelection( input.isSpillToDisk() );
+    wMaxGroups.setText( Const.NVL( input.getMaxGroupsInMemory(), "" ) );
+    wFreeMemory.setText( Const.NVL( input.getFreeMemoryLimit(), "" ) );
+    wSpillDir.setText( Const.NVL( input.getDirectory(), "" ) );
+    setSpillFlags();
 
     if ( input.getGroupField() != null ) {
       for ( int i = 0; i < input.getGroupField().length; i++ ) {
@@ -416,6 +528,10 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     int nrfields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow( wAlwaysAddResult.getSelection() );
+    input.setSpillToDisk( wSpillToDisk.getSelection() );
+    input.setMaxGroupsInMemory( wMaxGroups.getText() );
+    input.setFreeMemoryLimit( wFreeMemory.getText() );
+    input.setDirectory( wSpillDir.getText() );
 
     input.allocate( sizegroup, nrfields );
 
@@ -206,6 +206,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
   private ScriptValuesHelp scVHelp;
   private ScriptValuesHighlight lineStyler = new ScriptValuesHighlight();
   private Button wCompatible;
+  private Button wCompiled;
   private TextVar wOptimizationLevel;
 
   private TreeItem iteminput;
@@ -391,11 +392,32 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    Label wlCompiled = new Label( wTop, SWT.NONE );
+    wlCompiled.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.Compiled.Label" ) );
+    props.setLook( wlCompiled );
+    FormData fdlCompiled = new FormData();
+    fdlCompiled.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlCompiled.top = new FormAttachment( wlPosition, margin );
+    wlCompiled.setLayoutData( fdlCompiled );
+
+    wCompiled = new Button( wTop, SWT.CHECK );
+    wCompiled.setToolTipText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.Compiled.Tooltip" ) );
+    props.setLook( wCompiled );
+    FormData fdCompiled = new FormData();
+    fdCompiled.left = new FormAttachment( wlCompiled, margin );
+    fdCompiled.top = new FormAttachment( wlPosition, margin );
+    wCompiled.setLayoutData( fdCompiled );
+    wCompiled.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged( true );
+      }
+    } );
+
     Label wlOptimizationLevel = new Label( wTop, SWT.NONE );
     wlOptimizationLevel.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.OptimizationLevel.Label" ) );
     props.setLook( wlOptimizationLevel );
     FormData fdlOptimizationLevel = new FormData();
-    fdlOptimizationLevel.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlOptimizationLevel.left = new FormAttachment( wCompiled, margin * 2 );
     fdlOptimizationLevel.top = new FormAttachment( wlPosition, margin );
     wlOptimizationLevel.setLayoutData( fdlOptimizationLevel );
 
@@ -936,6 +958,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
    */
   public void getData() {
     wCompatible.setSelection( input.isCompatible() );
+    wCompiled.setSelection( input.isCompiled() );
     if ( !Utils.isEmpty( Const.trim( input.getOptimizationLevel() ) ) ) {
       wOptimizationLevel.setText( input.getOptimizationLevel().trim() );
     } else {
@@ -1035,6 +1058,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
 
   private void getInfo( ScriptValuesMetaMod meta ) {
     meta.setCompatible( wCompatible.getSelection() );
+    meta.setCompiled( wCompiled.getSelection() );
     meta.setOptimizationLevel( wOptimizationLevel.getText() );
     int nrfields = wFields.nrNonEmpty();
     meta.allocate( nrfields );
@@ -41,6 +41,7 @@ import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -57,6 +58,7 @@ import org.pentaho.di.ui.core.events.dialog.SelectionAdapterOptions;
 import org.pentaho.di.ui.core.events.dialog.SelectionOperation;
 import org.pentaho.di.ui.core.widget.CheckBoxVar;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
+import org.pentaho.di.ui.core.widget.ComboVar;
 import org.pentaho.di.ui.core.widget.TableView;
 import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
@@ -87,10 +89,22 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
   private CheckBoxVar wCompress;
   private FormData fdlCompress, fdCompress;
 
+  private Label wlCompressionType;
+  private ComboVar wCompressionType;
+  private FormData fdlCompressionType, fdCompressionType;
+
   private Label wlUniqueRows;
   private Button wUniqueRows;
   private FormData fdlUniqueRows, fdUniqueRows;
 
+  private Label wlParallelSort;
+  private Button wParallelSort;
+  private FormData fdlParallelSort, fdParallelSort;
+
+  private Label wlNormalizedKeys;
+  private Button wNormalizedKeys;
+  private FormData fdlNormalizedKeys, fdNormalizedKeys;
+
   private Label wlFields;
   private TableView wFields;
   private FormData fdlFields, fdFields;
@@ -271,6 +285,26 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
       }
     } );
 
+    // The compression used by the parallel sort
+    wlCompressionType = new Label( shell, SWT.RIGHT );
+    wlCompressionType.setText( BaseMessages.getString( PKG, "SortRowsDialog.CompressionType.Label" ) );
+    props.setLook( wlCompressionType );
+    fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment( 0, 0 );
+    fdlCompressionType.right = new FormAttachment( middle, -margin );
+    fdlCompressionType.top = new FormAttachment( wCompress, margin );
+    wlCompressionType.setLayoutData( fdlCompressionType );
+    wCompressionType = new ComboVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCompressionType.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.CompressionType.Tooltip" ) );
+    wCompressionType.setItems( CompressionProviderFactory.getInstance().getCompressionProviderNames() );
+    props.setLook( wCompressionType );
+    wCompressionType.addModifyListener( lsMod );
+    fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment( middle, 0 );
+    fdCompressionType.top = new FormAttachment( wCompress, margin );
+    fdCompressionType.right = new FormAttachment( 100, 0 );
+    wCompressionType.setLayoutData( fdCompressionType );
+
     // Using compression for temporary files?
     wlUniqueRows = new Label( shell, SWT.RIGHT );
     wlUniqueRows.setText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Label" ) );
@@ -278,18 +312,56 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment( 0, 0 );
     fdlUniqueRows.right = new FormAttachment( middle, -margin );
-    fdlUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdlUniqueRows.top = new FormAttachment( wCompressionType, margin );
     wlUniqueRows.setLayoutData( fdlUniqueRows );
     wUniqueRows = new Button( shell, SWT.CHECK );
     wUniqueRows.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Tooltip" ) );
     props.setLook( wUniqueRows );
     fdUniqueRows = new FormData();
     fdUniqueRows.left = new FormAttachment( middle, 0 );
-    fdUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdUniqueRows.top = new FormAttachment( wCompressionType, margin );
     fdUniqueRows.right = new FormAttachment( 100, 0 );
     wUniqueRows.setLayoutData( fdUniqueRows );
     wUniqueRows.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    // Sort and write the temporary files in parallel?
+    wlParallelSort = new Label( shell, SWT.RIGHT );
+    wlParallelSort.setText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Label" ) );
+    props.setLook( wlParallelSort );
+    fdlParallelSort = new FormData();
+    fdlParallelSort.left = new FormAttachment( 0, 0 );
+    fdlParallelSort.right = new FormAttachment( middle, -margin );
+    fdlParallelSort.top = new FormAttachment( wUniqueRows, margin );
+    wlParallelSort.setLayoutData( fdlParallelSort );
+    wParallelSort = new Button( shell, SWT.CHECK );
+    wParallelSort.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Tooltip" ) );
+    props.setLook( wParallelSort );
+    fdParallelSort = new FormData();
+    fdParallelSort.left = new FormAttachment( middle, 0 );
+    fdParallelSort.top = new FormAttachment( wUniqueRows, margin );
+    fdParallelSort.right = new FormAttachment( 100, 0 );
+    wParallelSort.setLayoutData( fdParallelSort );
+    wParallelSort.addSelectionListener( new ComponentSelectionListener( input ) );
+
+    // Sort on normalized binary keys?
+    wlNormalizedKeys = new Label( shell, SWT.RIGHT );
+    wlNormalizedKeys.setText( BaseMessages.getString( PKG, "SortRowsDialog.NormalizedKeys.Label" ) );
+    props.setLook( wlNormalizedKeys );
+    fdlNormalizedKeys = new FormData();
+    fdlNormalizedKeys.left = new FormAttachment( 0, 0 );
+    fdlNormalizedKeys.right = new FormAttachment( middle, -margin );
+    fdlNormalizedKeys.top = new FormAttachment( wParallelSort, margin );
+    wlNormalizedKeys.setLayoutData( fdlNormalizedKeys );
+    wNormalizedKeys = new Button( shell, SWT.CHECK );
+    wNormalizedKeys.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.NormalizedKeys.Tooltip" ) );
+    props.setLook( wNormalizedKeys );
+    fdNormalizedKeys = new FormData();
+    fdNormalizedKeys.left = new FormAttachment( middle, 0 );
+    fdNormalizedKeys.top = new FormAttachment( wParallelSort, margin );
+    fdNormalizedKeys.right = new FormAttachment( 100, 0 );
+    wNormalizedKeys.setLayoutData( fdNormalizedKeys );
+    wNormalizedKeys.addSelectionListener( new ComponentSelectionListener( input ) );
+
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
     wGet = new Button( shell, SWT.PUSH );
@@ -305,7 +377,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     props.setLook( wlFields );
     fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wUniqueRows, margin );
+    fdlFields.top = new FormAttachment( wNormalizedKeys, margin );
     wlFields.setLayoutData( fdlFields );
 
     final int FieldsRows = input.getFieldName().length;
@@ -481,6 +553,9 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wCompress.setSelection( input.getCompressFiles() );
     wCompress.setVariableName( input.getCompressFilesVariable() );
     wUniqueRows.setSelection( input.isOnlyPassingUniqueRows() );
+    wCompressionType.setText( Const.NVL( input.getCompressionType(), "" ) );
+    wParallelSort.setSelection( input.isParallelSort() );
+    wNormalizedKeys.setSelection( input.isNormalizedKeys() );
 
     Table table = wFields.table;
     if ( input.getFieldName().length > 0 ) {
@@ -531,6 +606,9 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     input.setCompressFiles( wCompress.getSelection() );
     input.setCompressFilesVariable( wCompress.getVariableName() );
     input.setOnlyPassingUniqueRows( wUniqueRows.getSelection() );
+    input.setCompressionType( Utils.isEmpty( wCompressionType.getText() ) ? null : wCompressionType.getText() );
+    input.setParallelSort( wParallelSort.getSelection() );
+    input.setNormalizedKeys( wNormalizedKeys.getSelection() );
 
     // Table table = wFields.table;
     int nrfields = wFields.nrNonEmpty();
@@ -56,6 +56,7 @@ import org.pentaho.di.ui.core.gui.GUIResource;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
+import org.pentaho.di.ui.trans.step.ComponentSelectionListener;
 import org.pentaho.di.ui.trans.step.TableItemInsertListener;
 
 public class SortedMergeDialog extends BaseStepDialog implements StepDialogInterface {
@@ -63,6 +64,10 @@ public class SortedMergeDialog extends BaseStepDialog implements StepDialogInter
 
   public static final String STRING_SORT_WARNING_PARAMETER = "SortedMergeSortWarning";
 
+  private Label wlNormalizedKeys;
+  private Button wNormalizedKeys;
+  private FormData fdlNormalizedKeys, fdNormalizedKeys;
+
   private Label wlFields;
   private TableView wFields;
   private FormData fdlFields, fdFields;
@@ -123,6 +128,25 @@ public class SortedMergeDialog extends BaseStepDialog implements StepDialogInter
     fdStepname.right = new FormAttachment( 100, 0 );
     wStepname.setLayoutData( fdStepname );
 
+    // Merge on normalized binary keys?
+    wlNormalizedKeys = new Label( shell, SWT.RIGHT );
+    wlNormalizedKeys.setText( BaseMessages.getString( PKG, "SortedMergeDialog.NormalizedKeys.Label" ) );
+    props.setLook( wlNormalizedKeys );
+    fdlNormalizedKeys = new FormData();
+    fdlNormalizedKeys.left = new FormAttachment( 0, 0 );
+    fdlNormalizedKeys.right = new FormAttachment( middle, -margin );
+    fdlNormalizedKeys.top = new FormAttachment( wStepname, margin );
+    wlNormalizedKeys.setLayoutData( fdlNormalizedKeys );
+    wNormalizedKeys = new Button( shell, SWT.CHECK );
+    wNormalizedKeys.setToolTipText( BaseMessages.getString( PKG, "SortedMergeDialog.NormalizedKeys.Tooltip" ) );
+    props.setLook( wNormalizedKeys );
+    fdNormalizedKeys = new FormData();
+    fdNormalizedKeys.left = new FormAttachment( middle, 0 );
+    fdNormalizedKeys.top = new FormAttachment( wStepname, margin );
+    fdNormalizedKeys.right = new FormAttachment( 100, 0 );
+    wNormalizedKeys.setLayoutData( fdNormalizedKeys );
+    wNormalizedKeys.addSelectionListener( new ComponentSelectionListener( input ) );
+
     // Some buttons
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -138,7 +162,7 @@ public class SortedMergeDialog extends BaseStepDialog implements StepDialogInter
     props.setLook( wlFields );
     fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wStepname, margin );
+    fdlFields.top = new FormAttachment( wNormalizedKeys, margin );
     wlFields.setLayoutData( fdlFields );
 
     final int FieldsCols = 2;
@@ -273,6 +297,8 @@ public class SortedMergeDialog extends BaseStepDialog implements StepDialogInter
     wFields.setRowNums();
     wFields.optWidth( true );
 
+    wNormalizedKeys.setSelection( input.isNormalizedKeys() );
+
     wStepname.selectAll();
     wStepname.setFocus();
   }
@@ -301,6 +327,7 @@ public class SortedMergeDialog extends BaseStepDialog implements StepDialogInter
       input.getAscending()[i] =
         BaseMessages.getString( PKG, "System.Combo.Yes" ).equalsIgnoreCase( ti.getText( 2 ) );
     }
+    input.setNormalizedKeys( wNormalizedKeys.getSelection() );
 
     // Show a warning (optional)
     //
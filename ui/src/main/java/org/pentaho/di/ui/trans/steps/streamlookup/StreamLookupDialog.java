@@ -55,6 +55,7 @@ import org.pentaho.di.trans.steps.streamlookup.StreamLookupMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class StreamLookupDialog extends BaseStepDialog implements StepDialogInterface {
@@ -84,6 +85,26 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
   private Button wIntegerPair;
   private FormData fdlIntegerPair, fdIntegerPair;
 
+  private Label wlOffHeap;
+  private Button wOffHeap;
+  private FormData fdlOffHeap, fdOffHeap;
+
+  private Label wlSpillToDisk;
+  private Button wSpillToDisk;
+  private FormData fdlSpillToDisk, fdSpillToDisk;
+
+  private Label wlMaxRows;
+  private TextVar wMaxRows;
+  private FormData fdlMaxRows, fdMaxRows;
+
+  private Label wlFreeMemory;
+  private TextVar wFreeMemory;
+  private FormData fdlFreeMemory, fdFreeMemory;
+
+  private Label wlSpillDir;
+  private TextVar wSpillDir;
+  private FormData fdlSpillDir, fdSpillDir;
+
   private StreamLookupMeta input;
 
   private Button wGetLU;
@@ -249,7 +270,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     fdReturn.left = new FormAttachment( 0, 0 );
     fdReturn.top = new FormAttachment( wlReturn, margin );
     fdReturn.right = new FormAttachment( 100, 0 );
-    fdReturn.bottom = new FormAttachment( 100, -125 );
+    fdReturn.bottom = new FormAttachment( 100, -260 );
     wReturn.setLayoutData( fdReturn );
 
     wlPreserveMemory = new Label( shell, SWT.RIGHT );
@@ -316,6 +337,31 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         input.setChanged();
       }
     } );
+
+    wlOffHeap = new Label( shell, SWT.RIGHT );
+    wlOffHeap.setText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeapStorage.Label" ) );
+    wlOffHeap.setToolTipText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeapStorage.Tooltip" ) );
+    props.setLook( wlOffHeap );
+    fdlOffHeap = new FormData();
+    fdlOffHeap.left = new FormAttachment( 0, 0 );
+    fdlOffHeap.top = new FormAttachment( wSortedList, margin );
+    fdlOffHeap.right = new FormAttachment( middle, -margin );
+    wlOffHeap.setLayoutData( fdlOffHeap );
+    wOffHeap = new Button( shell, SWT.RADIO );
+    wOffHeap.setEnabled( false );
+    wOffHeap.setToolTipText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeapStorage.Tooltip" ) );
+    props.setLook( wOffHeap );
+    fdOffHeap = new FormData();
+    fdOffHeap.left = new FormAttachment( middle, 0 );
+    fdOffHeap.top = new FormAttachment( wSortedList, margin );
+    fdOffHeap.right = new FormAttachment( 100, 0 );
+    wOffHeap.setLayoutData( fdOffHeap );
+    wOffHeap.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     // PDI-2107 preserve memory should be enabled to have this options on.
     wPreserveMemory.addListener( SWT.Selection, new Listener() {
       @Override
@@ -323,11 +369,91 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         boolean selection = wPreserveMemory.getSelection();
         wSortedList.setEnabled( selection );
         wIntegerPair.setEnabled( selection );
+        wOffHeap.setEnabled( selection );
       }
     } );
 
     // END MEMORY PRESERVE
 
+    // Spill the lookup rows that don't fit in memory to disk?
+    wlSpillToDisk = new Label( shell, SWT.RIGHT );
+    wlSpillToDisk.setText( BaseMessages.getString( PKG, "StreamLookupDialog.SpillToDisk.Label" ) );
+    wlSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "StreamLookupDialog.SpillToDisk.Tooltip" ) );
+    props.setLook( wlSpillToDisk );
+    fdlSpillToDisk = new FormData();
+    fdlSpillToDisk.left = new FormAttachment( 0, 0 );
+    fdlSpillToDisk.top = new FormAttachment( wOffHeap, margin );
+    fdlSpillToDisk.right = new FormAttachment( middle, -margin );
+    wlSpillToDisk.setLayoutData( fdlSpillToDisk );
+    wSpillToDisk = new Button( shell, SWT.CHECK );
+    wSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "StreamLookupDialog.SpillToDisk.Tooltip" ) );
+    props.setLook( wSpillToDisk );
+    fdSpillToDisk = new FormData();
+    fdSpillToDisk.left = new FormAttachment( middle, 0 );
+    fdSpillToDisk.top = new FormAttachment( wOffHeap, margin );
+    fdSpillToDisk.right = new FormAttachment( 100, 0 );
+    wSpillToDisk.setLayoutData( fdSpillToDisk );
+    wSpillToDisk.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setSpillFlags();
+      }
+    } );
+
+    // Maximum number of lookup rows in memory
+    wlMaxRows = new Label( shell, SWT.RIGHT );
+    wlMaxRows.setText( BaseMessages.getString( PKG, "StreamLookupDialog.MaxRows.Label" ) );
+    props.setLook( wlMaxRows );
+    fdlMaxRows = new FormData();
+    fdlMaxRows.left = new FormAttachment( 0, 0 );
+    fdlMaxRows.top = new FormAttachment( wSpillToDisk, margin );
+    fdlMaxRows.right = new FormAttachment( middle, -margin );
+    wlMaxRows.setLayoutData( fdlMaxRows );
+    wMaxRows = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMaxRows );
+    wMaxRows.addModifyListener( lsMod );
+    fdMaxRows = new FormData();
+    fdMaxRows.left = new FormAttachment( middle, 0 );
+    fdMaxRows.top = new FormAttachment( wSpillToDisk, margin );
+    fdMaxRows.right = new FormAttachment( 100, 0 );
+    wMaxRows.setLayoutData( fdMaxRows );
+
+    // Free memory threshold
+    wlFreeMemory = new Label( shell, SWT.RIGHT );
+    wlFreeMemory.setText( BaseMessages.getString( PKG, "StreamLookupDialog.FreeMemory.Label" ) );
+    props.setLook( wlFreeMemory );
+    fdlFreeMemory = new FormData();
+    fdlFreeMemory.left = new FormAttachment( 0, 0 );
+    fdlFreeMemory.top = new FormAttachment( wMaxRows, margin );
+    fdlFreeMemory.right = new FormAttachment( middle, -margin );
+    wlFreeMemory.setLayoutData( fdlFreeMemory );
+    wFreeMemory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wFreeMemory );
+    wFreeMemory.addModifyListener( lsMod );
+    fdFreeMemory = new FormData();
+    fdFreeMemory.left = new FormAttachment( middle, 0 );
+    fdFreeMemory.top = new FormAttachment( wMaxRows, margin );
+    fdFreeMemory.right = new FormAttachment( 100, 0 );
+    wFreeMemory.setLayoutData( fdFreeMemory );
+
+    // Temporary directory
+    wlSpillDir = new Label( shell, SWT.RIGHT );
+    wlSpillDir.setText( BaseMessages.getString( PKG, "StreamLookupDialog.SpillDirectory.Label" ) );
+    props.setLook( wlSpillDir );
+    fdlSpillDir = new FormData();
+    fdlSpillDir.left = new FormAttachment( 0, 0 );
+    fdlSpillDir.top = new FormAttachment( wFreeMemory, margin );
+    fdlSpillDir.right = new FormAttachment( middle, -margin );
+    wlSpillDir.setLayoutData( fdlSpillDir );
+    wSpillDir = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSpillDir );
+    wSpillDir.addModifyListener( lsMod );
+    fdSpillDir = new FormData();
+    fdSpillDir.left = new FormAttachment( middle, 0 );
+    fdSpillDir.top = new FormAttachment( wFreeMemory, margin );
+    fdSpillDir.right = new FormAttachment( 100, 0 );
+    wSpillDir.setLayoutData( fdSpillDir );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -478,6 +604,16 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     shell.getDisplay().asyncExec( fieldLoader );
   }
 
+  private void setSpillFlags() {
+    boolean spill = wSpillToDisk.getSelection();
+    wlMaxRows.setEnabled( spill );
+    wMaxRows.setEnabled( spill );
+    wlFreeMemory.setEnabled( spill );
+    wFreeMemory.setEnabled( spill );
+    wlSpillDir.setEnabled( spill );
+    wSpillDir.setEnabled( spill );
+  }
+
   /**
    * Copy information from the meta-data input to the dialog fields.
    */
@@ -522,12 +658,20 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     if ( isPreserveMemory ) {
       wSortedList.setEnabled( true );
       wIntegerPair.setEnabled( true );
+      wOffHeap.setEnabled( true );
     }
     // PDI-2107 usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection( input.isUsingSortedList() );
     wIntegerPair.setSelection( input.isUsingIntegerPair() );
+    wOffHeap.setSelection( input.isUsingOffHeapStorage() );
+
+    wSpillToDisk.setSelection( input.isSpillToDisk() );
+    wMaxRows.setText( Const.NVL( input.getMaxRowsInMemory(), "" ) );
+    wFreeMemory.setText( Const.NVL( input.getFreeMemoryLimit(), "" ) );
+    wSpillDir.setText( Const.NVL( input.getDirectory(), "" ) );
+    setSpillFlags();
 
     wKey.setRowNums();
     wKey.optWidth( true );
@@ -555,6 +699,11 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     input.setMemoryPreservationActive( wPreserveMemory.getSelection() );
     input.setUsingSortedList( wSortedList.getSelection() );
     input.setUsingIntegerPair( wIntegerPair.getSelection() );
+    input.setUsingOffHeapStorage( wOffHeap.getSelection() );
+    input.setSpillToDisk( wSpillToDisk.getSelection() );
+    input.setMaxRowsInMemory( wMaxRows.getText() );
+    input.setFreeMemoryLimit( wFreeMemory.getText() );
+    input.setDirectory( wSpillDir.getText() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + "" ) );
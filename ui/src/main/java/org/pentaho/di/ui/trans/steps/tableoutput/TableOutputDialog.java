@@ -126,6 +126,9 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
   private Button wBatch;
   private FormData fdlBatch, fdBatch;
 
+  private Label wlBatchWriters;
+  private TextVar wBatchWriters;
+
   private Label wlUsePart;
   private Button wUsePart;
   private FormData fdlUsePart, fdUsePart;
@@ -557,20 +560,39 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
       }
     } );
 
+    // Number of background batch writers
+    wlBatchWriters = new Label( wMainComp, SWT.RIGHT );
+    wlBatchWriters.setText( BaseMessages.getString( PKG, "TableOutputDialog.BatchWriters.Label" ) );
+    props.setLook( wlBatchWriters );
+    FormData fdlBatchWriters = new FormData();
+    fdlBatchWriters.left = new FormAttachment( 0, 0 );
+    fdlBatchWriters.top = new FormAttachment( wBatch, margin );
+    fdlBatchWriters.right = new FormAttachment( middle, -margin );
+    wlBatchWriters.setLayoutData( fdlBatchWriters );
+    wBatchWriters = new TextVar( transMeta, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBatchWriters.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.BatchWriters.Tooltip" ) );
+    props.setLook( wBatchWriters );
+    wBatchWriters.addModifyListener( lsMod );
+    FormData fdBatchWriters = new FormData();
+    fdBatchWriters.left = new FormAttachment( middle, 0 );
+    fdBatchWriters.top = new FormAttachment( wBatch, margin );
+    fdBatchWriters.right = new FormAttachment( 100, 0 );
+    wBatchWriters.setLayoutData( fdBatchWriters );
+
     // NameInField
     wlNameInField = new Label( wMainComp, SWT.RIGHT );
     wlNameInField.setText( BaseMessages.getString( PKG, "TableOutputDialog.NameInField.Label" ) );
     props.setLook( wlNameInField );
     fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment( 0, 0 );
-    fdlNameInField.top = new FormAttachment( wBatch, margin * 5 );
+    fdlNameInField.top = new FormAttachment( wBatchWriters, margin * 5 );
     fdlNameInField.right = new FormAttachment( middle, -margin );
     wlNameInField.setLayoutData( fdlNameInField );
     wNameInField = new Button( wMainComp, SWT.CHECK );
     props.setLook( wNameInField );
     fdNameInField = new FormData();
     fdNameInField.left = new FormAttachment( middle, 0 );
-    fdNameInField.top = new FormAttachment( wBatch, margin * 5 );
+    fdNameInField.top = new FormAttachment( wBatchWriters, margin * 5 );
     fdNameInField.right = new FormAttachment( 100, 0 );
     wNameInField.setLayoutData( fdNameInField );
     wNameInField.addSelectionListener( new SelectionAdapter() {
@@ -842,6 +864,7 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
 
     wStepname.addSelectionListener( lsDef );
     wCommit.addSelectionListener( lsDef );
+    wBatchWriters.addSelectionListener( lsDef );
     wSchema.addSelectionListener( lsDef );
     wTable.addSelectionListener( lsDef );
     wPartField.addSelectionListener( lsDef );
@@ -1235,6 +1258,11 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     wlBatch.setEnabled( enableBatch );
     wBatch.setEnabled( enableBatch );
 
+    // The background batch writers only insert batches into a single table
+    boolean enableBatchWriters = useBatch && !usePartitioning && !isTableNameInField;
+    wlBatchWriters.setEnabled( enableBatchWriters );
+    wBatchWriters.setEnabled( enableBatchWriters );
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled( specifyFields );
     wGetFields.setEnabled( specifyFields );
@@ -1282,6 +1310,7 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     wBatch.setSelection( input.useBatchUpdate() );
 
     wCommit.setText( input.getCommitSize() );
+    wBatchWriters.setText( Const.NVL( input.getBatchWriters(), "" ) );
 
     wUsePart.setSelection( input.isPartitioningEnabled() );
     wPartDaily.setSelection( input.isPartitioningDaily() );
@@ -1333,6 +1362,7 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     info.setTruncateTable( wTruncate.getSelection() );
     info.setIgnoreErrors( wIgnore.getSelection() );
     info.setUseBatchUpdate( wBatch.getSelection() );
+    info.setBatchWriters( wBatchWriters.getText() );
     info.setPartitioningEnabled( wUsePart.getSelection() );
     info.setPartitioningField( wPartField.getText() );
     info.setPartitioningDaily( wPartDaily.getSelection() );
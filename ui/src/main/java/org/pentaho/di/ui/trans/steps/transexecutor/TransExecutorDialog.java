@@ -104,6 +104,8 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Label wlParallelExecutions;
+  private TextVar wParallelExecutions;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -443,6 +445,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     wGroupSize.setText( Const.NVL( transExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( transExecutorMeta.getGroupTime(), "" ) );
     wGroupField.setText( Const.NVL( transExecutorMeta.getGroupField(), "" ) );
+    wParallelExecutions.setText( Const.NVL( transExecutorMeta.getParallelExecutions(), "" ) );
 
     wExecutionResultTarget.setText( transExecutorMeta.getExecutionResultTargetStepMeta() == null ? ""
       : transExecutorMeta.getExecutionResultTargetStepMeta().getName() );
@@ -710,6 +713,27 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Parallel executions
+    //
+    wlParallelExecutions = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlParallelExecutions );
+    wlParallelExecutions.setText( BaseMessages.getString( PKG, "TransExecutorDialog.ParallelExecutions.Label" ) );
+    wlParallelExecutions.setToolTipText(
+      BaseMessages.getString( PKG, "TransExecutorDialog.ParallelExecutions.Tooltip" ) );
+    FormData fdlParallelExecutions = new FormData();
+    fdlParallelExecutions.top = new FormAttachment( wGroupTime, 10 );
+    fdlParallelExecutions.left = new FormAttachment( 0, 0 );
+    wlParallelExecutions.setLayoutData( fdlParallelExecutions );
+
+    wParallelExecutions = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelExecutions );
+    wParallelExecutions.addModifyListener( lsMod );
+    FormData fdParallelExecutions = new FormData();
+    fdParallelExecutions.width = 250;
+    fdParallelExecutions.top = new FormAttachment( wlParallelExecutions, 5 );
+    fdParallelExecutions.left = new FormAttachment( 0, 0 );
+    wParallelExecutions.setLayoutData( fdParallelExecutions );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1084,6 +1108,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     transExecutorMeta.setGroupSize( wGroupSize.getText() );
     transExecutorMeta.setGroupField( wGroupField.getText() );
     transExecutorMeta.setGroupTime( wGroupTime.getText() );
+    transExecutorMeta.setParallelExecutions( wParallelExecutions.getText() );
 
     transExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     transExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );
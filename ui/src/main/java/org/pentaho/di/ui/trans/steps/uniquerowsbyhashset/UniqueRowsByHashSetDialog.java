@@ -79,6 +79,18 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
   private TextVar wErrorDesc;
   private FormData fdlErrorDesc, fdErrorDesc;
 
+  private Label wlHashKeys;
+  private Button wHashKeys;
+  private FormData fdlHashKeys, fdHashKeys;
+
+  private Label wlMemoryLimit;
+  private Text wMemoryLimit;
+  private FormData fdlMemoryLimit, fdMemoryLimit;
+
+  private Label wlDirectory;
+  private TextVar wDirectory;
+  private FormData fdlDirectory, fdDirectory;
+
   private Group wSettings;
   private FormData fdSettings;
 
@@ -209,6 +221,64 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     fdErrorDesc.right = new FormAttachment( 100, 0 );
     wErrorDesc.setLayoutData( fdErrorDesc );
 
+    wlHashKeys = new Label( wSettings, SWT.RIGHT );
+    wlHashKeys.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.HashKeys.Label" ) );
+    props.setLook( wlHashKeys );
+    fdlHashKeys = new FormData();
+    fdlHashKeys.left = new FormAttachment( 0, 0 );
+    fdlHashKeys.top = new FormAttachment( wErrorDesc, margin );
+    fdlHashKeys.right = new FormAttachment( middle, -margin );
+    wlHashKeys.setLayoutData( fdlHashKeys );
+
+    wHashKeys = new Button( wSettings, SWT.CHECK );
+    props.setLook( wHashKeys );
+    wHashKeys.setToolTipText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.HashKeys.ToolTip", Const.CR ) );
+    fdHashKeys = new FormData();
+    fdHashKeys.left = new FormAttachment( middle, 0 );
+    fdHashKeys.top = new FormAttachment( wErrorDesc, margin );
+    wHashKeys.setLayoutData( fdHashKeys );
+    wHashKeys.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setHashKeys();
+      }
+    } );
+
+    wlMemoryLimit = new Label( wSettings, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.MemoryLimit.Label" ) );
+    props.setLook( wlMemoryLimit );
+    fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.top = new FormAttachment( wHashKeys, margin );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new Text( wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.MemoryLimit.ToolTip" ) );
+    wMemoryLimit.addModifyListener( lsMod );
+    fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wHashKeys, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
+    wlDirectory = new Label( wSettings, SWT.RIGHT );
+    wlDirectory.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.Directory.Label" ) );
+    props.setLook( wlDirectory );
+    fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment( 0, 0 );
+    fdlDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    fdlDirectory.right = new FormAttachment( middle, -margin );
+    wlDirectory.setLayoutData( fdlDirectory );
+    wDirectory = new TextVar( transMeta, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wDirectory );
+    wDirectory.addModifyListener( lsMod );
+    fdDirectory = new FormData();
+    fdDirectory.left = new FormAttachment( middle, 0 );
+    fdDirectory.top = new FormAttachment( wMemoryLimit, margin );
+    fdDirectory.right = new FormAttachment( 100, 0 );
+    wDirectory.setLayoutData( fdDirectory );
+
     fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, margin );
     fdSettings.top = new FormAttachment( wStepname, margin );
@@ -320,6 +390,7 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
 
     getData();
     setErrorDesc();
+    setHashKeys();
     input.setChanged( changed );
 
     shell.open();
@@ -336,6 +407,13 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     wErrorDesc.setEnabled( wRejectDuplicateRow.getSelection() );
   }
 
+  private void setHashKeys() {
+    wlMemoryLimit.setEnabled( wHashKeys.getSelection() );
+    wMemoryLimit.setEnabled( wHashKeys.getSelection() );
+    wlDirectory.setEnabled( wHashKeys.getSelection() );
+    wDirectory.setEnabled( wHashKeys.getSelection() );
+  }
+
   protected void setComboBoxes() {
     // Something was changed in the row.
     //
@@ -362,6 +440,11 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     if ( input.getErrorDescription() != null ) {
       wErrorDesc.setText( input.getErrorDescription() );
     }
+    wHashKeys.setSelection( input.isHashKeys() );
+    wMemoryLimit.setText( String.valueOf( input.getMemoryLimit() ) );
+    if ( input.getDirectory() != null ) {
+      wDirectory.setText( input.getDirectory() );
+    }
     for ( int i = 0; i < input.getCompareFields().length; i++ ) {
       TableItem item = wFields.table.getItem( i );
       if ( input.getCompareFields()[i] != null ) {
@@ -399,6 +482,9 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     input.setStoreValues( wStoreValues.getSelection() );
     input.setRejectDuplicateRow( wRejectDuplicateRow.getSelection() );
     input.setErrorDescription( wErrorDesc.getText() );
+    input.setHashKeys( wHashKeys.getSelection() );
+    input.setMemoryLimit( Const.toInt( wMemoryLimit.getText(), 0 ) );
+    input.setDirectory( wDirectory.getText() );
     dispose();
   }
 